@@ -294,6 +294,11 @@ public final class FreeCol {
          */
         String localeArg = null;
         String locationArg = null;
+        for (String arg : args) {
+            if ("--lazy-messages".equals(arg)) {
+                Messages.setCompileLazily(true);
+            }
+        }
         for (int index = 0; index < args.length - 1; index++) {
             if ("--default-locale".equals(args[index])) {
                 localeArg = args[++index];
@@ -355,6 +360,9 @@ public final class FreeCol {
                           .withArgName(Messages.message("cli.arg.locale"))
                           .hasArg()
                           .create());
+        options.addOption(OptionBuilder.withLongOpt("lazy-messages")
+                          .withDescription(Messages.message("cli.lazy-messages"))
+                          .create());
         options.addOption(OptionBuilder.withLongOpt("no-memory-check")
                           .withDescription(Messages.message("cli.no-memory-check"))
                           .create());
@@ -0,0 +1,482 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.freecol.common.model.Building;
+import net.sf.freecol.common.model.Colony;
+import net.sf.freecol.common.model.Europe;
+import net.sf.freecol.common.model.FreeColGameObject;
+import net.sf.freecol.common.model.GoodsType;
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.TypeCountMap;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.UnitType;
+import net.sf.freecol.common.model.WorkLocation;
+
+
+/**
+ * Statistics about the units and colonies of the client player, for
+ * the report panels.
+ *
+ * The input handler tells this index about every object it updates
+ * or removes.  Those objects are only marked here, and the units and
+ * colonies they affect are brought up to date when the statistics are
+ * next read, so opening a report does not have to walk every unit and
+ * every work location of the player.
+ */
+public class EmpireStatistics {
+
+    /**
+     * The recorded state of one unit.
+     */
+    private static class UnitEntry {
+
+        /** The type of the unit. */
+        public final UnitType type;
+
+        /**
+         * Where the unit is counted: its settlement, Europe, its tile,
+         * or failing those its location.
+         */
+        public final Location location;
+
+        /** The colony the unit is working in or at, if any. */
+        public final Colony colony;
+
+        /** Is this a naval unit? */
+        public final boolean naval;
+
+        /** Is this an offensive land unit? */
+        public final boolean military;
+
+
+        public UnitEntry(Unit unit, Location location) {
+            this.type = unit.getType();
+            this.location = location;
+            this.colony = (location instanceof Colony) ? (Colony) location
+                : null;
+            this.naval = unit.isNaval();
+            this.military = !naval && unit.isOffensiveUnit();
+        }
+    }
+
+    /**
+     * Statistics for one colony.
+     */
+    public static class ColonyStatistics {
+
+        /** The number of units working in the colony, by type. */
+        private final TypeCountMap<UnitType> unitCount
+            = new TypeCountMap<UnitType>();
+
+        /** The types of the working units the colony could train. */
+        private final Set<UnitType> canTrain = new HashSet<UnitType>();
+
+        /**
+         * The expertise of the experts in the colony that are not
+         * working in their expert field.
+         */
+        private final Set<GoodsType> misusedExpertise
+            = new HashSet<GoodsType>();
+
+        /** The net production of the colony, by goods type. */
+        private final TypeCountMap<GoodsType> netProduction
+            = new TypeCountMap<GoodsType>();
+
+        /**
+         * The net production of the colony adjusted for the build
+         * queues, by goods type.
+         */
+        private final TypeCountMap<GoodsType> adjustedNetProduction
+            = new TypeCountMap<GoodsType>();
+
+
+        private ColonyStatistics(Colony colony) {
+            for (Unit unit : colony.getUnitList()) {
+                UnitType type = unit.getType();
+                unitCount.incrementCount(type, 1);
+                if (colony.canTrain(type)) canTrain.add(type);
+                GoodsType expertise = type.getExpertProduction();
+                if (expertise == null || unit.getSkillLevel() <= 0) continue;
+                if (unit.getLocation() instanceof Building) {
+                    if (((Building) unit.getLocation()).getGoodsOutputType()
+                        != expertise) misusedExpertise.add(expertise);
+                } else if (expertise != unit.getWorkType()) {
+                    misusedExpertise.add(expertise);
+                }
+            }
+            for (GoodsType goodsType
+                     : colony.getSpecification().getGoodsTypeList()) {
+                int amount = colony.getNetProductionOf(goodsType);
+                if (amount != 0) netProduction.incrementCount(goodsType, amount);
+                amount = colony.getAdjustedNetProductionOf(goodsType);
+                if (amount != 0) {
+                    adjustedNetProduction.incrementCount(goodsType, amount);
+                }
+            }
+        }
+
+        /**
+         * Gets the number of units of a given type working in the colony.
+         *
+         * @param type The <code>UnitType</code> to count.
+         * @return The number of units of that type.
+         */
+        public int getUnitCount(UnitType type) {
+            return unitCount.getCount(type);
+        }
+
+        /**
+         * Could the colony train a type of unit working in it?
+         *
+         * @param type The <code>UnitType</code> to check.
+         * @return True if a unit of that type works in the colony and
+         *     the colony can train it.
+         */
+        public boolean canTrain(UnitType type) {
+            return canTrain.contains(type);
+        }
+
+        /**
+         * Does the colony have an expert in a goods type that is
+         * working at something else?
+         *
+         * @param goodsType The <code>GoodsType</code> of the expertise.
+         * @return True if an expert is misused.
+         */
+        public boolean hasMisusedExpert(GoodsType goodsType) {
+            return misusedExpertise.contains(goodsType);
+        }
+
+        /**
+         * Gets the net production of a type of goods.
+         *
+         * @param goodsType The <code>GoodsType</code> to check.
+         * @return The net production.
+         * @see Colony#getNetProductionOf
+         */
+        public int getNetProductionOf(GoodsType goodsType) {
+            return netProduction.getCount(goodsType);
+        }
+
+        /**
+         * Gets the net production of a type of goods, adjusted for
+         * the build queues.
+         *
+         * @param goodsType The <code>GoodsType</code> to check.
+         * @return The adjusted net production.
+         * @see Colony#getAdjustedNetProductionOf
+         */
+        public int getAdjustedNetProductionOf(GoodsType goodsType) {
+            return adjustedNetProduction.getCount(goodsType);
+        }
+    }
+
+
+    /** The player to collect statistics for. */
+    private final Player player;
+
+    /** The recorded state of each unit of the player. */
+    private final Map<Unit, UnitEntry> units
+        = new LinkedHashMap<Unit, UnitEntry>();
+
+    /** Units that may have changed since they were recorded. */
+    private final Set<Unit> dirtyUnits = new LinkedHashSet<Unit>();
+
+    /** The statistics of each colony that is up to date. */
+    private final Map<Colony, ColonyStatistics> colonies
+        = new HashMap<Colony, ColonyStatistics>();
+
+    /** The number of units by type. */
+    private final TypeCountMap<UnitType> unitCount
+        = new TypeCountMap<UnitType>();
+
+    /** The number of units by type and location. */
+    private final Map<UnitType, Map<Location, Integer>> locationCount
+        = new HashMap<UnitType, Map<Location, Integer>>();
+
+    /** The naval units. */
+    private final Set<Unit> navalUnits = new LinkedHashSet<Unit>();
+
+    /** The offensive land units. */
+    private final Set<Unit> militaryUnits = new LinkedHashSet<Unit>();
+
+    /** Must all the units be recorded again? */
+    private boolean stale = true;
+
+
+    /**
+     * Creates statistics for a player.
+     *
+     * @param player The <code>Player</code> to collect statistics for.
+     */
+    public EmpireStatistics(Player player) {
+        this.player = player;
+    }
+
+
+    /**
+     * Gets the player these statistics are for.
+     *
+     * @return The <code>Player</code>.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Notes that an object has been updated.
+     *
+     * @param fcgo The <code>FreeColGameObject</code> that was updated.
+     */
+    public synchronized void update(FreeColGameObject fcgo) {
+        if (fcgo instanceof Unit) {
+            markUnit((Unit) fcgo);
+        } else if (fcgo instanceof Tile) {
+            Tile tile = (Tile) fcgo;
+            if (tile.getColony() != null) markColony(tile.getColony());
+            for (Unit u : tile.getUnitList()) markUnit(u);
+        } else if (fcgo instanceof Colony) {
+            markColony((Colony) fcgo);
+        } else if (fcgo instanceof WorkLocation) {
+            markColony(((WorkLocation) fcgo).getColony());
+        } else if (fcgo instanceof Europe) {
+            for (Unit u : ((Europe) fcgo).getUnitList()) markUnit(u);
+        }
+    }
+
+    /**
+     * Notes that an object has been removed.
+     *
+     * @param fcgo The <code>FreeColGameObject</code> that was removed.
+     */
+    public synchronized void remove(FreeColGameObject fcgo) {
+        if (fcgo instanceof Unit) {
+            Unit unit = (Unit) fcgo;
+            dirtyUnits.remove(unit);
+            removeEntry(unit);
+        } else if (fcgo instanceof Colony) {
+            colonies.remove((Colony) fcgo);
+        }
+    }
+
+    /**
+     * Notes the start of a new turn, which changes the production of
+     * every colony.
+     */
+    public synchronized void newTurn() {
+        colonies.clear();
+    }
+
+    /**
+     * Marks a unit, and any units it carries, as possibly changed.
+     *
+     * @param unit The <code>Unit</code> to mark.
+     */
+    private void markUnit(Unit unit) {
+        dirtyUnits.add(unit);
+        UnitEntry entry = units.get(unit);
+        if (entry != null && entry.colony != null) colonies.remove(entry.colony);
+        Colony colony = unit.getColony();
+        if (colony != null) colonies.remove(colony);
+        for (Unit u : unit.getUnitList()) markUnit(u);
+    }
+
+    /**
+     * Marks a colony, and the units in and at it, as possibly changed.
+     *
+     * @param colony The <code>Colony</code> to mark.
+     */
+    private void markColony(Colony colony) {
+        colonies.remove(colony);
+        for (Unit u : colony.getUnitList()) dirtyUnits.add(u);
+        for (Unit u : colony.getTile().getUnitList()) markUnit(u);
+    }
+
+    /**
+     * Gets the location a unit is counted at.
+     *
+     * @param unit The <code>Unit</code> to check.
+     * @return The settlement, Europe or tile the unit is at, failing
+     *     which its location.
+     */
+    private Location getCountedLocation(Unit unit) {
+        Location location = unit.getLocation();
+        return (location == null) ? null
+            : (location.getSettlement() != null) ? location.getSettlement()
+            : (unit.isInEurope()) ? player.getEurope()
+            : (location.getTile() != null) ? location.getTile()
+            : location;
+    }
+
+    /**
+     * Records a unit.
+     *
+     * @param unit The <code>Unit</code> to record.
+     */
+    private void addEntry(Unit unit) {
+        UnitEntry entry = new UnitEntry(unit, getCountedLocation(unit));
+        units.put(unit, entry);
+        count(entry, 1);
+        if (entry.naval) navalUnits.add(unit);
+        if (entry.military) militaryUnits.add(unit);
+    }
+
+    /**
+     * Forgets a unit.
+     *
+     * @param unit The <code>Unit</code> to forget.
+     */
+    private void removeEntry(Unit unit) {
+        UnitEntry entry = units.remove(unit);
+        if (entry == null) return;
+        count(entry, -1);
+        navalUnits.remove(unit);
+        militaryUnits.remove(unit);
+        if (entry.colony != null) colonies.remove(entry.colony);
+    }
+
+    /**
+     * Adds a recorded unit to, or subtracts it from, the counts.
+     *
+     * @param entry The <code>UnitEntry</code> to count.
+     * @param number The number to add.
+     */
+    private void count(UnitEntry entry, int number) {
+        unitCount.incrementCount(entry.type, number);
+        if (entry.location == null) return;
+        Map<Location, Integer> locations = locationCount.get(entry.type);
+        if (locations == null) {
+            locations = new HashMap<Location, Integer>();
+            locationCount.put(entry.type, locations);
+        }
+        Integer count = locations.get(entry.location);
+        int n = (count == null) ? number : count.intValue() + number;
+        if (n == 0) {
+            locations.remove(entry.location);
+        } else {
+            locations.put(entry.location, n);
+        }
+    }
+
+    /**
+     * Brings the unit records up to date.
+     */
+    private void refresh() {
+        if (!stale) {
+            for (Unit unit : dirtyUnits) {
+                removeEntry(unit);
+                if (!unit.isDisposed() && player.owns(unit)) addEntry(unit);
+            }
+            dirtyUnits.clear();
+            // Catch any unit that arrived without us hearing of it.
+            stale = units.size() != player.getNumberOfUnits();
+        }
+        if (stale) {
+            units.clear();
+            dirtyUnits.clear();
+            unitCount.clear();
+            locationCount.clear();
+            navalUnits.clear();
+            militaryUnits.clear();
+            Iterator<Unit> unitIterator = player.getUnitIterator();
+            while (unitIterator.hasNext()) addEntry(unitIterator.next());
+            stale = false;
+        }
+    }
+
+    /**
+     * Gets the number of units of each type.
+     *
+     * @return A new <code>TypeCountMap</code> of unit counts.
+     */
+    public synchronized TypeCountMap<UnitType> getUnitCounts() {
+        refresh();
+        TypeCountMap<UnitType> result = new TypeCountMap<UnitType>();
+        result.add(unitCount);
+        return result;
+    }
+
+    /**
+     * Gets the number of units of each type at each location.  Units
+     * are counted at their settlement, in Europe, or at their tile.
+     *
+     * @return A new map of unit counts by type and location.
+     */
+    public synchronized Map<UnitType, Map<Location, Integer>> getLocationCounts() {
+        refresh();
+        Map<UnitType, Map<Location, Integer>> result
+            = new HashMap<UnitType, Map<Location, Integer>>();
+        for (Map.Entry<UnitType, Map<Location, Integer>> e
+                 : locationCount.entrySet()) {
+            if (e.getValue().isEmpty()) continue;
+            result.put(e.getKey(),
+                       new HashMap<Location, Integer>(e.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the naval units of the player.
+     *
+     * @return A list of naval <code>Unit</code>s.
+     */
+    public synchronized List<Unit> getNavalUnits() {
+        refresh();
+        return new ArrayList<Unit>(navalUnits);
+    }
+
+    /**
+     * Gets the offensive land units of the player.
+     *
+     * @return A list of offensive land <code>Unit</code>s.
+     */
+    public synchronized List<Unit> getMilitaryUnits() {
+        refresh();
+        return new ArrayList<Unit>(militaryUnits);
+    }
+
+    /**
+     * Gets the statistics for a colony.
+     *
+     * @param colony The <code>Colony</code> to get statistics for.
+     * @return The <code>ColonyStatistics</code> for the colony.
+     */
+    public synchronized ColonyStatistics getColonyStatistics(Colony colony) {
+        ColonyStatistics cs = colonies.get(colony);
+        if (cs == null) {
+            cs = new ColonyStatistics(colony);
+            colonies.put(colony, cs);
+        }
+        return cs;
+    }
+}
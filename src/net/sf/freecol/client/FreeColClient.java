@@ -98,6 +98,9 @@ public final class FreeColClient {
     /** The player "owning" this client. */
     private Player player;
 
+    /** Statistics about the player, for the reports. */
+    private EmpireStatistics empireStatistics = null;
+
 
     /**
      * Indicates if the game has started, has nothing to do with
@@ -411,6 +414,16 @@ public final class FreeColClient {
         return player;
     }
 
+    /**
+     * Gets the statistics about the player that uses this client.
+     *
+     * @return The <code>EmpireStatistics</code> for the player, or
+     *     null if there is no player yet.
+     */
+    public EmpireStatistics getEmpireStatistics() {
+        return empireStatistics;
+    }
+
 
     /**
      * Gets the controller that will be used before the game has been started.
@@ -609,6 +622,8 @@ public final class FreeColClient {
      */
     public void setMyPlayer(Player player) {
         this.player = player;
+        this.empireStatistics = (player == null) ? null
+            : new EmpireStatistics(player);
     }
 
     /**
@@ -23,8 +23,9 @@ package net.sf.freecol.client.control;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -42,16 +43,18 @@ import net.sf.freecol.client.gui.panel.LoadingSavegameDialog;
 import net.sf.freecol.common.FreeColException;
 import net.sf.freecol.common.ServerInfo;
 import net.sf.freecol.common.io.FreeColDirectories;
-import net.sf.freecol.common.io.FreeColModFile;
 import net.sf.freecol.common.io.FreeColSavegameFile;
 import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.NationOptions.Advantages;
 import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Settlement;
 import net.sf.freecol.common.model.Specification;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.networking.Connection;
 import net.sf.freecol.common.networking.DOMMessage;
+import net.sf.freecol.common.networking.GetMapChunkMessage;
 import net.sf.freecol.common.networking.LoginMessage;
 import net.sf.freecol.common.networking.NoRouteToServerException;
 import net.sf.freecol.common.option.OptionGroup;
@@ -153,28 +156,9 @@ public final class ConnectController {
      * @param specification The <code>Specification</code> to load into.
      */
     private void loadModFragments(Specification specification) {
-        boolean loadedMod = false;
-        for (FreeColModFile f : freeColClient.getClientOptions()
-                 .getActiveMods()) {
-            InputStream sis = null;
-            try {
-                sis = f.getSpecificationInputStream();
-            } catch (IOException ioe) {
-                logger.log(Level.WARNING, "IO error in mod fragment "
-                    + f.getId(), ioe);
-            }
-            if (sis != null) {
-                try {
-                    specification.loadFragment(sis);
-                    loadedMod = true;
-                    logger.info("Loaded mod fragment " + f.getId());
-                } catch (RuntimeException rte) {
-                    logger.log(Level.WARNING, "Parse error in mod fragment "
-                        + f.getId(), rte);
-                }
-            }
-        }
-        if (loadedMod) { // Update actions in case new ones loaded.
+        if (specification.loadMods(freeColClient.getClientOptions()
+                .getActiveMods())) {
+            // Update actions in case new ones loaded.
             freeColClient.updateActions();
         }
     }
@@ -321,6 +305,7 @@ public final class ConnectController {
             } else {
                 gui.setSelectedTile(entryTile, false);
             }
+            loadMapChunks(game, player, entryTile);
         }
 
         // All done.
@@ -328,6 +313,77 @@ public final class ConnectController {
         return true;
     }
 
+    /**
+     * Fetches the rest of the map after logging in to a running game.
+     *
+     * The login message only carries the skeleton of the map, so the
+     * explored tiles are fetched in chunks on a separate thread,
+     * nearest to the player's settlements and units first, and the
+     * map is redrawn as each chunk arrives.
+     *
+     * @param game The <code>Game</code> that was joined.
+     * @param player The client <code>Player</code>.
+     * @param entryTile The entry <code>Tile</code> of the player, or null.
+     */
+    private void loadMapChunks(final Game game, final Player player,
+                               Tile entryTile) {
+        final Map map = game.getMap();
+        if (map == null) return;
+
+        List<Tile> focus = new ArrayList<Tile>();
+        if (entryTile != null) focus.add(entryTile);
+        for (Settlement settlement : player.getSettlements()) {
+            focus.add(settlement.getTile());
+        }
+        for (Unit unit : player.getUnits()) {
+            if (unit.getTile() != null) focus.add(unit.getTile());
+        }
+
+        // Chunks as {x, y, distance to the nearest focus tile}.
+        final int size = GetMapChunkMessage.CHUNK_SIZE;
+        final List<int[]> chunks = new ArrayList<int[]>();
+        for (int y = 0; y < map.getHeight(); y += size) {
+            for (int x = 0; x < map.getWidth(); x += size) {
+                Tile center = map.getTile(Math.min(x + size/2, map.getWidth()-1),
+                    Math.min(y + size/2, map.getHeight()-1));
+                int distance = Integer.MAX_VALUE;
+                for (Tile t : focus) {
+                    distance = Math.min(distance, t.getDistanceTo(center));
+                }
+                chunks.add(new int[] { x, y, distance });
+            }
+        }
+        Collections.sort(chunks, new Comparator<int[]>() {
+                public int compare(int[] c1, int[] c2) {
+                    return (c1[2] < c2[2]) ? -1 : (c1[2] > c2[2]) ? 1 : 0;
+                }
+            });
+
+        Thread thread = new Thread(FreeCol.CLIENT_THREAD + "MapChunks") {
+                public void run() {
+                    for (int[] c : chunks) {
+                        if (freeColClient.getGame() != game) return;
+                        Element chunk = freeColClient.askServer()
+                            .getMapChunk(c[0], c[1], size, size);
+                        if (chunk == null) {
+                            logger.warning("Failed to fetch map chunk at "
+                                + c[0] + "," + c[1]);
+                            continue;
+                        }
+                        freeColClient.getInGameInputHandler()
+                            .mapChunk(map, chunk);
+                        SwingUtilities.invokeLater(new Runnable() {
+                                public void run() {
+                                    gui.refresh();
+                                }
+                            });
+                    }
+                }
+            };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Reconnects to the server.
      */
@@ -47,6 +47,7 @@ import net.sf.freecol.common.model.AbstractUnit;
 import net.sf.freecol.common.model.BuildableType;
 import net.sf.freecol.common.model.Building;
 import net.sf.freecol.common.model.Colony;
+import net.sf.freecol.common.model.ColonyOptimizer;
 import net.sf.freecol.common.model.ColonyTile;
 import net.sf.freecol.common.model.ColonyWas;
 import net.sf.freecol.common.model.DiplomaticTrade;
@@ -398,6 +399,11 @@ public final class InGameController implements NetworkConstants {
      * Follows a trade route, doing load/unload actions, moving the unit,
      * and updating the stop and destination.
      *
+     * The server follows trade routes itself at the start of the turn
+     * and when a route is assigned, so this only needs to handle what
+     * it leaves for the player: stops in Europe, warehouse overflows
+     * and moves that need a response.
+     *
      * @param unit The <code>Unit</code> on the route.
      * @return True if the unit should keep moving, which can only
      *     happen if the trade route is found to be broken and the
@@ -855,6 +861,21 @@ public final class InGameController implements NetworkConstants {
                 }
             } else {
                 if (path.getDirection() != null) {
+                    PathNode reached = executePath(unit, path);
+                    if (reached != null) {
+                        // Continue from where the server stopped, or
+                        // give up if the unit is out of moves or was
+                        // interrupted before a move it could make.
+                        path = reached;
+                        if (unit.isDisposed()
+                            || unit.getMovesLeft() <= 0) return false;
+                        if (path.next != null
+                            && path.next.getTile() != null
+                            && unit.isQuietMove(path.next.getTile())) {
+                            return false;
+                        }
+                        continue;
+                    }
                     if (!moveDirection(unit, path.getDirection(), false)) {
                         return false;
                     }
@@ -868,6 +889,43 @@ public final class InGameController implements NetworkConstants {
         return true;
     }
 
+    /**
+     * Asks the server to move a unit along the quiet moves at the
+     * start of a path in one go, rather than one step at a time.
+     *
+     * @param unit The <code>Unit</code> to move.
+     * @param path The <code>PathNode</code> of the first move.
+     * @return The <code>PathNode</code> the unit has moved to, or null
+     *     if it did not move and the first move should be made with
+     *     <code>moveDirection</code>.
+     */
+    private PathNode executePath(Unit unit, PathNode path) {
+        // Carriers pick up sentries when leaving a colony.
+        if (unit.canCarryUnits() && unit.getColony() != null) return null;
+
+        List<Direction> directions = new ArrayList<Direction>();
+        for (PathNode p = path; p != null; p = p.next) {
+            if (p.getTile() == null || p.getDirection() == null) break;
+            directions.add(p.getDirection());
+        }
+        if (directions.size() < 2 || !unit.isQuietMove(path.getTile())) {
+            return null;
+        }
+
+        final Tile start = unit.getTile();
+        UnitWas unitWas = new UnitWas(unit);
+        if (!askServer().executePath(unit, directions)) return null;
+        unitWas.fireChanges();
+        if (unit.isDisposed()) return path;
+        if (unit.getTile() == start) return null;
+        moveFinish(unit);
+
+        for (PathNode p = path; p != null; p = p.next) {
+            if (p.getTile() == unit.getTile()) return p;
+        }
+        return null;
+    }
+
     /**
      * Load some goods onto a carrier.
      *
@@ -1369,8 +1427,12 @@ public final class InGameController implements NetworkConstants {
      */
     public void assignTradeRoute(Unit unit, TradeRoute tradeRoute) {
         if (askServer().assignTradeRoute(unit, tradeRoute)) {
+            // The server follows the route as far as it can, only
+            // continue if it left something for us to do.
             if ((tradeRoute = unit.getTradeRoute()) != null
-                && freeColClient.currentPlayerIsMyPlayer()) {
+                && freeColClient.currentPlayerIsMyPlayer()
+                && unit.getMovesLeft() > 0
+                && unit.getState() != UnitState.SKIPPED) {
                 moveToDestination(unit);
             }
         }
@@ -2757,7 +2819,15 @@ public final class InGameController implements NetworkConstants {
         UnitWas unitWas = new UnitWas(unit);
         if (!askServer().move(unit, direction)) return;
         unitWas.fireChanges();
+        moveFinish(unit);
+    }
 
+    /**
+     * Updates the active unit and the GUI after a unit has moved.
+     *
+     * @param unit The <code>Unit</code> that moved.
+     */
+    private void moveFinish(Unit unit) {
         final Tile tile = unit.getTile();
 
         // Perform a short pause on an active unit's last move if
@@ -3359,6 +3429,65 @@ public final class InGameController implements NetworkConstants {
         }
     }
 
+    /**
+     * Rearranges the workers of a colony to maximize its production.
+     * Teachers stay where they are.  Units are only moved into work
+     * locations that have room, and if the remaining moves are blocked
+     * by each other one of the units is put outside the colony first.
+     *
+     * @param colony The <code>Colony</code> to optimize.
+     */
+    public void optimizeColony(Colony colony) {
+        if (!requireOurTurn()) return;
+
+        List<Unit> units = new ArrayList<Unit>();
+        for (WorkLocation wl : colony.getAllWorkLocations()) {
+            if (wl.canTeach()) continue;
+            units.addAll(wl.getUnitList());
+        }
+        java.util.Map<Unit, ColonyOptimizer.Job> assignment
+            = new ColonyOptimizer(colony).optimize(units);
+        if (assignment.isEmpty()) return;
+
+        List<Unit> pending = new ArrayList<Unit>();
+        for (Unit u : units) {
+            ColonyOptimizer.Job job = assignment.get(u);
+            if (job == null) {
+                putOutsideColony(u);
+            } else if (u.getLocation() != job.getWorkLocation()) {
+                pending.add(u);
+            }
+        }
+        while (!pending.isEmpty()) {
+            boolean moved = false;
+            for (Unit u : new ArrayList<Unit>(pending)) {
+                WorkLocation wl = assignment.get(u).getWorkLocation();
+                if (wl.canAdd(u)) {
+                    work(u, wl);
+                    pending.remove(u);
+                    moved = true;
+                }
+            }
+            if (!moved) {
+                // All moves are blocked, break the cycle.
+                Unit u = pending.get(0);
+                ColonyWas colonyWas = new ColonyWas(colony);
+                UnitWas unitWas = new UnitWas(u);
+                if (!askServer().putOutsideColony(u)) break;
+                colonyWas.fireChanges();
+                unitWas.fireChanges();
+            }
+        }
+        for (Entry<Unit, ColonyOptimizer.Job> e : assignment.entrySet()) {
+            Unit u = e.getKey();
+            GoodsType goodsType = e.getValue().getGoodsType();
+            if (u.getLocation() == e.getValue().getWorkLocation()
+                && u.getWorkType() != goodsType) {
+                changeWorkType(u, goodsType);
+            }
+        }
+    }
+
     /**
      * Pays the tax arrears on this type of goods.
      *
@@ -30,6 +30,7 @@ import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
 
 import net.sf.freecol.client.ClientOptions;
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.GUI;
 import net.sf.freecol.client.gui.i18n.Messages;
@@ -47,6 +48,7 @@ import net.sf.freecol.common.model.Goods;
 import net.sf.freecol.common.model.HistoryEvent;
 import net.sf.freecol.common.model.IndianNationType;
 import net.sf.freecol.common.model.LastSale;
+import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.ModelMessage;
 import net.sf.freecol.common.model.Modifier;
 import net.sf.freecol.common.model.Monarch.MonarchAction;
@@ -97,6 +99,8 @@ public final class InGameInputHandler extends InputHandler {
 
     /**
      * Deals with incoming messages that have just been received.
+     * Synchronized, so that map chunks are not applied while a
+     * message is being handled, see {@link #mapChunk}.
      *
      * @param connection The <code>Connection</code> the message was received
      *            on.
@@ -104,7 +108,8 @@ public final class InGameInputHandler extends InputHandler {
      * @return The reply.
      */
     @Override
-    public Element handle(Connection connection, Element element) {
+    public synchronized Element handle(Connection connection,
+                                       Element element) {
         if (element == null) {
             throw new RuntimeException("Received empty (null) message!");
         }
@@ -212,6 +217,20 @@ public final class InGameInputHandler extends InputHandler {
         return null;
     }
 
+    /**
+     * Applies a chunk of the map fetched after joining a game.  This
+     * holds the same lock as the handling of messages from the server,
+     * so a chunk written before a tile was updated can not overwrite
+     * the update.
+     *
+     * @param map The <code>Map</code> the chunk belongs to.
+     * @param chunk The "map"-<code>Element</code> holding the tiles.
+     */
+    public synchronized void mapChunk(Map map, Element chunk) {
+        if (getGame() == null || getGame().getMap() != map) return;
+        map.readChunkFromXMLElement(chunk);
+    }
+
     /**
      * Handles an "update"-message.
      *
@@ -233,6 +252,8 @@ public final class InGameInputHandler extends InputHandler {
      * @param nodeList The list of nodes from the message
      */
     private void updateGameObjects(NodeList nodeList) {
+        EmpireStatistics statistics
+            = getFreeColClient().getEmpireStatistics();
         for (int i = 0; i < nodeList.getLength(); i++) {
             Element element = (Element) nodeList.item(i);
             String id = element.getAttribute(FreeColObject.ID_ATTRIBUTE);
@@ -241,6 +262,7 @@ public final class InGameInputHandler extends InputHandler {
                 logger.warning("Update object not present in client: " + id);
             } else {
                 fcgo.readFromXMLElement(element);
+                if (statistics != null) statistics.update(fcgo);
             }
         }
     }
@@ -256,6 +278,8 @@ public final class InGameInputHandler extends InputHandler {
         String ds = removeElement.getAttribute("divert");
         FreeColGameObject divert = game.getFreeColGameObject(ds);
         Player player = getFreeColClient().getMyPlayer();
+        EmpireStatistics statistics
+            = getFreeColClient().getEmpireStatistics();
         NodeList nodeList = removeElement.getChildNodes();
         for (int i = 0; i < nodeList.getLength(); i++) {
             Element element = (Element) nodeList.item(i);
@@ -277,6 +301,7 @@ public final class InGameInputHandler extends InputHandler {
                     // Temporary hack until we have real containers.
                     player.removeUnit(u);
                 }
+                if (statistics != null) statistics.remove(fcgo);
 
                 // Do just the low level dispose that removes
                 // reference to this object in the client.  The other
@@ -492,6 +517,8 @@ public final class InGameInputHandler extends InputHandler {
             logger.warning("Bad turn in newTurn: " + turnString);
         }
         Turn currTurn = game.getTurn();
+        EmpireStatistics statistics = getFreeColClient().getEmpireStatistics();
+        if (statistics != null) statistics.newTurn();
 
         // plays an alert sound on each new turn if the option for it is turned on
         if (getFreeColClient().getClientOptions().getBoolean("model.option.audioAlerts")) {
@@ -944,6 +971,7 @@ public final class InGameInputHandler extends InputHandler {
      */
     public Element disposeUnits(Element element) {
         Game game = getGame();
+        EmpireStatistics statistics = getFreeColClient().getEmpireStatistics();
         NodeList nodes = element.getChildNodes();
 
         for (int i = 0; i < nodes.getLength(); i++) {
@@ -956,6 +984,7 @@ public final class InGameInputHandler extends InputHandler {
             if (u == null) {
                 logger.warning("Object is not a unit");
             } else {
+                if (statistics != null) statistics.remove(u);
                 u.dispose();
             }
         }
@@ -130,9 +130,8 @@ public final class CanvasMouseListener implements ActionListener, MouseListener
                 if (tile != null) {
                     Unit unit = mapViewer.getActiveUnit();
                     if (unit != null && unit.getTile() != tile) {
-                        PathNode dragPath = unit.findPath(tile);
                         mapViewer.startGoto();
-                        mapViewer.setGotoPath(dragPath);
+                        mapViewer.setGotoTarget(tile);
                     }
                 }
             } else if (e.getButton() == MouseEvent.BUTTON1) {
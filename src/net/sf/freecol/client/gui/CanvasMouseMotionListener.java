@@ -24,7 +24,6 @@ import java.awt.event.MouseMotionListener;
 import java.util.logging.Logger;
 
 import net.sf.freecol.client.FreeColClient;
-import net.sf.freecol.common.model.PathNode;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
 
@@ -72,14 +71,8 @@ public final class CanvasMouseMotionListener extends AbstractCanvasListener impl
 
             if (tile != null) {
                 if (lastTile != tile) {
-                    Unit active = mapViewer.getActiveUnit();
                     lastTile = tile;
-                    if (active != null && active.getTile() != tile) {
-                        PathNode dragPath = active.findPath(tile);
-                        mapViewer.setGotoPath(dragPath);
-                    } else {
-                        mapViewer.setGotoPath(null);
-                    }
+                    mapViewer.setGotoTarget(tile);
                 }
             }
         }
@@ -105,12 +98,7 @@ public final class CanvasMouseMotionListener extends AbstractCanvasListener impl
                 } else {
                     if (lastTile != tile) {
                         lastTile = tile;
-                        if (active.getTile() != tile) {
-                            PathNode dragPath = active.findPath(tile);
-                            mapViewer.setGotoPath(dragPath);
-                        } else {
-                            mapViewer.setGotoPath(null);
-                        }
+                        mapViewer.setGotoTarget(tile);
                     }
                 }
             } else {
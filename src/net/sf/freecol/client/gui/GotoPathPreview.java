@@ -0,0 +1,252 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.client.gui;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.freecol.FreeCol;
+import net.sf.freecol.common.model.FreeColObject;
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+
+
+/**
+ * Finds the paths shown while the player chooses where a unit should
+ * go, without blocking the event dispatch thread.
+ *
+ * When a unit is selected, the quickest paths from its tile to every
+ * tile it can reach are found once in the background, and later
+ * requests for a path are answered by walking back through that
+ * tree.  Paths the tree can not answer, such as those ending in Europe
+ * or at an occupied tile, are searched for individually, also in the
+ * background.  A new request replaces any older pending request from
+ * the same listener, and selecting another unit abandons the tree.
+ */
+public final class GotoPathPreview {
+
+    private static final Logger logger = Logger.getLogger(GotoPathPreview.class.getName());
+
+    /**
+     * Receives the paths found by the preview on the event dispatch
+     * thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a path has been found.
+         *
+         * @param unit The <code>Unit</code> the path is for.
+         * @param end The <code>Location</code> the path should lead to.
+         * @param path The <code>PathNode</code> found, or null if the
+         *     end can not be reached.
+         */
+        public void pathFound(Unit unit, Location end, PathNode path);
+    }
+
+    /** The thread the searches are run on. */
+    private final ExecutorService executor
+        = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, FreeCol.CLIENT_THREAD
+                                          + "GotoPathPreview");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    /** The unit the tree is for. */
+    private Unit unit = null;
+
+    /** The tile the unit was on when the tree was started. */
+    private Tile tile = null;
+
+    /** The moves the unit had left when the tree was started. */
+    private int movesLeft = -1;
+
+    /** The shortest path tree of the unit, by location id. */
+    private Future<HashMap<String, PathNode>> tree = null;
+
+    /** The pending requests, by listener. */
+    private final HashMap<Listener, Future<?>> pending
+        = new HashMap<Listener, Future<?>>();
+
+
+    /**
+     * Starts building the shortest path tree for a unit, unless the
+     * current tree is still valid for it.
+     *
+     * @param unit The <code>Unit</code> to build the tree for, or null
+     *     to just abandon the current tree.
+     */
+    public synchronized void setUnit(final Unit unit) {
+        if (unit == this.unit && unit != null
+            && unit.getLocation() == tile
+            && unit.getMovesLeft() == movesLeft) return;
+
+        if (tree != null) tree.cancel(true);
+        tree = null;
+        this.unit = unit;
+        tile = null;
+        movesLeft = -1;
+        if (unit == null || !(unit.getLocation() instanceof Tile)) return;
+
+        tile = unit.getTile();
+        movesLeft = unit.getMovesLeft();
+        tree = executor.submit(new Callable<HashMap<String, PathNode>>() {
+                public HashMap<String, PathNode> call() {
+                    return unit.getGame().getMap()
+                        .searchAll(unit, FreeColObject.INFINITY);
+                }
+            });
+    }
+
+    /**
+     * Requests a path for a unit.  The listener is called immediately
+     * if the tree has already been built, and otherwise once the path
+     * has been found, unless the request has been replaced by then.
+     *
+     * @param unit The <code>Unit</code> to find a path for.
+     * @param end The <code>Location</code> the path should lead to.
+     * @param listener The <code>Listener</code> to return the path to.
+     */
+    public synchronized void requestPath(Unit unit, Location end,
+                                         Listener listener) {
+        cancel(listener);
+        setUnit(unit);
+        if (tree != null && tree.isDone()) {
+            listener.pathFound(unit, end, getPath(unit, end));
+        } else {
+            Request request = new Request(unit, end, listener);
+            request.future = executor.submit(request);
+            pending.put(listener, request.future);
+        }
+    }
+
+    /**
+     * A request for a path that is being searched for in the background.
+     */
+    private class Request implements Runnable {
+
+        private final Unit unit;
+        private final Location end;
+        private final Listener listener;
+        private Future<?> future = null;
+        private PathNode path = null;
+
+        public Request(Unit unit, Location end, Listener listener) {
+            this.unit = unit;
+            this.end = end;
+            this.listener = listener;
+        }
+
+        public void run() {
+            path = getPath(unit, end);
+            if (Thread.currentThread().isInterrupted()) return;
+            SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        finish(Request.this);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Hands the path of a request to its listener, unless the request
+     * has been replaced or cancelled.
+     *
+     * @param request The <code>Request</code> to finish.
+     */
+    private void finish(Request request) {
+        synchronized (this) {
+            if (pending.get(request.listener) != request.future) return;
+            pending.remove(request.listener);
+        }
+        request.listener.pathFound(request.unit, request.end, request.path);
+    }
+
+    /**
+     * Cancels the pending request of a listener.
+     *
+     * @param listener The <code>Listener</code> to cancel for.
+     */
+    public synchronized void cancel(Listener listener) {
+        Future<?> old = pending.remove(listener);
+        if (old != null) old.cancel(true);
+    }
+
+    /**
+     * Gets a path for a unit, from the tree if it has been built for
+     * the unit, and otherwise by searching directly.
+     *
+     * @param unit The <code>Unit</code> to find a path for.
+     * @param end The <code>Location</code> the path should lead to.
+     * @return A <code>PathNode</code> from the unit location to the
+     *     end, or null if none is found.
+     */
+    public PathNode getPath(Unit unit, Location end) {
+        if (end == null || unit.getLocation() == null) return null;
+        HashMap<String, PathNode> nodes = null;
+        synchronized (this) {
+            if (unit == this.unit && tree != null && tree.isDone()
+                && !tree.isCancelled()
+                && unit.getLocation() == tile
+                && unit.getMovesLeft() == movesLeft) {
+                try {
+                    nodes = tree.get();
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Path tree failed for "
+                        + unit, e);
+                }
+            }
+        }
+        PathNode node = (nodes == null) ? null : nodes.get(end.getId());
+        if (node == null) {
+            try {
+                return unit.findPath(end);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Path preview failed for " + unit
+                    + " to " + end, e);
+                return null;
+            }
+        }
+
+        // Copy the branch of the tree, which is shared with other paths.
+        PathNode path = null;
+        for (; node != null; node = node.previous) {
+            PathNode p = new PathNode(node.getLocation(),
+                node.getMovesLeft(), node.getTurns(), node.isOnCarrier(),
+                null, path);
+            if (path != null) path.previous = p;
+            path = p;
+        }
+        return path;
+    }
+}
@@ -73,6 +73,7 @@ import net.sf.freecol.common.model.Europe;
 import net.sf.freecol.common.model.Game;
 import net.sf.freecol.common.model.GameOptions;
 import net.sf.freecol.common.model.IndianSettlement;
+import net.sf.freecol.common.model.Location;
 import net.sf.freecol.common.model.LostCityRumour;
 import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Map.Direction;
@@ -138,6 +139,35 @@ public final class MapViewer {
 
     private PathNode gotoPath = null;
     private boolean gotoStarted = false;
+
+    /** The tile the goto path should lead to. */
+    private Tile gotoTarget = null;
+
+    /** Finds the paths to display in the background. */
+    private final GotoPathPreview pathPreview = new GotoPathPreview();
+
+    /** Receives the path of the active unit to its destination. */
+    private final GotoPathPreview.Listener currentPathListener
+        = new GotoPathPreview.Listener() {
+                public void pathFound(Unit unit, Location end,
+                                      PathNode path) {
+                    if (unit != activeUnit
+                        || end != unit.getDestination()) return;
+                    currentPath = path;
+                    gui.refresh();
+                }
+            };
+
+    /** Receives the path of the active unit to the goto target. */
+    private final GotoPathPreview.Listener gotoPathListener
+        = new GotoPathPreview.Listener() {
+                public void pathFound(Unit unit, Location end,
+                                      PathNode path) {
+                    if (unit != activeUnit || end != gotoTarget
+                        || !gotoStarted) return;
+                    setGotoPath(path);
+                }
+            };
     // Helper variables for displaying the map.
     private int tileHeight, tileWidth, halfHeight, halfWidth,
     topSpace,
@@ -1008,6 +1038,14 @@ public final class MapViewer {
     *        or <code>null</code> if no path should be drawn.
     */
     public PathNode getGotoPath() {
+        // Do not wait for the preview if the goto is being completed.
+        if (gotoTarget != null && activeUnit != null
+            && activeUnit.getTile() != gotoTarget
+            && (gotoPath == null
+                || gotoPath.getLastNode().getTile() != gotoTarget)) {
+            pathPreview.cancel(gotoPathListener);
+            gotoPath = pathPreview.getPath(activeUnit, gotoTarget);
+        }
         return gotoPath;
     }
 
@@ -1312,6 +1350,7 @@ public final class MapViewer {
         }
 
         this.activeUnit = activeUnit;
+        pathPreview.setUnit(activeUnit);
 
         /*
           This is quite old code, but it is interfering with some
@@ -1393,6 +1432,23 @@ public final class MapViewer {
         gui.refresh();
     }
 
+    /**
+     * Sets the tile the goto path should lead to.  The path is found
+     * in the background and displayed when ready.
+     *
+     * @param tile The target <code>Tile</code>, or null for no path.
+     */
+    public void setGotoTarget(Tile tile) {
+        gotoTarget = tile;
+        if (tile == null || activeUnit == null
+            || activeUnit.getTile() == tile) {
+            pathPreview.cancel(gotoPathListener);
+            setGotoPath(null);
+        } else {
+            pathPreview.requestPath(activeUnit, tile, gotoPathListener);
+        }
+    }
+
 
     /**
      * Sets the focus of the map but offset to the left or right so that
@@ -1546,6 +1602,8 @@ public final class MapViewer {
     public void startGoto() {
         gotoStarted = true;
         gui.getCanvas().setCursor((java.awt.Cursor) UIManager.get("cursor.go"));
+        gotoTarget = null;
+        pathPreview.cancel(gotoPathListener);
         setGotoPath(null);
     }
 
@@ -1563,21 +1621,29 @@ public final class MapViewer {
      */
     public void stopGoto() {
         gui.getCanvas().setCursor(null);
+        gotoTarget = null;
+        pathPreview.cancel(gotoPathListener);
         setGotoPath(null);
         updateGotoPathForActiveUnit();
         gotoStarted = false;
     }
 
     /**
-     * Sets the path of the active unit to display it.
+     * Sets the path of the active unit to display it.  The path is
+     * found in the background and displayed when ready.
      */
     public void updateGotoPathForActiveUnit() {
-        currentPath = (activeUnit == null
-                       || activeUnit.getDestination() == null
-                       || Map.isSameLocation(activeUnit.getLocation(),
-                                             activeUnit.getDestination()))
-            ? null
-            : activeUnit.findPath(activeUnit.getDestination());
+        if (activeUnit == null
+            || activeUnit.getDestination() == null
+            || Map.isSameLocation(activeUnit.getLocation(),
+                                  activeUnit.getDestination())) {
+            pathPreview.cancel(currentPathListener);
+            currentPath = null;
+        } else {
+            currentPath = null;
+            pathPreview.requestPath(activeUnit, activeUnit.getDestination(),
+                                    currentPathListener);
+        }
     }
 
     /**
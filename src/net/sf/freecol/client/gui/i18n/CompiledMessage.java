@@ -0,0 +1,375 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.client.gui.i18n;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import net.sf.freecol.common.model.StringTemplate;
+import net.sf.freecol.common.model.StringTemplate.TemplateType;
+
+
+/**
+ * A message that has been parsed into its literal text and choice
+ * formats, so that it can be formatted without scanning the raw
+ * message again.  See {@link Messages} for the syntax.
+ */
+class CompiledMessage {
+
+    private static final Logger logger = Logger.getLogger(CompiledMessage.class.getName());
+
+    /** The raw message. */
+    private final String text;
+
+    /** The parts of the message, either literal strings or choices. */
+    private final List<Object> parts = new ArrayList<Object>();
+
+    /** Does this message contain any choice formats? */
+    private boolean hasChoices = false;
+
+
+    /**
+     * A choice format.
+     */
+    private static class Choice {
+
+        /** The tag selecting the <code>Selector</code> to use. */
+        public String tag;
+
+        /** The selector, which may be empty or a variable. */
+        public String selector;
+
+        /** The raw choices, used when no key matches. */
+        public String choices;
+
+        /** The keys of the choices, null for a choice without a key. */
+        public final List<String> keys = new ArrayList<String>();
+
+        /** The values of the choices. */
+        public final List<CompiledMessage> values
+            = new ArrayList<CompiledMessage>();
+    }
+
+
+    /**
+     * Compiles a message.
+     *
+     * @param text The raw message.
+     */
+    public CompiledMessage(String text) {
+        this.text = text;
+        parse();
+    }
+
+
+    /**
+     * Gets the raw message.
+     *
+     * @return The raw message.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Does this message contain choice formats?  If not, the raw
+     * message can be used as it is.
+     *
+     * @return True if there are choice formats.
+     */
+    public boolean hasChoices() {
+        return hasChoices;
+    }
+
+    /**
+     * Parses the raw message into parts.  Choice formats that are
+     * malformed are dropped, as is the rest of the message after
+     * mismatched brackets.
+     */
+    private void parse() {
+        int highWaterMark = 0;
+        int openChoice;
+        while ((openChoice = text.indexOf("{{", highWaterMark)) >= 0) {
+            if (openChoice > highWaterMark) {
+                parts.add(text.substring(highWaterMark, openChoice));
+            }
+            int closeChoice = findMatchingBracket(text, openChoice + 2);
+            if (closeChoice < 0) {
+                logger.warning("Mismatched brackets: " + text);
+                return;
+            }
+            highWaterMark = closeChoice + 2;
+            int colonIndex = text.indexOf(":", openChoice + 2);
+            if (colonIndex < 0 || colonIndex > closeChoice) {
+                logger.warning("No tag found: " + text);
+                continue;
+            }
+            int pipeIndex = text.indexOf("|", colonIndex + 1);
+            if (pipeIndex < 0 || pipeIndex > closeChoice) {
+                logger.warning("No choices found: " + text);
+                continue;
+            }
+            Choice choice = new Choice();
+            choice.tag = text.substring(openChoice + 2, colonIndex);
+            choice.selector = text.substring(colonIndex + 1, pipeIndex);
+            choice.choices = text.substring(pipeIndex + 1, closeChoice);
+            int start = pipeIndex + 1;
+            while (start <= closeChoice) {
+                int end = findChoiceEnd(text, start, closeChoice);
+                int equals = text.indexOf("=", start);
+                int nested = text.indexOf("{{", start);
+                if (equals < 0 || equals > end
+                    || (nested >= 0 && nested < equals)) {
+                    choice.keys.add(null);
+                    choice.values.add(new CompiledMessage(text.substring(start, end)));
+                } else {
+                    choice.keys.add(text.substring(start, equals));
+                    choice.values.add(new CompiledMessage(text.substring(equals + 1, end)));
+                }
+                start = end + 1;
+            }
+            parts.add(choice);
+            hasChoices = true;
+        }
+        if (highWaterMark < text.length()) {
+            parts.add(text.substring(highWaterMark));
+        }
+    }
+
+    /**
+     * Finds the end of a choice, that is the next pipe character
+     * outside any nested choice format, or the end of the choices.
+     *
+     * @param input The raw message.
+     * @param start The start of the choice.
+     * @param closeChoice The end of the choices.
+     * @return The index of the end of the choice.
+     */
+    private static int findChoiceEnd(String input, int start, int closeChoice) {
+        int index = start;
+        while (index < closeChoice) {
+            if (input.startsWith("{{", index)) {
+                int close = findMatchingBracket(input, index + 2);
+                if (close < 0 || close >= closeChoice) return closeChoice;
+                index = close + 2;
+            } else if (input.charAt(index) == '|') {
+                return index;
+            } else {
+                index++;
+            }
+        }
+        return closeChoice;
+    }
+
+    /**
+     * Return the index of the matching pair of brackets, or -1 if
+     * none is found.
+     *
+     * @param input a <code>String</code> value
+     * @param start an <code>int</code> value
+     * @return an <code>int</code> value
+     */
+    private static int findMatchingBracket(String input, int start) {
+        char last = 0;
+        int level = 0;
+        for (int index = start; index < input.length(); index++) {
+            switch(input.charAt(index)) {
+            case '{':
+                if (last == '{') {
+                    last = 0;
+                    level++;
+                } else {
+                    last = '{';
+                }
+                break;
+            case '}':
+                if (last == '}') {
+                    if (level == 0) {
+                        return index - 1;
+                    } else {
+                        last = 0;
+                        level--;
+                    }
+                } else {
+                    last = '}';
+                }
+                break;
+            }
+        }
+        // found no matching bracket
+        return -1;
+    }
+
+    /**
+     * Formats this message, replacing all choice formats.
+     *
+     * @param template The <code>StringTemplate</code> to take the
+     *     selector values from, which may be null.
+     * @return The formatted message.
+     */
+    public String format(StringTemplate template) {
+        if (!hasChoices && parts.size() == 1) return (String)parts.get(0);
+        StringBuilder result = new StringBuilder(text.length());
+        format(template, result);
+        return result.toString();
+    }
+
+    /**
+     * Formats this message, replacing all choice formats.  Variables
+     * outside of the choice selectors are left in place.
+     *
+     * @param template The <code>StringTemplate</code> to take the
+     *     selector values from, which may be null.
+     * @param result The <code>StringBuilder</code> to append to.
+     */
+    public void format(StringTemplate template, StringBuilder result) {
+        if (!hasChoices) {
+            for (Object part : parts) result.append((String)part);
+            return;
+        }
+        for (Object part : parts) {
+            if (part instanceof String) {
+                result.append((String)part);
+            } else {
+                format((Choice)part, template, result);
+            }
+        }
+    }
+
+    /**
+     * Formats a choice format.
+     *
+     * @param choice The <code>Choice</code> to format.
+     * @param template The <code>StringTemplate</code> to take the
+     *     selector values from, which may be null.
+     * @param result The <code>StringBuilder</code> to append to.
+     */
+    private void format(Choice choice, StringTemplate template,
+                        StringBuilder result) {
+        String selector = choice.selector;
+        if ("".equals(selector)) {
+            selector = "default";
+        } else if (selector.startsWith("%") && selector.endsWith("%")) {
+            if (template == null) {
+                selector = "default";
+            } else {
+                StringTemplate replacement = template.getReplacement(selector);
+                if (replacement == null) {
+                    logger.warning("Failed to find replacement for " + selector);
+                    return;
+                }
+                selector = Messages.message(replacement);
+                Selector taggedSelector = Messages.getSelector(choice.tag);
+                if (taggedSelector != null) {
+                    selector = taggedSelector.getKey(selector, text);
+                }
+            }
+        } else {
+            Selector taggedSelector = Messages.getSelector(choice.tag);
+            if (taggedSelector != null) {
+                selector = taggedSelector.getKey(selector, text);
+            }
+        }
+
+        int index = choice.keys.indexOf(selector);
+        if (index >= 0) {
+            choice.values.get(index).format(template, result);
+            return;
+        }
+
+        // Key not found, the choice might be a key itself.
+        String otherKey = choice.choices;
+        if (otherKey.startsWith("%") && otherKey.endsWith("%")
+            && template != null) {
+            StringTemplate replacement = template.getReplacement(otherKey);
+            if (replacement == null) {
+                logger.warning("Failed to find replacement for " + otherKey);
+            } else if (replacement.getTemplateType() == TemplateType.KEY) {
+                formatChoice(replacement.getId(), selector, template, result);
+            } else {
+                logger.warning("Choice substitution attempted, but template type was "
+                               + replacement.getTemplateType());
+            }
+        } else if (Messages.containsKey(otherKey)) {
+            formatChoice(otherKey, selector, template, result);
+        } else {
+            logger.warning("Unknown key or untagged choice: '" + otherKey
+                           + "', selector was '" + selector
+                           + "', trying 'default' instead");
+            index = choice.keys.indexOf("default");
+            if (index >= 0) {
+                choice.values.get(index).format(template, result);
+            } else {
+                logger.warning("No default choice found.");
+            }
+        }
+    }
+
+    /**
+     * Formats the choice with a given key from another message.
+     *
+     * @param messageId The id of the other message.
+     * @param key The key of the choice.
+     * @param template The <code>StringTemplate</code> to take the
+     *     selector values from, which may be null.
+     * @param result The <code>StringBuilder</code> to append to.
+     */
+    private static void formatChoice(String messageId, String key,
+                                     StringTemplate template,
+                                     StringBuilder result) {
+        CompiledMessage other = Messages.getCompiledMessage(messageId);
+        if (other == null) {
+            logger.warning("Failed to find message " + messageId);
+        } else if (!other.hasChoices()) {
+            other.format(template, result);
+        } else {
+            CompiledMessage value = other.findChoice(key);
+            if (value == null) {
+                logger.warning("Failed to find key " + key
+                               + " in replacement " + messageId);
+            } else {
+                value.format(template, result);
+            }
+        }
+    }
+
+    /**
+     * Finds the value of the first choice with a given key, in the
+     * order the choices appear in the raw message.
+     *
+     * @param key The key to look for.
+     * @return The value of the choice, or null if not found.
+     */
+    private CompiledMessage findChoice(String key) {
+        for (Object part : parts) {
+            if (!(part instanceof Choice)) continue;
+            Choice choice = (Choice)part;
+            for (int i = 0; i < choice.keys.size(); i++) {
+                if (key.equals(choice.keys.get(i))) {
+                    return choice.values.get(i);
+                }
+                CompiledMessage value = choice.values.get(i).findChoice(key);
+                if (value != null) return value;
+            }
+        }
+        return null;
+    }
+}
@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.swing.UIManager;
@@ -81,6 +82,11 @@ import net.sf.freecol.common.option.Option;
  *   key3={{tag:|acc=viljaa|default={{plural:%amount%|one=ruoka|other=ruokaa|default=Ruoka}}}}
  * </pre>
  *
+ * <p>Messages are compiled into {@link CompiledMessage}s when the
+ * message bundle is set, so that the choice formats are only parsed
+ * once.  With {@link #setCompileLazily} they are compiled when first
+ * used instead.</p>
+ *
  * <p>This class is NOT thread-safe. (CO: I cannot find any place that
  * really has a problem)</p>
  *
@@ -101,6 +107,17 @@ public class Messages {
     private static Map<String, String> messageBundle =
         new HashMap<String, String>();
 
+    /**
+     * The compiled messages, by key.  Messages are compiled when the
+     * bundle is set, or on first use if compiling lazily.  Messages
+     * are read from several threads, so this map is concurrent.
+     */
+    private static volatile Map<String, CompiledMessage> compiledBundle =
+        new ConcurrentHashMap<String, CompiledMessage>();
+
+    /** Compile the messages on first use rather than up front? */
+    private static boolean compileLazily = false;
+
     /**
      * A map with Selector values and the tag keys used in choice
      * formats.
@@ -121,10 +138,40 @@ public class Messages {
      * @param tag a <code>String</code> value
      * @return a <code>Selector</code> value
      */
-    private static Selector getSelector(String tag) {
+    static Selector getSelector(String tag) {
         return tagMap.get(tag.toLowerCase(Locale.US));
     }
 
+    /**
+     * Sets whether messages are compiled when first used rather than
+     * when the message bundle is set, which makes for a faster start.
+     *
+     * @param lazy True to compile messages lazily.
+     */
+    public static void setCompileLazily(boolean lazy) {
+        compileLazily = lazy;
+    }
+
+    /**
+     * Gets the compiled form of a message, compiling it if needed.
+     *
+     * @param messageId The key of the message.
+     * @return The <code>CompiledMessage</code>, or null if there is
+     *     no such message.
+     */
+    static CompiledMessage getCompiledMessage(String messageId) {
+        final Map<String, CompiledMessage> compiledMessages = compiledBundle;
+        CompiledMessage compiled = compiledMessages.get(messageId);
+        if (compiled == null) {
+            // Two threads may compile the same message, which is harmless.
+            String message = messageBundle.get(messageId);
+            if (message == null) return null;
+            compiled = new CompiledMessage(message);
+            compiledMessages.put(messageId, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Set the grammatical number rule.
      *
@@ -160,6 +207,7 @@ public class Messages {
     private static void setMessageBundle(String language, String country, String variant) {
 
         messageBundle = new HashMap<String, String>();
+        compiledBundle = new ConcurrentHashMap<String, CompiledMessage>();
         List<String> filenames = FreeColModFile.getFileNames(FILE_PREFIX, FILE_SUFFIX, language, country, variant);
 
         if (!NumberRules.isInitialized()) {
@@ -210,6 +258,10 @@ public class Messages {
                 }
             }
         }
+
+        if (!compileLazily) {
+            for (String key : messageBundle.keySet()) getCompiledMessage(key);
+        }
     }
 
     /**
@@ -229,224 +281,15 @@ public class Messages {
         }
 
         // return key as value if there is no mapping found
-        String message = messageBundle.get(messageId);
+        CompiledMessage message = getCompiledMessage(messageId);
         if (message == null) {
             return messageId;
         }
-        // otherwise replace variables in the text
-        message = replaceChoices(message, null);
-        return message.trim();
-    }
-
-
-    /**
-     * Replace all choice formats in the given string, using keys and
-     * replacement values from the given template, which may be null.
-     *
-     * A choice format is enclosed in double brackets and consists of
-     * a tag, followed by a colon, followed by an optional selector,
-     * followed by a pipe character, followed by one or several
-     * choices separated by pipe characters. If there is only one
-     * choice, it must be a message id or a variable. Otherwise, each
-     * choice consists of a key and a value separated by an assignment
-     * character. Example: "{{tag:selector|key1=val1|key2=val2}}".
-     *
-     * @param input a <code>String</code> value
-     * @param template a <code>StringTemplate</code> value
-     * @return a <code>String</code> value
-     */
-    private static String replaceChoices(String input, StringTemplate template) {
-        int openChoice = 0;
-        int closeChoice = 0;
-        int highWaterMark = 0;
-        StringBuilder result = new StringBuilder();
-        while ((openChoice = input.indexOf("{{", highWaterMark)) >= 0) {
-            result.append(input.substring(highWaterMark, openChoice));
-            closeChoice = findMatchingBracket(input, openChoice + 2);
-            if (closeChoice < 0) {
-                // no closing brackets found
-                logger.warning("Mismatched brackets: " + input);
-                return result.toString();
-            }
-            highWaterMark = closeChoice + 2;
-            int colonIndex = input.indexOf(":", openChoice + 2);
-            if (colonIndex < 0 || colonIndex > closeChoice) {
-                logger.warning("No tag found: " + input);
-                continue;
-            }
-            String tag = input.substring(openChoice + 2, colonIndex);
-            int pipeIndex = input.indexOf("|", colonIndex + 1);
-            if (pipeIndex < 0 || pipeIndex > closeChoice) {
-                logger.warning("No choices found: " + input);
-                continue;
-            }
-            String selector = input.substring(colonIndex + 1, pipeIndex);
-            if ("".equals(selector)) {
-                selector = "default";
-            } else if (selector.startsWith("%") && selector.endsWith("%")) {
-                if (template == null) {
-                    selector = "default";
-                } else {
-                    StringTemplate replacement = template.getReplacement(selector);
-                    if (replacement == null) {
-                        logger.warning("Failed to find replacement for " + selector);
-                        continue;
-                    } else {
-                        selector = message(replacement);
-                        Selector taggedSelector = getSelector(tag);
-                        if (taggedSelector != null) {
-                            selector = taggedSelector.getKey(selector, input);
-                        }
-                    }
-                }
-            } else {
-                Selector taggedSelector = getSelector(tag);
-                if (taggedSelector != null) {
-                    selector = taggedSelector.getKey(selector, input);
-                }
-            }
-            int keyIndex = input.indexOf(selector, pipeIndex + 1);
-            if (keyIndex < 0 || keyIndex > closeChoice) {
-                // key not found, choice might be a key itself
-                String otherKey = input.substring(pipeIndex + 1, closeChoice);
-                if (otherKey.startsWith("%") && otherKey.endsWith("%")
-                    && template != null) {
-                    StringTemplate replacement = template.getReplacement(otherKey);
-                    if (replacement == null) {
-                        logger.warning("Failed to find replacement for " + otherKey);
-                        continue;
-                    } else if (replacement.getTemplateType() == TemplateType.KEY) {
-                        otherKey = messageBundle.get(replacement.getId());
-                        keyIndex = otherKey.indexOf("{{");
-                        if (keyIndex < 0) {
-                            // not a choice format
-                            result.append(otherKey);
-                        } else {
-                            keyIndex = otherKey.indexOf(selector, keyIndex);
-                            if (keyIndex < 0) {
-                                logger.warning("Failed to find key " + selector + " in replacement "
-                                               + replacement.getId());
-                                continue;
-                            } else {
-                                result.append(getChoice(otherKey, selector));
-                            }
-                        }
-                    } else {
-                        logger.warning("Choice substitution attempted, but template type was "
-                                       + replacement.getTemplateType());
-                        continue;
-                    }
-                } else if (containsKey(otherKey)) {
-                    otherKey = getChoice(messageBundle.get(otherKey), selector);
-                    result.append(otherKey);
-                } else {
-                    logger.warning("Unknown key or untagged choice: '" + otherKey
-                                   + "', selector was '" + selector
-                                   + "', trying 'default' instead");
-                    int defaultStart = otherKey.indexOf("default=");
-                    if (defaultStart >= 0) {
-                        defaultStart += 8;
-                        int defaultEnd = otherKey.indexOf('|', defaultStart);
-                        String defaultChoice;
-                        if (defaultEnd < 0) {
-                            defaultChoice = otherKey.substring(defaultStart);
-                        } else {
-                            defaultChoice = otherKey.substring(defaultStart, defaultEnd);
-                        }
-                        result.append(defaultChoice);
-                    } else {
-                        logger.warning("No default choice found.");
-                        continue;
-                    }
-                }
-            } else {
-                int start = keyIndex + selector.length() + 1;
-                int replacementIndex = input.indexOf("|", start);
-                int nextOpenIndex = input.indexOf("{{", start);
-                if (nextOpenIndex >= 0 && nextOpenIndex < replacementIndex) {
-                    replacementIndex = input.indexOf("|", findMatchingBracket(input, nextOpenIndex + 2) + 2);
-                }
-                int end = (replacementIndex < 0 || replacementIndex > closeChoice)
-                    ? closeChoice : replacementIndex;
-                String replacement = input.substring(start, end);
-                if (replacement.indexOf("{{") < 0) {
-                    result.append(replacement);
-                } else {
-                    result.append(replaceChoices(replacement, template));
-                }
-            }
-        }
-        result.append(input.substring(highWaterMark));
-        return result.toString();
-    }
-
-    /**
-     * Return the choice tagged with the given key, or null, if the
-     * given input string does not contain the key.
-     *
-     * @param input a <code>String</code> value
-     * @param key a <code>String</code> value
-     * @return a <code>String</code> value
-     */
-    private static String getChoice(String input, String key) {
-        int keyIndex = input.indexOf(key);
-        if (keyIndex < 0) {
-            return null;
-        } else {
-            int start = keyIndex + key.length() + 1;
-            int end = input.indexOf("|", start);
-            if (end < 0) {
-                end = input.indexOf("}}", start);
-                if (end < 0) {
-                    logger.warning("Failed to find end of choice for key " + key
-                                   + " in input " + input);
-                    return null;
-                }
-            }
-            return input.substring(start, end);
-        }
+        // otherwise replace choices in the text
+        return message.format(null).trim();
     }
 
 
-    /**
-     * Return the index of the matching pair of brackets, or -1 if
-     * none is found.
-     *
-     * @param input a <code>String</code> value
-     * @param start an <code>int</code> value
-     * @return an <code>int</code> value
-     */
-    private static int findMatchingBracket(String input, int start) {
-        char last = 0;
-        int level = 0;
-        for (int index = start; index < input.length(); index++) {
-            switch(input.charAt(index)) {
-            case '{':
-                if (last == '{') {
-                    last = 0;
-                    level++;
-                } else {
-                    last = '{';
-                }
-                break;
-            case '}':
-                if (last == '}') {
-                    if (level == 0) {
-                        return index - 1;
-                    } else {
-                        last = 0;
-                        level--;
-                    }
-                } else {
-                    last = '}';
-                }
-                break;
-            }
-        }
-        // found no matching bracket
-        return -1;
-    }
-
     /**
      * Localizes a StringTemplate.
      *
@@ -454,7 +297,7 @@ public class Messages {
      * @return a <code>String</code> value
      */
     public static String message(StringTemplate template) {
-        String result = "";
+        StringBuilder result = new StringBuilder();
         switch (template.getTemplateType()) {
         case LABEL:
             if (template.getReplacements() == null
@@ -462,33 +305,32 @@ public class Messages {
                 return message(template.getId());
             } else {
                 for (StringTemplate other : template.getReplacements()) {
-                    result += template.getId() + message(other);
+                    result.append(template.getId()).append(message(other));
                 }
                 if (result.length() > template.getId().length()) {
                     return result.substring(template.getId().length());
                 } else {
                     logger.warning("incorrect use of template " + template.toString());
-                    return result;
+                    return result.toString();
                 }
             }
         case TEMPLATE:
-            if (containsKey(template.getId())) {
-                result = messageBundle.get(template.getId());
-            } else if (template.getDefaultId() != null) {
-                result = messageBundle.get(template.getDefaultId());
+            CompiledMessage message = getCompiledMessage(template.getId());
+            if (message == null && template.getDefaultId() != null) {
+                message = getCompiledMessage(template.getDefaultId());
+            }
+            if (message != null) message.format(template, result);
+            for (int index = 0; index < template.getKeys().size(); index++) {
+                replaceAll(result, template.getKeys().get(index),
+                           template.getReplacements().get(index));
             }
-            result = replaceChoices(result, template);
-	    for (int index = 0; index < template.getKeys().size(); index++) {
-                result = result.replace(template.getKeys().get(index),
-                                        message(template.getReplacements().get(index)));
-	    }
-	    return result;
+            return result.toString();
         case KEY:
-            String key = messageBundle.get(template.getId());
+            CompiledMessage key = getCompiledMessage(template.getId());
             if (key == null) {
                 return template.getId();
             } else {
-                return replaceChoices(key, null);
+                return key.format(null);
             }
         case NAME:
         default:
@@ -496,6 +338,25 @@ public class Messages {
         }
     }
 
+    /**
+     * Replaces all occurrences of a variable in a message.  The
+     * replacement is only localized if the variable is present.
+     *
+     * @param result The <code>StringBuilder</code> holding the message.
+     * @param key The variable to replace.
+     * @param replacement The <code>StringTemplate</code> to replace it with.
+     */
+    private static void replaceAll(StringBuilder result, String key,
+                                   StringTemplate replacement) {
+        int index = result.indexOf(key);
+        if (index < 0) return;
+        String value = message(replacement);
+        do {
+            result.replace(index, index + key.length(), value);
+            index = result.indexOf(key, index + value.length());
+        } while (index >= 0);
+    }
+
     /**
      * Returns true if the message bundle contains the given key.
      *
@@ -819,6 +680,7 @@ public class Messages {
                     String value = line.substring(index + 1).trim()
                         .replace("\\n", "\n").replace("\\t", "\t");
                     messageBundle.put(key, value);
+                    compiledBundle.remove(key);
                     if (key.startsWith("FileChooser.")) {
                         UIManager.put(key, value);
                     }
@@ -123,7 +123,8 @@ public final class ColonyPanel extends PortPanel
         WAREHOUSE = 4,
         FILL = 5,
         COLONY_UNITS = 6,
-        SETGOODS = 7;
+        SETGOODS = 7,
+        OPTIMIZE = 8;
 
     private final JPanel netProductionPanel = new JPanel();
     private final PopulationPanel populationPanel = new PopulationPanel();
@@ -154,6 +155,8 @@ public final class ColonyPanel extends PortPanel
 
     private JButton colonyUnitsButton = new JButton(Messages.message("Colony Units"));
 
+    private JButton optimizeButton = new JButton(Messages.message("colonyPanel.optimize"));
+
     private JButton setGoodsButton = (FreeColDebugger.isInDebugMode())
         ? new JButton("Set Goods") : null;
 
@@ -298,6 +301,10 @@ public final class ColonyPanel extends PortPanel
         enterPressesWhenFocused(colonyUnitsButton);
         colonyUnitsButton.addActionListener(this);
 
+        optimizeButton.setActionCommand(String.valueOf(OPTIMIZE));
+        enterPressesWhenFocused(optimizeButton);
+        optimizeButton.addActionListener(this);
+
         if (setGoodsButton != null) {
             setGoodsButton.setActionCommand(String.valueOf(SETGOODS));
             enterPressesWhenFocused(setGoodsButton);
@@ -324,12 +331,13 @@ public final class ColonyPanel extends PortPanel
         add(outsideColonyScroll, "grow, sg, height 60:121:");
         add(warehouseScroll, "span, height 40:60:, growx");
         add(unloadButton, "span, split "
-            + Integer.toString((setGoodsButton == null) ? 6 : 7)
+            + Integer.toString((setGoodsButton == null) ? 7 : 8)
             + ", align center");
         add(fillButton);
         add(warehouseButton);
         add(buildQueueButton);
         add(colonyUnitsButton);
+        add(optimizeButton);
         if (setGoodsButton != null) add(setGoodsButton);
         add(okButton, "tag ok");
 
@@ -447,6 +455,9 @@ public final class ColonyPanel extends PortPanel
                 case COLONY_UNITS:
                 	generateColonyUnitsMenu();
                 	break;
+                case OPTIMIZE:
+                    getController().optimizeColony(colony);
+                    break;
                 case SETGOODS:
                     debugSetGoods(colony);
                     break;
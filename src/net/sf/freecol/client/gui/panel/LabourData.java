@@ -19,6 +19,7 @@
 
 package net.sf.freecol.client.gui.panel;
 
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.i18n.Messages;
 import net.sf.freecol.common.model.Ability;
@@ -397,10 +398,10 @@ public class LabourData {
             }
         }
 
-        gatherData(client.getMyPlayer());
+        gatherData(client.getMyPlayer(), client.getEmpireStatistics());
     }
 
-    private void gatherData(Player player) {
+    private void gatherData(Player player, EmpireStatistics statistics) {
         List<UnitType> labourTypes = getLabourTypes(player);
 
         Iterator<Unit> units = player.getUnitIterator();
@@ -436,7 +437,8 @@ public class LabourData {
                 for (Colony colony : player.getColonies()) {
                     LocationData data = unitData.details.containsKey(colony) ? unitData.getLocationData(colony) : null;
 
-                    int netProduction = colony.getNetProductionOf(expertProduction);
+                    int netProduction = statistics.getColonyStatistics(colony)
+                        .getNetProductionOf(expertProduction);
                     if (data != null) {
                         data.netProduction = netProduction;
                     }
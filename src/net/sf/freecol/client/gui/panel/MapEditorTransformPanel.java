@@ -257,7 +257,11 @@ public final class MapEditorTransformPanel extends FreeColPanel {
         }
 
         public void transform(Tile t) {
+            boolean wasLand = t.isLand();
             t.setType(tileType);
+            if (t.isLand() != wasLand) {
+                t.getGame().getMap().updateContiguity(t);
+            }
             t.removeLostCityRumour();
         }
     }
@@ -65,7 +65,7 @@ public final class ReportCargoPanel extends ReportUnitPanel {
     }
 
     protected void gatherData() {
-        for (Unit unit : player.getUnits()) {
+        for (Unit unit : player.getUnitList()) {
             if (unit.isCarrier()) {
                 addUnit(unit, "carriers");
             }
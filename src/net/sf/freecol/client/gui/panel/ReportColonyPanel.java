@@ -39,6 +39,7 @@ import javax.swing.SwingConstants;
 
 import net.miginfocom.swing.MigLayout;
 import net.sf.freecol.client.ClientOptions;
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.GUI;
 import net.sf.freecol.client.gui.ImageLibrary;
@@ -157,6 +158,9 @@ public final class ReportColonyPanel extends ReportPanel
         final int GOODS_PER_ROW = 10;
         final int BUILDINGS_PER_ROW = 8;
 
+        final EmpireStatistics statistics
+            = getFreeColClient().getEmpireStatistics();
+
         // Display Panel
         reportPanel.setLayout(new MigLayout("fill"));
 
@@ -207,7 +211,8 @@ public final class ReportColonyPanel extends ReportPanel
             GoodsType horses = getSpecification().getGoodsType("model.goods.horses");
             int count = 0;
             for (GoodsType goodsType : getSpecification().getGoodsTypeList()) {
-                int newValue = colony.getNetProductionOf(goodsType);
+                int newValue = statistics.getColonyStatistics(colony)
+                    .getNetProductionOf(goodsType);
                 int stockValue = colony.getGoodsCount(goodsType);
                 if (newValue != 0 || stockValue > 0) {
                     int maxProduction = 0;
@@ -363,6 +368,9 @@ public final class ReportColonyPanel extends ReportPanel
         final GoodsType foodType = spec.getPrimaryFoodType();
         final UnitType colonistType = spec.getDefaultUnitType();
         final ImageLibrary lib = getGUI().getImageLibrary();
+        final EmpireStatistics.ColonyStatistics cs
+            = getFreeColClient().getEmpireStatistics()
+            .getColonyStatistics(colony);
 
         // Assemble the fundamental facts about this colony
         final String cac = colony.getId();
@@ -380,7 +388,7 @@ public final class ReportColonyPanel extends ReportPanel
             famine = false;
             newColonist = 1;
         } else {
-            int newFood = colony.getAdjustedNetProductionOf(foodType);
+            int newFood = cs.getAdjustedNetProductionOf(foodType);
             famine = newFood < 0
                 && (colony.getGoodsCount(foodType) / -newFood) <= 3;
             newColonist = (newFood == 0) ? 0
@@ -461,7 +469,7 @@ public final class ReportColonyPanel extends ReportPanel
         final int adjustment = colony.getWarehouseCapacity()
             / GoodsContainer.CARGO_SIZE;
         for (GoodsType g : goodsTypes) {
-            int p = colony.getAdjustedNetProductionOf(g);
+            int p = cs.getAdjustedNetProductionOf(g);
             ExportData exportData = colony.getExportData(g);
             int low = exportData.getLowLevel() * adjustment;
             int high = exportData.getHighLevel() * adjustment;
@@ -736,7 +744,7 @@ public final class ReportColonyPanel extends ReportPanel
         // Field: The units the colony could make good use of.
         if (!want.isEmpty()) {
             // TODO: explain food limitations better
-            grow = Math.min(grow, colony.getNetProductionOf(foodType)
+            grow = Math.min(grow, cs.getNetProductionOf(foodType)
                 / Settlement.FOOD_PER_COLONIST);
             addUnits(want, couldWork, colony, grow);
         } else {
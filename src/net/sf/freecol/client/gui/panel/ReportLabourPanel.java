@@ -22,7 +22,6 @@ package net.sf.freecol.client.gui.panel;
 import java.awt.Color;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +29,7 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 
 import net.miginfocom.swing.MigLayout;
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.GUI;
 import net.sf.freecol.client.gui.i18n.Messages;
@@ -37,7 +37,6 @@ import net.sf.freecol.common.model.Ability;
 import net.sf.freecol.common.model.Colony;
 import net.sf.freecol.common.model.Location;
 import net.sf.freecol.common.model.TypeCountMap;
-import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.Unit.Role;
 import net.sf.freecol.common.model.UnitType;
 
@@ -62,36 +61,9 @@ public final class ReportLabourPanel extends ReportPanel {
     }
 
     public void gatherData() {
-
-        data = new HashMap<UnitType, Map<Location, Integer>>();
-        unitCount = new TypeCountMap<UnitType>();
-
-        for (Unit unit : getMyPlayer().getUnits()) {
-            UnitType type = unit.getType();
-            unitCount.incrementCount(type, 1);
-            Map<Location, Integer> unitMap = data.get(type);
-            if (unitMap == null) {
-                unitMap = new HashMap<Location, Integer>();
-                data.put(type, unitMap);
-            }
-
-            Location location = unit.getLocation();
-            if (location == null) {
-                logger.warning("Unit has null location: " + unit.toString());
-            } else if (location.getSettlement() != null) {
-                location = location.getSettlement();
-            } else if (unit.isInEurope()) {
-                location = getMyPlayer().getEurope();
-            } else if (location.getTile() != null) {
-                location = location.getTile();
-            }
-            Integer count = unitMap.get(location);
-            if (count == null) {
-                unitMap.put(location, 1);
-            } else {
-                unitMap.put(location, count + 1);
-            }
-        }
+        EmpireStatistics statistics = getFreeColClient().getEmpireStatistics();
+        data = statistics.getLocationCounts();
+        unitCount = statistics.getUnitCounts();
     }
 
     public void displayData() {
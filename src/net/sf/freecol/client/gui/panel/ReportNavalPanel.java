@@ -79,10 +79,9 @@ public final class ReportNavalPanel extends ReportUnitPanel {
     }
 
     protected void gatherData() {
-        for (Unit unit : player.getUnits()) {
-            if (unit.isNaval()) {
-                addUnit(unit, "naval");
-            }
+        for (Unit unit : getFreeColClient().getEmpireStatistics()
+                 .getNavalUnits()) {
+            addUnit(unit, "naval");
         }
     }
 
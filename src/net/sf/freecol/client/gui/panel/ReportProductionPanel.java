@@ -29,6 +29,7 @@ import javax.swing.JComboBox;
 import javax.swing.JLabel;
 
 import net.miginfocom.swing.MigLayout;
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.GUI;
 import net.sf.freecol.client.gui.i18n.Messages;
@@ -145,6 +146,8 @@ public final class ReportProductionPanel extends ReportPanel {
             }
 
 
+            EmpireStatistics statistics
+                = getFreeColClient().getEmpireStatistics();
             int[] totalProduction = new int[selectedTypes.size()];
             for (Colony colony : getSortedColonies()) {
                 // colonyButton
@@ -156,7 +159,8 @@ public final class ReportProductionPanel extends ReportPanel {
                 // production
                 for (int index = 0; index < selectedTypes.size(); index++) {
                     GoodsType goodsType = selectedTypes.get(index);
-                    int newValue = colony.getNetProductionOf(goodsType);
+                    int newValue = statistics.getColonyStatistics(colony)
+                        .getNetProductionOf(goodsType);
                     totalProduction[index] += newValue;
                     Goods goods = new Goods(colony.getGame(), colony, goodsType, newValue);
                     GoodsLabel goodsLabel = new GoodsLabel(goods, getGUI());
@@ -20,10 +20,8 @@
 package net.sf.freecol.client.gui.panel;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import javax.swing.JButton;
@@ -33,6 +31,7 @@ import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
 
 import net.miginfocom.swing.MigLayout;
+import net.sf.freecol.client.EmpireStatistics;
 import net.sf.freecol.client.FreeColClient;
 import net.sf.freecol.client.gui.GUI;
 import net.sf.freecol.client.gui.i18n.Messages;
@@ -45,7 +44,6 @@ import net.sf.freecol.common.model.ProductionInfo;
 import net.sf.freecol.common.model.Specification;
 import net.sf.freecol.common.model.StringTemplate;
 import net.sf.freecol.common.model.Tile;
-import net.sf.freecol.common.model.TypeCountMap;
 import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.UnitType;
 
@@ -61,16 +59,9 @@ public final class ReportRequirementsPanel extends ReportPanel {
     private List<Colony> colonies;
 
     /**
-     * Records the number of units indexed by colony and unit type.
+     * The statistics of the player's colonies.
      */
-    private Map<Colony, TypeCountMap<UnitType>> unitCount
-        = new HashMap<Colony, TypeCountMap<UnitType>>();
-
-    /**
-     * Records whether a colony can train a type of unit.
-     */
-    private Map<Colony, Set<UnitType>> canTrain
-        = new HashMap<Colony, Set<UnitType>>();
+    private EmpireStatistics statistics;
 
 
     /**
@@ -82,6 +73,7 @@ public final class ReportRequirementsPanel extends ReportPanel {
     public ReportRequirementsPanel(FreeColClient freeColClient, GUI gui) {
         super(freeColClient, gui, Messages.message("reportRequirementsAction.name"));
         colonies = getSortedColonies();
+        statistics = freeColClient.getEmpireStatistics();
 
         // Display Panel
 
@@ -89,20 +81,6 @@ public final class ReportRequirementsPanel extends ReportPanel {
         JTextPane textPane = getDefaultTextPane();
         StyledDocument doc = textPane.getStyledDocument();
 
-        // check which colonies can train which units
-        for (Colony colony : colonies) {
-            TypeCountMap<UnitType> newUnitCount = new TypeCountMap<UnitType>();
-            Set<UnitType> newCanTrain = new HashSet<UnitType>();
-            for (Unit unit : colony.getUnitList()) {
-                newUnitCount.incrementCount(unit.getType(), 1);
-                if (colony.canTrain(unit.getType())) {
-                    newCanTrain.add(unit.getType());
-                }
-            }
-            unitCount.put(colony, newUnitCount);
-            canTrain.put(colony, newCanTrain);
-        }
-
         for (Colony colony : colonies) {
             checkColony(colony, doc);
         }
@@ -131,6 +109,8 @@ public final class ReportRequirementsPanel extends ReportPanel {
         Set<UnitType> missingExpertWarning = new HashSet<UnitType>();
         Set<UnitType> badAssignmentWarning = new HashSet<UnitType>();
         Set<GoodsType> productionWarning = new HashSet<GoodsType>();
+        EmpireStatistics.ColonyStatistics colonyStatistics
+            = statistics.getColonyStatistics(colony);
 
         // Check if all unit requirements are met.
         for (Unit expert : colony.getUnitList()) {
@@ -146,7 +126,7 @@ public final class ReportRequirementsPanel extends ReportPanel {
             for (Unit unit : colonyTile.getUnitList()) {
                 GoodsType workType = unit.getWorkType();
                 UnitType expert = spec.getExpertForProducing(workType);
-                if (unitCount.get(colony).getCount(expert) == 0
+                if (colonyStatistics.getUnitCount(expert) == 0
                     && !missingExpertWarning.contains(expert)) {
                     addExpertWarning(doc, colony, workType, expert);
                     missingExpertWarning.add(expert);
@@ -162,7 +142,7 @@ public final class ReportRequirementsPanel extends ReportPanel {
             if (goodsType != null && expert != null
                 && !building.getUnitList().isEmpty()
                 && !missingExpertWarning.contains(expert)
-                && unitCount.get(colony).getCount(expert) == 0) {
+                && colonyStatistics.getUnitCount(expert) == 0) {
                 addExpertWarning(doc, colony, goodsType, expert);
                 missingExpertWarning.add(expert);
             }
@@ -279,22 +259,15 @@ public final class ReportRequirementsPanel extends ReportPanel {
             ArrayList<Colony> severalExperts = new ArrayList<Colony>();
             ArrayList<Colony> canTrainExperts = new ArrayList<Colony>();
             for (Colony colony : colonies) {
-                for (Unit unit : colony.getUnitList()) {
-                    GoodsType expertise = unit.getType().getExpertProduction();
-                    if ((unit.getSkillLevel() > 0) && (expertise == goodsType)) {
-                        if (unit.getLocation() instanceof Building) {
-                            if (((Building) unit.getLocation()).getGoodsOutputType() != goodsType) {
-                                misusedExperts.add(colony);
-                            }
-                        } else if (expertise != unit.getWorkType()) {
-                            misusedExperts.add(colony);
-                        }
-                    }
+                EmpireStatistics.ColonyStatistics cs
+                    = statistics.getColonyStatistics(colony);
+                if (cs.hasMisusedExpert(goodsType)) {
+                    misusedExperts.add(colony);
                 }
-                if (unitCount.get(colony).getCount(workType) > 1) {
+                if (cs.getUnitCount(workType) > 1) {
                     severalExperts.add(colony);
                 }
-                if (canTrain.get(colony).contains(workType)) {
+                if (cs.canTrain(workType)) {
                     canTrainExperts.add(colony);
                 }
             }
@@ -352,7 +325,8 @@ public final class ReportRequirementsPanel extends ReportPanel {
             ArrayList<Colony> withSurplus = new ArrayList<Colony>();
             ArrayList<Integer> theSurplus = new ArrayList<Integer>();
             for (Colony col : colonies) {
-                int amount = colony.getAdjustedNetProductionOf(input);
+                int amount = statistics.getColonyStatistics(col)
+                    .getAdjustedNetProductionOf(input);
                 if (amount > 0) {
                     withSurplus.add(col);
                     theSurplus.add(amount);
@@ -178,6 +178,15 @@ public class FreeColDataFile {
         return new BufferedInputStream(connection.getInputStream());
     }
 
+    /**
+     * Gets the file this object represents.
+     *
+     * @return The <code>File</code>.
+     */
+    protected File getFile() {
+        return file;
+    }
+
     protected URI getURI(String filename) {
         try {
             if (filename.startsWith("urn:")) {
@@ -22,6 +22,10 @@ package net.sf.freecol.common.io;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -39,6 +43,13 @@ public class FreeColModFile extends FreeColDataFile {
     public static final String MOD_DESCRIPTOR_FILE = "mod.xml";
     public static final String[] FILE_ENDINGS = new String[] {".fmd", ".zip"};
 
+    /**
+     * The hashes of the specifications read so far, by specification
+     * key, with the modification time and length of the file hashed.
+     */
+    private static final Map<String, String> digests
+        = new HashMap<String, String>();
+
     private String id;
     private String parent;
 
@@ -74,10 +85,74 @@ public class FreeColModFile extends FreeColDataFile {
      * @exception IOException if an error occurs
      */
     public Specification getSpecification() throws IOException {
-        InputStream si = getInputStream(SPECIFICATION_FILE);
-        Specification specification = new Specification(si);
-        si.close();
-        return specification;
+        return Specification.getShared(this);
+    }
+
+    /**
+     * Gets a key identifying the specification of this Mod.
+     *
+     * @return The key.
+     */
+    public String getSpecificationKey() {
+        return String.valueOf(getURI(SPECIFICATION_FILE));
+    }
+
+    /**
+     * Gets the version of the specification of this Mod, a hash of
+     * its contents and of the specification it extends.
+     *
+     * @return The version.
+     * @exception IOException if a specification can not be read.
+     */
+    public String getSpecificationVersion() throws IOException {
+        String version = getSpecificationDigest();
+        if (getParent() != null) {
+            version += "/" + new FreeColTcFile(getParent())
+                .getSpecificationVersion();
+        }
+        return version;
+    }
+
+    /**
+     * Gets the hash of the specification of this Mod, only reading
+     * the specification again if its file has changed.
+     *
+     * @return The hash.
+     * @exception IOException if the specification can not be read.
+     */
+    private String getSpecificationDigest() throws IOException {
+        File file = getFile();
+        if (file.isDirectory()) file = new File(file, SPECIFICATION_FILE);
+        String key = getSpecificationKey();
+        String stamp = file.lastModified() + "/" + file.length() + "/";
+        synchronized (digests) {
+            String cached = digests.get(key);
+            if (cached != null && cached.startsWith(stamp)) {
+                return cached.substring(stamp.length());
+            }
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new RuntimeException("No MD5 digest", nsae);
+        }
+        InputStream si = getSpecificationInputStream();
+        try {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = si.read(buffer)) > 0) digest.update(buffer, 0, n);
+        } finally {
+            si.close();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+        }
+        synchronized (digests) {
+            digests.put(key, stamp + sb.toString());
+        }
+        return sb.toString();
     }
 
     /**
@@ -1151,6 +1151,18 @@ public class Colony extends Settlement implements Nameable {
     public boolean isUnderSiege() {
         int friendlyUnits = 0;
         int enemyUnits = 0;
+        UnitIndex index = getTile().getUnitIndex();
+        if (index != null) {
+            for (Unit unit : index.getUnitsNear(getTile(), getRadius(),
+                                                getOwner())) {
+                if (unit.isDefensiveUnit()) friendlyUnits++;
+            }
+            for (Unit unit : index.getEnemiesNear(getOwner(), getTile(),
+                                                  getRadius())) {
+                if (unit.isOffensiveUnit()) enemyUnits++;
+            }
+            return enemyUnits > friendlyUnits;
+        }
         for (ColonyTile colonyTile : colonyTiles) {
             for (Unit unit : colonyTile.getWorkTile().getUnitList()) {
                 if (unit.getOwner() == getOwner()) {
@@ -1391,7 +1403,7 @@ public class Colony extends Settlement implements Nameable {
         oldSonsOfLiberty = sonsOfLiberty;
         oldTories = tories;
         sonsOfLiberty = calculateMembership(units);
-        tories = units - getMembers();
+        tories = units - calculateMembers(sonsOfLiberty, units);
     }
 
     /**
@@ -1419,8 +1431,19 @@ public class Colony extends Settlement implements Nameable {
      * Return the number of sons of liberty
      */
     public int getMembers() {
-        float result = (sonsOfLiberty * getUnitCount()) / 100f;
-        return (int)Math.floor(result);
+        return calculateMembers(sonsOfLiberty, getUnitCount());
+    }
+
+    /**
+     * Gets the number of sons of liberty for a given membership and
+     * number of colonists.
+     *
+     * @param membership The SoL membership percentage.
+     * @param units The number of colonists.
+     * @return The number of sons of liberty.
+     */
+    private static int calculateMembers(int membership, int units) {
+        return (int)Math.floor((membership * units) / 100f);
     }
 
     /**
@@ -1441,6 +1464,20 @@ public class Colony extends Settlement implements Nameable {
         return productionBonus;
     }
 
+    /**
+     * Gets the production bonus the colony would have with a given
+     * number of units, at the current liberty level.
+     *
+     * @param units The number of units.
+     * @return The production bonus.
+     * @see #updateProductionBonus
+     */
+    public int getProductionBonus(int units) {
+        int membership = calculateMembership(units);
+        return calculateProductionBonus(membership,
+            units - calculateMembers(membership, units));
+    }
+
     /**
      * Gets a string representation of the Colony. Currently this method just
      * returns the name of the <code>Colony</code>, but that may change
@@ -2086,6 +2123,20 @@ public class Colony extends Settlement implements Nameable {
      * Update the colony's production bonus.
      */
     protected void updateProductionBonus() {
+        int newBonus = calculateProductionBonus(sonsOfLiberty, tories);
+        if (productionBonus != newBonus) invalidateCache();
+        productionBonus = newBonus;
+    }
+
+    /**
+     * Calculates the production bonus for a given SoL membership and
+     * number of tories.
+     *
+     * @param membership The SoL membership percentage.
+     * @param toryCount The number of tories.
+     * @return The production bonus.
+     */
+    private int calculateProductionBonus(int membership, int toryCount) {
         final int veryBadGovernment = getSpecification()
             .getIntegerOption("model.option.veryBadGovernmentLimit").getValue();
         final int badGovernment = getSpecification()
@@ -2094,13 +2145,11 @@ public class Colony extends Settlement implements Nameable {
             .getIntegerOption("model.option.veryGoodGovernmentLimit").getValue();
         final int goodGovernment = getSpecification()
             .getIntegerOption("model.option.goodGovernmentLimit").getValue();
-        int newBonus = (sonsOfLiberty >= veryGoodGovernment) ? 2
-            : (sonsOfLiberty >= goodGovernment) ? 1
-            : (tories > veryBadGovernment) ? -2
-            : (tories > badGovernment) ? -1
+        return (membership >= veryGoodGovernment) ? 2
+            : (membership >= goodGovernment) ? 1
+            : (toryCount > veryBadGovernment) ? -2
+            : (toryCount > badGovernment) ? -1
             : 0;
-        if (productionBonus != newBonus) invalidateCache();
-        productionBonus = newBonus;
     }
 
     /**
@@ -0,0 +1,752 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+
+/**
+ * Finds an assignment of units to the work locations of a colony
+ * that maximizes a weighted production objective.
+ *
+ * The search is a depth-first branch-and-bound over the units to be
+ * placed.  Each unit may take any free job (a work location producing
+ * a particular goods type) or stay outside the colony.  Units of the
+ * same type are interchangeable, so they are required to take jobs in
+ * a fixed order, which removes most of the symmetric branches.
+ *
+ * Assignments must respect the work location capacities, and refined
+ * goods production is capped by the available raw materials (current
+ * production plus a share of the stock).  The weight of a refined
+ * goods type is the value added by refining, so raw materials count
+ * at their own weight whether they are refined or not.  Food shortfalls beyond what
+ * the stock can cover are heavily penalized rather than forbidden, so
+ * that the least bad arrangement is still found for a colony that can
+ * not feed itself.
+ *
+ * The production of each unit type at each job is computed once and
+ * memoized, so the search itself does not query the model.  The
+ * colony is not filled beyond the size at which the production bonus
+ * would become negative, but the result is still an approximation
+ * (it ignores bonus changes within that range, breeding and building
+ * upkeep) that callers may wish to verify against the real colony.
+ */
+public class ColonyOptimizer {
+
+    private static final Logger logger = Logger.getLogger(ColonyOptimizer.class.getName());
+
+    /** The default number of turns the refining stock should last. */
+    public static final int DEFAULT_STOCK_TURNS = 5;
+
+    /** The default maximum number of search nodes to expand. */
+    public static final int DEFAULT_NODE_LIMIT = 200000;
+
+    /** Penalty per point of uncovered food shortfall. */
+    private static final double FOOD_PENALTY = 1000.0;
+
+    /** The default fraction of the weight that applies beyond saturation. */
+    public static final double DEFAULT_EXCESS_FACTOR = 0.5;
+
+    /** Score of an arrangement that empties the colony. */
+    private static final double INVALID = -Double.MAX_VALUE;
+
+
+    /**
+     * A job is a work location producing a particular type of goods.
+     */
+    public static class Job {
+
+        /** The work location. */
+        private final WorkLocation workLocation;
+
+        /** The goods type to produce. */
+        private final GoodsType goodsType;
+
+        /** Index of the work location in the capacity table. */
+        private final int slot;
+
+        /** Index of the goods produced. */
+        private final int output;
+
+        /** Is the production food? */
+        private final boolean food;
+
+
+        private Job(WorkLocation workLocation, GoodsType goodsType, int slot,
+                    int output, boolean food) {
+            this.workLocation = workLocation;
+            this.goodsType = goodsType;
+            this.slot = slot;
+            this.output = output;
+            this.food = food;
+        }
+
+        /**
+         * Gets the work location of this job.
+         *
+         * @return The <code>WorkLocation</code>.
+         */
+        public WorkLocation getWorkLocation() {
+            return workLocation;
+        }
+
+        /**
+         * Gets the goods type produced by this job.
+         *
+         * @return The <code>GoodsType</code> to produce.
+         */
+        public GoodsType getGoodsType() {
+            return goodsType;
+        }
+
+        public String toString() {
+            return goodsType.getId() + "@" + workLocation.getId();
+        }
+    }
+
+
+    /** The colony to optimize. */
+    private final Colony colony;
+
+    /** The goods types in the specification. */
+    private final List<GoodsType> goodsTypes;
+
+    /** The index of each goods type in <code>goodsTypes</code>. */
+    private final java.util.Map<GoodsType, Integer> goodsIndex
+        = new HashMap<GoodsType, Integer>();
+
+    /** The weight of each goods type in the objective. */
+    private final double[] weights;
+
+    /** The amount of each goods type beyond which it is worth less. */
+    private final int[] saturation;
+
+    /** The index of the primary food type. */
+    private final int foodIndex;
+
+    /** The goods type indexes, ordered raw materials first. */
+    private final int[] goodsOrder;
+
+    /** The raw material index of each goods type, or -1 if none. */
+    private final int[] rawMaterial;
+
+    /** Memoized production tables, one entry per job for each unit type. */
+    private final java.util.Map<UnitType, int[]> productionTable
+        = new HashMap<UnitType, int[]>();
+
+    /** The number of turns the refining stock should last. */
+    private int stockTurns = DEFAULT_STOCK_TURNS;
+
+    /** The maximum number of search nodes to expand. */
+    private int nodeLimit = DEFAULT_NODE_LIMIT;
+
+    /** The fraction of the weight that applies beyond saturation. */
+    private double excessFactor = DEFAULT_EXCESS_FACTOR;
+
+    /**
+     * The goods types of the explicitly allowed slots at each work
+     * location, or null if all work locations may be used.
+     */
+    private java.util.Map<WorkLocation, List<GoodsType>> slots = null;
+
+    // Per-call search state.
+    private List<Job> jobs;
+    private int[] capacity;
+    private int[] baseProduction;
+    private int[] stockAllowance;
+    private int baseFood;
+    private int baseConsumption;
+    private int baseUnits;
+    private int foodAllowance;
+    private int maximumUnits;
+    private Unit[] order;
+    private int[][] unitProduction;
+    private int[][] jobOrder;
+    private int[] unitFood;
+    private double[] maxGainAfter;
+    private int[] maxFoodAfter;
+    private double fixedValue;
+    private int[] used;
+    private int[] produced;
+    private int[] available;
+    private int[] choice;
+    private int[] bestChoice;
+    private double bestScore;
+    private int nodes;
+
+
+    /**
+     * Creates a new optimizer for a colony with default weights.
+     *
+     * @param colony The <code>Colony</code> to optimize.
+     */
+    public ColonyOptimizer(Colony colony) {
+        this.colony = colony;
+        this.goodsTypes = colony.getSpecification().getGoodsTypeList();
+        final int n = goodsTypes.size();
+        for (int i = 0; i < n; i++) goodsIndex.put(goodsTypes.get(i), i);
+
+        weights = new double[n];
+        saturation = new int[n];
+        rawMaterial = new int[n];
+        final Market market = (colony.getOwner() == null) ? null
+            : colony.getOwner().getMarket();
+        List<Integer> sorted = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            GoodsType g = goodsTypes.get(i);
+            GoodsType raw = g.getRawMaterial();
+            weights[i] = (market == null || !g.isStorable()
+                || g.isFoodType()) ? 1.0
+                : (raw == null || !raw.isStorable())
+                ? Math.max(1, market.getSalePrice(g, 1))
+                : Math.max(1, market.getSalePrice(g, 1)
+                    - market.getSalePrice(raw, 1));
+            saturation[i] = Integer.MAX_VALUE;
+            rawMaterial[i] = (raw == null) ? -1 : getIndex(raw);
+            sorted.add(i);
+        }
+        Collections.sort(sorted, new Comparator<Integer>() {
+                public int compare(Integer i1, Integer i2) {
+                    return goodsTypes.get(i1).getProductionChain().size()
+                        - goodsTypes.get(i2).getProductionChain().size();
+                }
+            });
+        goodsOrder = new int[n];
+        for (int i = 0; i < n; i++) goodsOrder[i] = sorted.get(i);
+        foodIndex = getIndex(colony.getSpecification().getPrimaryFoodType());
+    }
+
+
+    /**
+     * Gets the colony this optimizer works on.
+     *
+     * @return The <code>Colony</code>.
+     */
+    public Colony getColony() {
+        return colony;
+    }
+
+    /**
+     * Gets the objective weight of a goods type.
+     *
+     * @param goodsType The <code>GoodsType</code> to check.
+     * @return The weight of one unit of the goods.
+     */
+    public double getWeight(GoodsType goodsType) {
+        return weights[getIndex(goodsType)];
+    }
+
+    /**
+     * Sets the objective weight of a goods type.  Weights must not be
+     * negative, a weight of zero means the goods are only valuable as
+     * input to other production.  The food weight applies to the food
+     * surplus.
+     *
+     * @param goodsType The <code>GoodsType</code> to set.
+     * @param weight The new weight.
+     */
+    public void setWeight(GoodsType goodsType, double weight) {
+        if (weight < 0.0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        weights[getIndex(goodsType)] = weight;
+    }
+
+    /**
+     * Sets the saturation level of a goods type.  Production beyond
+     * this amount is only worth a fraction of the normal weight, which
+     * spreads the work over more goods types.  By default there is no
+     * saturation.
+     *
+     * @param goodsType The <code>GoodsType</code> to set.
+     * @param amount The amount beyond which production is worth less.
+     */
+    public void setSaturation(GoodsType goodsType, int amount) {
+        saturation[getIndex(goodsType)] = Math.max(0, amount);
+    }
+
+    /**
+     * Sets the fraction of the weight that applies to production beyond
+     * the saturation level.
+     *
+     * @param excessFactor The new fraction, between 0 and 1.
+     */
+    public void setExcessFactor(double excessFactor) {
+        this.excessFactor = Math.max(0.0, Math.min(1.0, excessFactor));
+    }
+
+    /**
+     * Adds a slot to work in.  Once a slot has been added, only the
+     * explicitly added slots are considered, which allows an existing
+     * arrangement to be improved by only reassigning its units.
+     *
+     * @param workLocation The <code>WorkLocation</code> to work in.
+     * @param goodsType The <code>GoodsType</code> to produce there.
+     */
+    public void addSlot(WorkLocation workLocation, GoodsType goodsType) {
+        if (slots == null) {
+            slots = new HashMap<WorkLocation, List<GoodsType>>();
+        }
+        List<GoodsType> types = slots.get(workLocation);
+        if (types == null) {
+            types = new ArrayList<GoodsType>();
+            slots.put(workLocation, types);
+        }
+        types.add(goodsType);
+    }
+
+    /**
+     * Sets the number of turns the stock of raw materials should last
+     * if consumed by refining.
+     *
+     * @param stockTurns The new number of turns.
+     */
+    public void setStockTurns(int stockTurns) {
+        this.stockTurns = Math.max(1, stockTurns);
+    }
+
+    /**
+     * Sets the maximum number of search nodes to expand.  When the limit
+     * is reached the best arrangement found so far is returned.
+     *
+     * @param nodeLimit The new node limit.
+     */
+    public void setNodeLimit(int nodeLimit) {
+        this.nodeLimit = Math.max(1, nodeLimit);
+    }
+
+    /**
+     * Gets the number of search nodes expanded by the last optimization.
+     *
+     * @return The node count.
+     */
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Did the last optimization complete its search?
+     *
+     * @return True if the result is optimal for the model.
+     */
+    public boolean isComplete() {
+        return nodes < nodeLimit;
+    }
+
+    /**
+     * Gets the objective value of the last optimization.
+     *
+     * @return The best score found.
+     */
+    public double getScore() {
+        return bestScore;
+    }
+
+    /**
+     * Gets the production of a unit type at a job, memoizing the
+     * colony production for every job for the unit type.
+     *
+     * @param unitType The <code>UnitType</code> to check.
+     * @param job The index of the <code>Job</code>.
+     * @return The amount produced.
+     */
+    private int getProduction(UnitType unitType, int job) {
+        int[] table = productionTable.get(unitType);
+        if (table == null) {
+            table = new int[jobs.size()];
+            for (int j = 0; j < table.length; j++) {
+                Job jb = jobs.get(j);
+                WorkLocation wl = jb.getWorkLocation();
+                table[j] = (wl instanceof Building
+                    && !((Building)wl).canAddType(unitType)) ? 0
+                    : wl.getPotentialProduction(jb.getGoodsType(), unitType);
+            }
+            productionTable.put(unitType, table);
+        }
+        return table[job];
+    }
+
+    private int getIndex(GoodsType goodsType) {
+        Integer i = goodsIndex.get(goodsType);
+        if (i == null) {
+            throw new IllegalArgumentException("Unknown goods: " + goodsType);
+        }
+        return i.intValue();
+    }
+
+    /**
+     * Gets the weight that applies to production of a goods type.
+     * All food is valued as the primary food type.
+     *
+     * @param goods The goods type index.
+     * @return The weight of one unit of production.
+     */
+    private double getProductionWeight(int goods) {
+        return weights[(goodsTypes.get(goods).isFoodType()) ? foodIndex
+            : goods];
+    }
+
+    private int getFoodConsumption(UnitType unitType) {
+        int result = 0;
+        for (GoodsType g : colony.getSpecification().getFoodGoodsTypeList()) {
+            result += unitType.getConsumptionOf(g);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the jobs available to the given units, and the fixed
+     * production and consumption of the rest of the colony.
+     *
+     * @param units The <code>Unit</code>s to be placed.
+     */
+    private void collectJobs(List<Unit> units) {
+        final int n = goodsTypes.size();
+        jobs = new ArrayList<Job>();
+        List<Integer> caps = new ArrayList<Integer>();
+        baseProduction = new int[n];
+        baseFood = baseConsumption = baseUnits = 0;
+        for (WorkLocation wl : colony.getAllWorkLocations()) {
+            if (wl instanceof ColonyTile
+                && ((ColonyTile)wl).isColonyCenterTile()) {
+                for (int i = 0; i < n; i++) {
+                    int p = wl.getPotentialProduction(goodsTypes.get(i), null);
+                    addBase(i, p);
+                }
+                continue;
+            }
+            int free = wl.getUnitCapacity();
+            for (Unit u : wl.getUnitList()) {
+                if (units.contains(u)) continue;
+                free--;
+                baseUnits++;
+                baseConsumption += getFoodConsumption(u.getType());
+                GoodsType work = u.getWorkType();
+                if (work != null && goodsIndex.containsKey(work)) {
+                    addBase(getIndex(work), wl.getProductionOf(u, work));
+                }
+            }
+            if (free <= 0 || !wl.canBeWorked()) continue;
+            int slot = caps.size();
+            if (slots != null) {
+                List<GoodsType> types = slots.get(wl);
+                if (types == null) continue;
+                caps.add(Math.min(free, types.size()));
+                for (GoodsType g : types) {
+                    if (!hasJob(wl, g)) addJob(wl, g, slot);
+                }
+                continue;
+            }
+            caps.add(free);
+            if (wl instanceof Building) {
+                GoodsType g = ((Building)wl).getGoodsOutputType();
+                if (g != null) addJob(wl, g, slot);
+            } else {
+                for (GoodsType g : colony.getSpecification()
+                         .getFarmedGoodsTypeList()) {
+                    if (wl.getPotentialProduction(g, null) > 0
+                        || ((ColonyTile)wl).getWorkTile().hasResource()) {
+                        addJob(wl, g, slot);
+                    }
+                }
+            }
+        }
+        capacity = new int[caps.size()];
+        for (int i = 0; i < capacity.length; i++) capacity[i] = caps.get(i);
+
+        stockAllowance = new int[n];
+        for (int i = 0; i < n; i++) {
+            GoodsType g = goodsTypes.get(i);
+            if (g.isStorable()) {
+                stockAllowance[i] = colony.getGoodsCount(g) / stockTurns;
+            }
+        }
+        foodAllowance = colony.getGoodsCount(colony.getSpecification()
+            .getPrimaryFoodType()) / stockTurns;
+        maximumUnits = baseUnits + units.size();
+        while (maximumUnits > Math.max(1, baseUnits)
+            && colony.getProductionBonus(maximumUnits) < 0) maximumUnits--;
+    }
+
+    private void addBase(int goods, int amount) {
+        baseProduction[goods] += amount;
+        if (goodsTypes.get(goods).isFoodType()) baseFood += amount;
+    }
+
+    private boolean hasJob(WorkLocation wl, GoodsType g) {
+        for (Job j : jobs) {
+            if (j.workLocation == wl && j.goodsType == g) return true;
+        }
+        return false;
+    }
+
+    private void addJob(WorkLocation wl, GoodsType g, int slot) {
+        jobs.add(new Job(wl, g, slot, getIndex(g), g.isFoodType()));
+    }
+
+    /**
+     * Scores the current partial arrangement, treating all units not
+     * yet placed as staying outside the colony.
+     *
+     * @param food The total food produced.
+     * @param consumption The total food consumed.
+     * @param placed The number of units in the colony.
+     * @return The score.
+     */
+    private double evaluate(int food, int consumption, int placed) {
+        if (placed <= 0) return INVALID;
+        final int n = goodsTypes.size();
+        final int[] avail = available;
+        double value = 0.0;
+        for (int k = 0; k < n; k++) {
+            int i = goodsOrder[k];
+            int amount = baseProduction[i] + produced[i];
+            int raw = rawMaterial[i];
+            if (raw >= 0 && amount > 0) {
+                amount = Math.min(amount,
+                    Math.max(0, avail[raw] + stockAllowance[raw]));
+                avail[raw] -= amount;
+            }
+            avail[i] = amount;
+            if (amount <= 0 || goodsTypes.get(i).isFoodType()) continue;
+            int excess = amount - saturation[i];
+            value += (excess <= 0) ? weights[i] * amount
+                : weights[i] * (saturation[i] + excessFactor * excess);
+        }
+        int net = food - consumption;
+        if (net > 0) value += weights[foodIndex] * net;
+        int shortfall = -net - foodAllowance;
+        if (shortfall > 0) value -= FOOD_PENALTY * shortfall;
+        return value;
+    }
+
+    /**
+     * Finds the best arrangement of the given units.
+     *
+     * @param units The <code>Unit</code>s to place.  Units already in
+     *     the colony but not in this list stay where they are.
+     * @return A map of the placed units to their jobs.  Units that
+     *     should stay outside the colony are not included.
+     */
+    public java.util.Map<Unit, Job> optimize(List<Unit> units) {
+        collectJobs(units);
+        final int n = goodsTypes.size();
+        final int nJobs = jobs.size();
+        final int outside = nJobs;
+
+        // Order the units by type so that interchangeable units are
+        // adjacent, and build their production rows.
+        List<Unit> sorted = new ArrayList<Unit>();
+        for (Unit u : units) if (u.isPerson()) sorted.add(u);
+        Collections.sort(sorted, new Comparator<Unit>() {
+                public int compare(Unit u1, Unit u2) {
+                    return u1.getType().getIndex() - u2.getType().getIndex();
+                }
+            });
+        order = sorted.toArray(new Unit[0]);
+        final int nUnits = order.length;
+        unitProduction = new int[nUnits][];
+        jobOrder = new int[nUnits][];
+        unitFood = new int[nUnits];
+        double[] maxGain = new double[nUnits];
+        int[] maxFood = new int[nUnits];
+        for (int u = 0; u < nUnits; u++) {
+            final UnitType type = order[u].getType();
+            if (u > 0 && order[u-1].getType() == type) {
+                unitProduction[u] = unitProduction[u-1];
+                jobOrder[u] = jobOrder[u-1];
+                unitFood[u] = unitFood[u-1];
+                maxGain[u] = maxGain[u-1];
+                maxFood[u] = maxFood[u-1];
+                continue;
+            }
+            final int[] prod = new int[nJobs];
+            List<Integer> useful = new ArrayList<Integer>();
+            for (int j = 0; j < nJobs; j++) {
+                prod[j] = getProduction(type, j);
+                if (prod[j] <= 0) continue;
+                useful.add(j);
+                Job job = jobs.get(j);
+                maxGain[u] = Math.max(maxGain[u],
+                    getProductionWeight(job.output) * prod[j]);
+                if (job.food) maxFood[u] = Math.max(maxFood[u], prod[j]);
+            }
+            // Try the most valuable jobs first to find good bounds early.
+            Collections.sort(useful, new Comparator<Integer>() {
+                    public int compare(Integer j1, Integer j2) {
+                        double v1 = getProductionWeight(jobs.get(j1).output)
+                            * prod[j1];
+                        double v2 = getProductionWeight(jobs.get(j2).output)
+                            * prod[j2];
+                        return Double.compare(v2, v1);
+                    }
+                });
+            int[] jo = new int[useful.size() + 1];
+            for (int j = 0; j < useful.size(); j++) jo[j] = useful.get(j);
+            jo[useful.size()] = outside;
+            unitProduction[u] = prod;
+            jobOrder[u] = jo;
+            unitFood[u] = getFoodConsumption(type);
+        }
+        maxGainAfter = new double[nUnits + 1];
+        maxFoodAfter = new int[nUnits + 1];
+        for (int u = nUnits - 1; u >= 0; u--) {
+            maxGainAfter[u] = maxGainAfter[u+1] + maxGain[u];
+            maxFoodAfter[u] = maxFoodAfter[u+1] + maxFood[u];
+        }
+
+        // Warm start with a greedy arrangement, then search.
+        fixedValue = 0.0;
+        for (int i = 0; i < n; i++) {
+            fixedValue += getProductionWeight(i) * baseProduction[i];
+        }
+        used = new int[capacity.length];
+        produced = new int[n];
+        available = new int[n];
+        choice = new int[nUnits];
+        bestChoice = new int[nUnits];
+        bestScore = INVALID;
+        nodes = 0;
+        greedy();
+        if (nUnits > 0) {
+            search(0, baseFood, baseConsumption, baseUnits, 0.0);
+        }
+
+        java.util.Map<Unit, Job> result = new LinkedHashMap<Unit, Job>();
+        for (int u = 0; u < nUnits; u++) {
+            int pos = bestChoice[u];
+            int j = jobOrder[u][pos];
+            if (j != outside) result.put(order[u], jobs.get(j));
+        }
+        logger.finest("Optimized " + colony.getName() + " with " + nUnits
+            + " units, " + nJobs + " jobs, " + nodes + " nodes, score "
+            + bestScore + ((isComplete()) ? "" : " (incomplete)"));
+        return result;
+    }
+
+    /**
+     * Places the units one at a time in the job that most improves
+     * the score, to provide an initial solution for the search.
+     */
+    private void greedy() {
+        final int nUnits = order.length;
+        int food = baseFood, consumption = baseConsumption, placed = baseUnits;
+        for (int u = 0; u < nUnits; u++) {
+            int[] jo = jobOrder[u];
+            int min = (u > 0 && jobOrder[u-1] == jo) ? choice[u-1] : 0;
+            int best = jo.length - 1;
+            double bestValue = evaluate(food, consumption, placed);
+            for (int pos = min; pos < jo.length - 1; pos++) {
+                if (placed >= maximumUnits) break;
+                Job job = jobs.get(jo[pos]);
+                if (used[job.slot] >= capacity[job.slot]) continue;
+                int p = unitProduction[u][jo[pos]];
+                produced[job.output] += p;
+                double v = evaluate(food + ((job.food) ? p : 0),
+                                    consumption + unitFood[u], placed + 1);
+                produced[job.output] -= p;
+                if (v > bestValue) {
+                    bestValue = v;
+                    best = pos;
+                }
+            }
+            // Keep the symmetry ordering intact for the next unit.
+            if (best < min) best = jo.length - 1;
+            choice[u] = best;
+            if (best < jo.length - 1) {
+                Job job = jobs.get(jo[best]);
+                int p = unitProduction[u][jo[best]];
+                used[job.slot]++;
+                produced[job.output] += p;
+                if (job.food) food += p;
+                consumption += unitFood[u];
+                placed++;
+            }
+        }
+        bestScore = evaluate(food, consumption, placed);
+        System.arraycopy(choice, 0, bestChoice, 0, nUnits);
+        // Undo the placements.
+        for (int u = 0; u < nUnits; u++) {
+            int[] jo = jobOrder[u];
+            if (choice[u] < jo.length - 1) {
+                Job job = jobs.get(jo[choice[u]]);
+                used[job.slot]--;
+                produced[job.output] -= unitProduction[u][jo[choice[u]]];
+            }
+        }
+    }
+
+    /**
+     * Recursive branch-and-bound search.
+     *
+     * @param u The index of the unit to place.
+     * @param food The food produced so far.
+     * @param consumption The food consumed so far.
+     * @param placed The number of units placed so far.
+     * @param value The unconstrained value of the placements so far.
+     */
+    private void search(int u, int food, int consumption, int placed,
+                        double value) {
+        if (++nodes >= nodeLimit) return;
+        if (u == order.length) {
+            double score = evaluate(food, consumption, placed);
+            if (score > bestScore) {
+                bestScore = score;
+                System.arraycopy(choice, 0, bestChoice, 0, order.length);
+            }
+            return;
+        }
+
+        // Bound: every remaining unit takes its best job, and the
+        // food penalty can be reduced by at most the remaining food.
+        double bound = fixedValue + value + maxGainAfter[u];
+        int shortfall = consumption - food - foodAllowance - maxFoodAfter[u];
+        if (shortfall > 0) bound -= FOOD_PENALTY * shortfall;
+        if (bound <= bestScore) return;
+
+        final int[] jo = jobOrder[u];
+        final int min = (u > 0 && jobOrder[u-1] == jo) ? choice[u-1] : 0;
+        for (int pos = min; pos < jo.length; pos++) {
+            choice[u] = pos;
+            if (pos == jo.length - 1) { // Stay outside
+                search(u + 1, food, consumption, placed, value);
+                continue;
+            }
+            if (placed >= maximumUnits) continue;
+            Job job = jobs.get(jo[pos]);
+            if (used[job.slot] >= capacity[job.slot]) continue;
+            int p = unitProduction[u][jo[pos]];
+            used[job.slot]++;
+            produced[job.output] += p;
+            search(u + 1, food + ((job.food) ? p : 0),
+                   consumption + unitFood[u], placed + 1,
+                   value + getProductionWeight(job.output) * p);
+            produced[job.output] -= p;
+            used[job.slot]--;
+            if (nodes >= nodeLimit) return;
+        }
+    }
+}
@@ -47,6 +47,23 @@ public class FeatureContainer {
     private final Map<String, Set<Modifier>> modifiers
         = new HashMap<String, Set<Modifier>>();
 
+    /**
+     * Count of changes to the features of any container, so that
+     * values derived from them can be cached until a feature changes.
+     */
+    private static volatile int changes = 0;
+
+
+    /**
+     * Gets the count of changes to the features of all containers.
+     * A cached value derived from features remains valid while this
+     * count is unchanged.
+     *
+     * @return The change count.
+     */
+    public static int getChanges() {
+        return changes;
+    }
 
     /**
      * Is an ability present in this container?
@@ -148,6 +165,7 @@ public class FeatureContainer {
      */
     public static boolean addAbility(FeatureContainer fc, Ability ability) {
         if (fc == null || ability == null) return false;
+        changes++;
         Set<Ability> abilitySet = fc.abilities.get(ability.getId());
         if (abilitySet == null) {
             abilitySet = new HashSet<Ability>();
@@ -165,6 +183,7 @@ public class FeatureContainer {
      */
     public static Ability removeAbility(FeatureContainer fc, Ability ability) {
         if (fc == null || ability == null) return null;
+        changes++;
         Set<Ability> abilitySet = fc.abilities.get(ability.getId());
         return (abilitySet == null || !abilitySet.remove(ability)) ? null
             : ability;
@@ -177,7 +196,9 @@ public class FeatureContainer {
      * @param id The id of the abilities to remove.
      */
     public static void removeAbilities(FeatureContainer fc, String id) {
-        if (fc != null) fc.abilities.remove(id);
+        if (fc == null) return;
+        changes++;
+        fc.abilities.remove(id);
     }
 
 
@@ -363,6 +384,7 @@ public class FeatureContainer {
     public static boolean addModifier(FeatureContainer fc,
                                       Modifier modifier) {
         if (fc == null || modifier == null) return false;
+        changes++;
         Set<Modifier> modifierSet = fc.modifiers.get(modifier.getId());
         if (modifierSet == null) {
             modifierSet = new HashSet<Modifier>();
@@ -381,6 +403,7 @@ public class FeatureContainer {
     public static Modifier removeModifier(FeatureContainer fc,
                                           Modifier modifier) {
         if (fc == null || modifier == null) return null;
+        changes++;
         Set<Modifier> modifierSet = fc.modifiers.get(modifier.getId());
         return (modifierSet == null || !modifierSet.remove(modifier)) ? null
             : modifier;
@@ -393,7 +416,9 @@ public class FeatureContainer {
      * @param id The Id of the modifiers to remove.
      */
     public static void removeModifiers(FeatureContainer fc, String id) {
-        if (fc != null) fc.modifiers.remove(id);
+        if (fc == null) return;
+        changes++;
+        fc.modifiers.remove(id);
     }
 
 
@@ -406,6 +431,7 @@ public class FeatureContainer {
     public static void addFeatures(FeatureContainer fc, FreeColObject fco) {
         FeatureContainer c = fco.getFeatureContainer();
         if (fc != null && c != null) {
+            changes++;
             for (Entry<String, Set<Ability>> entry : c.abilities.entrySet()) {
                 Set<Ability> abilitySet = fc.abilities.get(entry.getKey());
                 if (abilitySet == null) {
@@ -437,6 +463,7 @@ public class FeatureContainer {
     public static void removeFeatures(FeatureContainer fc, FreeColObject fco) {
         FeatureContainer c = fco.getFeatureContainer();
         if (fc != null && c != null) {
+            changes++;
             for (Entry<String, Set<Ability>> entry : c.abilities.entrySet()) {
                 Set<Ability> abilitySet = fc.abilities.get(entry.getKey());
                 if (abilitySet != null) {
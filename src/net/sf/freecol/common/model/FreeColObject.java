@@ -289,28 +289,7 @@ public abstract class FreeColObject {
                 toXMLPartialImpl(xsw, fields);
             }
             xsw.close();
-
-            DocumentBuilderFactory factory
-                = DocumentBuilderFactory.newInstance();
-            Document tempDocument = null;
-            try {
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                tempDocument = builder.parse(new InputSource(new StringReader(sw.toString())));
-                return (Element)document.importNode(tempDocument.getDocumentElement(), true);
-            } catch (ParserConfigurationException pce) {
-                // Parser with specified options can't be built
-                logger.log(Level.WARNING, "ParserConfigurationException", pce);
-                throw new IllegalStateException("ParserConfigurationException: "
-                    + pce.getMessage());
-            } catch (SAXException se) {
-                logger.log(Level.WARNING, "SAXException", se);
-                throw new IllegalStateException("SAXException: "
-                    + se.getMessage());
-            } catch (IOException ie) {
-                logger.log(Level.WARNING, "IOException", ie);
-                throw new IllegalStateException("IOException: "
-                    + ie.getMessage());
-            }
+            return importXML(document, sw.toString());
         } catch (XMLStreamException e) {
             logger.warning(e.toString());
             throw new IllegalStateException("XMLStreamException: "
@@ -318,6 +297,36 @@ public abstract class FreeColObject {
         }
     }
 
+    /**
+     * Parses an XML-representation and imports it into a document.
+     *
+     * @param document The <code>Document</code> to import into.
+     * @param xml The XML-representation to parse.
+     * @return The imported <code>Element</code>.
+     */
+    protected static Element importXML(Document document, String xml) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        Document tempDocument = null;
+        try {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            tempDocument = builder.parse(new InputSource(new StringReader(xml)));
+            return (Element)document.importNode(tempDocument.getDocumentElement(), true);
+        } catch (ParserConfigurationException pce) {
+            // Parser with specified options can't be built
+            logger.log(Level.WARNING, "ParserConfigurationException", pce);
+            throw new IllegalStateException("ParserConfigurationException: "
+                + pce.getMessage());
+        } catch (SAXException se) {
+            logger.log(Level.WARNING, "SAXException", se);
+            throw new IllegalStateException("SAXException: "
+                + se.getMessage());
+        } catch (IOException ie) {
+            logger.log(Level.WARNING, "IOException", ie);
+            throw new IllegalStateException("IOException: "
+                + ie.getMessage());
+        }
+    }
+
     /**
      * This method writes an XML-representation of this object to
      * the given stream.
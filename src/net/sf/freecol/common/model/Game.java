@@ -19,6 +19,7 @@
 
 package net.sf.freecol.common.model;
 
+import java.io.StringWriter;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +30,7 @@ import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.logging.Logger;
 
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -42,6 +44,7 @@ import net.sf.freecol.common.option.MapGeneratorOptions;
 import net.sf.freecol.common.option.Option;
 import net.sf.freecol.common.option.OptionGroup;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 
@@ -1012,6 +1015,53 @@ public class Game extends FreeColGameObject {
     protected void toXMLImpl(XMLStreamWriter out, Player player,
                              boolean showAll, boolean toSavedGame)
         throws XMLStreamException {
+        writeGame(out, player, showAll, toSavedGame, false);
+    }
+
+    /**
+     * Makes an XML-representation of this game for a player joining
+     * it, with only the skeleton of the map.  The rest of the map is
+     * fetched by the client in chunks.
+     *
+     * @param player The <code>Player</code> that is joining.
+     * @param document The <code>Document</code>.
+     * @return An XML-representation of this game.
+     * @see Map#toXMLElementChunk
+     */
+    public Element toXMLElementSkeleton(Player player, Document document) {
+        try {
+            StringWriter sw = new StringWriter();
+            XMLOutputFactory xif = XMLOutputFactory.newInstance();
+            XMLStreamWriter xsw = xif.createXMLStreamWriter(sw);
+            writeGame(xsw, player, false, false, true);
+            xsw.close();
+            return importXML(document, sw.toString());
+        } catch (XMLStreamException e) {
+            logger.warning(e.toString());
+            throw new IllegalStateException("XMLStreamException: "
+                + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes an XML-representation of this game.
+     *
+     * @param out The target stream.
+     * @param player The <code>Player</code> this XML-representation should
+     *     be made for, or <code>null</code> if <code>showAll == true</code>.
+     * @param showAll Only attributes visible to <code>player</code> will be
+     *     added to the representation if <code>showAll</code> is set to
+     *     <i>false</i>.
+     * @param toSavedGame If <code>true</code> then information that is only
+     *     needed when saving a game is added.
+     * @param skeleton If <code>true</code> only write the skeleton of
+     *     the map.
+     * @throws XMLStreamException if there are any problems writing to the
+     *     stream.
+     */
+    private void writeGame(XMLStreamWriter out, Player player,
+                           boolean showAll, boolean toSavedGame,
+                           boolean skeleton) throws XMLStreamException {
         // Start element:
         out.writeStartElement(getXMLElementTagName());
 
@@ -1050,7 +1100,13 @@ public class Game extends FreeColGameObject {
         if (enemy != null) enemy.toXML(out, player, showAll, toSavedGame);
 
         // serialize map
-        if (map != null) map.toXML(out, player, showAll, toSavedGame);
+        if (map != null) {
+            if (skeleton) {
+                map.toXMLSkeleton(out, player);
+            } else {
+                map.toXML(out, player, showAll, toSavedGame);
+            }
+        }
 
         /* Moved to within player.  Last used in 0.9.x.
         // serialize messages
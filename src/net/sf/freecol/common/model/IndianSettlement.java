@@ -20,6 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -132,6 +133,13 @@ public class IndianSettlement extends Settlement {
     private java.util.Map<Player, Tension> alarm
         = new HashMap<Player, Tension>();
 
+    /**
+     * The economic profile of this settlement, read by the pricing
+     * routines.  Dropped when the turn changes, the settlement gains
+     * or loses tiles or units, or a tile within its radius changes.
+     */
+    private volatile Economy economy = null;
+
     // When choosing what goods to buy, sort goods types descending by price.
     private final Comparator<GoodsType> wantedGoodsComparator
         = new Comparator<GoodsType>() {
@@ -168,6 +176,39 @@ public class IndianSettlement extends Settlement {
         };
 
 
+    /**
+     * The maximum production and wanted amount of each goods type
+     * for a settlement, filled in as they are asked for.  Entries are
+     * indexed by goods type index, and are negative until known.
+     */
+    private static final class Economy {
+
+        /** The turn number this profile is valid for. */
+        public final int turn;
+
+        /** The maximum production of each goods type. */
+        public final int[] production;
+
+        /** The amount of each goods type the settlement wants. */
+        public final int[] wanted;
+
+
+        /**
+         * Creates an empty profile.
+         *
+         * @param turn The turn number the profile is valid for.
+         * @param size The number of goods type indexes to allow for.
+         */
+        public Economy(int turn, int size) {
+            this.turn = turn;
+            production = new int[size];
+            wanted = new int[size];
+            Arrays.fill(production, -1);
+            Arrays.fill(wanted, -1);
+        }
+    }
+
+
     /**
      * Constructor for ServerIndianSettlement.
      */
@@ -419,6 +460,7 @@ public class IndianSettlement extends Settlement {
 
         if (!ownedUnits.contains(unit)) {
             ownedUnits.add(unit);
+            invalidateEconomy();
         }
     }
 
@@ -457,6 +499,7 @@ public class IndianSettlement extends Settlement {
         if (unit == null) {
             throw new IllegalArgumentException("Parameter 'unit' must not be 'null'.");
         }
+        invalidateEconomy();
         return ownedUnits.remove(unit);
     }
 
@@ -565,10 +608,45 @@ public class IndianSettlement extends Settlement {
                 // Adopt homeless Indians
                 indian.setIndianSettlement(this);
             }
+            invalidateEconomy();
         }
         return result;
     }
 
+    /**
+     * Removes a <code>Locatable</code> from this Location.
+     *
+     * @param locatable The <code>Locatable</code> to remove.
+     */
+    @Override
+    public boolean remove(Locatable locatable) {
+        boolean result = super.remove(locatable);
+        if (result && locatable instanceof Unit) invalidateEconomy();
+        return result;
+    }
+
+    /**
+     * Adds a tile to this settlement.
+     *
+     * @param tile The <code>Tile</code> to add.
+     */
+    @Override
+    public void addTile(Tile tile) {
+        super.addTile(tile);
+        invalidateEconomy();
+    }
+
+    /**
+     * Removes a tile from this settlement.
+     *
+     * @param tile The <code>Tile</code> to remove.
+     */
+    @Override
+    public void removeTile(Tile tile) {
+        super.removeTile(tile);
+        invalidateEconomy();
+    }
+
 
 
     /**
@@ -695,6 +773,30 @@ public class IndianSettlement extends Settlement {
      * @return The amount of goods wanted.
      */
     protected int getWantedGoodsAmount(GoodsType type) {
+        final Economy e = getEconomy();
+        final int i = type.getIndex();
+        // Military goods are wanted according to the equipment of the
+        // units, which can change without notice, so they are not kept.
+        if (e == null || type.isMilitaryGoods()
+            || i < 0 || i >= e.wanted.length) {
+            return calculateWantedGoodsAmount(type);
+        }
+        int amount = e.wanted[i];
+        if (amount < 0) {
+            amount = calculateWantedGoodsAmount(type);
+            e.wanted[i] = amount;
+        }
+        return amount;
+    }
+
+    /**
+     * Calculates how much of the given goods type this settlement
+     * wants, without consulting the economic profile.
+     *
+     * @param type The <code>GoodsType</code>.
+     * @return The amount of goods wanted.
+     */
+    private int calculateWantedGoodsAmount(GoodsType type) {
         final Specification spec = getSpecification();
 
         if (type.isMilitaryGoods()) {
@@ -875,6 +977,28 @@ public class IndianSettlement extends Settlement {
      *         be produced in one turn.
      */
     public int getMaximumProduction(GoodsType goodsType) {
+        final Economy e = getEconomy();
+        final int i = goodsType.getIndex();
+        if (e == null || i < 0 || i >= e.production.length) {
+            return calculateMaximumProduction(goodsType);
+        }
+        int amount = e.production[i];
+        if (amount < 0) {
+            amount = calculateMaximumProduction(goodsType);
+            e.production[i] = amount;
+        }
+        return amount;
+    }
+
+    /**
+     * Calculates the maximum possible production of the given type of
+     * goods from the tiles around this settlement.
+     *
+     * @param goodsType The type of goods to check.
+     * @return The maximum amount, of the given type of goods, that can
+     *         be produced in one turn.
+     */
+    private int calculateMaximumProduction(GoodsType goodsType) {
         int amount = 0;
         for (Tile workTile: getTile().getSurroundingTiles(getRadius())) {
             if (workTile.getOwningSettlement() == null || workTile.getOwningSettlement() == this) {
@@ -887,6 +1011,55 @@ public class IndianSettlement extends Settlement {
     }
 
 
+    /**
+     * Gets the economic profile of this settlement for the current
+     * turn, starting a new one if the turn has changed.
+     *
+     * @return The <code>Economy</code>, or null if there is no
+     *     current turn.
+     */
+    private Economy getEconomy() {
+        final Turn turn = getGame().getTurn();
+        if (turn == null) return null;
+        Economy e = economy;
+        if (e == null || e.turn != turn.getNumber()) {
+            int size = 0;
+            for (GoodsType g : getSpecification().getGoodsTypeList()) {
+                size = Math.max(size, g.getIndex() + 1);
+            }
+            e = new Economy(turn.getNumber(), size);
+            economy = e;
+        }
+        return e;
+    }
+
+    /**
+     * Gets the largest radius of the settlement types of the native
+     * nations, that is how far a tile may be from a native settlement
+     * that draws on it.
+     *
+     * @param spec The <code>Specification</code> to use.
+     * @return The largest native settlement radius.
+     */
+    static int getMaximumRadius(Specification spec) {
+        int radius = 0;
+        for (IndianNationType nt : spec.getIndianNationTypes()) {
+            for (SettlementType st : nt.getSettlementTypes()) {
+                radius = Math.max(radius, st.getClaimableRadius());
+            }
+        }
+        return radius;
+    }
+
+    /**
+     * Drops the economic profile of this settlement, so that it is
+     * rebuilt when next needed.  Call this when anything the profile
+     * depends on changes other than with the turn.
+     */
+    public void invalidateEconomy() {
+        economy = null;
+    }
+
     /**
      * Updates the goods wanted by this settlement.
      *
@@ -198,7 +198,7 @@ public final class Limit extends FreeColGameObjectType {
         switch(leftHandSide.getScopeLevel()) {
         case SETTLEMENT:
             lhs = leftHandSide.getValue(settlement);
-            lhs += getSpecification()
+            lhs += settlement.getSpecification()
                 .getIntegerOption("model.option.settlementLimitModifier")
                 .getValue();
             break;
@@ -19,6 +19,7 @@
 
 package net.sf.freecol.common.model;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +34,7 @@ import java.util.Queue;
 import java.util.Random;
 import java.util.logging.Logger;
 
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -44,6 +46,10 @@ import net.sf.freecol.common.model.pathfinding.GoalDecider;
 import net.sf.freecol.common.model.pathfinding.GoalDeciders;
 import net.sf.freecol.common.util.Utils;
 
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
 
 /**
  * A rectangular isometric map.  The map is represented as a
@@ -103,6 +109,8 @@ public class Map extends FreeColGameObject implements Location {
             Direction.N, Direction.E, Direction.S, Direction.W
         };
 
+        public static final Direction[] allDirections = values();
+
         private int oddDX, oddDY, evenDX, evenDY;
 
 
@@ -253,6 +261,11 @@ public class Map extends FreeColGameObject implements Location {
 
     private Tile[][] tiles;
 
+    /**
+     * The packed copy of the tile state, present when the tiles are.
+     */
+    private TileGrid grid = null;
+
     /**
      * The highest map layer included.
      */
@@ -288,6 +301,18 @@ public class Map extends FreeColGameObject implements Location {
      */
     private boolean traceSearch = false;
 
+    /**
+     * The next unused contiguity identifier, negative until the
+     * contiguity has been reset.
+     */
+    private int nextContiguity = -1;
+
+    /**
+     * Scratch queue of packed tile positions for the region fills,
+     * one entry per tile.
+     */
+    private int[] fillQueue = null;
+
 
     /**
      * Create a new <code>Map</code> from a collection of tiles.
@@ -300,6 +325,12 @@ public class Map extends FreeColGameObject implements Location {
     public Map(Game game, Tile[][] tiles) {
         super(game);
         this.tiles = tiles;
+        grid = new TileGrid(this, getWidth(), getHeight());
+        for (int x = 0; x < getWidth(); x++) {
+            for (int y = 0; y < getHeight(); y++) {
+                if (tiles[x][y] != null) tiles[x][y].setGrid(grid);
+            }
+        }
         setLayer(Layer.RESOURCES);
         calculateLatitudePerRow();
     }
@@ -524,6 +555,29 @@ public class Map extends FreeColGameObject implements Location {
      */
     public void setTile(Tile tile, int x, int y) {
         tiles[x][y] = tile;
+        if (tile == null) {
+            grid.clear(x, y);
+        } else {
+            tile.setGrid(grid);
+        }
+    }
+
+    /**
+     * Gets the packed copy of the state of the tiles of this map.
+     *
+     * @return The <code>TileGrid</code> of this map.
+     */
+    public TileGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Gets the index of the units on the tiles of this map.
+     *
+     * @return The <code>UnitIndex</code> of this map.
+     */
+    public UnitIndex getUnitIndex() {
+        return grid.getUnitIndex();
     }
 
     /**
@@ -932,6 +986,39 @@ public class Map extends FreeColGameObject implements Location {
         return path;
     }
 
+    /**
+     * Searches outwards from a unit on the map for the quickest paths
+     * to all the locations it can reach on its own, stopping early if
+     * the searching thread is interrupted.
+     *
+     * The result is a shortest path tree: each node only has a valid
+     * <code>previous</code> link, so a path to a location is found by
+     * following the links from its node back to the start.
+     *
+     * @param unit The <code>Unit</code> to search for.
+     * @param maxTurns The maximum number of turns to search.
+     * @return A map of the last node of the quickest path to each
+     *     reachable location, by location id.
+     * @throws IllegalArgumentException If the unit is not on the map.
+     */
+    public HashMap<String, PathNode> searchAll(final Unit unit,
+                                               final int maxTurns) {
+        if (unit == null || !(unit.getLocation() instanceof Tile)) {
+            throw new IllegalArgumentException("Unit not on map: " + unit);
+        }
+        final GoalDecider gd = new GoalDecider() {
+                public PathNode getGoal() { return null; }
+                public boolean hasSubGoals() { return false; }
+                public boolean check(Unit u, PathNode p) {
+                    return Thread.currentThread().isInterrupted();
+                }
+            };
+        HashMap<String, PathNode> result = new HashMap<String, PathNode>();
+        searchInternal(unit, unit.getTile(), gd, null, maxTurns, null, null,
+                       result);
+        return result;
+    }
+
     /**
      * Sets the search tracing status.
      *
@@ -1141,10 +1228,37 @@ public class Map extends FreeColGameObject implements Location {
                                     final CostDecider costDecider,
                                     final int maxTurns, final Unit carrier,
                                     final SearchHeuristic searchHeuristic) {
+        return searchInternal(unit, start, goalDecider, costDecider,
+                              maxTurns, carrier, searchHeuristic,
+                              new HashMap<String, PathNode>());
+    }
+
+    /**
+     * Searches for a path to a goal, recording the visited nodes.
+     *
+     * @param unit The <code>Unit</code> to find a path for, which may be null!
+     * @param start The <code>Tile</code> to start the search from.
+     * @param goalDecider The object responsible for determining whether a
+     *     given <code>PathNode</code> is a goal or not.
+     * @param costDecider An optional <code>CostDecider</code>
+     *     responsible for determining the path cost.
+     * @param maxTurns The maximum number of turns the given
+     *     <code>Unit</code> is allowed to move.
+     * @param carrier An optional naval carrier <code>Unit</code> to use.
+     * @param searchHeuristic An optional <code>SearchHeuristic</code>.
+     * @param closedList A map to fill with the best path node to each
+     *     visited location, by location id.
+     * @return The path to a goal determined by the given
+     *     <code>GoalDecider</code>.
+     */
+    private PathNode searchInternal(final Unit unit, final Tile start,
+                                    final GoalDecider goalDecider,
+                                    final CostDecider costDecider,
+                                    final int maxTurns, final Unit carrier,
+                                    final SearchHeuristic searchHeuristic,
+                                    final HashMap<String, PathNode> closedList) {
         final HashMap<String, PathNode> openList
             = new HashMap<String, PathNode>();
-        final HashMap<String, PathNode> closedList
-            = new HashMap<String, PathNode>();
         final HashMap<String, Integer> f
             = new HashMap<String, Integer>();
         final PriorityQueue<PathNode> openListQueue
@@ -1211,7 +1325,11 @@ public class Map extends FreeColGameObject implements Location {
             }
 
             // Try the tiles in each direction
-            for (Tile moveTile : currentTile.getSurroundingTiles(1)) {
+            for (Direction direction : Direction.allDirections) {
+                final Tile moveTile = getAdjacentTile(currentTile.getX(),
+                    currentTile.getY(), direction);
+                if (moveTile == null) continue;
+
                 // If the new tile is the tile we just visited, skip it.
                 if (currentNode.previous != null
                     && currentNode.previous.getTile() == moveTile) {
@@ -1532,6 +1650,128 @@ public class Map extends FreeColGameObject implements Location {
     }
 
 
+    /**
+     * The offsets from a center position of the positions in a filled
+     * circle around it, in the spiral order used by the circle
+     * iterator.  The rings are stored one after another, ring k
+     * holding 8k positions starting at index 4k(k-1).  The offsets
+     * depend on whether the center is on an even or odd row, so there
+     * is a table for each.  Instances are immutable, and replaced
+     * with a larger copy when a wider circle is needed.
+     */
+    private static final class CircleOffsets {
+
+        /** The largest radius covered. */
+        public final int radius;
+
+        /** The offsets, indexed by center row parity then position. */
+        public final int[][] dx, dy;
+
+
+        /**
+         * Creates the offset tables for a given radius.
+         *
+         * Each ring starts to the north east of the end of the
+         * previous one (or of the center), then runs south east,
+         * south west, north west and north east, finishing directly
+         * north of the center.
+         *
+         * @param radius The radius to cover.
+         */
+        public CircleOffsets(int radius) {
+            final Direction[] sides = {
+                Direction.SE, Direction.SW, Direction.NW, Direction.NE
+            };
+            final int size = getCircleSize(radius);
+            this.radius = radius;
+            dx = new int[2][size];
+            dy = new int[2][size];
+            for (int parity = 0; parity < 2; parity++) {
+                int x = 0, y = parity, i = 0;
+                for (int r = 1; r <= radius; r++) {
+                    final int width = 2 * r;
+                    for (int n = 0; n < 4 * width; n++) {
+                        Direction d = (n == 0) ? Direction.NE
+                            : sides[n / width];
+                        boolean odd = (y & 1) != 0;
+                        x += (odd) ? d.getOddDX() : d.getEvenDX();
+                        y += (odd) ? d.getOddDY() : d.getEvenDY();
+                        dx[parity][i] = x;
+                        dy[parity][i] = y - parity;
+                        i++;
+                    }
+                }
+            }
+        }
+    }
+
+    /** The shared circle offsets. */
+    private static volatile CircleOffsets circleOffsets
+        = new CircleOffsets(4);
+
+
+    /**
+     * Gets circle offsets covering at least a given radius.
+     *
+     * @param radius The radius to cover.
+     * @return A <code>CircleOffsets</code> covering the radius.
+     */
+    private static CircleOffsets getCircleOffsets(int radius) {
+        CircleOffsets co = circleOffsets;
+        if (co.radius < radius) {
+            synchronized (CircleOffsets.class) {
+                co = circleOffsets;
+                if (co.radius < radius) {
+                    co = new CircleOffsets(Math.max(radius, 2 * co.radius));
+                    circleOffsets = co;
+                }
+            }
+        }
+        return co;
+    }
+
+    /**
+     * Gets the number of positions in a filled circle, not counting
+     * the center.
+     *
+     * @param radius The radius of the circle.
+     * @return The number of positions in the circle.
+     */
+    public static int getCircleSize(int radius) {
+        return 4 * radius * (radius + 1);
+    }
+
+    /**
+     * Gets a tile in a circle around a center by its index in the
+     * spiral order used by the circle iterator.  Together with
+     * {@link #getCircleSize} this allows a circle to be visited
+     * without creating any objects:
+     *
+     * <code>for (int n = 0; n < Map.getCircleSize(r); n++) {
+     *     Tile t = map.getCircleTile(x, y, n);
+     *     ...</code>
+     *
+     * The positions of ring k occupy the indices from
+     * <code>getCircleSize(k-1)</code> to <code>getCircleSize(k)</code>.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param n The index of the position in the circle.
+     * @return The <code>Tile</code> at the position, or null if it
+     *     is not on the map.
+     */
+    public Tile getCircleTile(int x, int y, int n) {
+        CircleOffsets co = circleOffsets;
+        if (n >= co.dx[0].length) {
+            int r = co.radius;
+            while (getCircleSize(r) <= n) r++;
+            co = getCircleOffsets(r);
+        }
+        final int parity = y & 1;
+        return getTile(x + co.dx[parity][n], y + co.dy[parity][n]);
+    }
+
+
     /**
      * Base class for internal iterators.
      */
@@ -1545,6 +1785,17 @@ public class Map extends FreeColGameObject implements Location {
          */
         public abstract Position nextPosition() throws NoSuchElementException;
 
+        /**
+         * Gets the tile at the next position.  Iterators that can
+         * find the tile without creating a position override this.
+         *
+         * @return The <code>Tile</code> at the next position.
+         * @throws NoSuchElementException if the iterator is exhausted.
+         */
+        public Tile nextTile() throws NoSuchElementException {
+            return getTile(nextPosition());
+        }
+
         /**
          * Returns the next element in the iteration.
          *
@@ -1577,7 +1828,7 @@ public class Map extends FreeColGameObject implements Location {
             public Iterator<Tile> iterator() {
                 return new Iterator<Tile>() {
                     public boolean hasNext() { return m.hasNext(); }
-                    public Tile next() { return getTile(m.next()); }
+                    public Tile next() { return m.nextTile(); }
                     public void remove() { m.remove(); }
                 };
             }
@@ -1590,7 +1841,7 @@ public class Map extends FreeColGameObject implements Location {
     private final class AdjacentIterator extends MapIterator {
 
         /** The starting tile position */
-        private Position basePosition;
+        private final int x, y;
 
         /** The index into the list of adjacent tiles. */
         private int index = 0;
@@ -1599,11 +1850,27 @@ public class Map extends FreeColGameObject implements Location {
         /**
          * Create a new AdjacentIterator.
          *
-         * @param basePosition The <code>Position</code> around which
-         *     to iterate.
+         * @param x The x-coordinate to iterate around.
+         * @param y The y-coordinate to iterate around.
          */
-        public AdjacentIterator(Position basePosition) {
-            this.basePosition = basePosition;
+        public AdjacentIterator(int x, int y) {
+            this.x = x;
+            this.y = y;
+            skipInvalid();
+        }
+
+        /**
+         * Moves the index on to the next valid position.
+         */
+        private void skipInvalid() {
+            final boolean odd = (y & 1) != 0;
+            for (; index < Direction.NUMBER_OF_DIRECTIONS; index++) {
+                Direction d = Direction.allDirections[index];
+                if (isValid(x + ((odd) ? d.getOddDX() : d.getEvenDX()),
+                            y + ((odd) ? d.getOddDY() : d.getEvenDY()))) {
+                    break;
+                }
+            }
         }
 
         /**
@@ -1612,12 +1879,22 @@ public class Map extends FreeColGameObject implements Location {
          * @return True of there is another position
          */
         public boolean hasNext() {
-            for (int i = index; i < Direction.NUMBER_OF_DIRECTIONS; i++) {
-                Direction d = Direction.values()[i];
-                Position newPosition = basePosition.getAdjacent(d);
-                if (isValid(newPosition)) return true;
+            return index < Direction.NUMBER_OF_DIRECTIONS;
+        }
+
+        /**
+         * Gets the next direction in the iteration.
+         *
+         * @return The next <code>Direction</code>.
+         * @throws NoSuchElementException if the iterator is exhausted.
+         */
+        private Direction nextDirection() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("AdjacentIterator exhausted");
             }
-            return false;
+            Direction d = Direction.allDirections[index++];
+            skipInvalid();
+            return d;
         }
 
         /**
@@ -1628,15 +1905,18 @@ public class Map extends FreeColGameObject implements Location {
          */
         @Override
         public Position nextPosition() throws NoSuchElementException {
-            for (int i = index; i < Direction.NUMBER_OF_DIRECTIONS; i++) {
-                Direction d = Direction.values()[i];
-                Position newPosition = basePosition.getAdjacent(d);
-                if (isValid(newPosition)) {
-                    index = i + 1;
-                    return newPosition;
-                }
-            }
-            throw new NoSuchElementException("AdjacentIterator exhausted");
+            return new Position(x, y).getAdjacent(nextDirection());
+        }
+
+        /**
+         * Gets the tile at the next position in the iteration.
+         *
+         * @return The next <code>Tile</code>.
+         * @throws NoSuchElementException if the iterator is exhausted.
+         */
+        @Override
+        public Tile nextTile() throws NoSuchElementException {
+            return getAdjacentTile(x, y, nextDirection());
         }
     }
 
@@ -1648,54 +1928,57 @@ public class Map extends FreeColGameObject implements Location {
      * @return An adjacent tile iterator.
      */
     public MapIterator getAdjacentIterator(Position centerPosition) {
-        return new AdjacentIterator(centerPosition);
+        return new AdjacentIterator(centerPosition.getX(),
+                                    centerPosition.getY());
     }
 
     /**
      * An iterator returning positions in a spiral starting at a given
      * center tile.  The center tile is never included in the
      * positions returned, and all returned positions are valid.
+     * The iteration stops early if a whole ring of the spiral lies
+     * off the map.
+     *
+     * The positions are read from the shared circle offsets, so only
+     * <code>nextPosition</code> creates objects.
      */
     private final class CircleIterator extends MapIterator {
 
+        /** The center of the circle. */
+        private final int x, y;
         /** The maximum radius. */
-        private int radius;
+        private final int radius;
         /** The current radius of the iteration. */
         private int currentRadius;
-        /** The current index in the circle with the current radius: */
+        /** The index of the next offset to try. */
         private int n;
-        /** The current position in the circle. */
-        private Position nextPosition = null;
+        /** The index of the end of the current ring. */
+        private int end;
+        /** Has a valid position been found in the current ring? */
+        private boolean found = false;
+        /** The offsets in use, replaced as the circle widens. */
+        private CircleOffsets offsets;
+        /** The next valid position, nextX is negative when exhausted. */
+        private int nextX, nextY;
 
 
         /**
          * Create a new Circle Iterator.
          *
-         * @param center The center <code>Position</code> of the circle.
+         * @param x The x-coordinate of the center of the circle.
+         * @param y The y-coordinate of the center of the circle.
          * @param isFilled True to get all of the positions within the circle.
          * @param radius The radius of the circle.
          */
-        public CircleIterator(Position center, boolean isFilled, int radius) {
-            if (center == null) {
-                throw new IllegalArgumentException("center must not be null.");
-            }
+        public CircleIterator(int x, int y, boolean isFilled, int radius) {
+            this.x = x;
+            this.y = y;
             this.radius = radius;
-            n = 0;
-
-            if (isFilled || radius == 1) {
-                nextPosition = center.getAdjacent(Direction.NE);
-                currentRadius = 1;
-            } else {
-                this.currentRadius = radius;
-                nextPosition = center;
-                for (int i = 1; i < radius; i++) {
-                    nextPosition = nextPosition.getAdjacent(Direction.N);
-                }
-                nextPosition = nextPosition.getAdjacent(Direction.NE);
-            }
-            if (!isValid(nextPosition)) {
-                determineNextPosition();
-            }
+            currentRadius = (isFilled || radius == 1) ? 1 : radius;
+            n = getCircleSize(currentRadius - 1);
+            end = getCircleSize(currentRadius);
+            offsets = getCircleOffsets(currentRadius);
+            determineNextPosition();
         }
 
         /**
@@ -1712,44 +1995,30 @@ public class Map extends FreeColGameObject implements Location {
          * Finds the next position.
          */
         private void determineNextPosition() {
-            boolean positionReturned = n != 0;
-            do {
-                n++;
-                final int width = currentRadius * 2;
-                if (n >= width * 4) {
-                    currentRadius++;
-                    if (currentRadius > radius) {
-                        nextPosition = null;
-                    } else if (!positionReturned) {
-                        nextPosition = null;
-                    } else {
-                        n = 0;
-                        positionReturned = false;
-                        nextPosition = nextPosition.getAdjacent(Direction.NE);
+            final int parity = y & 1;
+            for (;;) {
+                if (n >= end) {
+                    if (!found || currentRadius >= radius) {
+                        nextX = -1;
+                        return;
                     }
-                } else {
-                    int i = n / width;
-                    Direction direction;
-                    switch (i) {
-                    case 0:
-                        direction = Direction.SE;
-                        break;
-                    case 1:
-                        direction = Direction.SW;
-                        break;
-                    case 2:
-                        direction = Direction.NW;
-                        break;
-                    case 3:
-                        direction = Direction.NE;
-                        break;
-                    default:
-                        throw new IllegalStateException("i=" + i + ", n=" + n
-                                                        + ", width=" + width);
+                    currentRadius++;
+                    found = false;
+                    end = getCircleSize(currentRadius);
+                    if (offsets.radius < currentRadius) {
+                        offsets = getCircleOffsets(currentRadius);
                     }
-                    nextPosition = nextPosition.getAdjacent(direction);
                 }
-            } while (nextPosition != null && !isValid(nextPosition));
+                final int tx = x + offsets.dx[parity][n];
+                final int ty = y + offsets.dy[parity][n];
+                n++;
+                if (isValid(tx, ty)) {
+                    nextX = tx;
+                    nextY = ty;
+                    found = true;
+                    return;
+                }
+            }
         }
 
         /**
@@ -1758,7 +2027,7 @@ public class Map extends FreeColGameObject implements Location {
          * @return True if there is another position.
          */
         public boolean hasNext() {
-            return nextPosition != null;
+            return nextX >= 0;
         }
 
         /**
@@ -1768,11 +2037,24 @@ public class Map extends FreeColGameObject implements Location {
          */
         @Override
         public Position nextPosition() {
-            if (nextPosition == null) return null;
-            final Position p = nextPosition;
+            if (!hasNext()) return null;
+            final Position p = new Position(nextX, nextY);
             determineNextPosition();
             return p;
         }
+
+        /**
+         * Gets the tile at the next position.
+         *
+         * @return The next <code>Tile</code>, or null if exhausted.
+         */
+        @Override
+        public Tile nextTile() {
+            if (!hasNext()) return null;
+            final Tile t = getTile(nextX, nextY);
+            determineNextPosition();
+            return t;
+        }
     }
 
     /**
@@ -1785,7 +2067,11 @@ public class Map extends FreeColGameObject implements Location {
      */
     public CircleIterator getCircleIterator(Position center, boolean isFilled,
                                             int radius) {
-        return new CircleIterator(center, isFilled, radius);
+        if (center == null) {
+            throw new IllegalArgumentException("center must not be null.");
+        }
+        return new CircleIterator(center.getX(), center.getY(),
+                                  isFilled, radius);
     }
 
     /**
@@ -1799,8 +2085,8 @@ public class Map extends FreeColGameObject implements Location {
      */
     public Iterable<Tile> getCircleTiles(Tile center, boolean isFilled,
                                          int radius) {
-        return makeMapIteratorIterable(getCircleIterator(center.getPosition(),
-                                                         isFilled, radius));
+        return makeMapIteratorIterable(new CircleIterator(center.getX(),
+                center.getY(), isFilled, radius));
     }
 
     /**
@@ -1850,6 +2136,26 @@ public class Map extends FreeColGameObject implements Location {
             }
             return newPosition;
         }
+
+        /**
+         * Gets the tile at the next position in the iteration.
+         *
+         * @return The next <code>Tile</code>.
+         * @throws NoSuchElementException if the iterator is exhausted.
+         */
+        @Override
+        public Tile nextTile() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("WholeMapIterator exhausted");
+            }
+            Tile tile = getTile(x, y);
+            x++;
+            if (x == getWidth()) {
+                x = 0;
+                y++;
+            }
+            return tile;
+        }
     }
 
     /**
@@ -1884,13 +2190,14 @@ public class Map extends FreeColGameObject implements Location {
                                               final int range) {
         return new Iterable<Tile>() {
             public Iterator<Tile> iterator() {
-                final Iterator<Position> m = (range == 1)
-                    ? getAdjacentIterator(center.getPosition())
-                    : getCircleIterator(center.getPosition(), true, range);
+                final MapIterator m = (range == 1)
+                    ? new AdjacentIterator(center.getX(), center.getY())
+                    : new CircleIterator(center.getX(), center.getY(),
+                                         true, range);
 
                 return new Iterator<Tile>() {
                     public boolean hasNext() { return m.hasNext(); }
-                    public Tile next() { return getTile(m.next()); }
+                    public Tile next() { return m.nextTile(); }
                     public void remove() { m.remove(); }
                 };
             }
@@ -1922,7 +2229,7 @@ public class Map extends FreeColGameObject implements Location {
      * @return A simulated flood fill iterator.
      */
     public MapIterator getFloodFillIterator(Position centerPosition) {
-        return new CircleIterator(centerPosition, true, INFINITY);
+        return getCircleIterator(centerPosition, true, INFINITY);
     }
 
     /**
@@ -1971,78 +2278,124 @@ public class Map extends FreeColGameObject implements Location {
         return visited;
     }
 
+    /**
+     * Gets the scratch queue for the region fills.
+     *
+     * @return An array with room for every tile on the map.
+     */
+    private int[] getFillQueue() {
+        final int size = getWidth() * getHeight();
+        if (fillQueue == null || fillQueue.length < size) {
+            fillQueue = new int[size];
+        }
+        return fillQueue;
+    }
+
+    /**
+     * Gives a contiguity identifier to the region of land or water
+     * containing a tile.  The fill spreads across tiles of the same
+     * kind that do not already have the identifier, so it visits each
+     * tile of the region once.
+     *
+     * @param start The <code>Tile</code> to start at.
+     * @param contig The contiguity identifier to give the region.
+     */
+    private void fillContiguity(Tile start, int contig) {
+        final int width = getWidth();
+        final int height = getHeight();
+        final boolean land = start.isLand();
+        final int[] queue = getFillQueue();
+        int head = 0, tail = 0;
+        start.setContiguity(contig);
+        queue[tail++] = grid.index(start.getX(), start.getY());
+        while (head < tail) {
+            final int x = queue[head] % width;
+            final int y = queue[head] / width;
+            final boolean odd = (y & 1) != 0;
+            head++;
+            for (Direction d : Direction.allDirections) {
+                int nx = x + ((odd) ? d.getOddDX() : d.getEvenDX());
+                int ny = y + ((odd) ? d.getOddDY() : d.getEvenDY());
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                int i = grid.index(nx, ny);
+                if (grid.isPresent(i) && grid.isLand(i) == land
+                    && grid.getContiguity(i) != contig) {
+                    tiles[nx][ny].setContiguity(contig);
+                    queue[tail++] = i;
+                }
+            }
+        }
+    }
+
     /**
      * Sets the contiguity identifier for all tiles.
+     *
+     * Each water region is numbered first, then each land region,
+     * with one fill per region.
      */
     public void resetContiguity() {
-        // Create the water map.  It is an error for any tile not to
-        // have a region at this point.
-        boolean[][] waterMap = new boolean[getWidth()][getHeight()];
         for (int y = 0; y < getHeight(); y++) {
             for (int x = 0; x < getWidth(); x++) {
-                if (isValid(x, y)) {
-                    waterMap[x][y] = !getTile(x,y).isLand();
-                }
+                Tile t = getTile(x, y);
+                if (t != null) t.setContiguity(-1);
             }
         }
 
-        // Flood fill each contiguous water region, setting the
-        // contiguity number.
         int contig = 0;
-        for (int y = 0; y < getHeight(); y++) {
-            for (int x = 0; x < getWidth(); x++) {
-                Tile tile = getTile(x, y);
-                if (waterMap[x][y]) {
-                    if (tile.getContiguity() >= 0) continue;
-                    
-                    boolean[][] found = floodFill(waterMap,
-                                                  new Position(x, y));
-                    for (int yy = 0; yy < getHeight(); yy++) {
-                        for (int xx = 0; xx < getWidth(); xx++) {
-                            if (found[xx][yy]) {
-                                Tile t = getTile(xx, yy);
-                                if (t.getContiguity() < 0) {
-                                    t.setContiguity(contig);
-                                }
-                            }
-                        }
+        for (boolean land : new boolean[] { false, true }) {
+            for (int y = 0; y < getHeight(); y++) {
+                for (int x = 0; x < getWidth(); x++) {
+                    int i = grid.index(x, y);
+                    if (grid.isPresent(i) && grid.isLand(i) == land
+                        && grid.getContiguity(i) < 0) {
+                        fillContiguity(tiles[x][y], contig++);
                     }
-                    contig++;
                 }
             }
         }
+        nextContiguity = contig;
+    }
 
-        // Complement the waterMap, it is now the land map.
-        for (int y = 0; y < getHeight(); y++) {
-            for (int x = 0; x < getWidth(); x++) {
-                if (isValid(x, y)) waterMap[x][y] = !waterMap[x][y];
-            }
+    /**
+     * Updates the contiguity identifiers and high seas counts after a
+     * tile has changed between land and water.
+     *
+     * Only the regions next to the tile are renumbered.  The region
+     * the tile joins is merged into one, and the region it left is
+     * renumbered piece by piece in case the tile split it.  The high
+     * seas counts are only reset if the tile touches the part of the
+     * map connected to the high seas, or is itself a way to the high
+     * seas.
+     *
+     * @param tile The <code>Tile</code> that changed.
+     */
+    public void updateContiguity(Tile tile) {
+        List<Tile> neighbours = new ArrayList<Tile>();
+        for (Direction d : Direction.allDirections) {
+            Tile t = getTile(tile.getPosition().getAdjacent(d));
+            if (t != null) neighbours.add(t);
         }
 
-        // Flood fill again for each contiguous land region.
-        for (int y = 0; y < getHeight(); y++) {
-            for (int x = 0; x < getWidth(); x++) {
-                if (waterMap[x][y]) {
-                    Tile tile = getTile(x, y);
-                    if (tile.getContiguity() >= 0) continue;
-                    
-                    boolean[][] found = floodFill(waterMap,
-                                                  new Position(x, y));
-                    for (int yy = 0; yy < getHeight(); yy++) {
-                        for (int xx = 0; xx < getWidth(); xx++) {
-                            if (found[xx][yy]) {
-                                Tile t = getTile(xx, yy);
-                                if (t.getContiguity() < 0) {
-                                    t.setContiguity(contig);
-                                }
-                            }
-                        }
-                    }
-                    contig++;
+        if (nextContiguity < 0) {
+            resetContiguity();
+        } else {
+            final int first = nextContiguity;
+            fillContiguity(tile, nextContiguity++);
+            for (Tile t : neighbours) {
+                if (t.isLand() != tile.isLand()
+                    && t.getContiguity() < first) {
+                    fillContiguity(t, nextContiguity++);
                 }
             }
         }
-    }        
+
+        boolean connected = tile.isHighSeasConnected()
+            || tile.isDirectlyHighSeasConnected();
+        for (Tile t : neighbours) {
+            if (t.isHighSeasConnected()) connected = true;
+        }
+        if (connected) resetHighSeasCount();
+    }
 
     /**
      * Sets the high seas count for all tiles connected to the high seas.
@@ -2059,9 +2412,9 @@ public class Map extends FreeColGameObject implements Location {
      * tile.
      */
     public void resetHighSeasCount() {
-        List<Tile> curr = new ArrayList<Tile>();
-        List<Tile> next = new ArrayList<Tile>();
-        int hsc = 0;
+        final int width = getWidth();
+        final int[] queue = getFillQueue();
+        int head = 0, tail = 0;
         for (Tile t : getAllTiles()) {
             t.setHighSeasCount(-1);
             if (!t.isLand()) {
@@ -2072,31 +2425,30 @@ public class Map extends FreeColGameObject implements Location {
                     t.setMoveToEurope(true);
                 }
                 if (t.isDirectlyHighSeasConnected()) {
-                    t.setHighSeasCount(hsc);
-                    next.add(t);
+                    t.setHighSeasCount(0);
+                    queue[tail++] = t.getX() + t.getY() * width;
                 }
             }
         }
-        while (!next.isEmpty()) {
-            hsc++;
-            curr.addAll(next);
-            next.clear();
-            while (!curr.isEmpty()) {
-                Tile tile = curr.remove(0);
-                // Deliberately using low level access to neighbours
-                // rather than Tile.getSurroundingTiles() because that
-                // relies on the map being attached to the game, which
-                // is not necessarily true in the test suite.
-                Position position = new Position(tile.getX(), tile.getY());
-                for (Direction d : Direction.values()) {
-                    Position p = position.getAdjacent(d);
-                    if (isValid(p)) {
-                        Tile t = getTile(p);
-                        if (t.getHighSeasCount() < 0) {
-                            t.setHighSeasCount(hsc);
-                            if (!t.isLand()) next.add(t);
-                        }
-                    }
+        // Deliberately using low level access to neighbours rather
+        // than Tile.getSurroundingTiles() because that relies on the
+        // map being attached to the game, which is not necessarily
+        // true in the test suite.
+        final int height = getHeight();
+        while (head < tail) {
+            final int x = queue[head] % width;
+            final int y = queue[head] / width;
+            final boolean odd = (y & 1) != 0;
+            final int hsc = grid.getHighSeasCount(queue[head]) + 1;
+            head++;
+            for (Direction d : Direction.allDirections) {
+                int nx = x + ((odd) ? d.getOddDX() : d.getEvenDX());
+                int ny = y + ((odd) ? d.getOddDY() : d.getEvenDY());
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                int i = grid.index(nx, ny);
+                if (grid.isPresent(i) && grid.getHighSeasCount(i) < 0) {
+                    tiles[nx][ny].setHighSeasCount(hsc);
+                    if (!grid.isLand(i)) queue[tail++] = i;
                 }
             }
         }
@@ -2268,6 +2620,117 @@ public class Map extends FreeColGameObject implements Location {
             }
         }
 
+        if (toSavedGame) {
+            for (Player p : getGame().getLiveEuropeanPlayers()) {
+                p.getTileMemory().toXML(out);
+            }
+        }
+    }
+
+    /**
+     * Writes the skeleton of this map for a player joining a game.
+     *
+     * Only the tiles the player needs at once, those holding
+     * settlements or units and those around the player's own
+     * settlements, are written in full.  The rest are written as
+     * minimal tiles, and are left for the client to fetch with
+     * {@link #toXMLElementChunk}.
+     *
+     * @param out The target stream.
+     * @param player The <code>Player</code> that is joining.
+     * @throws XMLStreamException if there are any problems writing
+     *     to the stream.
+     */
+    protected void toXMLSkeleton(XMLStreamWriter out, Player player)
+        throws XMLStreamException {
+        out.writeStartElement(getXMLElementTagName());
+        writeAttributes(out, player, false, false);
+        for (Region region : regions.values()) {
+            region.toXML(out);
+        }
+
+        boolean[][] full = new boolean[getWidth()][getHeight()];
+        for (Settlement settlement : player.getSettlements()) {
+            Tile center = settlement.getTile();
+            full[center.getX()][center.getY()] = true;
+            for (Tile t : getSurroundingTiles(center,
+                                              settlement.getRadius())) {
+                full[t.getX()][t.getY()] = true;
+            }
+        }
+        for (Tile tile : getAllTiles()) {
+            if (player.hasExplored(tile)
+                && (full[tile.getX()][tile.getY()]
+                    || tile.getSettlement() != null || !tile.isEmpty())) {
+                tile.toXML(out, player, false, false);
+            } else {
+                tile.toXMLMinimal(out);
+            }
+        }
+        out.writeEndElement();
+    }
+
+    /**
+     * Makes an XML-representation of the tiles a player has explored
+     * within a rectangle of this map.
+     *
+     * @param player The <code>Player</code> to write the tiles for.
+     * @param document The <code>Document</code>.
+     * @param x The left edge of the rectangle.
+     * @param y The top edge of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @return A "map"-element holding the tiles.
+     */
+    public Element toXMLElementChunk(Player player, Document document,
+                                     int x, int y, int width, int height) {
+        final int xMax = Math.min(getWidth(), x + width);
+        final int yMax = Math.min(getHeight(), y + height);
+        try {
+            StringWriter sw = new StringWriter();
+            XMLOutputFactory xif = XMLOutputFactory.newInstance();
+            XMLStreamWriter xsw = xif.createXMLStreamWriter(sw);
+            xsw.writeStartElement(getXMLElementTagName());
+            writeAttributes(xsw, player, false, false);
+            for (int ty = Math.max(0, y); ty < yMax; ty++) {
+                for (int tx = Math.max(0, x); tx < xMax; tx++) {
+                    Tile tile = tiles[tx][ty];
+                    if (player.hasExplored(tile)) {
+                        tile.toXML(xsw, player, false, false);
+                    }
+                }
+            }
+            xsw.writeEndElement();
+            xsw.close();
+            return importXML(document, sw.toString());
+        } catch (XMLStreamException e) {
+            logger.warning(e.toString());
+            throw new IllegalStateException("XMLStreamException: "
+                + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the tiles written by {@link #toXMLElementChunk}.
+     *
+     * Tiles that are already explored are left alone, as they may
+     * have been updated since the chunk was written.  The caller must
+     * make sure no other update of the map runs at the same time.
+     *
+     * @param element The "map"-<code>Element</code> holding the tiles.
+     */
+    public void readChunkFromXMLElement(Element element) {
+        NodeList nodes = element.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (!(nodes.item(i) instanceof Element)) continue;
+            Element e = (Element)nodes.item(i);
+            if (!Tile.getXMLElementTagName().equals(e.getTagName())) continue;
+            Tile tile = getTile(Integer.parseInt(e.getAttribute("x")),
+                                Integer.parseInt(e.getAttribute("y")));
+            if (tile != null && !tile.isExplored()) {
+                tile.readFromXMLElement(e);
+            }
+        }
     }
 
     /**
@@ -2283,6 +2746,7 @@ public class Map extends FreeColGameObject implements Location {
             int height = Integer.parseInt(in.getAttributeValue(null, "height"));
 
             tiles = new Tile[width][height];
+            grid = new TileGrid(this, width, height);
         }
 
         minimumLatitude = getAttribute(in, "minimumLatitude", -90);
@@ -2308,6 +2772,10 @@ public class Map extends FreeColGameObject implements Location {
                 // @end compatibility code
             } else if (Region.getXMLElementTagName().equals(tag)) {
                 setRegion(updateFreeColGameObject(in, Region.class));
+            } else if (TileMemory.getXMLElementTagName().equals(tag)) {
+                Player player = getFreeColGameObject(in, "player",
+                                                     Player.class);
+                player.getTileMemory().readFromXML(in);
             } else {
                 logger.warning("Unknown tag: " + tag + " loading map");
                 in.nextTag();
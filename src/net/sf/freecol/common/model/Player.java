@@ -20,6 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -326,6 +327,18 @@ public class Player extends FreeColGameObject implements Nameable {
     protected final List<Settlement> settlements
         = new ArrayList<Settlement>();
 
+    /**
+     * Read-only snapshots of the units, rebuilt on demand after the
+     * units change.
+     */
+    private volatile UnitLists unitLists = null;
+
+    /**
+     * Read-only snapshots of the settlements, rebuilt on demand after
+     * the settlements change.
+     */
+    private volatile SettlementLists settlementLists = null;
+
     /** Trade routes of this player. */
     protected final List<TradeRoute> tradeRoutes = new ArrayList<TradeRoute>();
 
@@ -350,6 +363,9 @@ public class Player extends FreeColGameObject implements Nameable {
     private boolean[][] canSeeTiles = null;
     private final Object canSeeLock = new Object();
 
+    // The tiles as last seen by the player, created when needed.
+    private TileMemory tileMemory = null;
+
     /**
      * Whether the player is bankrupt, i.e. unable to pay for the
      * maintenance of all buildings.
@@ -681,7 +697,10 @@ public class Player extends FreeColGameObject implements Nameable {
             if (settlement.getOwner() != this) {
                 throw new IllegalStateException("Player does not own settlement.");
             }
-            settlements.add(settlement);
+            synchronized (settlements) {
+                settlements.add(settlement);
+                settlementLists = null;
+            }
         }
     }
 
@@ -692,7 +711,10 @@ public class Player extends FreeColGameObject implements Nameable {
      * @return True if the settlement was removed.
      */
     public boolean removeSettlement(Settlement settlement) {
-        return settlements.remove(settlement);
+        synchronized (settlements) {
+            settlementLists = null;
+            return settlements.remove(settlement);
+        }
     }
 
     public boolean owns(Ownable ownable) {
@@ -704,12 +726,61 @@ public class Player extends FreeColGameObject implements Nameable {
 
 
     /**
-     * Returns a list of all Settlements this player owns.
+     * The settlements of a player, split by kind.  The lists are
+     * never modified, so readers may iterate over them while the
+     * settlements of the player change.
+     */
+    private static class SettlementLists {
+
+        public final List<Settlement> settlements;
+        public final List<Colony> colonies;
+        public final List<IndianSettlement> indianSettlements;
+
+
+        public SettlementLists(List<Settlement> all) {
+            List<Colony> c = new ArrayList<Colony>();
+            List<IndianSettlement> is = new ArrayList<IndianSettlement>();
+            for (Settlement s : all) {
+                if (s instanceof Colony) {
+                    c.add((Colony) s);
+                } else if (s instanceof IndianSettlement) {
+                    is.add((IndianSettlement) s);
+                }
+            }
+            settlements = Collections.unmodifiableList(new ArrayList<Settlement>(all));
+            colonies = Collections.unmodifiableList(c);
+            indianSettlements = Collections.unmodifiableList(is);
+        }
+    }
+
+    /**
+     * Gets the current settlement lists, rebuilding them if the
+     * settlements have changed.
+     *
+     * @return The <code>SettlementLists</code>.
+     */
+    private SettlementLists getSettlementLists() {
+        SettlementLists sl = settlementLists;
+        if (sl == null) {
+            synchronized (settlements) {
+                sl = settlementLists;
+                if (sl == null) {
+                    settlementLists = sl = new SettlementLists(settlements);
+                }
+            }
+        }
+        return sl;
+    }
+
+    /**
+     * Returns a list of all Settlements this player owns.  The list
+     * is a read-only snapshot, and does not change when settlements
+     * are added or removed.
      *
      * @return The settlements this player owns.
      */
     public List<Settlement> getSettlements() {
-        return settlements;
+        return getSettlementLists().settlements;
     }
 
     /**
@@ -727,15 +798,22 @@ public class Player extends FreeColGameObject implements Nameable {
      * @return A fresh list of the colonies this player owns.
      */
     public List<Colony> getColonies() {
-        ArrayList<Colony> colonies = new ArrayList<Colony>();
-        for (Settlement s : settlements) {
-            if (s instanceof Colony) {
-                colonies.add((Colony) s);
-            } else {
-                throw new RuntimeException("getColonies can only be called for players whose settlements are colonies.");
-            }
+        return new ArrayList<Colony>(getColonyList());
+    }
+
+    /**
+     * Gets a read-only snapshot of the colonies this player owns.
+     * Use this rather than {@link #getColonies} when the list is
+     * only read.
+     *
+     * @return The colonies this player owns.
+     */
+    public List<Colony> getColonyList() {
+        SettlementLists sl = getSettlementLists();
+        if (sl.colonies.size() != sl.settlements.size()) {
+            throw new RuntimeException("getColonies can only be called for players whose settlements are colonies.");
         }
-        return colonies;
+        return sl.colonies;
     }
 
     /**
@@ -758,7 +836,7 @@ public class Player extends FreeColGameObject implements Nameable {
      */
     public int getColoniesPopulation() {
         int i = 0;
-        for (Colony c : getColonies()) {
+        for (Colony c : getColonyList()) {
             i += c.getUnitCount();
         }
         return i;
@@ -783,7 +861,7 @@ public class Player extends FreeColGameObject implements Nameable {
      *         does not have a <code>Colony</code> with the specified name.
      */
     public Colony getColony(String name) {
-        for (Colony colony : getColonies()) {
+        for (Colony colony : getColonyList()) {
             if (colony.getName().equals(name)) {
                 return colony;
             }
@@ -797,15 +875,26 @@ public class Player extends FreeColGameObject implements Nameable {
      * @return The indian settlements this player owns.
      */
     public List<IndianSettlement> getIndianSettlements() {
-        ArrayList<IndianSettlement> indianSettlements = new ArrayList<IndianSettlement>();
-        for (Settlement s : settlements) {
-            if (s instanceof IndianSettlement) {
-                indianSettlements.add((IndianSettlement) s);
-            } else {
-                throw new RuntimeException("getIndianSettlements found: " + s);
+        return new ArrayList<IndianSettlement>(getIndianSettlementList());
+    }
+
+    /**
+     * Gets a read-only snapshot of the native settlements this player
+     * owns.  Use this rather than {@link #getIndianSettlements} when
+     * the list is only read.
+     *
+     * @return The native settlements this player owns.
+     */
+    public List<IndianSettlement> getIndianSettlementList() {
+        SettlementLists sl = getSettlementLists();
+        if (sl.indianSettlements.size() != sl.settlements.size()) {
+            for (Settlement s : sl.settlements) {
+                if (!(s instanceof IndianSettlement)) {
+                    throw new RuntimeException("getIndianSettlements found: " + s);
+                }
             }
         }
-        return indianSettlements;
+        return sl.indianSettlements;
     }
 
     /**
@@ -816,7 +905,7 @@ public class Player extends FreeColGameObject implements Nameable {
      *         does not have a <code>IndianSettlement</code> with the specified name.
      */
     public IndianSettlement getIndianSettlement(String name) {
-        for (IndianSettlement settlement : getIndianSettlements()) {
+        for (IndianSettlement settlement : getIndianSettlementList()) {
             if (settlement.getName().equals(name)) {
                 return settlement;
             }
@@ -836,7 +925,7 @@ public class Player extends FreeColGameObject implements Nameable {
     public List<IndianSettlement> getIndianSettlementsWithMission(Player other) {
         ArrayList<IndianSettlement> indianSettlements
             = new ArrayList<IndianSettlement>();
-        for (Settlement s : settlements) {
+        for (Settlement s : getSettlements()) {
             Unit missionary;
             if (s instanceof IndianSettlement
                 && (missionary = ((IndianSettlement)s).getMissionary()) != null
@@ -960,8 +1049,8 @@ public class Player extends FreeColGameObject implements Nameable {
 
         // Collect all the names of existing naval units.
         List<String> navalNames = new ArrayList<String>();
-        for (Unit u : getUnits()) {
-            if (u.isNaval() && u.getName() != null) {
+        for (Unit u : getNavalUnitList()) {
+            if (u.getName() != null) {
                 navalNames.add(u.getName());
             }
         }
@@ -1142,7 +1231,7 @@ public class Player extends FreeColGameObject implements Nameable {
      *     world or a nation is in rebellion against us.
      */
     public boolean isWorkForREF() {
-        for (Unit u : getUnits()) { // Work to do if unit in the new world
+        for (Unit u : getUnitList()) { // Work to do if unit in the new world
             if (u.getTile() != null) return true;
         }
         return !getRebels().isEmpty();
@@ -1368,7 +1457,10 @@ public class Player extends FreeColGameObject implements Nameable {
     		throw new IllegalStateException(this + " adding another players unit=" + newUnit);
     	}
 
-    	units.put(newUnit.getId(), newUnit);
+    	synchronized (units) {
+    	    units.put(newUnit.getId(), newUnit);
+    	    unitLists = null;
+    	}
     }
 
     /**
@@ -1378,7 +1470,10 @@ public class Player extends FreeColGameObject implements Nameable {
      */
     public void removeUnit(final Unit oldUnit) {
         if (oldUnit != null) {
-            units.remove(oldUnit.getId());
+            synchronized (units) {
+                units.remove(oldUnit.getId());
+                unitLists = null;
+            }
         }
     }
 
@@ -1413,7 +1508,7 @@ public class Player extends FreeColGameObject implements Nameable {
     public int getSoL() {
         int sum = 0;
         int number = 0;
-        for (Colony c : getColonies()) {
+        for (Colony c : getColonyList()) {
             sum += c.getSoL();
             number++;
         }
@@ -1601,6 +1696,16 @@ public class Player extends FreeColGameObject implements Nameable {
         invalidateCanSeeTiles();
     }
 
+    /**
+     * Gets the memory of the tiles as last seen by this player.
+     *
+     * @return The <code>TileMemory</code> of this player.
+     */
+    synchronized TileMemory getTileMemory() {
+        if (tileMemory == null) tileMemory = new TileMemory(this);
+        return tileMemory;
+    }
+
     /**
      * Forces an update of the <code>canSeeTiles</code>. This method should
      * be used to invalidate the current <code>canSeeTiles</code>. The method
@@ -1676,27 +1781,19 @@ public class Player extends FreeColGameObject implements Nameable {
                 }
             }
         } else {
-            for (Unit unit : getUnits()) {
+            for (Unit unit : getUnitList()) {
                 // Only consider units directly on the map, not those
                 // on a carrier or in Europe.
                 if (!(unit.getLocation() instanceof Tile)) continue;
 
                 Tile tile = (Tile) unit.getLocation();
                 cST[tile.getX()][tile.getY()] = true;
-                for (Tile t : tile.getSurroundingTiles(unit.getLineOfSight())) {
-                    if (t != null) {
-                        cST[t.getX()][t.getY()] = hasExplored(t);
-                    }
-                }
+                markCanSeeTiles(cST, map, tile, unit.getLineOfSight());
             }
-            for (Settlement settlement : new ArrayList<Settlement>(getSettlements())) {
+            for (Settlement settlement : getSettlements()) {
                 Tile tile = settlement.getTile();
                 cST[tile.getX()][tile.getY()] = true;
-                for (Tile t : tile.getSurroundingTiles(settlement.getLineOfSight())) {
-                    if (t != null) {
-                        cST[t.getX()][t.getY()] = hasExplored(t);
-                    }
-                }
+                markCanSeeTiles(cST, map, tile, settlement.getLineOfSight());
             }
             if (isEuropean() && getSpecification()
                 .getBoolean("model.option.enhancedMissionaries")) {
@@ -1705,11 +1802,8 @@ public class Player extends FreeColGameObject implements Nameable {
                     for (Settlement settlement : other.getSettlements()) {
                         IndianSettlement is = (IndianSettlement) settlement;
                         if (is.getMissionary(this) != null) {
-                            for (Tile t : is.getTile().getSurroundingTiles(is.getLineOfSight())) {
-                                if (t != null) {
-                                    cST[t.getX()][t.getY()] = hasExplored(t);
-                                }
-                            }
+                            markCanSeeTiles(cST, map, is.getTile(),
+                                            is.getLineOfSight());
                         }
                     }
                 }
@@ -1718,6 +1812,27 @@ public class Player extends FreeColGameObject implements Nameable {
         return cST;
     }
 
+    /**
+     * Marks the explored tiles within a line of sight in a
+     * canSeeTiles array.
+     *
+     * @param cST The canSeeTiles array to mark.
+     * @param map The <code>Map</code> to use.
+     * @param tile The <code>Tile</code> to see from.
+     * @param lineOfSight The radius to mark.
+     */
+    private void markCanSeeTiles(boolean[][] cST, Map map, Tile tile,
+                                 int lineOfSight) {
+        final int x = tile.getX(), y = tile.getY();
+        final int size = Map.getCircleSize(Math.max(lineOfSight, 1));
+        for (int n = 0; n < size; n++) {
+            Tile t = map.getCircleTile(x, y, n);
+            if (t != null) {
+                cST[t.getX()][t.getY()] = hasExplored(t);
+            }
+        }
+    }
+
     /**
      * Checks if this <code>Player</code> can build colonies.
      *
@@ -1778,7 +1893,7 @@ public class Player extends FreeColGameObject implements Nameable {
     public void addFather(FoundingFather father) {
         allFathers.add(father);
         addFeatures(father);
-        for (Colony colony : getColonies()) {
+        for (Colony colony : getColonyList()) {
             colony.invalidateCache();
         }
     }
@@ -2012,11 +2127,103 @@ public class Player extends FreeColGameObject implements Nameable {
      * @see Unit
      */
     public Iterator<Unit> getUnitIterator() {
-        return units.values().iterator();
+        return getUnitList().iterator();
     }
 
+    /**
+     * Gets a fresh list of all the units this player owns.
+     *
+     * @return A list of units.
+     */
     public List<Unit> getUnits() {
-        return new ArrayList<Unit>(units.values());
+        return new ArrayList<Unit>(getUnitList());
+    }
+
+    /**
+     * The units of a player, split by kind.  The lists are never
+     * modified, so readers may iterate over them while units are
+     * created and destroyed.
+     */
+    private static class UnitLists {
+
+        public final List<Unit> units;
+        public final List<Unit> navalUnits;
+        public final List<Unit> landUnits;
+
+
+        public UnitLists(Collection<Unit> all) {
+            List<Unit> naval = new ArrayList<Unit>();
+            List<Unit> land = new ArrayList<Unit>();
+            for (Unit u : all) {
+                if (u.isNaval()) naval.add(u); else land.add(u);
+            }
+            units = Collections.unmodifiableList(new ArrayList<Unit>(all));
+            navalUnits = Collections.unmodifiableList(naval);
+            landUnits = Collections.unmodifiableList(land);
+        }
+    }
+
+    /**
+     * Gets the current unit lists, rebuilding them if the units have
+     * changed.
+     *
+     * @return The <code>UnitLists</code>.
+     */
+    private UnitLists getUnitLists() {
+        UnitLists ul = unitLists;
+        if (ul == null) {
+            synchronized (units) {
+                ul = unitLists;
+                if (ul == null) unitLists = ul = new UnitLists(units.values());
+            }
+        }
+        return ul;
+    }
+
+    /**
+     * Drops the unit lists, for example when a unit changes type and
+     * may have become naval or land.
+     */
+    void invalidateUnitLists() {
+        unitLists = null;
+    }
+
+    /**
+     * Gets a read-only snapshot of all the units this player owns.
+     * Use this rather than {@link #getUnits} when the list is only
+     * read.
+     *
+     * @return The units of this player.
+     */
+    public List<Unit> getUnitList() {
+        return getUnitLists().units;
+    }
+
+    /**
+     * Gets a read-only snapshot of the naval units this player owns.
+     *
+     * @return The naval units of this player.
+     */
+    public List<Unit> getNavalUnitList() {
+        return getUnitLists().navalUnits;
+    }
+
+    /**
+     * Gets a read-only snapshot of the land units this player owns.
+     *
+     * @return The land units of this player.
+     */
+    public List<Unit> getLandUnitList() {
+        return getUnitLists().landUnits;
+    }
+
+    /**
+     * Get the number of units.
+     *
+     * @return The number of units this player owns.
+     */
+    public int getNumberOfUnits() {
+        return units.size();
     }
 
     /**
@@ -2025,8 +2232,8 @@ public class Player extends FreeColGameObject implements Nameable {
      */
     public int getNumberOfKingLandUnits() {
         int n = 0;
-        for (Unit unit : getUnits()) {
-            if (unit.hasAbility("model.ability.refUnit") && !unit.isNaval()) {
+        for (Unit unit : getLandUnitList()) {
+            if (unit.hasAbility("model.ability.refUnit")) {
                 n++;
             }
         }
@@ -2039,9 +2246,7 @@ public class Player extends FreeColGameObject implements Nameable {
      *      a single Man-of-War.
      */
     public boolean hasManOfWar() {
-        Iterator<Unit> it = getUnitIterator();
-        while (it.hasNext()) {
-            Unit unit = it.next();
+        for (Unit unit : getNavalUnitList()) {
             if ("model.unit.manOWar".equals(unit.getType().getId())) {
                 return true;
             }
@@ -2058,7 +2263,7 @@ public class Player extends FreeColGameObject implements Nameable {
     public static List<Unit> getCarriersForUnit(Unit unit) {
         final Player player = unit.getOwner();
         List<Unit> units = new ArrayList<Unit>();
-        for (Unit u : player.getUnits()) {
+        for (Unit u : player.getUnitList()) {
             if (u.couldCarry(unit)) units.add(u);
         }
         return units;
@@ -2453,7 +2658,7 @@ public class Player extends FreeColGameObject implements Nameable {
 
         // Propagate tension change as settlement alarm to all
         // settlements except the one that originated it (if any).
-        for (Settlement settlement : settlements) {
+        for (Settlement settlement : getSettlements()) {
             if (!settlement.equals(origin)) {
                 if (settlement.propagateAlarm(player, addToTension)) {
                     objects.add(settlement);
@@ -2963,7 +3168,7 @@ public class Player extends FreeColGameObject implements Nameable {
      */
     public int getLibertyProductionNextTurn() {
         int libertyNextTurn = 0;
-        for (Colony colony : getColonies()) {
+        for (Colony colony : getColonyList()) {
             for (GoodsType libertyGoods : getSpecification()
                      .getLibertyGoodsTypeList()) {
                 libertyNextTurn += colony.getTotalProductionOf(libertyGoods);
@@ -3076,7 +3281,7 @@ public class Player extends FreeColGameObject implements Nameable {
     public void setTax(int amount) {
         tax = amount;
         if (recalculateBellsBonus()) {
-            for (Colony colony : getColonies()) {
+            for (Colony colony : getColonyList()) {
                 colony.invalidateCache();
             }
         }
@@ -3148,7 +3353,7 @@ public class Player extends FreeColGameObject implements Nameable {
 
         Goods goods = null;
         int highValue = 0;
-        for (Colony colony : getColonies()) {
+        for (Colony colony : getColonyList()) {
             for (Goods g : colony.getCompactGoods()) {
                 if (getArrears(g.getType()) <= 0 && hasTraded(g.getType())) {
                     int amount = Math.min(g.getAmount(),
@@ -3418,7 +3623,7 @@ public class Player extends FreeColGameObject implements Nameable {
          */
         public void reset() {
             units = new ArrayList<Unit>();
-            for (Unit u : owner.getUnits()) {
+            for (Unit u : owner.getUnitList()) {
                 if (predicate.obtains(u)) units.add(u);
             }
             Collections.sort(units, xyComparator);
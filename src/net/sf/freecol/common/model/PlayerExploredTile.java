@@ -23,38 +23,34 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
-import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
 
 /**
- * This class contains the mutable tile data visible to a specific player.
+ * This class contains the details of a tile as last seen by a
+ * specific player, for tiles holding tile items or a settlement.
  *
  * Sometimes a tile contains information that should not be given to a
  * player. For instance; a settlement that was built after the player last
  * viewed the tile.
  *
  * The <code>toXMLElement</code> of {@link Tile} uses information from
- * this class to hide information that is not available.
+ * this class to hide information that is not available.  The owner
+ * of the tile and whether it has been explored at all are held in
+ * the player's {@link TileMemory}.
  */
-public class PlayerExploredTile extends FreeColGameObject {
+public class PlayerExploredTile extends FreeColObject {
 
     private static final Logger logger = Logger.getLogger(PlayerExploredTile.class.getName());
 
-    // The owner of this view.
-    private Player player;
+    // The game the tile is in.
+    private final Game game;
 
     // The tile viewed.
     private Tile tile;
 
-    // The owner of the tile.
-    private Player owner;
-
-    // The owning settlement of the tile, if any.
-    private Settlement owningSettlement;
-
     // All known TileItems.
     private final List<TileItem> tileItems = new ArrayList<TileItem>();
 
@@ -71,24 +67,25 @@ public class PlayerExploredTile extends FreeColGameObject {
     /**
      * Creates a new <code>PlayerExploredTile</code>.
      *
-     * @param player The <code>Player</code> that owns this view.
+     * @param game The <code>Game</code> the tile is in.
      * @param tile The <code>Tile</code> to view.
      */
-    public PlayerExploredTile(Game game, Player player, Tile tile) {
-        super(game);
-        this.player = player;
+    public PlayerExploredTile(Game game, Tile tile) {
+        this.game = game;
         this.tile = tile;
+        setSpecification(game.getSpecification());
     }
 
     /**
-     * Initialize this object from an XML-representation of this object.
+     * Checks if a tile has any details worth remembering.
      *
-     * @param in The XML stream to read the data from.
-     * @throws XMLStreamException if an error occurred during parsing.
+     * @param tile The <code>Tile</code> to check.
+     * @return True if the tile holds tile items or a settlement.
      */
-    public PlayerExploredTile(Game game, XMLStreamReader in) throws XMLStreamException {
-        super(game, in);
-        readFromXML(in);
+    public static boolean hasDetails(Tile tile) {
+        TileItemContainer tic = tile.getTileItemContainer();
+        return tile.getSettlement() != null
+            || (tic != null && !tic.getTileItems().isEmpty());
     }
 
     /**
@@ -97,9 +94,6 @@ public class PlayerExploredTile extends FreeColGameObject {
      * @param full If true, update information hidden by settlements.
      */
     public void update(boolean full) {
-        owner = tile.getOwner();
-        owningSettlement = tile.getOwningSettlement();
-
         tileItems.clear();
         TileItemContainer tic = tile.getTileItemContainer();
         if (tic != null) {
@@ -138,12 +132,8 @@ public class PlayerExploredTile extends FreeColGameObject {
 
     // Trivial public accessors.
 
-    public Player getOwner() {
-        return owner;
-    }
-
-    public Settlement getOwningSettlement() {
-        return owningSettlement;
+    public Tile getTile() {
+        return tile;
     }
 
     public List<TileItem> getAllTileItems() {
@@ -170,37 +160,24 @@ public class PlayerExploredTile extends FreeColGameObject {
         return wantedGoods;
     }
 
-    // Only needed for 0.9.x workaround in Tile.readFromXML.
-    public void setOwner(Player owner) {
-        this.owner = owner;
-    }
-
-    public void setOwningSettlement(Settlement owningSettlement) {
-        this.owningSettlement = owningSettlement;
-    }
-
-    public void setColonyUnitCount(int colonyUnitCount) {
-        this.colonyUnitCount = colonyUnitCount;
-    }
-
+    // Only needed for 0.9.x workaround in Tile.fixup09x.
     public void setColonyStockadeKey(String colonyStockadeKey) {
         this.colonyStockadeKey = colonyStockadeKey;
     }
-
-    public void setMissionary(Unit missionary) {
-        this.missionary = missionary;
-    }
     // End 0.9.x workarounds.
 
 
+    /**
+     * {@inheritDoc}
+     */
+    protected void toXMLImpl(XMLStreamWriter out) throws XMLStreamException {
+        toXMLImpl(out, null, true, true);
+    }
+
     /**
      * This method writes an XML-representation of this object to the
      * given stream.
      *
-     * Only attributes visible to the given <code>Player</code> will
-     * be added to that representation if <code>showAll</code> is set
-     * to <code>false</code>.
-     *
      * @param out The target stream.
      * @param player The <code>Player</code> this XML-representation
      *            should be made for, or <code>null</code> if
@@ -219,17 +196,9 @@ public class PlayerExploredTile extends FreeColGameObject {
 
         // Start element:
         out.writeStartElement(getXMLElementTagName());
-        out.writeAttribute(ID_ATTRIBUTE, getId());
 
-        out.writeAttribute("player", player.getId());
-        out.writeAttribute("tile", tile.getId());
-
-        if (owner != null) {
-            out.writeAttribute("owner", owner.getId());
-        }
-        if (owningSettlement != null) {
-            out.writeAttribute("owningSettlement", owningSettlement.getId());
-        }
+        out.writeAttribute("x", Integer.toString(tile.getX()));
+        out.writeAttribute("y", Integer.toString(tile.getY()));
 
         if (colonyUnitCount > 0) {
             out.writeAttribute("colonyUnitCount",
@@ -265,23 +234,19 @@ public class PlayerExploredTile extends FreeColGameObject {
 
     /**
      * Initialize this object from an XML-representation of this object.
+     * The tile is given by the "x" and "y" attributes, or in the
+     * "tile" attribute of the game objects of older games.
      *
      * @param in The input stream with the XML.
      * @throws XMLStreamException if an error occurred during parsing.
      */
     protected void readAttributes(XMLStreamReader in) throws XMLStreamException {
         Specification spec = getSpecification();
-        Game game = getGame();
-        super.readAttributes(in);
-
-        player = getFreeColGameObject(in, "player", Player.class);
-
-        tile = getFreeColGameObject(in, "tile", Tile.class);
-
-        owner = getFreeColGameObject(in, "owner", Player.class, null);
 
-        owningSettlement = getFreeColGameObject(in, "owningSettlement",
-                                                Settlement.class, null);
+        if (in.getAttributeValue(null, "x") != null) {
+            tile = game.getMap().getTile(getAttribute(in, "x", 0),
+                                         getAttribute(in, "y", 0));
+        }
 
         colonyUnitCount = getAttribute(in, "colonyUnitCount", 0);
 
@@ -301,10 +266,15 @@ public class PlayerExploredTile extends FreeColGameObject {
     }
 
     protected void readChild(XMLStreamReader in) throws XMLStreamException {
-        Game game = getGame();
         if (in.getLocalName().equals(IndianSettlement.MISSIONARY_TAG_NAME)) {
             in.nextTag(); // advance to the Unit tag
-            missionary = updateFreeColGameObject(in, Unit.class);
+            missionary = game.getFreeColGameObject(in.getAttributeValue(null, ID_ATTRIBUTE),
+                                                   Unit.class);
+            if (missionary != null) {
+                missionary.readFromXML(in);
+            } else {
+                missionary = new Unit(game, in);
+            }
             in.nextTag(); // close <missionary> tag
         } else if (in.getLocalName().equals(Resource.getXMLElementTagName())) {
             Resource resource = game.getFreeColGameObject(in.getAttributeValue(null, ID_ATTRIBUTE),
@@ -114,6 +114,7 @@ public class Resource extends TileItem {
      */
     public void setQuantity(int newQuantity) {
         quantity = newQuantity;
+        if (tile != null) tile.invalidateProductionKey();
     }
 
     /**
@@ -176,6 +177,7 @@ public class Resource extends TileItem {
             logger.severe("Insufficient quantity in " + this);
             quantity = 0;
         }
+        if (tile != null) tile.invalidateProductionKey();
         return quantity;
     }
 
@@ -248,7 +250,7 @@ public class Resource extends TileItem {
         type = getSpecification().getResourceType(in.getAttributeValue(null, "type"));
 
         quantity = Integer.parseInt(in.getAttributeValue(null, "quantity"));
-
+        if (tile != null) tile.invalidateProductionKey();
     }
 
     /**
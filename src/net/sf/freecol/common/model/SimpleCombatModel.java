@@ -20,6 +20,9 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
@@ -62,8 +65,168 @@ public class SimpleCombatModel extends CombatModel {
     public static final Modifier UNKNOWN_DEFENCE_MODIFIER
         = new Modifier("bogus", Modifier.UNKNOWN, Modifier.Type.ADDITIVE);
 
+    /**
+     * The modifiers that depend only on a unit and where it stands,
+     * with their terms folded together for the power calculation.
+     */
+    private static class BasePower {
+
+        /** The modifiers. */
+        public final Set<Modifier> modifiers;
+
+        /** The folded terms of the modifiers. */
+        public final float additive, multiplicative, percentage;
+
+        /** Is the value of any modifier unknown? */
+        public final boolean unknown;
+
+
+        public BasePower(Set<Modifier> modifiers, Turn turn) {
+            float add = 0, mult = 1, pct = 0;
+            boolean unk = false;
+            for (Modifier modifier : modifiers) {
+                float value = modifier.getValue(turn);
+                if (value == Modifier.UNKNOWN) {
+                    unk = true;
+                    break;
+                }
+                switch (modifier.getType()) {
+                case ADDITIVE:       add += value;  break;
+                case MULTIPLICATIVE: mult *= value; break;
+                case PERCENTAGE:     pct += value;  break;
+                }
+            }
+            this.modifiers = modifiers;
+            this.additive = add;
+            this.multiplicative = mult;
+            this.percentage = pct;
+            this.unknown = unk;
+        }
+
+        /**
+         * Applies the base modifiers and some situational modifiers,
+         * as {@link FeatureContainer#applyModifierSet} would apply
+         * the union of the two.
+         *
+         * @param extra The situational <code>Modifier</code>s.
+         * @param turn The <code>Turn</code> to apply them in.
+         * @return The power.
+         */
+        public float apply(Set<Modifier> extra, Turn turn) {
+            if (unknown) return Modifier.UNKNOWN;
+            float add = additive, mult = multiplicative, pct = percentage;
+            for (Modifier modifier : extra) {
+                if (modifiers.contains(modifier)) continue;
+                float value = modifier.getValue(turn);
+                if (value == Modifier.UNKNOWN) return Modifier.UNKNOWN;
+                switch (modifier.getType()) {
+                case ADDITIVE:       add += value;  break;
+                case MULTIPLICATIVE: mult *= value; break;
+                case PERCENTAGE:     pct += value;  break;
+                }
+            }
+            float result = add * mult;
+            result += (result * pct) / 100;
+            return result;
+        }
+    }
+
+    /** A key to the base power cache, compared element by element. */
+    private static class PowerKey {
+
+        private final Object[] parts;
+
+
+        public PowerKey(Object... parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PowerKey
+                && Arrays.equals(parts, ((PowerKey) o).parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(parts);
+        }
+    }
+
+    /**
+     * The base offence and defence of the units seen so far.  Turn
+     * dependent modifiers are evaluated when an entry is made, so the
+     * cache is emptied when the turn changes, and also whenever any
+     * feature container changes.
+     */
+    private final HashMap<PowerKey, BasePower> basePowers
+        = new HashMap<PowerKey, BasePower>();
+
+    /** The turn number the cached base powers were made in. */
+    private int baseTurn = Integer.MIN_VALUE;
+
+    /** The feature change count the cached base powers were made at. */
+    private int baseChanges = -1;
+
+
     public SimpleCombatModel() {}
 
+    /**
+     * Gets the number of a turn, or -1 if there is no turn.
+     *
+     * @param turn The <code>Turn</code> to check.
+     * @return The turn number.
+     */
+    private static int getTurnNumber(Turn turn) {
+        return (turn == null) ? -1 : turn.getNumber();
+    }
+
+    /**
+     * Looks up a cached base power, emptying the cache first if it
+     * has gone stale.
+     *
+     * @param key The <code>PowerKey</code> to look up.
+     * @param turn The current <code>Turn</code>.
+     * @return The base power, or null if not cached.
+     */
+    private synchronized BasePower getBasePower(PowerKey key, Turn turn) {
+        final int turnNumber = getTurnNumber(turn);
+        final int changes = FeatureContainer.getChanges();
+        if (turnNumber != baseTurn || changes != baseChanges) {
+            basePowers.clear();
+            baseTurn = turnNumber;
+            baseChanges = changes;
+        }
+        return basePowers.get(key);
+    }
+
+    /**
+     * Caches a base power, unless features changed while it was made.
+     *
+     * @param key The <code>PowerKey</code> to cache under.
+     * @param turn The <code>Turn</code> the power was made in.
+     * @param changes The feature change count the power was made at.
+     * @param power The <code>BasePower</code> to cache.
+     */
+    private synchronized void putBasePower(PowerKey key, Turn turn,
+                                           int changes, BasePower power) {
+        if (getTurnNumber(turn) == baseTurn && changes == baseChanges
+            && changes == FeatureContainer.getChanges()) {
+            basePowers.put(key, power);
+        }
+    }
+
+    /**
+     * Gets the key set of an equipment map, for use in a cache key.
+     *
+     * @param equip The equipment <code>TypeCountMap</code>, or null.
+     * @return The set of equipment types, or null if there is none.
+     */
+    private static Set<EquipmentType> getEquipmentKey(TypeCountMap<EquipmentType> equip) {
+        return (equip == null || equip.keySet().isEmpty()) ? null
+            : new HashSet<EquipmentType>(equip.keySet());
+    }
+
 
     /**
      * Calculates the odds of success in combat.
@@ -102,9 +265,10 @@ public class SimpleCombatModel extends CombatModel {
         } else if (combatIsAttackMeasurement(attacker, defender)
             || combatIsAttack(attacker, defender)
             || combatIsSettlementAttack(attacker, defender)) {
-            result = FeatureContainer.applyModifierSet(0,
-                    attacker.getGame().getTurn(),
-                    getOffensiveModifiers(attacker, defender));
+            Turn turn = attacker.getGame().getTurn();
+            Set<Modifier> extra = new LinkedHashSet<Modifier>();
+            addSituationalOffensiveModifiers(attacker, defender, extra);
+            result = getOffenceBase((Unit) attacker, turn).apply(extra, turn);
 
         } else if (combatIsBombard(attacker, defender)) {
             Settlement attackerSettlement = (Settlement) attacker;
@@ -133,8 +297,13 @@ public class SimpleCombatModel extends CombatModel {
                                  FreeColGameObject defender) {
         float result;
         if (combatIsDefenceMeasurement(attacker, defender)
-            || combatIsAttack(attacker, defender)
-            || combatIsSettlementAttack(attacker, defender)) {
+            || combatIsAttack(attacker, defender)) {
+            Turn turn = defender.getGame().getTurn();
+            Set<Modifier> extra = new LinkedHashSet<Modifier>();
+            addSituationalDefensiveModifiers(attacker, defender, extra);
+            result = getDefenceBase(attacker, (Unit) defender, turn)
+                .apply(extra, turn);
+        } else if (combatIsSettlementAttack(attacker, defender)) {
             result = FeatureContainer.applyModifierSet(0,
                     defender.getGame().getTurn(),
                     getDefensiveModifiers(attacker, defender));
@@ -162,23 +331,9 @@ public class SimpleCombatModel extends CombatModel {
         } else if (combatIsAttackMeasurement(attacker, defender)
             || combatIsAttack(attacker, defender)
             || combatIsSettlementAttack(attacker, defender)) {
-            Unit attackerUnit = (Unit) attacker;
-            UnitType type = attackerUnit.getType();
-            result.add(new Modifier(Modifier.OFFENCE,
-                                    Specification.BASE_OFFENCE_SOURCE,
-                                    type.getOffence(),
-                                    Modifier.Type.ADDITIVE));
-            result.addAll(attackerUnit.getModifierSet(Modifier.OFFENCE));
-            if (defender instanceof Ownable) {
-                result.addAll(attackerUnit
-                              .getModifierSet(Modifier.OFFENCE_AGAINST,
-                                              (Ownable) defender));
-            }
-            if (attackerUnit.isNaval()) {
-                addNavalOffensiveModifiers(attackerUnit, result);
-            } else {
-                addLandOffensiveModifiers(attacker, defender, result);
-            }
+            result.addAll(getOffenceBase((Unit) attacker,
+                    attacker.getGame().getTurn()).modifiers);
+            addSituationalOffensiveModifiers(attacker, defender, result);
 
         } else if (combatIsBombard(attacker, defender)) {
             result.add(new Modifier("model.modifier.bombardModifier",
@@ -191,6 +346,70 @@ public class SimpleCombatModel extends CombatModel {
         return result;
     }
 
+    /**
+     * Gets the offensive modifiers of a unit that do not depend on
+     * what it attacks or how it has moved, that is those of its type,
+     * owner and equipment.
+     *
+     * @param attackerUnit The attacking <code>Unit</code>.
+     * @param turn The current <code>Turn</code>.
+     * @return The base offence of the unit.
+     */
+    private BasePower getOffenceBase(Unit attackerUnit, Turn turn) {
+        final UnitType type = attackerUnit.getType();
+        final TypeCountMap<EquipmentType> equip = attackerUnit.getEquipment();
+        final PowerKey key = new PowerKey(Modifier.OFFENCE, type,
+            attackerUnit.getOwner(), getEquipmentKey(equip));
+        BasePower base = getBasePower(key, turn);
+        if (base != null) return base;
+
+        final int changes = FeatureContainer.getChanges();
+        Set<Modifier> result = new LinkedHashSet<Modifier>();
+        result.add(new Modifier(Modifier.OFFENCE,
+                                Specification.BASE_OFFENCE_SOURCE,
+                                type.getOffence(),
+                                Modifier.Type.ADDITIVE));
+        result.addAll(attackerUnit.getModifierSet(Modifier.OFFENCE));
+        if (!attackerUnit.isNaval()) {
+            // Equipment bonuses
+            if (equip != null) {
+                for (EquipmentType et : equip.keySet()) {
+                    result.addAll(et.getModifierSet(Modifier.OFFENCE));
+                }
+            }
+            // Attack bonus
+            result.addAll(attackerUnit.getSpecification()
+                .getModifiers(ATTACK_BONUS));
+        }
+        base = new BasePower(result, turn);
+        putBasePower(key, turn, changes, base);
+        return base;
+    }
+
+    /**
+     * Add the offensive modifiers that depend on the defender and on
+     * the state of the attacker.
+     *
+     * @param attacker The attacker.
+     * @param defender The defender.
+     * @param result The set of modifiers to add to.
+     */
+    private void addSituationalOffensiveModifiers(FreeColGameObject attacker,
+                                                  FreeColGameObject defender,
+                                                  Set<Modifier> result) {
+        Unit attackerUnit = (Unit) attacker;
+        if (defender instanceof Ownable) {
+            result.addAll(attackerUnit
+                          .getModifierSet(Modifier.OFFENCE_AGAINST,
+                                          (Ownable) defender));
+        }
+        if (attackerUnit.isNaval()) {
+            addNavalOffensiveModifiers(attackerUnit, result);
+        } else {
+            addLandOffensiveModifiers(attacker, defender, result);
+        }
+    }
+
     /**
      * Add all the offensive modifiers that apply to a naval attack.
      *
@@ -212,7 +431,9 @@ public class SimpleCombatModel extends CombatModel {
     }
 
     /**
-     * Add all the offensive modifiers that apply to a land attack.
+     * Add the situational offensive modifiers that apply to a land
+     * attack.  Equipment and attack bonuses are part of the base
+     * offence.
      *
      * @param attacker The attacker.
      * @param defender The defender.
@@ -223,15 +444,6 @@ public class SimpleCombatModel extends CombatModel {
                                            Set<Modifier> result) {
         Unit attackerUnit = (Unit) attacker;
         Specification spec = attackerUnit.getSpecification();
-        // Equipment bonuses
-        TypeCountMap<EquipmentType> equip = attackerUnit.getEquipment();
-        if (equip != null) {
-            for (EquipmentType et : equip.keySet()) {
-                result.addAll(et.getModifierSet(Modifier.OFFENCE));
-            }
-        }
-        // Attack bonus
-        result.addAll(spec.getModifiers(ATTACK_BONUS));
         // Movement penalty
         int movesLeft = attackerUnit.getMovesLeft();
         if (movesLeft == 1) {
@@ -296,18 +508,9 @@ public class SimpleCombatModel extends CombatModel {
         Set<Modifier> result = new LinkedHashSet<Modifier>();
         if (combatIsDefenceMeasurement(attacker, defender)
             || combatIsAttack(attacker, defender)) {
-            Unit defenderUnit = (Unit) defender;
-            result.add(new Modifier(Modifier.DEFENCE,
-                                    Specification.BASE_DEFENCE_SOURCE,
-                                    defenderUnit.getType().getDefence(),
-                                    Modifier.Type.ADDITIVE));
-            result.addAll(defenderUnit.getType()
-                          .getModifierSet(Modifier.DEFENCE));
-            if (defenderUnit.isNaval()) {
-                addNavalDefensiveModifiers(defender, result);
-            } else {
-                addLandDefensiveModifiers(attacker, defender, result);
-            }
+            result.addAll(getDefenceBase(attacker, (Unit) defender,
+                    defender.getGame().getTurn()).modifiers);
+            addSituationalDefensiveModifiers(attacker, defender, result);
 
         } else if (combatIsSettlementAttack(attacker, defender)) {
             // Not allowed to see inside the settlement.  This only applies 
@@ -327,6 +530,100 @@ public class SimpleCombatModel extends CombatModel {
         return result;
     }
 
+    /**
+     * Gets the defensive modifiers of a unit that do not depend on
+     * the attacker, beyond whether it ambushes: those of its type,
+     * equipment, fortification, terrain and settlement.
+     *
+     * @param attacker The attacker.
+     * @param defenderUnit The defending <code>Unit</code>.
+     * @param turn The current <code>Turn</code>.
+     * @return The base defence of the unit.
+     */
+    private BasePower getDefenceBase(FreeColGameObject attacker,
+                                     Unit defenderUnit, Turn turn) {
+        final UnitType type = defenderUnit.getType();
+        final boolean naval = defenderUnit.isNaval();
+        TypeCountMap<EquipmentType> equip = null, autoEquip = null;
+        boolean fortified = false;
+        TileType terrain = null;
+        Settlement settlement = null;
+        if (!naval) {
+            equip = defenderUnit.getEquipment();
+            autoEquip = defenderUnit.getAutomaticEquipment();
+            fortified = defenderUnit.getState() == Unit.UnitState.FORTIFIED;
+            Tile tile = defenderUnit.getTile();
+            if (tile != null) {
+                settlement = tile.getSettlement();
+                // Terrain defensive bonus, unless ambushed in the open.
+                if (settlement != null || !isAmbush(attacker, defenderUnit)) {
+                    terrain = tile.getType();
+                }
+            }
+        }
+        final PowerKey key = new PowerKey(Modifier.DEFENCE, type,
+            defenderUnit.getOwner(), getEquipmentKey(equip),
+            getEquipmentKey(autoEquip), Boolean.valueOf(fortified), terrain,
+            settlement, (settlement == null) ? null : settlement.getOwner());
+        BasePower base = getBasePower(key, turn);
+        if (base != null) return base;
+
+        final int changes = FeatureContainer.getChanges();
+        Set<Modifier> result = new LinkedHashSet<Modifier>();
+        result.add(new Modifier(Modifier.DEFENCE,
+                                Specification.BASE_DEFENCE_SOURCE,
+                                type.getDefence(),
+                                Modifier.Type.ADDITIVE));
+        result.addAll(type.getModifierSet(Modifier.DEFENCE));
+        if (!naval) {
+            // Auto-equip and equipment bonuses.
+            if (equip != null) {
+                for (EquipmentType et : equip.keySet()) {
+                    result.addAll(et.getModifierSet(Modifier.DEFENCE));
+                }
+            }
+            if (autoEquip != null) {
+                for (EquipmentType et : autoEquip.keySet()) {
+                    result.addAll(et.getModifierSet(Modifier.DEFENCE));
+                }
+            }
+            // Fortify bonus
+            if (fortified) {
+                result.addAll(defenderUnit.getSpecification()
+                    .getModifiers(FORTIFIED));
+            }
+            if (terrain != null) {
+                result.addAll(terrain.getDefenceBonus());
+            }
+            if (settlement != null) {
+                result.addAll(settlement.getModifierSet(Modifier.DEFENCE));
+                result.addAll(settlement.getOwner()
+                    .getModifierSet(Modifier.DEFENCE, settlement.getType()));
+            }
+        }
+        base = new BasePower(result, turn);
+        putBasePower(key, turn, changes, base);
+        return base;
+    }
+
+    /**
+     * Add the defensive modifiers that depend on the attacker and on
+     * the state of the defender.
+     *
+     * @param attacker The attacker.
+     * @param defender The defender.
+     * @param result The set of modifiers to add to.
+     */
+    private void addSituationalDefensiveModifiers(FreeColGameObject attacker,
+                                                  FreeColGameObject defender,
+                                                  Set<Modifier> result) {
+        if (((Unit) defender).isNaval()) {
+            addNavalDefensiveModifiers(defender, result);
+        } else {
+            addLandDefensiveModifiers(attacker, defender, result);
+        }
+    }
+
     /**
      * Add all the defensive modifiers that apply to a naval attack.
      *
@@ -348,7 +645,9 @@ public class SimpleCombatModel extends CombatModel {
     }
 
     /**
-     * Add all the defensive modifiers that apply to a land attack.
+     * Add the situational defensive modifiers that apply to a land
+     * attack.  Equipment, fortification, terrain and settlement
+     * bonuses are part of the base defence.
      *
      * @param attacker The attacker.
      * @param defender The defender.
@@ -359,41 +658,15 @@ public class SimpleCombatModel extends CombatModel {
                                            Set<Modifier> result) {
         Unit defenderUnit = (Unit) defender;
         Specification spec = defender.getSpecification();
-        // Auto-equip and equipment bonuses.
-        TypeCountMap<EquipmentType> equip = defenderUnit.getEquipment();
-        if (equip != null) {
-            for (EquipmentType et : equip.keySet()) {
-                result.addAll(et.getModifierSet(Modifier.DEFENCE));
-            }
-        }
-        equip = defenderUnit.getAutomaticEquipment();
-        if (equip != null) {
-            for (EquipmentType et : equip.keySet()) {
-                result.addAll(et.getModifierSet(Modifier.DEFENCE));
-            }
-        }
-        // Fortify bonus
-        if (defenderUnit.getState() == Unit.UnitState.FORTIFIED) {
-            result.addAll(spec.getModifiers(FORTIFIED));
-        }
         Tile tile = defenderUnit.getTile();
         if (tile != null) {
-            Settlement settlement = tile.getSettlement();
-            if (settlement == null) { // In the open
-                // Terrain defensive bonus.
-                if (!isAmbush(attacker, defender)) {
-                    result.addAll(tile.getType().getDefenceBonus());
-                }
+            if (tile.getSettlement() == null) { // In the open
                 // Artillery in the Open penalty
                 if (defenderUnit.hasAbility(Ability.BOMBARD)
                     && defenderUnit.getState() != Unit.UnitState.FORTIFIED) {
                     result.addAll(spec.getModifiers(ARTILLERY_IN_THE_OPEN));
                 }
             } else { // In settlement
-                result.addAll(tile.getType().getDefenceBonus());
-                result.addAll(settlement.getModifierSet(Modifier.DEFENCE));
-                result.addAll(settlement.getOwner()
-                    .getModifierSet(Modifier.DEFENCE, settlement.getType()));
                 // Artillery defence bonus against an Indian raid
                 if (defenderUnit.hasAbility(Ability.BOMBARD)
                     && attacker != null
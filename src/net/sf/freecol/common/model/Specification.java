@@ -19,8 +19,12 @@
 
 package net.sf.freecol.common.model;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,11 +37,13 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
+import net.sf.freecol.common.io.FreeColModFile;
 import net.sf.freecol.common.io.FreeColTcFile;
 import net.sf.freecol.common.option.AbstractOption;
 import net.sf.freecol.common.option.AbstractUnitOption;
@@ -48,6 +54,7 @@ import net.sf.freecol.common.option.OptionGroup;
 import net.sf.freecol.common.option.RangeOption;
 import net.sf.freecol.common.option.StringOption;
 import net.sf.freecol.common.option.UnitListOption;
+import net.sf.freecol.common.util.Utils;
 
 /**
  * This class encapsulates any parts of the "specification" for FreeCol that are
@@ -149,6 +156,41 @@ public final class Specification {
     private UnitType cachedFastestLandUnitType = null;
     private UnitType cachedFastestNavalUnitType = null;
 
+    private final TileProductionCache tileProductionCache
+        = new TileProductionCache();
+
+    /** The shared specifications, by the key of their source. */
+    private static final Map<String, Specification> sharedSpecifications
+        = new HashMap<String, Specification>();
+
+    /**
+     * The shared specification whose types this one uses, or null if
+     * this specification owns its types.
+     */
+    private Specification sharedTypes = null;
+
+    /** The shared specification this one was derived from. */
+    private Specification root = null;
+
+    /** For a shared specification, the hash of its source. */
+    private String version = null;
+
+    /** For a shared specification, the source it was parsed from. */
+    private byte[] source = null;
+
+    /** For a shared specification, the options it was parsed with. */
+    private String optionsXML = null;
+
+    /**
+     * For a shared specification, the copies with mods loaded and a
+     * difficulty level applied, by the versions of the mods and the
+     * XML of the level.
+     */
+    private Map<String, Specification> variants = null;
+
+    /** The mods loaded into this specification. */
+    private final List<FreeColModFile> mods = new ArrayList<FreeColModFile>();
+
 
     /**
      * Creates a new Specification object by loading it from the
@@ -214,6 +256,312 @@ public final class Specification {
 
     }
 
+    /**
+     * Creates a new Specification that uses the types of a shared
+     * specification, with its own copy of the options.
+     *
+     * @param shared The shared <code>Specification</code>.
+     */
+    private Specification(Specification shared) {
+        this();
+        id = shared.id;
+        root = shared;
+        shareTypes(shared);
+        copyOptions(shared);
+        initialized = true;
+    }
+
+    /**
+     * Replaces the options of this specification with a copy of the
+     * options of a shared specification.
+     *
+     * @param shared The shared <code>Specification</code>.
+     */
+    private void copyOptions(Specification shared) {
+        allOptions.clear();
+        allOptionGroups.clear();
+        difficultyLevel = shared.difficultyLevel;
+        readOptions(shared.getOptionsXML());
+        for (AbstractOption option : allOptions.values()) {
+            option.generateChoices();
+        }
+        // Options outside the groups are never changed, share them.
+        for (Map.Entry<String, AbstractOption> entry
+                 : shared.allOptions.entrySet()) {
+            if (!allOptions.containsKey(entry.getKey())) {
+                allOptions.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (difficultyLevel != null) {
+            addOptionGroup(getOptionGroup(difficultyLevel), true);
+        }
+    }
+
+    /**
+     * Gets a specification for a mod or rule set.  The types are
+     * parsed once per hash of the source, and shared with every
+     * other specification got from the same source, so they must be
+     * treated as immutable.  The options belong to the returned
+     * specification alone.
+     *
+     * Applying a difficulty level or loading mods switches to a
+     * shared copy of the types with those applied, and loading a
+     * fragment takes a private copy of the types first, so none of
+     * these should be done once game objects have been created with
+     * the old types.
+     *
+     * @param mod The <code>FreeColModFile</code> to load.
+     * @return A new <code>Specification</code>.
+     * @exception IOException if the source can not be read.
+     */
+    public static Specification getShared(FreeColModFile mod)
+        throws IOException {
+        final String key = mod.getSpecificationKey();
+        final String version = mod.getSpecificationVersion();
+        Specification shared;
+        synchronized (sharedSpecifications) {
+            shared = sharedSpecifications.get(key);
+            if (shared == null || !version.equals(shared.version)) {
+                InputStream in = mod.getSpecificationInputStream();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try {
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+                } finally {
+                    in.close();
+                }
+                byte[] bytes = out.toByteArray();
+                shared = new Specification(new ByteArrayInputStream(bytes));
+                shared.root = shared;
+                shared.version = version;
+                shared.source = bytes;
+                shared.variants = new HashMap<String, Specification>();
+                sharedSpecifications.put(key, shared);
+            }
+        }
+        return new Specification(shared);
+    }
+
+    /**
+     * Gets the copy of this shared specification with mods loaded and
+     * a difficulty level applied, parsing it if it is not yet known.
+     *
+     * @param mods The <code>FreeColModFile</code>s to load.
+     * @param versions The versions of the mods.
+     * @param level The difficulty level <code>OptionGroup</code>,
+     *     or null if none.
+     * @return The shared <code>Specification</code>.
+     */
+    private synchronized Specification getVariant(List<FreeColModFile> mods,
+                                                  List<String> versions,
+                                                  OptionGroup level) {
+        String levelXML = null;
+        if (level != null) {
+            List<OptionGroup> groups = new ArrayList<OptionGroup>();
+            groups.add(level);
+            levelXML = writeOptions(groups);
+        }
+        if (mods.isEmpty() && level == null) return this;
+        String key = versions + ":" + levelXML;
+        Specification variant = variants.get(key);
+        if (variant == null) {
+            variant = new Specification(new ByteArrayInputStream(source));
+            variant.root = this;
+            for (FreeColModFile mod : mods) variant.loadMod(mod);
+            if (level != null) {
+                variant.readOptions(levelXML);
+                variant.applyDifficultyLevel(level.getId());
+            }
+            variants.put(key, variant);
+        }
+        return variant;
+    }
+
+    /**
+     * Gets the versions of a list of mods, dropping any that do not
+     * have a readable specification.
+     *
+     * @param mods The list of <code>FreeColModFile</code>s to check.
+     * @return The versions of the remaining mods.
+     */
+    private static List<String> getVersions(List<FreeColModFile> mods) {
+        List<String> versions = new ArrayList<String>();
+        Iterator<FreeColModFile> iterator = mods.iterator();
+        while (iterator.hasNext()) {
+            FreeColModFile mod = iterator.next();
+            try {
+                versions.add(mod.getSpecificationKey() + "@"
+                    + mod.getSpecificationVersion());
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, "IO error in mod fragment "
+                    + mod.getId(), ioe);
+                iterator.remove();
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Switches to the shared copy of the types with the mods and
+     * difficulty level of this specification.
+     *
+     * @param level The difficulty level <code>OptionGroup</code>,
+     *     or null if none.
+     * @return The shared <code>Specification</code>.
+     */
+    private Specification shareVariant(OptionGroup level) {
+        Specification variant = root.getVariant(mods, getVersions(mods),
+                                                level);
+        if (variant != sharedTypes) shareTypes(variant);
+        return variant;
+    }
+
+    /**
+     * Gets the options of this shared specification as XML.
+     *
+     * @return The options XML.
+     */
+    private synchronized String getOptionsXML() {
+        if (optionsXML == null) optionsXML = writeOptions(getTopOptionGroups());
+        return optionsXML;
+    }
+
+    /**
+     * Gets the option groups that are not part of another group.
+     *
+     * @return A list of <code>OptionGroup</code>s.
+     */
+    private List<OptionGroup> getTopOptionGroups() {
+        List<OptionGroup> result = new ArrayList<OptionGroup>();
+        for (OptionGroup item : allOptionGroups.values()) {
+            if ("".equals(item.getGroup())) result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Writes option groups as an "options" element.
+     *
+     * @param groups The <code>OptionGroup</code>s to write.
+     * @return The XML.
+     */
+    private static String writeOptions(List<OptionGroup> groups) {
+        StringWriter sw = new StringWriter();
+        try {
+            XMLStreamWriter out = XMLOutputFactory.newInstance()
+                .createXMLStreamWriter(sw);
+            out.writeStartElement("options");
+            for (OptionGroup group : groups) group.toXML(out);
+            out.writeEndElement();
+            out.close();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Error writing options: "
+                + e.getMessage());
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Reads an "options" element into this specification.
+     *
+     * @param xml The XML to read.
+     */
+    private void readOptions(String xml) {
+        try {
+            XMLStreamReader xsr = XMLInputFactory.newInstance()
+                .createXMLStreamReader(new StringReader(xml));
+            xsr.nextTag();
+            readerMap.get("options").readChildren(xsr);
+            xsr.close();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Error reading options: "
+                + e.getMessage());
+        }
+    }
+
+    /**
+     * Uses the types of another specification.
+     *
+     * @param from The <code>Specification</code> to take the types from.
+     */
+    private void shareTypes(Specification from) {
+        allTypes.clear();
+        allTypes.putAll(from.allTypes);
+        experts.clear();
+        experts.putAll(from.experts);
+        // Copy the lists, so modifiers added to this specification
+        // do not leak into the shared one.
+        allAbilities.clear();
+        for (Map.Entry<String, List<Ability>> entry
+                 : from.allAbilities.entrySet()) {
+            allAbilities.put(entry.getKey(),
+                new ArrayList<Ability>(entry.getValue()));
+        }
+        allModifiers.clear();
+        for (Map.Entry<String, List<Modifier>> entry
+                 : from.allModifiers.entrySet()) {
+            allModifiers.put(entry.getKey(),
+                new ArrayList<Modifier>(entry.getValue()));
+        }
+        copyList(from.buildingTypeList, buildingTypeList);
+        copyList(from.goodsTypeList, goodsTypeList);
+        copyList(from.farmedGoodsTypeList, farmedGoodsTypeList);
+        copyList(from.foodGoodsTypeList, foodGoodsTypeList);
+        copyList(from.newWorldGoodsTypeList, newWorldGoodsTypeList);
+        copyList(from.libertyGoodsTypeList, libertyGoodsTypeList);
+        copyList(from.immigrationGoodsTypeList, immigrationGoodsTypeList);
+        copyList(from.rawBuildingGoodsTypeList, rawBuildingGoodsTypeList);
+        copyList(from.resourceTypeList, resourceTypeList);
+        copyList(from.tileTypeList, tileTypeList);
+        copyList(from.tileImprovementTypeList, tileImprovementTypeList);
+        copyList(from.unitTypeList, unitTypeList);
+        copyList(from.unitTypesTrainedInEurope, unitTypesTrainedInEurope);
+        copyList(from.unitTypesPurchasedInEurope, unitTypesPurchasedInEurope);
+        copyList(from.foundingFathers, foundingFathers);
+        copyList(from.nations, nations);
+        copyList(from.europeanNations, europeanNations);
+        copyList(from.REFNations, REFNations);
+        copyList(from.indianNations, indianNations);
+        copyList(from.nationTypes, nationTypes);
+        copyList(from.europeanNationTypes, europeanNationTypes);
+        copyList(from.REFNationTypes, REFNationTypes);
+        copyList(from.indianNationTypes, indianNationTypes);
+        copyList(from.equipmentTypes, equipmentTypes);
+        copyList(from.roles, roles);
+        copyList(from.events, events);
+        copyList(from.disasters, disasters);
+        copyList(from.specialModifiers, specialModifiers);
+        storableTypes = from.storableTypes;
+        cachedFastestLandUnitType = null;
+        cachedFastestNavalUnitType = null;
+        tileProductionCache.clear();
+        sharedTypes = from;
+    }
+
+    private static <T> void copyList(List<T> from, List<T> to) {
+        to.clear();
+        to.addAll(from);
+    }
+
+    /**
+     * Takes a private copy of the shared types, so that they can be
+     * changed.  The option values are kept.
+     */
+    private void detach() {
+        if (sharedTypes == null) return;
+        String options = writeOptions(getTopOptionGroups());
+        shareTypes(new Specification());
+        sharedTypes = null;
+        initialized = false;
+        load(new ByteArrayInputStream(root.source));
+        clean();
+        for (FreeColModFile mod : mods) loadMod(mod);
+        readOptions(options);
+        if (difficultyLevel != null) applyDifficultyLevel(difficultyLevel);
+        initialized = true;
+    }
+
     private void load(InputStream in) {
 
         try {
@@ -227,10 +575,112 @@ public final class Specification {
         }
     }
 
+    /**
+     * Loads mods into this specification.  A specification got with
+     * {@link #getShared} switches to a shared copy of the types with
+     * the mods loaded, which is only parsed the first time the mods
+     * are used with its rule set.  Options changed from the defaults
+     * keep their values, the others take those of the copy.
+     *
+     * @param mods The <code>FreeColModFile</code>s to load.
+     * @return True if any mod was loaded.
+     */
+    public boolean loadMods(List<FreeColModFile> mods) {
+        List<FreeColModFile> loaded = new ArrayList<FreeColModFile>(mods);
+        if (sharedTypes == null) {
+            Iterator<FreeColModFile> iterator = loaded.iterator();
+            while (iterator.hasNext()) {
+                if (!loadMod(iterator.next())) iterator.remove();
+            }
+        } else {
+            getVersions(loaded);
+            Map<String, Object> changed = getChangedOptions();
+            this.mods.addAll(loaded);
+            copyOptions(shareVariant((difficultyLevel == null) ? null
+                    : getOptionGroup(difficultyLevel)));
+            setOptionValues(changed);
+        }
+        return !loaded.isEmpty();
+    }
+
+    /**
+     * Gets the values of the options that differ from those of the
+     * shared types.
+     *
+     * @return A map of option identifier to value.
+     */
+    private Map<String, Object> getChangedOptions() {
+        Map<String, Object> changed = new HashMap<String, Object>();
+        for (Map.Entry<String, AbstractOption> entry : allOptions.entrySet()) {
+            AbstractOption option = entry.getValue();
+            AbstractOption original = sharedTypes.allOptions.get(entry.getKey());
+            if (original == null
+                || !Utils.equals(option.getValue(), original.getValue())) {
+                changed.put(entry.getKey(), option.getValue());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the values of options that are present in this specification.
+     *
+     * @param values A map of option identifier to value.
+     */
+    @SuppressWarnings("unchecked")
+    private void setOptionValues(Map<String, Object> values) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            AbstractOption option = allOptions.get(entry.getKey());
+            if (option != null) option.setValue(entry.getValue());
+        }
+    }
+
+    /**
+     * Loads a mod into this specification, logging any failure.
+     *
+     * @param mod The <code>FreeColModFile</code> to load.
+     * @return True if the mod was loaded.
+     */
+    private boolean loadMod(FreeColModFile mod) {
+        InputStream sis;
+        try {
+            sis = mod.getSpecificationInputStream();
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, "IO error in mod fragment "
+                + mod.getId(), ioe);
+            return false;
+        }
+        try {
+            loadFragment(sis);
+            logger.info("Loaded mod fragment " + mod.getId());
+            return true;
+        } catch (RuntimeException rte) {
+            logger.log(Level.WARNING, "Parse error in mod fragment "
+                + mod.getId(), rte);
+            return false;
+        } finally {
+            try {
+                sis.close();
+            } catch (IOException ioe) {}
+        }
+    }
+
     public void loadFragment(InputStream in) {
+        detach();
         initialized = false;
         load(in);
         initialized = true;
+        tileProductionCache.clear();
+    }
+
+    /**
+     * Gets the cache of tile production shared by all users of this
+     * specification.
+     *
+     * @return The <code>TileProductionCache</code>.
+     */
+    TileProductionCache getTileProductionCache() {
+        return tileProductionCache;
     }
 
     public void clean() {
@@ -515,6 +965,7 @@ public final class Specification {
             allModifiers.put(id, new ArrayList<Modifier>());
         }
         allModifiers.get(id).add(modifier);
+        tileProductionCache.clear();
     }
 
     /**
@@ -1190,8 +1641,13 @@ public final class Specification {
         logger.fine("Applying difficulty level " + level.getId());
         addOptionGroup(level, true);
 
-        for (FreeColGameObjectType type : allTypes.values()) {
-            type.applyDifficultyLevel(level);
+        if (sharedTypes != null) {
+            shareVariant(level);
+        } else {
+            for (FreeColGameObjectType type : allTypes.values()) {
+                type.applyDifficultyLevel(level);
+            }
+            tileProductionCache.clear();
         }
 
         this.difficultyLevel = level.getId();
@@ -1275,10 +1731,8 @@ public final class Specification {
         writeSection(out, "nations", nations);
         // option tree has been flattened
         out.writeStartElement("options");
-        for (OptionGroup item : allOptionGroups.values()) {
-            if ("".equals(item.getGroup())) {
-                item.toXML(out);
-            }
+        for (OptionGroup item : getTopOptionGroups()) {
+            item.toXML(out);
         }
         out.writeEndElement();
 
@@ -22,11 +22,9 @@ package net.sf.freecol.common.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -106,11 +104,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     private Settlement owningSettlement;
 
-    /**
-     * Stores each player's image of this tile. Only initialized when needed.
-     */
-    private java.util.Map<Player, PlayerExploredTile> playerExploredTiles;
-
     /**
      * Describe region here.
      */
@@ -148,6 +141,17 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     private int contiguity = -1;
 
+    /**
+     * The production key of this tile, null if it needs to be
+     * recalculated.  Not serialized.
+     */
+    private String productionKey = null;
+
+    /**
+     * The packed copy of the map tiles this tile is part of, if any.
+     */
+    private TileGrid grid = null;
+
 
     /**
      * A constructor to use.
@@ -167,10 +171,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
 
         owningSettlement = null;
         settlement = null;
-
-        if (!isViewShared()) {
-            playerExploredTiles = new HashMap<Player, PlayerExploredTile>();
-        }
     }
 
     /**
@@ -184,10 +184,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     public Tile(Game game, XMLStreamReader in) throws XMLStreamException {
         super(game, in);
 
-        if (!isViewShared()) {
-            playerExploredTiles = new HashMap<Player, PlayerExploredTile>();
-        }
-
         readFromXML(in);
     }
 
@@ -201,10 +197,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public Tile(Game game, String id) {
         super(game, id);
-
-        if (!isViewShared()) {
-            playerExploredTiles = new HashMap<Player, PlayerExploredTile>();
-        }
     }
 
     // ------------------------------------------------------------ static methods
@@ -218,7 +210,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * anyway.
      * Note that the following fields are shared--- do not mutate them!
      *   + The tile item container.
-     *   + The player explored tiles.
      * Colony.getCorrespondingWorkLocation() depends on the tics being shared.
      *
      * @return A scratch version of this tile.
@@ -233,7 +224,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             tileItemContainer = new TileItemContainer(getGame(), this);
         }
         scratch.tileItemContainer = tileItemContainer;
-        scratch.playerExploredTiles = playerExploredTiles;
         scratch.region = region;
         scratch.highSeasCount = highSeasCount;
         scratch.moveToEurope = moveToEurope;
@@ -246,7 +236,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void disposeScratchTile() {
         tileItemContainer = null;
-        playerExploredTiles = null;
         dispose();
     }
 
@@ -301,8 +290,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         } else {
             Player player = getGame().getCurrentPlayer();
             if (player != null) {
-                PlayerExploredTile pet = getPlayerExploredTile(player);
-                return (pet != null) ? getType().getNameKey() : "unexplored";
+                return (isExploredBy(player)) ? getType().getNameKey()
+                    : "unexplored";
             } else {
                 logger.warning("player == null");
                 return "";
@@ -442,6 +431,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setTileItemContainer(TileItemContainer newTileItemContainer) {
         tileItemContainer = newTileItemContainer;
+        invalidateProductionKey();
     }
 
     /**
@@ -641,6 +631,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setHighSeasCount(final int count) {
         this.highSeasCount = count;
+        if (grid != null) grid.setHighSeasCount(this, count);
     }
 
     /**
@@ -785,6 +776,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setOwner(Player owner) {
         this.owner = owner;
+        updateGrid();
     }
 
     /**
@@ -800,6 +792,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     public void setSettlement(Settlement s) {
         settlement = s;
         changeOwningSettlement(s);
+        updateGrid();
     }
 
     /**
@@ -863,6 +856,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setOwningSettlement(Settlement owner) {
         this.owningSettlement = owner;
+        invalidateNativeEconomies();
     }
 
     /**
@@ -1014,6 +1008,19 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @return True if this tile is shore.
      */
     public boolean isShore() {
+        if (grid != null && grid.indexOf(this) >= 0) {
+            final boolean land = isLand();
+            final boolean odd = (y & 1) != 0;
+            for (Direction d : Direction.allDirections) {
+                int nx = x + ((odd) ? d.getOddDX() : d.getEvenDX());
+                int ny = y + ((odd) ? d.getOddDY() : d.getEvenDY());
+                if (nx < 0 || nx >= grid.getWidth()
+                    || ny < 0 || ny >= grid.getHeight()) continue;
+                int i = grid.index(nx, ny);
+                if (grid.isPresent(i) && grid.isLand(i) != land) return true;
+            }
+            return false;
+        }
         for (Tile t : getSurroundingTiles(1)) {
             if (t.isLand() != this.isLand()) return true;
         }
@@ -1040,12 +1047,14 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             throw new IllegalArgumentException("Tile type must not be null");
         }
         type = t;
+        invalidateProductionKey();
         if (tileItemContainer != null) {
             tileItemContainer.removeIncompatibleImprovements();
         }
         if (!isLand()) {
             settlement = null;
         }
+        updateGrid();
 
         updatePlayerExploredTiles();
     }
@@ -1100,6 +1109,35 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setContiguity(int contiguity) {
         this.contiguity = contiguity;
+        if (grid != null) grid.setContiguity(this, contiguity);
+    }
+
+    /**
+     * Gets the basic cost of moving onto this tile from another, before
+     * any allowance for the moves a unit has left.  Moves between
+     * neighbouring tiles of the map are cached in the map grid.
+     *
+     * @param from The <code>Tile</code> moved from.
+     * @return The cost of the move.
+     */
+    public int getMoveCost(Tile from) {
+        int cost = (grid == null || from == null) ? -1
+            : grid.getMoveCost(from, this);
+        return (cost >= 0) ? cost : calculateMoveCost(from);
+    }
+
+    /**
+     * Calculates the basic cost of moving onto this tile from another.
+     *
+     * @param from The <code>Tile</code> moved from.
+     * @return The cost of the move.
+     */
+    int calculateMoveCost(Tile from) {
+        int cost = type.getBasicMoveCost();
+        if (isLand() && tileItemContainer != null) {
+            cost = tileItemContainer.getMoveCost(cost, from);
+        }
+        return cost;
     }
 
     /**
@@ -1188,6 +1226,9 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             return true;
         } else if (locatable instanceof Unit) {
             if (super.add(locatable)) {
+                if (grid != null) {
+                    grid.getUnitIndex().add((Unit)locatable, this);
+                }
                 ((Unit)locatable).setState(Unit.UnitState.ACTIVE);
                 return true;
             }
@@ -1210,6 +1251,9 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             updatePlayerExploredTiles(old);
             return true;
         } else {
+            if (locatable instanceof Unit && grid != null) {
+                grid.getUnitIndex().remove((Unit)locatable);
+            }
             return super.remove(locatable);
         }
     }
@@ -1231,6 +1275,107 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         }
     }
 
+    /**
+     * Gets the production key of this tile.  Tiles with the same key
+     * have the same production, as the key is made of the tile type,
+     * and the completed improvements and resources on the tile.
+     *
+     * @return The production key.
+     * @see TileProductionCache
+     */
+    String getProductionKey() {
+        if (productionKey == null) {
+            StringBuilder sb = new StringBuilder(type.getId());
+            if (tileItemContainer != null) {
+                for (TileItem item : tileItemContainer.getTileItems()) {
+                    if (item instanceof TileImprovement) {
+                        TileImprovement ti = (TileImprovement)item;
+                        if (!ti.isComplete()) continue;
+                        sb.append('|').append(ti.getType().getId())
+                            .append(':').append(ti.getMagnitude());
+                    } else if (item instanceof Resource) {
+                        Resource r = (Resource)item;
+                        sb.append('|').append(r.getType().getId());
+                        if (r.getQuantity() > -1) {
+                            sb.append(':').append(r.getQuantity());
+                        }
+                    }
+                }
+            }
+            productionKey = sb.toString();
+        }
+        return productionKey;
+    }
+
+    /**
+     * Invalidates the production key of this tile.  This must be
+     * called whenever the tile type, improvements or resources change.
+     * The grid entry depends on the same state so is updated too.
+     */
+    void invalidateProductionKey() {
+        productionKey = null;
+        updateGrid();
+        invalidateNativeEconomies();
+    }
+
+    /**
+     * Drops the economic profiles of the native settlements that may
+     * draw on this tile, after its production or owning settlement
+     * changed.
+     */
+    private void invalidateNativeEconomies() {
+        final TileGrid g = grid;
+        if (g == null || g.indexOf(this) < 0) return;
+        final Map map = g.getMap();
+        final int radius = IndianSettlement.getMaximumRadius(getSpecification());
+        for (int n = -1; n < Map.getCircleSize(radius); n++) {
+            Tile t = (n < 0) ? this : map.getCircleTile(x, y, n);
+            if (t == null || !g.hasSettlement(g.index(t.x, t.y))) continue;
+            IndianSettlement is = t.getIndianSettlement();
+            if (is != null && is.getTile().getDistanceTo(this) <= is.getRadius()) {
+                is.invalidateEconomy();
+            }
+        }
+    }
+
+    /**
+     * Attaches this tile to the packed copy of the tiles of its map.
+     *
+     * @param grid The <code>TileGrid</code> of the map.
+     */
+    void setGrid(TileGrid grid) {
+        this.grid = grid;
+        updateGrid();
+        if (grid != null) grid.getUnitIndex().updateTile(this);
+    }
+
+    /**
+     * Gets the index of the units on the map this tile belongs to.
+     *
+     * @return The <code>UnitIndex</code>, or null if the tile is not
+     *     attached to a map.
+     */
+    UnitIndex getUnitIndex() {
+        return (grid == null) ? null : grid.getUnitIndex();
+    }
+
+    /**
+     * Updates the entry of a unit on this tile in the unit index of
+     * the map after the unit changed owner.
+     *
+     * @param unit The <code>Unit</code> that changed owner.
+     */
+    void updateUnitOwner(Unit unit) {
+        if (grid != null) grid.getUnitIndex().updateOwner(unit);
+    }
+
+    /**
+     * Updates the entry of this tile in the grid of its map.
+     */
+    private void updateGrid() {
+        if (grid != null) grid.update(this);
+    }
+
     /**
      * The potential of this tile to produce a certain type of goods.
      *
@@ -1240,7 +1385,11 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      *         goods.
      */
     public int potential(GoodsType goodsType, UnitType unitType) {
-        return getTileTypePotential(getType(), goodsType, getTileItemContainer(), unitType);
+        if (type == null || goodsType == null || !goodsType.isFarmed()) {
+            return 0;
+        }
+        return getSpecification().getTileProductionCache()
+            .getPotential(this, goodsType, unitType);
     }
 
     /**
@@ -1253,6 +1402,21 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @return The maximum potential.
      */
     public int getMaximumPotential(GoodsType goodsType, UnitType unitType) {
+        if (type == null) return 0;
+        return getSpecification().getTileProductionCache()
+            .getMaximumPotential(this, goodsType, unitType);
+    }
+
+    /**
+     * Calculates the maximum potential for producing the given type
+     * of goods, bypassing the production cache.
+     *
+     * @param goodsType The type of goods.
+     * @param unitType an <code>UnitType</code> value
+     * @return The maximum potential.
+     * @see #getMaximumPotential
+     */
+    int calculateMaximumPotential(GoodsType goodsType, UnitType unitType) {
         // If we consider maximum potential to the effect of having
         // all possible improvements done, iterate through the
         // improvements and get the bonuses of all related ones.  If
@@ -1301,6 +1465,21 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public List<Modifier> getProductionModifiers(GoodsType goodsType,
                                                  UnitType unitType) {
+        return getSpecification().getTileProductionCache()
+            .getProductionModifiers(this, goodsType, unitType);
+    }
+
+    /**
+     * Calculates the production modifiers of this tile, bypassing the
+     * production cache.
+     *
+     * @param goodsType The <code>GoodsType</code> to produce.
+     * @param unitType The <code>UnitType</code> to produce with.
+     * @return A list of <code>Modifier</code>s.
+     * @see #getProductionModifiers
+     */
+    List<Modifier> calculateProductionModifiers(GoodsType goodsType,
+                                                UnitType unitType) {
         List<Modifier> result = new ArrayList<Modifier>();
         result.addAll(type.getProductionBonus(goodsType));
         if (tileItemContainer != null) {
@@ -1490,9 +1669,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      *     had visibility of this tile and should see the change.
      */
     public void updatePlayerExploredTiles(Player oldPlayer) {
-        if (playerExploredTiles == null || getGame().getViewOwner() != null) {
-            return;
-        }
+        if (isViewShared()) return;
         for (Player player : getGame().getLiveEuropeanPlayers()) {
             if (player == oldPlayer || player.canSee(this)) {
                 updatePlayerExploredTile(player, false);
@@ -1502,14 +1679,16 @@ public final class Tile extends UnitLocation implements Named, Ownable {
 
     /**
      * Gets the <code>PlayerExploredTile</code> for the given
-     * <code>Player</code>.
+     * <code>Player</code>.  Only tiles with tile items or a
+     * settlement have one.
      *
      * @param player The <code>Player</code>.
+     * @return The <code>PlayerExploredTile</code>, or null if none.
      * @see PlayerExploredTile
      */
     public PlayerExploredTile getPlayerExploredTile(Player player) {
-        return (playerExploredTiles == null) ? null
-            : playerExploredTiles.get(player);
+        return (isViewShared() || !player.isEuropean()) ? null
+            : player.getTileMemory().getDetails(this);
     }
 
     /**
@@ -1521,16 +1700,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      *    settlement present on the tile.
      */
     public void updatePlayerExploredTile(Player player, boolean full) {
-        if (playerExploredTiles == null || getGame().getViewOwner() != null
-            || !player.isEuropean()) {
-            return;
-        }
-        PlayerExploredTile pet = playerExploredTiles.get(player);
-        if (pet == null) {
-            pet = new PlayerExploredTile(getGame(), player, this);
-            playerExploredTiles.put(player, pet);
-        }
-        pet.update(full);
+        if (isViewShared() || !player.isEuropean()) return;
+        player.getTileMemory().update(this, full);
     }
 
     /**
@@ -1545,7 +1716,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     public boolean isExploredBy(Player player) {
         if (!player.isEuropean()) return true;
         if (!isExplored()) return false;
-        return getPlayerExploredTile(player) != null;
+        return !isViewShared() && player.getTileMemory().isExplored(this);
     }
 
     /**
@@ -1561,10 +1732,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         if (!player.isEuropean()) return;
         if (explored) {
             updatePlayerExploredTile(player, false);
-        } else {
-            if (playerExploredTiles != null) {
-                playerExploredTiles.remove(player);
-            }
+        } else if (!isViewShared()) {
+            player.getTileMemory().forget(this);
         }
     }
 
@@ -1788,8 +1957,9 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                 logger.warning("player is null, but showAll is false");
             }
         }
-        PlayerExploredTile pet = (showAll || toSavedGame) ? null
-            : getPlayerExploredTile(player);
+        TileMemory memory = (showAll || toSavedGame || isViewShared()
+            || !player.isEuropean() || !player.getTileMemory().isExplored(this))
+            ? null : player.getTileMemory();
 
         // Start element:
         out.writeStartElement(getXMLElementTagName());
@@ -1822,13 +1992,14 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                 out.writeAttribute("owningSettlement",
                     owningSettlement.getId());
             }
-        } else if (pet != null) {
-            if (pet.getOwner() != null) {
-                out.writeAttribute("owner", pet.getOwner().getId());
+        } else if (memory != null) {
+            Player oldOwner = memory.getOwner(this);
+            if (oldOwner != null) {
+                out.writeAttribute("owner", oldOwner.getId());
             }
-            if (pet.getOwningSettlement() != null) {
-                out.writeAttribute("owningSettlement",
-                    pet.getOwningSettlement().getId());
+            Settlement oldOwning = memory.getOwningSettlement(this);
+            if (oldOwning != null) {
+                out.writeAttribute("owningSettlement", oldOwning.getId());
             }
         }
         // End of attributes
@@ -1843,16 +2014,17 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                 && !isEmpty()) {
                 super.writeChildren(out, player, showAll, toSavedGame);
             }
-        } else if (pet != null) {
+        } else if (memory != null) {
             // Only display the settlement if we know it owns the tile
             // and we have a useful level of information about it.
             // This is a compromise, but something more precise is too
             // complex for the present.
+            PlayerExploredTile pet = memory.getDetails(this);
             if (settlement != null
-                && settlement == pet.getOwningSettlement()
-                && settlement.getOwner() == pet.getOwner()
+                && settlement == memory.getOwningSettlement(this)
+                && settlement.getOwner() == memory.getOwner(this)
                 && !(settlement instanceof Colony
-                    && pet.getColonyUnitCount() <= 0)) {
+                    && (pet == null || pet.getColonyUnitCount() <= 0))) {
                 settlement.toXML(out, player, showAll, toSavedGame);
             }
         }
@@ -1860,15 +2032,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             tileItemContainer.toXML(out, player, showAll, toSavedGame);
         }
 
-        // Save the pets.
-        if (toSavedGame && playerExploredTiles != null) {
-            for (Entry<Player, PlayerExploredTile> entry
-                     : playerExploredTiles.entrySet()) {
-                entry.getValue().toXML(out, entry.getKey(),
-                    showAll, toSavedGame);
-            }
-        }
-
         out.writeEndElement();
     }
 
@@ -1889,6 +2052,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         if (typeString != null) {
             type = getSpecification().getTileType(typeString);
         }
+        invalidateProductionKey();
 
         String str = in.getAttributeValue(null, "connected");
         if (str == null || "".equals(str)) {
@@ -1958,6 +2122,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         settlement = null;
 
         super.readChildren(in);
+        invalidateProductionKey();
 
         // Player settlement list is not passed in player updates
         // so do it here.  TODO: something better.
@@ -1985,6 +2150,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         if (getColony() != null && getColony().isTileInUse(this)) {
             getColony().invalidateCache();
         }
+        updateGrid();
+        if (grid != null) grid.getUnitIndex().updateTile(this);
     }
 
     /**
@@ -2011,16 +2178,19 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                 tileItemContainer = new TileItemContainer(getGame(), this, in);
             }
         } else if (in.getLocalName().equals(PlayerExploredTile.getXMLElementTagName())) {
-            // Only from a savegame:
-            Player player = getGame().getFreeColGameObject(in.getAttributeValue(null, "player"),
-                                                           Player.class);
-            PlayerExploredTile pet = getPlayerExploredTile(player);
-            if (pet == null) {
-                pet = new PlayerExploredTile(getGame(), in);
-                playerExploredTiles.put(player, pet);
-            } else {
-                pet.readFromXML(in);
+            // @compat 0.10.5
+            // Older saved games have the pets in the tiles.
+            Player player = getFreeColGameObject(in, "player", Player.class);
+            Player owner = getFreeColGameObject(in, "owner", Player.class,
+                                                null);
+            Settlement owning = getFreeColGameObject(in, "owningSettlement",
+                                                     Settlement.class, null);
+            PlayerExploredTile pet = new PlayerExploredTile(getGame(), this);
+            pet.readFromXML(in);
+            if (player != null && !isViewShared()) {
+                player.getTileMemory().setLegacy(this, owner, owning, pet);
             }
+            // end compatibility code
         } else {
             super.readChild(in);
         }
@@ -2034,39 +2204,9 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * TODO: remove when 0.9.x is not supported.
      */
     public void fixup09x() {
-        if (playerExploredTiles == null) return;
-        for (Entry<Player, PlayerExploredTile> e
-                 : playerExploredTiles.entrySet()) {
-            Player p = e.getKey();
-            PlayerExploredTile pet = e.getValue();
-            if (settlement != null) {
-                if (pet.getOwner() == null
-                    || pet.getOwningSettlement() == null) {
-                    if (p.canSee(this)) {
-                        // Correct with an ordinary update
-                        pet.update(false);
-                    } else if (settlement instanceof Colony) {
-                        if (pet.getColonyUnitCount() > 0) {
-                            // Have seen the colony, update the ownership
-                            // and the stockade level but not the unit count
-                            // as that is the one that was seen.
-                            pet.setOwner(settlement.getOwner());
-                            pet.setOwningSettlement(settlement);
-                            pet.setColonyStockadeKey(((Colony) settlement)
-                                .getStockadeKey());
-                        }
-                    } else if (settlement instanceof IndianSettlement) {
-                        // Unclear what has been seen, update just the ownership
-                        pet.setOwner(settlement.getOwner());
-                        pet.setOwningSettlement(settlement);
-                    }
-                }
-            } else {
-                if (pet.getOwningSettlement() != null
-                    && pet.getOwner() == null) {
-                    pet.setOwner(pet.getOwningSettlement().getOwner());
-                }
-            }
+        if (isViewShared()) return;
+        for (Player p : getGame().getLiveEuropeanPlayers()) {
+            p.getTileMemory().fixup09x(this);
         }
     }
 
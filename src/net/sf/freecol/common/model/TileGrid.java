@@ -0,0 +1,407 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.freecol.common.model.Map.Direction;
+
+
+/**
+ * A packed copy of the most used state of the tiles of a map.
+ *
+ * The tiles remain the master copy.  Each tile on the map updates its
+ * entry here whenever its type, improvements, owner, settlement,
+ * contiguity or high seas count change, so that loops over the whole
+ * map can read plain arrays instead of following references from
+ * tile to type to tile item container.  Tiles are indexed by
+ * <code>y * width + x</code>.
+ *
+ * The units standing on the tiles are indexed in a {@link UnitIndex}
+ * kept with the grid.
+ *
+ * The grid also caches the basic cost of moving between neighbouring
+ * tiles, filled in as paths are searched.  The cost of a move depends
+ * on the tile moved to and the improvements on both tiles, so the
+ * costs of moves to and from a tile are dropped whenever it changes.
+ */
+public final class TileGrid {
+
+    /** Flag set for positions holding a tile. */
+    public static final byte PRESENT = 0x01;
+
+    /** Flag set for explored tiles, that is tiles with a type. */
+    public static final byte EXPLORED = 0x02;
+
+    /** Flag set for land tiles. */
+    public static final byte LAND = 0x04;
+
+    /** Flag set for tiles with a road, complete or not. */
+    public static final byte ROAD = 0x08;
+
+    /** Flag set for tiles with a river. */
+    public static final byte RIVER = 0x10;
+
+    /** Flag set for tiles with a settlement. */
+    public static final byte SETTLEMENT = 0x20;
+
+    /** Flag set for tiles with a completed improvement. */
+    public static final byte IMPROVED = 0x40;
+
+    /** The map this grid shadows. */
+    private final Map map;
+
+    /** The dimensions of the map. */
+    private final int width, height;
+
+    /** The flags of each tile. */
+    private final byte[] flags;
+
+    /** The tile type index of each tile, -1 if unexplored. */
+    private final short[] types;
+
+    /** The owner of each tile, an index into owners, -1 for none. */
+    private final short[] ownerIndex;
+
+    /** The contiguity identifier of each tile. */
+    private final int[] contiguity;
+
+    /** The high seas count of each tile. */
+    private final int[] highSeasCount;
+
+    /** The players that have owned tiles. */
+    private final List<Player> owners = new ArrayList<Player>();
+
+    /** The units on the tiles. */
+    private final UnitIndex unitIndex;
+
+    /**
+     * The basic cost of moving onto each tile from each direction,
+     * indexed by tile index * 8 + direction, -1 if not yet known.
+     * Allocated on first use.
+     */
+    private int[] moveCosts = null;
+
+    /**
+     * Count of changes to tiles, so that a cost computed while a tile
+     * was changing is not stored.
+     */
+    private volatile int changes = 0;
+
+
+    /**
+     * Creates a new <code>TileGrid</code> for a map.
+     *
+     * @param map The <code>Map</code> to shadow.
+     * @param width The width of the map.
+     * @param height The height of the map.
+     */
+    TileGrid(Map map, int width, int height) {
+        this.map = map;
+        this.width = width;
+        this.height = height;
+        final int size = width * height;
+        flags = new byte[size];
+        types = new short[size];
+        ownerIndex = new short[size];
+        contiguity = new int[size];
+        highSeasCount = new int[size];
+        unitIndex = new UnitIndex(width, height);
+        Arrays.fill(types, (short)-1);
+        Arrays.fill(ownerIndex, (short)-1);
+        Arrays.fill(contiguity, -1);
+        Arrays.fill(highSeasCount, -1);
+    }
+
+    /**
+     * Gets the width of the grid.
+     *
+     * @return The width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the grid.
+     *
+     * @return The height.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the map this grid shadows.
+     *
+     * @return The <code>Map</code>.
+     */
+    Map getMap() {
+        return map;
+    }
+
+    /**
+     * Gets the index of the units on the tiles.
+     *
+     * @return The <code>UnitIndex</code>.
+     */
+    public UnitIndex getUnitIndex() {
+        return unitIndex;
+    }
+
+    /**
+     * Gets the index of a position.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The index of the position.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Gets the index of a tile on the map.
+     *
+     * @param tile The <code>Tile</code> to find.
+     * @return The index of the tile, or negative if the tile is not
+     *     the tile of the map at its position.
+     */
+    int indexOf(Tile tile) {
+        final int x = tile.getX(), y = tile.getY();
+        return (x < 0 || x >= width || y < 0 || y >= height
+            || map.getTile(x, y) != tile) ? -1 : index(x, y);
+    }
+
+    /**
+     * Copies the state of a tile into the grid.  Tiles that are not
+     * the tile of the map at their position are ignored.
+     *
+     * @param tile The <code>Tile</code> to copy.
+     */
+    void update(Tile tile) {
+        final int i = indexOf(tile);
+        if (i < 0) return;
+        final TileType type = tile.getType();
+        byte f = PRESENT;
+        if (type != null) {
+            f |= EXPLORED;
+            if (!type.isWater()) f |= LAND;
+        }
+        TileItemContainer tic = tile.getTileItemContainer();
+        if (tic != null) {
+            for (TileItem item : tic.getTileItems()) {
+                if (!(item instanceof TileImprovement)) continue;
+                TileImprovement ti = (TileImprovement) item;
+                if (ti.isRoad()) f |= ROAD;
+                if (ti.isRiver()) f |= RIVER;
+                if (ti.isComplete()) f |= IMPROVED;
+            }
+        }
+        if (tile.getSettlement() != null) f |= SETTLEMENT;
+        invalidateMoveCosts(tile.getX(), tile.getY());
+        flags[i] = f;
+        types[i] = getTypeIndex(type);
+        ownerIndex[i] = ownerIndex(tile.getOwner());
+        contiguity[i] = tile.getContiguity();
+        highSeasCount[i] = tile.getHighSeasCount();
+    }
+
+    /**
+     * Gets the index to store for a tile type.
+     *
+     * @param type The <code>TileType</code>, or null if unexplored.
+     * @return The tile type index.
+     */
+    private static short getTypeIndex(TileType type) {
+        return (short)((type == null) ? -1 : type.getIndex());
+    }
+
+    /**
+     * Drops the cached costs of moves to and from a tile.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     */
+    private void invalidateMoveCosts(int x, int y) {
+        changes++;
+        final int[] costs = moveCosts;
+        if (costs == null) return;
+        Arrays.fill(costs, index(x, y) * 8, index(x, y) * 8 + 8, -1);
+        final boolean odd = (y & 1) != 0;
+        for (Direction d : Direction.allDirections) {
+            int nx = x + ((odd) ? d.getOddDX() : d.getEvenDX());
+            int ny = y + ((odd) ? d.getOddDY() : d.getEvenDY());
+            if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+            int n = index(nx, ny) * 8;
+            Arrays.fill(costs, n, n + 8, -1);
+        }
+    }
+
+    /**
+     * Gets the basic cost of moving between neighbouring tiles,
+     * before any allowance for the moves a unit has left.
+     *
+     * @param from The <code>Tile</code> moved from.
+     * @param target The <code>Tile</code> moved to.
+     * @return The move cost, or negative if the tiles are not
+     *     neighbours on this grid.
+     */
+    int getMoveCost(Tile from, Tile target) {
+        final int i = indexOf(target);
+        if (i < 0 || indexOf(from) < 0) return -1;
+        final int tx = target.getX(), ty = target.getY();
+        final boolean odd = (ty & 1) != 0;
+        int k = -1;
+        for (Direction d : Direction.allDirections) {
+            if (tx + ((odd) ? d.getOddDX() : d.getEvenDX()) == from.getX()
+                && ty + ((odd) ? d.getOddDY() : d.getEvenDY()) == from.getY()) {
+                k = i * 8 + d.ordinal();
+                break;
+            }
+        }
+        if (k < 0) return -1;
+
+        int[] costs = moveCosts;
+        if (costs == null) {
+            synchronized (this) {
+                if (moveCosts == null) {
+                    int[] c = new int[width * height * 8];
+                    Arrays.fill(c, -1);
+                    moveCosts = c;
+                }
+                costs = moveCosts;
+            }
+        }
+        int cost = costs[k];
+        if (cost < 0) {
+            final int stamp = changes;
+            cost = target.calculateMoveCost(from);
+            if (stamp == changes) costs[k] = cost;
+        }
+        return cost;
+    }
+
+    /**
+     * Gets the owner index for a player.
+     *
+     * @param owner The <code>Player</code> owning a tile, or null.
+     * @return The owner index.
+     */
+    private synchronized short ownerIndex(Player owner) {
+        if (owner == null) return -1;
+        int i = owners.indexOf(owner);
+        if (i < 0) {
+            i = owners.size();
+            owners.add(owner);
+        }
+        return (short)i;
+    }
+
+    /**
+     * Clears a position that no longer holds a tile.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    void clear(int x, int y) {
+        final int i = index(x, y);
+        flags[i] = 0;
+        types[i] = -1;
+        ownerIndex[i] = -1;
+        contiguity[i] = -1;
+        highSeasCount[i] = -1;
+    }
+
+    /**
+     * Sets the contiguity of a tile.
+     *
+     * @param tile The <code>Tile</code> that changed.
+     * @param value The new contiguity identifier.
+     */
+    void setContiguity(Tile tile, int value) {
+        final int i = indexOf(tile);
+        if (i >= 0) contiguity[i] = value;
+    }
+
+    /**
+     * Sets the high seas count of a tile.
+     *
+     * @param tile The <code>Tile</code> that changed.
+     * @param value The new high seas count.
+     */
+    void setHighSeasCount(Tile tile, int value) {
+        final int i = indexOf(tile);
+        if (i >= 0) highSeasCount[i] = value;
+    }
+
+    // Accessors by index.
+
+    public byte getFlags(int i) {
+        return flags[i];
+    }
+
+    public boolean isPresent(int i) {
+        return (flags[i] & PRESENT) != 0;
+    }
+
+    public boolean isExplored(int i) {
+        return (flags[i] & EXPLORED) != 0;
+    }
+
+    public boolean isLand(int i) {
+        return (flags[i] & LAND) != 0;
+    }
+
+    public boolean hasRoad(int i) {
+        return (flags[i] & ROAD) != 0;
+    }
+
+    public boolean hasRiver(int i) {
+        return (flags[i] & RIVER) != 0;
+    }
+
+    public boolean hasSettlement(int i) {
+        return (flags[i] & SETTLEMENT) != 0;
+    }
+
+    public boolean isImproved(int i) {
+        return (flags[i] & IMPROVED) != 0;
+    }
+
+    public int getTypeIndex(int i) {
+        return types[i];
+    }
+
+    public synchronized Player getOwner(int i) {
+        int o = ownerIndex[i];
+        return (o < 0) ? null : owners.get(o);
+    }
+
+    public int getContiguity(int i) {
+        return contiguity[i];
+    }
+
+    public int getHighSeasCount(int i) {
+        return highSeasCount[i];
+    }
+}
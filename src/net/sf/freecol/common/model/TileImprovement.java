@@ -120,6 +120,7 @@ public class TileImprovement extends TileItem implements Named {
 
     public void setMagnitude(int magnitude) {
         this.magnitude = magnitude;
+        if (tile != null) tile.invalidateProductionKey();
     }
 
     /**
@@ -190,6 +191,7 @@ public class TileImprovement extends TileItem implements Named {
      */
     public void setTurnsToComplete(int turns) {
         turnsToComplete = turns;
+        if (tile != null) tile.invalidateProductionKey();
     }
 
     /**
@@ -453,7 +455,7 @@ public class TileImprovement extends TileItem implements Named {
         style = Integer.parseInt(in.getAttributeValue(null, "style"));
 
         virtual = getAttribute(in, "virtual", false);
-
+        tile.invalidateProductionKey();
     }
 
     /**
@@ -112,6 +112,7 @@ public class TileItemContainer extends FreeColGameObject {
      * is one, but only if the tile is actually being used.
      */
     private void invalidateCache() {
+        tile.invalidateProductionKey();
         Colony colony = tile.getColony();
         if (colony != null && colony.isTileInUse(tile)) {
             colony.invalidateCache();
@@ -417,6 +418,7 @@ public class TileItemContainer extends FreeColGameObject {
                 iterator.remove();
             }
         }
+        invalidateCache();
     }
 
     public void copyFrom(TileItemContainer tic) {
@@ -451,6 +453,7 @@ public class TileItemContainer extends FreeColGameObject {
                 }
             }
         }
+        invalidateCache();
     }
 
     /**
@@ -635,6 +638,7 @@ public class TileItemContainer extends FreeColGameObject {
         // @compat 0.9.x
         Collections.sort(tileItems, tileItemComparator);
         // @end compat
+        tile.invalidateProductionKey();
     }
 
     /**
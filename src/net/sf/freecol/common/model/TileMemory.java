@@ -0,0 +1,463 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+
+/**
+ * The tiles of the map as last seen by a European player.
+ *
+ * Every tile the player has explored has an entry in a packed array
+ * holding the owner of the tile as last seen, and a parallel array
+ * holds the owning settlement.  Only tiles with tile items or a
+ * settlement, of which there are few, have a full
+ * {@link PlayerExploredTile} holding the details.  Tiles are indexed
+ * by <code>y * width + x</code>.
+ *
+ * This is only used where the game is not view shared, that is, in
+ * the server.
+ */
+public class TileMemory {
+
+    private static final Logger logger = Logger.getLogger(TileMemory.class.getName());
+
+    /** Owner code of an unexplored tile. */
+    private static final short UNEXPLORED = 0;
+
+    /** Owner code of an explored tile without an owner. */
+    private static final short NO_OWNER = 1;
+
+    /** Characters used to save the owner codes. */
+    private static final String OWNER_CHARS
+        = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /** Character prefixing owner codes saved in two characters. */
+    private static final char OWNER_ESCAPE = '~';
+
+    /** The tag of the owning settlements of tiles. */
+    private static final String OWNING_SETTLEMENT_TAG = "owningSettlement";
+
+    /** The player whose memory this is. */
+    private final Player player;
+
+    /** The map remembered, the memory is reset if the map changes. */
+    private Map map = null;
+
+    /** The width of the map. */
+    private int width = 0;
+
+    /**
+     * The owner codes, one per tile.  Codes from 2 upwards are
+     * indexes into <code>ownerList</code>.
+     */
+    private short[] owners = null;
+
+    /** The players that have been seen owning tiles. */
+    private final List<Player> ownerList = new ArrayList<Player>();
+
+    /** The owning settlements, one per tile, allocated when needed. */
+    private Settlement[] owningSettlements = null;
+
+    /** The details of tiles with tile items or settlements. */
+    private final java.util.Map<Integer, PlayerExploredTile> details
+        = new HashMap<Integer, PlayerExploredTile>();
+
+
+    /**
+     * Creates a new <code>TileMemory</code>.
+     *
+     * @param player The <code>Player</code> whose memory this is.
+     */
+    public TileMemory(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * Resets the memory if the map has changed.
+     *
+     * @return True if there is a map.
+     */
+    private boolean checkMap() {
+        Map current = player.getGame().getMap();
+        if (current != map) {
+            map = current;
+            width = (map == null) ? 0 : map.getWidth();
+            owners = null;
+            owningSettlements = null;
+            ownerList.clear();
+            details.clear();
+        }
+        return map != null;
+    }
+
+    /**
+     * Gets the index of a tile.
+     *
+     * @param tile The <code>Tile</code> to find.
+     * @return The index of the tile, or negative if there is no map.
+     */
+    private int index(Tile tile) {
+        return (checkMap()) ? tile.getY() * width + tile.getX() : -1;
+    }
+
+    /**
+     * Gets the owner code for a player.
+     *
+     * @param owner The <code>Player</code> owning a tile, or null.
+     * @return The owner code.
+     */
+    private short ownerCode(Player owner) {
+        if (owner == null) return NO_OWNER;
+        int i = ownerList.indexOf(owner);
+        if (i < 0) {
+            i = ownerList.size();
+            ownerList.add(owner);
+        }
+        return (short)(i + 2);
+    }
+
+    /**
+     * Checks if a tile has been explored.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return True if the tile has been explored.
+     */
+    public synchronized boolean isExplored(Tile tile) {
+        int i = index(tile);
+        return i >= 0 && owners != null && owners[i] != UNEXPLORED;
+    }
+
+    /**
+     * Gets the owner of a tile as last seen.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The owner of the tile, or null if none or unexplored.
+     */
+    public synchronized Player getOwner(Tile tile) {
+        int i = index(tile);
+        if (i < 0 || owners == null || owners[i] <= NO_OWNER) return null;
+        return ownerList.get(owners[i] - 2);
+    }
+
+    /**
+     * Gets the owning settlement of a tile as last seen.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The owning settlement of the tile, or null if none.
+     */
+    public synchronized Settlement getOwningSettlement(Tile tile) {
+        int i = index(tile);
+        return (i < 0 || owningSettlements == null) ? null
+            : owningSettlements[i];
+    }
+
+    /**
+     * Gets the details of a tile as last seen.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The <code>PlayerExploredTile</code> for the tile, or
+     *     null if the tile is unexplored or had nothing to remember.
+     */
+    public synchronized PlayerExploredTile getDetails(Tile tile) {
+        int i = index(tile);
+        return (i < 0) ? null : details.get(i);
+    }
+
+    /**
+     * Remembers the current state of a tile.  Tiles that are not
+     * on the map, such as scratch tiles, are ignored.
+     *
+     * @param tile The <code>Tile</code> to remember.
+     * @param full If true, also remember the information hidden
+     *     by a settlement on the tile.
+     */
+    public synchronized void update(Tile tile, boolean full) {
+        int i = index(tile);
+        if (i < 0 || map.getTile(tile.getX(), tile.getY()) != tile) return;
+        set(i, tile.getOwner(), tile.getOwningSettlement());
+
+        PlayerExploredTile pet = details.get(i);
+        if (PlayerExploredTile.hasDetails(tile)) {
+            if (pet == null) {
+                pet = new PlayerExploredTile(player.getGame(), tile);
+                details.put(i, pet);
+            }
+            pet.update(full);
+        } else if (pet != null) {
+            details.remove(i);
+        }
+    }
+
+    /**
+     * Sets the owner and owning settlement at an index.
+     *
+     * @param i The index of the tile.
+     * @param owner The <code>Player</code> owning the tile.
+     * @param owningSettlement The <code>Settlement</code> owning the tile.
+     */
+    private void set(int i, Player owner, Settlement owningSettlement) {
+        if (owners == null) {
+            owners = new short[width * map.getHeight()];
+        }
+        owners[i] = ownerCode(owner);
+        if (owningSettlement != null && owningSettlements == null) {
+            owningSettlements = new Settlement[owners.length];
+        }
+        if (owningSettlements != null) {
+            owningSettlements[i] = owningSettlement;
+        }
+    }
+
+    /**
+     * Forgets a tile, making it unexplored.
+     *
+     * @param tile The <code>Tile</code> to forget.
+     */
+    public synchronized void forget(Tile tile) {
+        int i = index(tile);
+        if (i < 0 || owners == null) return;
+        owners[i] = UNEXPLORED;
+        if (owningSettlements != null) owningSettlements[i] = null;
+        details.remove(i);
+    }
+
+    /**
+     * Sets the memory of a tile from the old per-tile save format.
+     *
+     * @param tile The <code>Tile</code> being read.
+     * @param owner The owner of the tile as last seen.
+     * @param owningSettlement The owning settlement as last seen.
+     * @param pet The <code>PlayerExploredTile</code> read.
+     */
+    synchronized void setLegacy(Tile tile, Player owner,
+                                Settlement owningSettlement,
+                                PlayerExploredTile pet) {
+        int i = index(tile);
+        if (i < 0) return;
+        set(i, owner, owningSettlement);
+        details.put(i, pet);
+    }
+
+    /**
+     * Corrects the ownership of a tile with a settlement as last seen,
+     * for games saved by 0.9.x which did not record it.
+     *
+     * @param tile The <code>Tile</code> to correct.
+     */
+    synchronized void fixup09x(Tile tile) {
+        int i = index(tile);
+        if (i < 0 || owners == null || owners[i] == UNEXPLORED) return;
+        Settlement settlement = tile.getSettlement();
+        Player owner = (owners[i] <= NO_OWNER) ? null
+            : ownerList.get(owners[i] - 2);
+        Settlement owning = (owningSettlements == null) ? null
+            : owningSettlements[i];
+        PlayerExploredTile pet = details.get(i);
+        if (settlement != null) {
+            if (owner != null && owning != null) return;
+            if (player.canSee(tile)) {
+                // Correct with an ordinary update
+                update(tile, false);
+            } else if (settlement instanceof Colony) {
+                if (pet != null && pet.getColonyUnitCount() > 0) {
+                    // Have seen the colony, update the ownership
+                    // and the stockade level but not the unit count
+                    // as that is the one that was seen.
+                    set(i, settlement.getOwner(), settlement);
+                    pet.setColonyStockadeKey(((Colony) settlement)
+                        .getStockadeKey());
+                }
+            } else if (settlement instanceof IndianSettlement) {
+                // Unclear what has been seen, update just the ownership
+                set(i, settlement.getOwner(), settlement);
+            }
+        } else if (owning != null && owner == null) {
+            set(i, owning.getOwner(), owning);
+        }
+    }
+
+
+    /**
+     * Writes this memory to a saved game.
+     *
+     * The explored tiles and their owners are written as one
+     * character per tile, '.' for unexplored, '-' for no owner,
+     * otherwise an index into the list of owners.  Indexes past the
+     * end of the owner characters are written as '~' and two more
+     * characters.  The owning
+     * settlements are grouped by settlement, and the details of
+     * each tile follow.
+     *
+     * @param out The target stream.
+     * @throws XMLStreamException if there are any problems writing
+     *     to the stream.
+     */
+    public synchronized void toXML(XMLStreamWriter out)
+        throws XMLStreamException {
+        if (owners == null || map != player.getGame().getMap()) return;
+
+        out.writeStartElement(getXMLElementTagName());
+        out.writeAttribute("player", player.getId());
+        StringBuilder sb = new StringBuilder();
+        for (Player p : ownerList) {
+            if (sb.length() > 0) sb.append(" ");
+            sb.append(p.getId());
+        }
+        out.writeAttribute("owners", sb.toString());
+        sb = new StringBuilder(owners.length);
+        final int base = OWNER_CHARS.length();
+        for (short code : owners) {
+            if (code == UNEXPLORED) {
+                sb.append('.');
+            } else if (code == NO_OWNER) {
+                sb.append('-');
+            } else if (code - 2 < base) {
+                sb.append(OWNER_CHARS.charAt(code - 2));
+            } else if (code - 2 - base < base * base) {
+                int extra = code - 2 - base;
+                sb.append(OWNER_ESCAPE)
+                    .append(OWNER_CHARS.charAt(extra / base))
+                    .append(OWNER_CHARS.charAt(extra % base));
+            } else {
+                throw new XMLStreamException("Too many tile owners: "
+                    + ownerList.size());
+            }
+        }
+        out.writeAttribute("explored", sb.toString());
+
+        if (owningSettlements != null) {
+            java.util.Map<Settlement, StringBuilder> owned
+                = new LinkedHashMap<Settlement, StringBuilder>();
+            for (int i = 0; i < owningSettlements.length; i++) {
+                Settlement s = owningSettlements[i];
+                if (s == null) continue;
+                StringBuilder tiles = owned.get(s);
+                if (tiles == null) {
+                    owned.put(s, tiles = new StringBuilder());
+                } else {
+                    tiles.append(" ");
+                }
+                tiles.append(i % width).append(",").append(i / width);
+            }
+            for (Entry<Settlement, StringBuilder> e : owned.entrySet()) {
+                out.writeStartElement(OWNING_SETTLEMENT_TAG);
+                out.writeAttribute(FreeColObject.ID_ATTRIBUTE,
+                                   e.getKey().getId());
+                out.writeAttribute("tiles", e.getValue().toString());
+                out.writeEndElement();
+            }
+        }
+
+        for (PlayerExploredTile pet : details.values()) {
+            pet.toXMLImpl(out, player, true, true);
+        }
+        out.writeEndElement();
+    }
+
+    /**
+     * Reads this memory from a saved game.  The map must already
+     * have been read.
+     *
+     * @param in The input stream with the XML.
+     * @throws XMLStreamException if a problem was encountered
+     *     during parsing.
+     */
+    public synchronized void readFromXML(XMLStreamReader in)
+        throws XMLStreamException {
+        Game game = player.getGame();
+        map = null;
+        if (!checkMap()) {
+            throw new XMLStreamException("Tile memory without a map");
+        }
+
+        String ownerIds = in.getAttributeValue(null, "owners");
+        if (ownerIds != null && ownerIds.length() > 0) {
+            for (String id : ownerIds.split(" ")) {
+                ownerList.add(game.getFreeColGameObject(id, Player.class));
+            }
+        }
+        String explored = in.getAttributeValue(null, "explored");
+        owners = new short[width * map.getHeight()];
+        final int base = OWNER_CHARS.length();
+        for (int i = 0, j = 0; i < owners.length && j < explored.length();
+             i++) {
+            char c = explored.charAt(j++);
+            if (c == OWNER_ESCAPE && j + 1 < explored.length()) {
+                int extra = OWNER_CHARS.indexOf(explored.charAt(j++)) * base
+                    + OWNER_CHARS.indexOf(explored.charAt(j++));
+                owners[i] = (short)(extra + base + 2);
+            } else {
+                owners[i] = (c == '.') ? UNEXPLORED
+                    : (c == '-') ? NO_OWNER
+                    : (short)(OWNER_CHARS.indexOf(c) + 2);
+            }
+        }
+
+        while (in.nextTag() != XMLStreamConstants.END_ELEMENT) {
+            String tag = in.getLocalName();
+            if (OWNING_SETTLEMENT_TAG.equals(tag)) {
+                Settlement s = game.getFreeColGameObject(in
+                    .getAttributeValue(null, FreeColObject.ID_ATTRIBUTE),
+                    Settlement.class);
+                String tiles = in.getAttributeValue(null, "tiles");
+                if (s != null && tiles != null && tiles.length() > 0) {
+                    if (owningSettlements == null) {
+                        owningSettlements = new Settlement[owners.length];
+                    }
+                    for (String xy : tiles.split(" ")) {
+                        int comma = xy.indexOf(',');
+                        owningSettlements[Integer.parseInt(xy.substring(comma + 1)) * width
+                            + Integer.parseInt(xy.substring(0, comma))] = s;
+                    }
+                }
+                in.nextTag();
+            } else if (PlayerExploredTile.getXMLElementTagName().equals(tag)) {
+                PlayerExploredTile pet = new PlayerExploredTile(game,
+                    map.getTile(0, 0));
+                pet.readFromXML(in);
+                Tile tile = pet.getTile();
+                details.put(tile.getY() * width + tile.getX(), pet);
+            } else {
+                logger.warning("Unknown tag: " + tag + " loading tile memory");
+                in.nextTag();
+            }
+        }
+    }
+
+    /**
+     * Gets the tag name of the root element representing this object.
+     *
+     * @return "tileMemory".
+     */
+    public static String getXMLElementTagName() {
+        return "tileMemory";
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+
+/**
+ * Memoizes the production of tiles.  Tile production only depends on
+ * the tile type, the completed improvements and the resources on the
+ * tile, which together make up the production key of the tile (see
+ * {@link Tile#getProductionKey}).  Tiles with the same key share
+ * their entries, so the cache is shared by all the colonies and
+ * players using the specification.
+ *
+ * The tile invalidates its key when it is improved, so entries never
+ * go stale.  The whole cache is cleared when the features of the
+ * specification change.
+ */
+final class TileProductionCache {
+
+    /**
+     * The production of tiles with a given production key.
+     */
+    private static class Entry {
+
+        /** The potential production by goods type and unit type. */
+        public final java.util.Map<GoodsType, java.util.Map<UnitType, Integer>>
+            potential = new HashMap<GoodsType,
+                java.util.Map<UnitType, Integer>>();
+
+        /** The maximum potential by goods type and unit type. */
+        public final java.util.Map<GoodsType, java.util.Map<UnitType, Integer>>
+            maximum = new HashMap<GoodsType,
+                java.util.Map<UnitType, Integer>>();
+
+        /** The production modifiers by goods type and unit type. */
+        public final java.util.Map<GoodsType,
+            java.util.Map<UnitType, List<Modifier>>> modifiers
+            = new HashMap<GoodsType, java.util.Map<UnitType, List<Modifier>>>();
+    }
+
+    /** The entries by production key. */
+    private final java.util.Map<String, Entry> entries
+        = new HashMap<String, Entry>();
+
+
+    /**
+     * Clears the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of distinct production keys in the cache.
+     *
+     * @return The number of cached keys.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the potential production of a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @param goodsType The <code>GoodsType</code> to produce.
+     * @param unitType The <code>UnitType</code> to produce with (may be null).
+     * @return The potential production.
+     * @see Tile#potential
+     */
+    public synchronized int getPotential(Tile tile, GoodsType goodsType,
+                                         UnitType unitType) {
+        java.util.Map<UnitType, Integer> m
+            = lookup(getEntry(tile).potential, goodsType);
+        Integer result = m.get(unitType);
+        if (result == null) {
+            result = Integer.valueOf(Tile.getTileTypePotential(tile.getType(),
+                    goodsType, tile.getTileItemContainer(), unitType));
+            m.put(unitType, result);
+        }
+        return result.intValue();
+    }
+
+    /**
+     * Gets the maximum potential production of a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @param goodsType The <code>GoodsType</code> to produce.
+     * @param unitType The <code>UnitType</code> to produce with (may be null).
+     * @return The maximum potential production.
+     * @see Tile#getMaximumPotential
+     */
+    public synchronized int getMaximumPotential(Tile tile, GoodsType goodsType,
+                                                UnitType unitType) {
+        java.util.Map<UnitType, Integer> m
+            = lookup(getEntry(tile).maximum, goodsType);
+        Integer result = m.get(unitType);
+        if (result == null) {
+            result = Integer.valueOf(tile.calculateMaximumPotential(goodsType,
+                    unitType));
+            m.put(unitType, result);
+        }
+        return result.intValue();
+    }
+
+    /**
+     * Gets the production modifiers of a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @param goodsType The <code>GoodsType</code> to produce.
+     * @param unitType The <code>UnitType</code> to produce with (may be null).
+     * @return An unmodifiable list of <code>Modifier</code>s.
+     * @see Tile#getProductionModifiers
+     */
+    public synchronized List<Modifier> getProductionModifiers(Tile tile,
+        GoodsType goodsType, UnitType unitType) {
+        java.util.Map<UnitType, List<Modifier>> m
+            = lookup(getEntry(tile).modifiers, goodsType);
+        List<Modifier> result = m.get(unitType);
+        if (result == null) {
+            result = Collections.unmodifiableList(tile
+                .calculateProductionModifiers(goodsType, unitType));
+            m.put(unitType, result);
+        }
+        return result;
+    }
+
+    private Entry getEntry(Tile tile) {
+        String key = tile.getProductionKey();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static <T> java.util.Map<UnitType, T> lookup(
+        java.util.Map<GoodsType, java.util.Map<UnitType, T>> map,
+        GoodsType goodsType) {
+        java.util.Map<UnitType, T> result = map.get(goodsType);
+        if (result == null) {
+            result = new HashMap<UnitType, T>();
+            map.put(goodsType, result);
+        }
+        return result;
+    }
+}
@@ -1502,13 +1502,7 @@ public class Unit extends GoodsLocation
 
         // TODO: also pass direction, so that we can check for rivers
 
-        int cost = target.getType().getBasicMoveCost();
-        if (target.isLand()) {
-            TileItemContainer container = target.getTileItemContainer();
-            if (container != null) {
-                cost = container.getMoveCost(cost, from);
-            }
-        }
+        int cost = target.getMoveCost(from);
 
         if (isBeached(from)) {
             // Ship on land due to it was in a colony which was abandoned
@@ -1552,6 +1546,43 @@ public class Unit extends GoodsLocation
         return getMoveType(getTile(), target, getMovesLeft());
     }
 
+    /**
+     * Is a move to a tile quiet, that is, one that can be made on
+     * behalf of the owner without anything happening that the owner
+     * would need to respond to?  Only simple moves qualify, and they
+     * must not land for the first time, discover a region or make
+     * contact with another player.
+     *
+     * @param newTile The <code>Tile</code> to move to.
+     * @return True if the move is quiet.
+     */
+    public boolean isQuietMove(Tile newTile) {
+        final Player owner = getOwner();
+        switch (getMoveType(newTile)) {
+        case MOVE: case MOVE_HIGH_SEAS:
+            break;
+        default:
+            return false;
+        }
+        if (newTile.getDiscoverableRegion() != null) return false;
+        if (newTile.isLand()) {
+            if (owner.isEuropean()
+                && !owner.isNewLandNamed()) return false;
+            for (Tile t : newTile.getSurroundingTiles(1)) {
+                if (!t.isLand()) continue;
+                Player other = (t.getSettlement() != null)
+                    ? t.getSettlement().getOwner()
+                    : (t.getFirstUnit() != null)
+                    ? t.getFirstUnit().getOwner()
+                    : null;
+                if (other != null && other != owner
+                    && owner.getStance(other)
+                    == Player.Stance.UNCONTACTED) return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Gets the type of a move that is made when moving from one tile
      * to another.
@@ -2530,6 +2561,7 @@ public class Unit extends GoodsLocation
             }
         }
         owner.setUnit(this);
+        if (location instanceof Tile) ((Tile)location).updateUnitOwner(this);
         if(getType() != null) {     // can be null if setOwner() is called from fixIntegrity()
             owner.modifyScore(getType().getScoreValue());
         }
@@ -2620,7 +2652,9 @@ public class Unit extends GoodsLocation
             } else {
                 owner.modifyScore(newUnitType.getScoreValue() - unitType.getScoreValue());
             }
+            boolean naval = unitType != null && unitType.isNaval();
             this.unitType = newUnitType;
+            if (naval != newUnitType.isNaval()) owner.invalidateUnitLists();
             if (getMovesLeft() > getInitialMovesLeft()) {
                 setMovesLeft(getInitialMovesLeft());
             }
@@ -0,0 +1,326 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+
+/**
+ * An index of the units standing on the tiles of a map, bucketed by
+ * area, so that the units near a tile can be found without walking
+ * every tile in range or every unit of a player.
+ *
+ * The index holds the same units as the unit lists of the tiles,
+ * that is units on carriers or working in colonies are not included.
+ * Tiles keep it up to date as units are added to and removed from
+ * them, and units when they change owner.  Each bucket covers a
+ * square of {@link #BUCKET_SIZE} tiles on a side, and holds the units
+ * of all players as well as a list per player.
+ */
+public final class UnitIndex {
+
+    /** The number of tiles on each side of a bucket. */
+    public static final int BUCKET_SIZE = 8;
+
+    /** The log2 of the bucket size. */
+    private static final int BUCKET_SHIFT = 3;
+
+    /** Where a unit is indexed. */
+    private static class Place {
+
+        /** The tile the unit was indexed at. */
+        public final Tile tile;
+
+        /** The owner the unit was indexed under. */
+        public Player owner;
+
+        /** The bucket the unit is in. */
+        public final int bucket;
+
+
+        public Place(Tile tile, Player owner, int bucket) {
+            this.tile = tile;
+            this.owner = owner;
+            this.bucket = bucket;
+        }
+    }
+
+    /** The dimensions of the map, and of the bucket array. */
+    private final int width, height, bucketsWide, bucketsHigh;
+
+    /** The units of all players in each bucket. */
+    private final List<List<Unit>> all;
+
+    /** The units of each player in each bucket. */
+    private final HashMap<Player, List<List<Unit>>> owned
+        = new HashMap<Player, List<List<Unit>>>();
+
+    /** Where each unit is indexed. */
+    private final HashMap<Unit, Place> places = new HashMap<Unit, Place>();
+
+
+    /**
+     * Creates a new empty <code>UnitIndex</code>.
+     *
+     * @param width The width of the map.
+     * @param height The height of the map.
+     */
+    UnitIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bucketsWide = (width + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        this.bucketsHigh = (height + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        this.all = makeBuckets();
+    }
+
+    /**
+     * Makes an empty list of buckets.
+     *
+     * @return A list of empty buckets.
+     */
+    private List<List<Unit>> makeBuckets() {
+        final int n = bucketsWide * bucketsHigh;
+        List<List<Unit>> buckets = new ArrayList<List<Unit>>(n);
+        for (int i = 0; i < n; i++) buckets.add(new ArrayList<Unit>(0));
+        return buckets;
+    }
+
+    /**
+     * Gets the bucket holding a position.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The bucket index.
+     */
+    private int bucket(int x, int y) {
+        return (y >> BUCKET_SHIFT) * bucketsWide + (x >> BUCKET_SHIFT);
+    }
+
+    /**
+     * Gets the buckets of a player, creating them if needed.
+     *
+     * @param player The <code>Player</code> to look up.
+     * @return The buckets of the player.
+     */
+    private List<List<Unit>> getBuckets(Player player) {
+        List<List<Unit>> buckets = owned.get(player);
+        if (buckets == null) {
+            buckets = makeBuckets();
+            owned.put(player, buckets);
+        }
+        return buckets;
+    }
+
+    /**
+     * Indexes a unit at a tile, removing any previous entry.
+     *
+     * @param unit The <code>Unit</code> to add.
+     * @param tile The <code>Tile</code> the unit is on.
+     */
+    synchronized void add(Unit unit, Tile tile) {
+        remove(unit);
+        final int x = tile.getX(), y = tile.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+        final int b = bucket(x, y);
+        final Player owner = unit.getOwner();
+        all.get(b).add(unit);
+        if (owner != null) getBuckets(owner).get(b).add(unit);
+        places.put(unit, new Place(tile, owner, b));
+    }
+
+    /**
+     * Removes a unit from the index, if present.
+     *
+     * @param unit The <code>Unit</code> to remove.
+     */
+    synchronized void remove(Unit unit) {
+        Place place = places.remove(unit);
+        if (place == null) return;
+        all.get(place.bucket).remove(unit);
+        if (place.owner != null) {
+            getBuckets(place.owner).get(place.bucket).remove(unit);
+        }
+    }
+
+    /**
+     * Moves a unit to the lists of its current owner.
+     *
+     * @param unit The <code>Unit</code> that changed owner.
+     */
+    synchronized void updateOwner(Unit unit) {
+        Place place = places.get(unit);
+        if (place == null || place.owner == unit.getOwner()) return;
+        if (place.owner != null) {
+            getBuckets(place.owner).get(place.bucket).remove(unit);
+        }
+        place.owner = unit.getOwner();
+        if (place.owner != null) {
+            getBuckets(place.owner).get(place.bucket).add(unit);
+        }
+    }
+
+    /**
+     * Replaces the units indexed at a tile with the units now on it.
+     *
+     * @param tile The <code>Tile</code> to update.
+     */
+    synchronized void updateTile(Tile tile) {
+        final int x = tile.getX(), y = tile.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+        for (Unit u : new ArrayList<Unit>(all.get(bucket(x, y)))) {
+            Place place = places.get(u);
+            if (place.tile.getX() == x && place.tile.getY() == y) remove(u);
+        }
+        for (Unit u : tile.getUnitList()) add(u, tile);
+    }
+
+    /**
+     * Gets the number of units in the index.
+     *
+     * @return The number of units.
+     */
+    public synchronized int getUnitCount() {
+        return places.size();
+    }
+
+    /**
+     * Gets the tile a unit is indexed at.
+     *
+     * @param unit The <code>Unit</code> to look up.
+     * @return The <code>Tile</code>, or null if the unit is not indexed.
+     */
+    public synchronized Tile getTile(Unit unit) {
+        Place place = places.get(unit);
+        return (place == null) ? null : place.tile;
+    }
+
+    /**
+     * Collects the units in a rectangle of buckets.
+     *
+     * @param buckets The buckets to collect from.
+     * @param x0 The left edge of the region, inclusive.
+     * @param y0 The top edge of the region, inclusive.
+     * @param x1 The right edge of the region, inclusive.
+     * @param y1 The bottom edge of the region, inclusive.
+     * @param centre If non-null, collect only units within
+     *     <code>radius</code> of this position.
+     * @param radius The radius to collect within.
+     * @param result The list to add to.
+     */
+    private void collect(List<List<Unit>> buckets, int x0, int y0,
+                         int x1, int y1, Map.Position centre, int radius,
+                         List<Unit> result) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width - 1, x1);
+        y1 = Math.min(height - 1, y1);
+        if (x0 > x1 || y0 > y1) return;
+        for (int by = y0 >> BUCKET_SHIFT; by <= y1 >> BUCKET_SHIFT; by++) {
+            for (int bx = x0 >> BUCKET_SHIFT; bx <= x1 >> BUCKET_SHIFT; bx++) {
+                for (Unit u : buckets.get(by * bucketsWide + bx)) {
+                    Tile t = places.get(u).tile;
+                    int x = t.getX(), y = t.getY();
+                    if (x < x0 || x > x1 || y < y0 || y > y1) continue;
+                    if (centre != null
+                        && centre.getDistance(t.getPosition()) > radius) {
+                        continue;
+                    }
+                    result.add(u);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the units within a distance of a tile.  A move to a
+     * neighbouring tile changes the y-coordinate by up to two, so
+     * the rectangle searched is twice as high as it is wide.
+     *
+     * @param buckets The buckets to collect from.
+     * @param tile The <code>Tile</code> at the centre.
+     * @param radius The distance to collect within.
+     * @param result The list to add to.
+     */
+    private void collectNear(List<List<Unit>> buckets, Tile tile, int radius,
+                             List<Unit> result) {
+        final int x = tile.getX(), y = tile.getY();
+        collect(buckets, x - radius, y - 2 * radius, x + radius,
+                y + 2 * radius, tile.getPosition(), radius, result);
+    }
+
+    /**
+     * Gets the units within a distance of a tile.
+     *
+     * @param tile The <code>Tile</code> at the centre.
+     * @param radius The distance to search within, 0 for the tile itself.
+     * @param owner If non-null, only collect units of this player.
+     * @return A list of units.
+     */
+    public synchronized List<Unit> getUnitsNear(Tile tile, int radius,
+                                                Player owner) {
+        List<Unit> result = new ArrayList<Unit>();
+        List<List<Unit>> buckets = (owner == null) ? all : owned.get(owner);
+        if (buckets != null) collectNear(buckets, tile, radius, result);
+        return result;
+    }
+
+    /**
+     * Gets the units within a rectangular region of the map.
+     *
+     * @param x The left edge of the region.
+     * @param y The top edge of the region.
+     * @param w The width of the region.
+     * @param h The height of the region.
+     * @param owner If non-null, only collect units of this player.
+     * @return A list of units.
+     */
+    public synchronized List<Unit> getUnitsIn(int x, int y, int w, int h,
+                                              Player owner) {
+        List<Unit> result = new ArrayList<Unit>();
+        List<List<Unit>> buckets = (owner == null) ? all : owned.get(owner);
+        if (buckets != null) {
+            collect(buckets, x, y, x + w - 1, y + h - 1, null, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the units of the players at war with a player within a
+     * distance of a tile.
+     *
+     * @param player The <code>Player</code> whose enemies to find.
+     * @param tile The <code>Tile</code> at the centre.
+     * @param radius The distance to search within.
+     * @return A list of enemy units.
+     */
+    public synchronized List<Unit> getEnemiesNear(Player player, Tile tile,
+                                                  int radius) {
+        List<Unit> result = new ArrayList<Unit>();
+        for (Entry<Player, List<List<Unit>>> e : owned.entrySet()) {
+            if (player.atWarWith(e.getKey())) {
+                collectNear(e.getValue(), tile, radius, result);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.networking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Map.Direction;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.server.FreeColServer;
+import net.sf.freecol.server.model.ServerPlayer;
+
+import org.w3c.dom.Element;
+
+
+/**
+ * The message sent when moving a unit several steps along a path.
+ * The server moves the unit for as long as the moves are legal and
+ * need no response from the player, and replies with a single update.
+ */
+public class ExecutePathMessage extends DOMMessage {
+
+    /**
+     * The id of the object to be moved.
+     */
+    private String unitId;
+
+    /**
+     * The directions to move in, separated by commas.
+     */
+    private String pathString;
+
+    /**
+     * Create a new <code>ExecutePathMessage</code> for the supplied
+     * unit and directions.
+     *
+     * @param unit The <code>Unit</code> to move.
+     * @param directions The <code>Direction</code>s to move in.
+     */
+    public ExecutePathMessage(Unit unit, List<Direction> directions) {
+        this.unitId = unit.getId();
+        StringBuilder sb = new StringBuilder();
+        for (Direction d : directions) {
+            if (sb.length() > 0) sb.append(",");
+            sb.append(String.valueOf(d));
+        }
+        this.pathString = sb.toString();
+    }
+
+    /**
+     * Create a new <code>ExecutePathMessage</code> from a
+     * supplied element.
+     *
+     * @param game The <code>Game</code> this message belongs to.
+     * @param element The <code>Element</code> to use to create the message.
+     */
+    public ExecutePathMessage(Game game, Element element) {
+        this.unitId = element.getAttribute("unit");
+        this.pathString = element.getAttribute("path");
+    }
+
+    /**
+     * Handle a "executePath"-message.
+     *
+     * @param server The <code>FreeColServer</code> handling the message.
+     * @param player The <code>Player</code> the message applies to.
+     * @param connection The <code>Connection</code> message was received on.
+     * @return An update containing the moved unit, or an error
+     *     <code>Element</code> on failure.
+     */
+    public Element handle(FreeColServer server, Player player,
+                          Connection connection) {
+        ServerPlayer serverPlayer = server.getPlayer(connection);
+
+        Unit unit;
+        try {
+            unit = player.getFreeColGameObject(unitId, Unit.class);
+        } catch (Exception e) {
+            return DOMMessage.clientError(e.getMessage());
+        }
+        if (unit.getTile() == null) {
+            return DOMMessage.clientError("Unit is not on the map: "
+                + unitId);
+        }
+
+        List<Tile> tiles = new ArrayList<Tile>();
+        Tile tile = unit.getTile();
+        for (String s : pathString.split(",")) {
+            Direction direction;
+            try {
+                direction = Enum.valueOf(Direction.class, s);
+            } catch (Exception e) {
+                return DOMMessage.clientError(e.getMessage());
+            }
+            tile = tile.getNeighbourOrNull(direction);
+            if (tile == null) {
+                return DOMMessage.clientError("Path leaves the map: "
+                    + pathString);
+            }
+            tiles.add(tile);
+        }
+
+        // Proceed to move.
+        return server.getInGameController()
+            .executePath(serverPlayer, unit, tiles);
+    }
+
+    /**
+     * Convert this ExecutePathMessage to XML.
+     *
+     * @return The XML representation of this message.
+     */
+    public Element toXMLElement() {
+        return createMessage(getXMLElementTagName(),
+            "unit", this.unitId,
+            "path", this.pathString);
+    }
+
+    /**
+     * The tag name of the root element representing this object.
+     *
+     * @return "executePath".
+     */
+    public static String getXMLElementTagName() {
+        return "executePath";
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.networking;
+
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.server.FreeColServer;
+import net.sf.freecol.server.model.ServerPlayer;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+
+/**
+ * The message sent to fetch a rectangle of the map.  A client
+ * joining a game is only sent the skeleton of the map, and fetches
+ * the rest of the tiles it has explored with this message.
+ */
+public class GetMapChunkMessage extends DOMMessage {
+
+    /** The size of the chunks a client should ask for. */
+    public static final int CHUNK_SIZE = 16;
+
+    /** The rectangle to fetch. */
+    private int x, y, width, height;
+
+    /** The player to fetch the tiles for, on the server side. */
+    private Player player;
+
+    /** The tiles, on the client side. */
+    private Element chunk;
+
+
+    /**
+     * Create a new <code>GetMapChunkMessage</code> for a rectangle
+     * of the map.
+     *
+     * @param x The left edge of the rectangle.
+     * @param y The top edge of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    public GetMapChunkMessage(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.player = null;
+        this.chunk = null;
+    }
+
+    /**
+     * Create a new <code>GetMapChunkMessage</code> from a
+     * supplied element.
+     *
+     * @param element The <code>Element</code> to use to create the message.
+     */
+    public GetMapChunkMessage(Element element) {
+        this.x = Integer.parseInt(element.getAttribute("x"));
+        this.y = Integer.parseInt(element.getAttribute("y"));
+        this.width = Integer.parseInt(element.getAttribute("width"));
+        this.height = Integer.parseInt(element.getAttribute("height"));
+        this.player = null;
+        NodeList nodes = element.getChildNodes();
+        this.chunk = (nodes == null || nodes.getLength() != 1) ? null
+            : (Element)nodes.item(0);
+    }
+
+    /**
+     * Client side helper to get the tiles.
+     *
+     * @return A "map"-element holding the tiles, to be read with
+     *     {@link Map#readChunkFromXMLElement}.
+     */
+    public Element getMapChunk() {
+        return chunk;
+    }
+
+    /**
+     * Handle a "getMapChunk"-message.
+     *
+     * @param server The <code>FreeColServer</code> handling the message.
+     * @param connection The <code>Connection</code> message was received on.
+     *
+     * @return The tiles in the rectangle that the player has explored,
+     *         or an error <code>Element</code> on failure.
+     */
+    public Element handle(FreeColServer server, Connection connection) {
+        ServerPlayer serverPlayer = server.getPlayer(connection);
+        Map map = serverPlayer.getGame().getMap();
+        if (map == null) {
+            return DOMMessage.clientError("No map");
+        } else if (width <= 0 || height <= 0
+            || !map.isValid(x, y)) {
+            return DOMMessage.clientError("Invalid map chunk: " + x
+                + "," + y + " " + width + "x" + height);
+        }
+
+        // Proceed to get the tiles.
+        player = serverPlayer;
+        return toXMLElement();
+    }
+
+    /**
+     * Convert this GetMapChunkMessage to XML.
+     *
+     * @return The XML representation of this message.
+     */
+    public Element toXMLElement() {
+        Element result = createMessage(getXMLElementTagName(),
+            "x", Integer.toString(x),
+            "y", Integer.toString(y),
+            "width", Integer.toString(width),
+            "height", Integer.toString(height));
+        if (player != null) {
+            result.appendChild(player.getGame().getMap()
+                .toXMLElementChunk(player, result.getOwnerDocument(),
+                                   x, y, width, height));
+        }
+        return result;
+    }
+
+    /**
+     * The tag name of the root element representing this object.
+     *
+     * @return "getMapChunk".
+     */
+    public static String getXMLElementTagName() {
+        return "getMapChunk";
+    }
+}
@@ -72,7 +72,8 @@ public class LoginMessage extends DOMMessage {
      * @param singlePlayer True in single player games.
      * @param currentPlayer True if this player is the current player.
      * @param activeUnit The current active <code>Unit</code>, or null.
-     * @param game The entire game.
+     * @param game The entire game.  Only the skeleton of the map is
+     *     sent, see {@link GetMapChunkMessage}.
      */
     public LoginMessage(Player player, String userName, String version,
                         boolean startGame, boolean singlePlayer,
@@ -178,8 +179,10 @@ public class LoginMessage extends DOMMessage {
             "singlePlayer", Boolean.toString(singlePlayer),
             "currentPlayer", Boolean.toString(currentPlayer),
             "activeUnit", activeUnitId);
-        result.appendChild(game.toXMLElement(player, result.getOwnerDocument(),
-                                             false, false));
+        // Only send the skeleton of the map, the client fetches the
+        // rest with GetMapChunkMessage.
+        result.appendChild(game.toXMLElementSkeleton(player,
+                result.getOwnerDocument()));
         return result;
     }
 
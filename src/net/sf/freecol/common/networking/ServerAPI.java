@@ -562,6 +562,26 @@ public abstract class ServerAPI {
         return result;
     }
 
+    /**
+     * Server query-response for fetching a rectangle of the map.
+     *
+     * @param x The left edge of the rectangle.
+     * @param y The top edge of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @return A "map"-element holding the explored tiles in the
+     *     rectangle, or null on error.
+     */
+    public Element getMapChunk(int x, int y, int width, int height) {
+        GetMapChunkMessage message
+            = new GetMapChunkMessage(x, y, width, height);
+        Element reply = askExpecting(message,
+            GetMapChunkMessage.getXMLElementTagName(), null);
+        if (reply == null) return null;
+
+        return new GetMapChunkMessage(reply).getMapChunk();
+    }
+
     /**
      * Server query-response for asking for the nation summary of a player.
      *
@@ -733,6 +753,18 @@ public abstract class ServerAPI {
             null, null);
     }
 
+    /**
+     * Server query-response for moving a unit along a path.
+     *
+     * @param unit The <code>Unit</code> to move.
+     * @param directions The directions to move in.
+     * @return True if the server interaction succeeded.
+     */
+    public boolean executePath(Unit unit, List<Direction> directions) {
+        return askHandling(new ExecutePathMessage(unit, directions),
+            null, null);
+    }
+
     /**
      * Server query-response for moving to across the high seas.
      *
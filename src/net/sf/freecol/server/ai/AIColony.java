@@ -209,6 +209,7 @@ public class AIColony extends AIObject implements PropertyChangeListener {
             disposeList.add(ti);
         }
         for (AIObject o : disposeList) o.dispose();
+        tileImprovementPlansChanged();
         colonyPlan = null;
         // Do not clear this.colony, the id is still required.
         super.dispose();
@@ -1274,7 +1275,20 @@ public class AIColony extends AIObject implements PropertyChangeListener {
      * @return True if it was successfully deleted, false otherwise
      */
     public boolean removeTileImprovementPlan(TileImprovementPlan plan){
-        return tileImprovementPlans.remove(plan);
+        if (!tileImprovementPlans.remove(plan)) return false;
+        tileImprovementPlansChanged();
+        return true;
+    }
+
+    /**
+     * Tells the owner that the tile improvement plans of this colony
+     * have changed.
+     */
+    private void tileImprovementPlansChanged() {
+        AIPlayer owner = getAIOwner();
+        if (owner instanceof EuropeanAIPlayer) {
+            ((EuropeanAIPlayer)owner).tileImprovementPlansChanged(this);
+        }
     }
 
     /**
@@ -1359,6 +1373,7 @@ public class AIColony extends AIObject implements PropertyChangeListener {
         tileImprovementPlans.clear();
         tileImprovementPlans.addAll(newPlans);
         Collections.sort(tileImprovementPlans);
+        tileImprovementPlansChanged();
     }
 
 
@@ -1370,6 +1385,8 @@ public class AIColony extends AIObject implements PropertyChangeListener {
     public void propertyChange(PropertyChangeEvent event) {
         logger.finest("Property change REARRANGE_WORKERS fired.");
         requestRearrange();
+        // The colony tiles may have changed, so revalidate the plans.
+        tileImprovementPlansChanged();
     }
 
     /**
@@ -180,8 +180,19 @@ public class AIMessage {
      * @return True if the message was sent, and a non-error reply returned.
      */
     public static boolean askAttack(AIUnit aiUnit, Direction direction) {
-        return sendMessage(aiUnit.getAIOwner().getConnection(),
-                           new AttackMessage(aiUnit.getUnit(), direction));
+        final Unit unit = aiUnit.getUnit();
+        final Tile tile = (unit.getTile() == null) ? null
+            : unit.getTile().getNeighbourOrNull(direction);
+        final List<Unit> defenders = (tile == null) ? null
+            : tile.getUnitList();
+        boolean result = sendMessage(aiUnit.getAIOwner().getConnection(),
+                                     new AttackMessage(unit, direction));
+        AIPlayer owner = aiUnit.getAIOwner();
+        owner.updateInfluence(unit);
+        if (defenders != null) {
+            for (Unit u : defenders) owner.updateInfluence(u);
+        }
+        return result;
     }
 
 
@@ -494,8 +505,11 @@ public class AIMessage {
      * @return True if the message was sent, and a non-error reply returned.
      */
     public static boolean askMove(AIUnit aiUnit, Direction direction) {
-        return sendMessage(aiUnit.getAIOwner().getConnection(),
-                           new MoveMessage(aiUnit.getUnit(), direction));
+        boolean result = sendMessage(aiUnit.getAIOwner().getConnection(),
+                                     new MoveMessage(aiUnit.getUnit(),
+                                                     direction));
+        aiUnit.getAIOwner().updateInfluence(aiUnit.getUnit());
+        return result;
     }
 
 
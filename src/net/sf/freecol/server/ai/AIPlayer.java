@@ -83,6 +83,12 @@ public abstract class AIPlayer extends AIObject {
      */
     private List<AIUnit> aiUnits = new ArrayList<AIUnit>();
 
+    /**
+     * The military influence map of this player, built on demand and
+     * dropped when the player starts working.
+     */
+    private InfluenceMap influenceMap = null;
+
 
     /**
      * Creates a new AI player.
@@ -200,6 +206,38 @@ public abstract class AIPlayer extends AIObject {
         aiUnits.clear();
     }
 
+    /**
+     * Gets the military influence map for this player, building it
+     * if there is none for the current turn.
+     *
+     * @return The <code>InfluenceMap</code>.
+     */
+    public InfluenceMap getInfluenceMap() {
+        final int turn = getGame().getTurn().getNumber();
+        if (influenceMap == null || influenceMap.getTurn() != turn) {
+            influenceMap = new InfluenceMap(getPlayer());
+        }
+        return influenceMap;
+    }
+
+    /**
+     * Drops the military influence map, so that it is rebuilt when
+     * next needed.
+     */
+    protected void clearInfluenceMap() {
+        influenceMap = null;
+    }
+
+    /**
+     * Updates the influence of a unit that has moved or fought, if
+     * there is an influence map to update.
+     *
+     * @param unit The <code>Unit</code> to update.
+     */
+    public void updateInfluence(Unit unit) {
+        if (influenceMap != null) influenceMap.updateUnit(unit);
+    }
+
     /**
      * Removes an AI unit owned by this player.
      *
@@ -214,7 +252,7 @@ public abstract class AIPlayer extends AIObject {
      */
     private void createAIUnits() {
         clearAIUnits();
-        for (Unit u : getPlayer().getUnits()) {
+        for (Unit u : getPlayer().getUnitList()) {
             AIUnit a = getAIUnit(u);
             if (a != null) {
                 aiUnits.add(a);
@@ -242,7 +280,7 @@ public abstract class AIPlayer extends AIObject {
      */
     public List<AIColony> getAIColonies() {
         List<AIColony> ac = new ArrayList<AIColony>();
-        for (Colony colony : getPlayer().getColonies()) {
+        for (Colony colony : getPlayer().getColonyList()) {
             AIColony a = getAIColony(colony);
             if (a != null) {
                 ac.add(a);
@@ -34,6 +34,7 @@ import net.sf.freecol.common.model.BuildableType;
 import net.sf.freecol.common.model.Building;
 import net.sf.freecol.common.model.BuildingType;
 import net.sf.freecol.common.model.Colony;
+import net.sf.freecol.common.model.ColonyOptimizer;
 import net.sf.freecol.common.model.ColonyTile;
 import net.sf.freecol.common.model.EquipmentType;
 import net.sf.freecol.common.model.FreeColObject;
@@ -857,12 +858,11 @@ public class ColonyPlan {
         double wagonNeed = 0.0;
         if (!colony.isConnectedPort()) { // Inland colonies need transportation
             int wagons = 0;
-            for (Unit u : player.getUnits()) {
-                if (u.hasAbility(Ability.CARRY_GOODS)
-                    && !u.isNaval()) wagons++;
+            for (Unit u : player.getLandUnitList()) {
+                if (u.hasAbility(Ability.CARRY_GOODS)) wagons++;
             }
             int inland = 0;
-            for (Colony c : player.getColonies()) {
+            for (Colony c : player.getColonyList()) {
                 if (!c.isConnectedPort()) inland++;
             }
             if (inland > wagons) {
@@ -1262,6 +1262,73 @@ public class ColonyPlan {
         return special;
     }
 
+    /**
+     * Improves the assignment of the workers in a scratch colony using
+     * the {@link ColonyOptimizer}.  The slots chosen by the plans are
+     * kept, but the units are redistributed among them to maximize
+     * the production, weighting the goods by their position on the
+     * produce list.
+     *
+     * The result is abandoned if any unit would be left out, or if it
+     * runs the food stock down too quickly.
+     *
+     * @param scratch The scratch <code>Colony</code> to improve.
+     * @return True if the assignment was changed.
+     */
+    private boolean improveAssignment(Colony scratch) {
+        final GoodsType foodType = spec().getPrimaryFoodType();
+        final List<GoodsType> produce = getPreferredProduction();
+        List<Unit> units = new ArrayList<Unit>();
+        ColonyOptimizer optimizer = new ColonyOptimizer(scratch);
+        optimizer.setStockTurns(PRODUCTION_TURNOVER_TURNS);
+        for (GoodsType g : spec().getGoodsTypeList()) {
+            int index = produce.indexOf(g);
+            optimizer.setWeight(g, (g.isFoodType()) ? 1.0
+                : (index < 0) ? 0.0
+                : (double)(produce.size() - index));
+        }
+        for (WorkLocation wl : scratch.getAvailableWorkLocations()) {
+            for (Unit u : wl.getUnitList()) {
+                if (u.getWorkType() == null) continue;
+                if (optimizer.getWeight(u.getWorkType()) == 0.0) {
+                    optimizer.setWeight(u.getWorkType(), 1.0);
+                }
+                optimizer.addSlot(wl, u.getWorkType());
+                units.add(u);
+            }
+        }
+        if (units.size() < 2) return false;
+
+        Map<Unit, ColonyOptimizer.Job> assignment = optimizer.optimize(units);
+        if (assignment.size() != units.size()) return false;
+        Map<Unit, WorkLocation> oldLocation
+            = new HashMap<Unit, WorkLocation>();
+        Map<Unit, GoodsType> oldWork = new HashMap<Unit, GoodsType>();
+        int oldNet = scratch.getAdjustedNetProductionOf(foodType);
+        for (Unit u : units) {
+            oldLocation.put(u, (WorkLocation)u.getLocation());
+            oldWork.put(u, u.getWorkType());
+            u.setLocation(scratch.getTile());
+        }
+        for (Entry<Unit, ColonyOptimizer.Job> e : assignment.entrySet()) {
+            e.getKey().setLocation(e.getValue().getWorkLocation());
+            e.getKey().setWorkType(e.getValue().getGoodsType());
+        }
+
+        int net = scratch.getAdjustedNetProductionOf(foodType);
+        if (net < oldNet && net < 0
+            && scratch.getGoodsCount(foodType) / -net
+            < PRODUCTION_TURNOVER_TURNS) {
+            for (Unit u : units) u.setLocation(scratch.getTile());
+            for (Unit u : units) {
+                u.setLocation(oldLocation.get(u));
+                u.setWorkType(oldWork.get(u));
+            }
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Tries to apply a colony plan given a list of workers.
      *
@@ -1604,6 +1671,11 @@ plans:          for (WorkLocationPlan w : getFoodPlans()) {
             }
         }
 
+        // Finally redistribute the units among the chosen slots.
+        if (improveAssignment(scratch)) {
+            report += "Improved assignment\n";
+        }
+
         // Rearm what remains as far as possible.
         workers.clear();
         for (Unit u : tile.getUnitList()) {
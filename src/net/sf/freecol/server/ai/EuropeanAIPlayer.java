@@ -23,8 +23,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import javax.xml.stream.XMLStreamException;
@@ -200,6 +202,21 @@ public class EuropeanAIPlayer extends AIPlayer {
     private final java.util.Map<Tile, TileImprovementPlan> tipMap
         = new HashMap<Tile, TileImprovementPlan>();
 
+    /** The plans of each colony as last entered into the tipMap. */
+    private final java.util.Map<AIColony, List<TileImprovementPlan>> tipLists
+        = new HashMap<AIColony, List<TileImprovementPlan>>();
+
+    /** The colony each plan in the tipMap came from. */
+    private final java.util.Map<TileImprovementPlan, AIColony> tipColonies
+        = new HashMap<TileImprovementPlan, AIColony>();
+
+    /** Colonies whose plans have changed since the tipMap was updated. */
+    private final Set<AIColony> tipDirty = new HashSet<AIColony>();
+
+    /** The scheduler sharing travel times between the transports. */
+    private final TransportScheduler transportScheduler
+        = new TransportScheduler();
+
     /**
      * Stores temporary information for sessions (trading with another player
      * etc).
@@ -265,27 +282,117 @@ public class EuropeanAIPlayer extends AIPlayer {
     }
 
     /**
-     * Builds a map of locations to TileImprovementPlans.
-     * Called by startWorking at the start of every turn.
+     * Builds a map of locations to TileImprovementPlans from scratch.
      * Public for the test suite.
      */
     public void buildTipMap() {
         tipMap.clear();
-        for (AIColony aic : getAIColonies()) {
+        tipLists.clear();
+        tipColonies.clear();
+        tipDirty.clear();
+        updateTipMap();
+    }
+
+    /**
+     * Updates the map of locations to TileImprovementPlans.  Only the
+     * plans of new colonies and of colonies that have reported a
+     * change are revalidated, the rest of the map is kept.
+     * Called by startWorking at the start of every turn.
+     */
+    public void updateTipMap() {
+        List<AIColony> colonies = getAIColonies();
+        Set<AIColony> dirty = new HashSet<AIColony>(tipDirty);
+        tipDirty.clear();
+        for (AIColony aic : colonies) {
+            if (!tipLists.containsKey(aic)) dirty.add(aic);
+        }
+        for (AIColony aic : tipLists.keySet()) {
+            if (!colonies.contains(aic)) dirty.add(aic);
+        }
+        if (dirty.isEmpty()) return;
+
+        // Withdraw the old plans of the dirty colonies.
+        Set<Tile> vacated = new HashSet<Tile>();
+        for (AIColony aic : dirty) {
+            List<TileImprovementPlan> old = tipLists.remove(aic);
+            if (old == null) continue;
+            for (TileImprovementPlan tip : old) {
+                tipColonies.remove(tip);
+                Tile target = tip.getTarget();
+                if (target != null && tipMap.get(target) == tip) {
+                    tipMap.remove(target);
+                    vacated.add(target);
+                }
+            }
+        }
+
+        // Enter their current valid plans.
+        for (AIColony aic : dirty) {
+            if (!colonies.contains(aic)) continue;
+            List<TileImprovementPlan> plans
+                = new ArrayList<TileImprovementPlan>();
             for (TileImprovementPlan tip : aic.getTileImprovementPlans()) {
                 if (!validateTileImprovementPlan(tip)) {
                     aic.removeTileImprovementPlan(tip);
                     continue;
                 }
-                if (tip.getPioneer() != null) continue;
-                TileImprovementPlan other = tipMap.get(tip.getTarget());
-                if (other == null || other.getValue() < tip.getValue()) {
-                    tipMap.put(tip.getTarget(), tip);
+                plans.add(tip);
+                tipColonies.put(tip, aic);
+                offerTileImprovementPlan(tip);
+            }
+            tipLists.put(aic, plans);
+        }
+        // The clean-up above may have reported the same colonies again.
+        tipDirty.removeAll(dirty);
+
+        // Another colony may have a plan for a vacated tile.
+        vacated.removeAll(tipMap.keySet());
+        if (!vacated.isEmpty()) {
+            for (List<TileImprovementPlan> plans : tipLists.values()) {
+                for (TileImprovementPlan tip : plans) {
+                    if (vacated.contains(tip.getTarget())) {
+                        offerTileImprovementPlan(tip);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Enters a plan into the tipMap if it is not being worked on and
+     * is better than any existing plan for its tile.
+     *
+     * @param tip The <code>TileImprovementPlan</code> to offer.
+     */
+    private void offerTileImprovementPlan(TileImprovementPlan tip) {
+        if (tip.getPioneer() != null) return;
+        TileImprovementPlan other = tipMap.get(tip.getTarget());
+        if (other == null || other.getValue() < tip.getValue()) {
+            tipMap.put(tip.getTarget(), tip);
+        }
+    }
+
+    /**
+     * Notes that the tile improvement plans of a colony have changed,
+     * so they must be reconsidered at the next tipMap update.
+     *
+     * @param aic The <code>AIColony</code> that changed.
+     */
+    public void tileImprovementPlansChanged(AIColony aic) {
+        tipDirty.add(aic);
+    }
+
+    /**
+     * Notes that a tile improvement plan has changed (e.g. it has
+     * gained or lost a pioneer).
+     *
+     * @param tip The <code>TileImprovementPlan</code> that changed.
+     */
+    public void tileImprovementPlanChanged(TileImprovementPlan tip) {
+        AIColony aic = tipColonies.get(tip);
+        if (aic != null) tipDirty.add(aic);
+    }
+
     /**
      * Gets the best plan for a tile from the tipMap.
      *
@@ -1069,10 +1176,10 @@ public class EuropeanAIPlayer extends AIPlayer {
         }
 
         // For all transportables, find the best carrier.
-        // 
-        // That is the one with space available that is closest.
-        // TODO: this concentrates on packing, but ignores destinations
-        // which is definitely going to be inefficient
+        //
+        // That is the one with space available that can collect and
+        // deliver the transportable soonest, starting from the end
+        // of its current route.
         // TODO: be smarter about removing bestTransport from
         // availableMissions when it is full.
         while (!transportables.isEmpty() && !availableMissions.isEmpty()) {
@@ -1092,45 +1199,9 @@ public class EuropeanAIPlayer extends AIPlayer {
                     }
                 }
             }
-        
-            TransportMission bestTransport = null;
-            int bestTransportSpace = 0;
-            int bestTransportTurns = Integer.MAX_VALUE;
-            for (TransportMission tm : availableMissions) {
-                int transportSpace = tm.getAvailableSpace(t);
-                if (transportSpace <= 0) continue;
-                if (t instanceof AIUnit) {
-                    if (!tm.getUnit().canCarryUnits()) continue;
-                } else if (t instanceof AIGoods) {
-                    if (!tm.getUnit().canCarryGoods()) continue;
-                }                    
-                if (t.getTransportSource() != null
-                    && (t.getTransportSource().getTile()
-                        == tm.getUnit().getTile())) {
-                    if (bestTransportTurns > 0
-                        || (bestTransportTurns == 0
-                            && transportSpace > bestTransportSpace)) {
-                        bestTransport = tm;
-                        bestTransportSpace = transportSpace;
-                        bestTransportTurns = 0;
-                    }
-                    continue;
-                }
-                PathNode p;
-                int totalTurns = (t.getTransportDestination() != null
-                    && t.getTransportDestination().getTile()
-                    == tm.getUnit().getTile()) ? 0
-                    : ((p = tm.getTransportPath(t)) == null) ? -1
-                    : p.getTotalTurns();
-                if (totalTurns <= 0) continue;
-                if (totalTurns < bestTransportTurns
-                    || (totalTurns == bestTransportTurns
-                        && transportSpace > bestTransportSpace)) {
-                    bestTransport = tm;
-                    bestTransportSpace = transportSpace;
-                    bestTransportTurns = totalTurns;
-                }
-            }
+
+            TransportMission bestTransport
+                = transportScheduler.selectTransport(t, availableMissions);
             if (bestTransport == null) {
                 logger.finest("Transport unavailable: " + t);
                 continue;
@@ -1145,6 +1216,17 @@ public class EuropeanAIPlayer extends AIPlayer {
     }
 
 
+    /**
+     * Gets the scheduler that shares travel times between the
+     * transport missions of this player.
+     *
+     * @return The <code>TransportScheduler</code>.
+     */
+    public TransportScheduler getTransportScheduler() {
+        return transportScheduler;
+    }
+
+
     // AIPlayer interface
 
     /**
@@ -1158,10 +1240,11 @@ public class EuropeanAIPlayer extends AIPlayer {
             + ": " + Utils.lastPart(getPlayer().getNationID(), "."));
         sessionRegister.clear();
         clearAIUnits();
+        clearInfluenceMap();
         cheat();
         determineStances();
         if (turn.isFirstTurn()) initializeMissions();
-        buildTipMap();
+        updateTipMap();
         rearrangeWorkersInColonies();
         abortInvalidAndOneTimeMissions();
         giveNormalMissions();
@@ -0,0 +1,330 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.ai;
+
+import java.util.HashMap;
+
+import net.sf.freecol.common.model.CombatModel;
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.IndianSettlement;
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+
+
+/**
+ * The military influence of the units on the map, as seen by one
+ * player.
+ *
+ * Each unit on the map is measured once, without reference to any
+ * particular opponent, and its strength is spread over the tiles
+ * within {@link #RADIUS} of it, halving with each step away.  The
+ * strength of the player's own units is collected into offence and
+ * defence maps, and the offence and defence of units of players at
+ * war with the player into danger and opportunity maps, so that
+ * missions can weigh a tile with a few array lookups instead of
+ * pairing up units through the combat model.
+ *
+ * Other players do not move during the turn of the owning player, so
+ * the map is rebuilt when the player starts working, and otherwise
+ * updated one unit at a time as the player's units move and fight.
+ */
+public class InfluenceMap {
+
+    /** How far the influence of a unit reaches. */
+    public static final int RADIUS = 3;
+
+    /** The influence at each distance from a unit. */
+    private static final float[] DECAY = { 1.0f, 0.5f, 0.25f, 0.125f };
+
+    /** The strength of a unit, and where it was counted. */
+    private static class Strength {
+
+        /** The x and y coordinate of the tile the unit was counted at. */
+        public final int x, y;
+
+        /** The offence and defence power of the unit. */
+        public final float offence, defence;
+
+        /** Does the unit belong to the player, or to an enemy? */
+        public final boolean own, enemy;
+
+
+        public Strength(Tile tile, float offence, float defence,
+                        boolean own, boolean enemy) {
+            this.x = tile.getX();
+            this.y = tile.getY();
+            this.offence = offence;
+            this.defence = defence;
+            this.own = own;
+            this.enemy = enemy;
+        }
+    }
+
+    /** The player whose view this is. */
+    private final Player player;
+
+    /** The map measured. */
+    private final Map map;
+
+    /** The turn the map was built in. */
+    private final int turn;
+
+    /** The offence of the player's units reaching each tile. */
+    private final float[] offence;
+
+    /** The defence of the player's units reaching each tile. */
+    private final float[] defence;
+
+    /** The offence of enemy units reaching each tile. */
+    private final float[] danger;
+
+    /** The defence of enemy units reaching each tile. */
+    private final float[] opportunity;
+
+    /** The number of enemy units within range of each tile. */
+    private final int[] enemies;
+
+    /** The strength of each unit counted. */
+    private final HashMap<Unit, Strength> strengths
+        = new HashMap<Unit, Strength>();
+
+
+    /**
+     * Creates a new <code>InfluenceMap</code>, measuring all the
+     * units on the map.
+     *
+     * @param player The <code>Player</code> whose view to build.
+     */
+    public InfluenceMap(Player player) {
+        final Game game = player.getGame();
+        final int size = game.getMap().getWidth() * game.getMap().getHeight();
+        this.player = player;
+        this.map = game.getMap();
+        this.turn = game.getTurn().getNumber();
+        offence = new float[size];
+        defence = new float[size];
+        danger = new float[size];
+        opportunity = new float[size];
+        enemies = new int[size];
+
+        for (Player p : game.getPlayers()) {
+            for (Unit u : p.getUnitList()) updateUnit(u);
+        }
+    }
+
+
+    /**
+     * Gets the turn this map was built in.
+     *
+     * @return The turn number.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Is a unit counted on the map?  Only units standing on a tile or
+     * in a native settlement count.  Workers in colonies and units
+     * aboard carriers do not.
+     *
+     * @param unit The <code>Unit</code> to check.
+     * @return True if the unit counts.
+     */
+    private static boolean isCounted(Unit unit) {
+        if (unit.isDisposed()) return false;
+        Location loc = unit.getLocation();
+        return loc instanceof Tile || loc instanceof IndianSettlement;
+    }
+
+    /**
+     * Updates the influence of a unit, for example after it moved,
+     * fought or was destroyed.
+     *
+     * @param unit The <code>Unit</code> to update.
+     */
+    public void updateUnit(Unit unit) {
+        Strength s = strengths.remove(unit);
+        if (s != null) spread(s, -1.0f);
+        if (!isCounted(unit)) return;
+
+        final Tile tile = unit.getTile();
+        if (tile == null || map.getTile(tile.getX(), tile.getY()) != tile) {
+            return;
+        }
+        final CombatModel cm = unit.getGame().getCombatModel();
+        float off = (unit.isOffensiveUnit()) ? cm.getOffencePower(unit, null)
+            : 0.0f;
+        float def = cm.getDefencePower(null, unit);
+        s = new Strength(tile, off, def, unit.getOwner() == player,
+                         player.atWarWith(unit.getOwner()));
+        strengths.put(unit, s);
+        spread(s, 1.0f);
+    }
+
+    /**
+     * Adds or removes the influence of a unit.
+     *
+     * @param s The <code>Strength</code> of the unit.
+     * @param sign 1 to add the influence, -1 to remove it.
+     */
+    private void spread(Strength s, float sign) {
+        if (!s.own && !s.enemy) return;
+        if (s.enemy) enemies[index(s.x, s.y)] += (int)sign;
+        add(s.x, s.y, s, sign * DECAY[0]);
+        final int size = Map.getCircleSize(RADIUS);
+        int radius = 1;
+        for (int n = 0; n < size; n++) {
+            if (n >= Map.getCircleSize(radius)) radius++;
+            Tile t = map.getCircleTile(s.x, s.y, n);
+            if (t == null) continue;
+            if (s.enemy) enemies[index(t.getX(), t.getY())] += (int)sign;
+            add(t.getX(), t.getY(), s, sign * DECAY[radius]);
+        }
+    }
+
+    /**
+     * Adds a weighted strength to a tile.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @param s The <code>Strength</code> to add.
+     * @param weight The weight to add it with.
+     */
+    private void add(int x, int y, Strength s, float weight) {
+        final int i = index(x, y);
+        if (s.enemy) {
+            danger[i] += weight * s.offence;
+            opportunity[i] += weight * s.defence;
+        } else {
+            offence[i] += weight * s.offence;
+            defence[i] += weight * s.defence;
+        }
+    }
+
+    /**
+     * Gets the array index of a tile.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The index.
+     */
+    private int index(int x, int y) {
+        return y * map.getWidth() + x;
+    }
+
+    /**
+     * Gets the array index of a tile, checking that it belongs to the
+     * map measured.
+     *
+     * @param tile The <code>Tile</code> to look up.
+     * @return The index, or negative if the tile is not on the map.
+     */
+    private int indexOf(Tile tile) {
+        return (tile == null
+            || map.getTile(tile.getX(), tile.getY()) != tile) ? -1
+            : index(tile.getX(), tile.getY());
+    }
+
+    /**
+     * Gets the offence of the units of the player that reaches a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The offence.
+     */
+    public float getOffence(Tile tile) {
+        final int i = indexOf(tile);
+        return (i < 0) ? 0.0f : Math.max(0.0f, offence[i]);
+    }
+
+    /**
+     * Gets the defence of the units of the player that reaches a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The defence.
+     */
+    public float getDefence(Tile tile) {
+        final int i = indexOf(tile);
+        return (i < 0) ? 0.0f : Math.max(0.0f, defence[i]);
+    }
+
+    /**
+     * Gets the offence of enemy units that reaches a tile.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The danger at the tile.
+     */
+    public float getDanger(Tile tile) {
+        final int i = indexOf(tile);
+        return (i < 0) ? 0.0f : Math.max(0.0f, danger[i]);
+    }
+
+    /**
+     * Gets the defence of enemy units that reaches a tile, a measure
+     * of how much there is to attack near it.
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return The opportunity at the tile.
+     */
+    public float getOpportunity(Tile tile) {
+        final int i = indexOf(tile);
+        return (i < 0) ? 0.0f : Math.max(0.0f, opportunity[i]);
+    }
+
+    /**
+     * Are there enemy units within {@link #RADIUS} of a tile?
+     *
+     * @param tile The <code>Tile</code> to check.
+     * @return True if an enemy unit is near.
+     */
+    public boolean hasEnemyNear(Tile tile) {
+        final int i = indexOf(tile);
+        return i >= 0 && enemies[i] > 0;
+    }
+
+    /**
+     * Gets the offence power of a unit, as measured when it was last
+     * counted, or measured now if it is not counted.
+     *
+     * @param unit The <code>Unit</code> to check.
+     * @return The offence power of the unit.
+     */
+    public float getUnitOffence(Unit unit) {
+        Strength s = strengths.get(unit);
+        return (s != null) ? s.offence
+            : (!unit.isOffensiveUnit()) ? 0.0f
+            : unit.getGame().getCombatModel().getOffencePower(unit, null);
+    }
+
+    /**
+     * Gets the defence power of a unit, as measured when it was last
+     * counted, or measured now if it is not counted.
+     *
+     * @param unit The <code>Unit</code> to check.
+     * @return The defence power of the unit.
+     */
+    public float getUnitDefence(Unit unit) {
+        Strength s = strengths.get(unit);
+        return (s != null) ? s.defence
+            : unit.getGame().getCombatModel().getDefencePower(null, unit);
+    }
+}
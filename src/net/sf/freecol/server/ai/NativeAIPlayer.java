@@ -118,6 +118,17 @@ public class NativeAIPlayer extends AIPlayer {
     private HashMap<String, Integer> sessionRegister
         = new HashMap<String, Integer>();
 
+    /**
+     * The radius around each settlement indexed for its colonies,
+     * which covers the gift and demand distances.
+     */
+    public static final int SETTLEMENT_AREA_RADIUS
+        = Math.max(MAX_DISTANCE_TO_BRING_GIFTS, MAX_DISTANCE_TO_MAKE_DEMANDS);
+
+    /** The indexed areas around the settlements.  Do not serialize. */
+    private final java.util.Map<IndianSettlement, SettlementArea> areas
+        = new HashMap<IndianSettlement, SettlementArea>();
+
 
     /**
      * Creates a new <code>AIPlayer</code>.
@@ -157,7 +168,9 @@ public class NativeAIPlayer extends AIPlayer {
         logger.finest(getClass().getName() + " in " + turn
             + ": " + getPlayer().getNationID());
         sessionRegister.clear();
+        areas.clear();
         clearAIUnits();
+        clearInfluenceMap();
         determineStances();
         if (turn.isFirstTurn()) {
             initializeMissions();
@@ -187,7 +200,7 @@ public class NativeAIPlayer extends AIPlayer {
         // Give defensive missions up to the minimum expected defence,
         // leave the rest with the default wander-hostile mission.
         List<Unit> units = new ArrayList<Unit>();
-        for (IndianSettlement is : player.getIndianSettlements()) {
+        for (IndianSettlement is : player.getIndianSettlementList()) {
             int defence = is.getType().getMinimumSize() - 1;
             units.clear();
             units.addAll(is.getTile().getUnitList());
@@ -207,7 +220,7 @@ public class NativeAIPlayer extends AIPlayer {
      */
     private void secureSettlements() {
         List<IndianSettlement> settlements
-            = getPlayer().getIndianSettlements();
+            = getPlayer().getIndianSettlementList();
         for (IndianSettlement is : settlements) {
             // Spread arms and horses between camps
             // TODO: maybe make this dependent on difficulty level?
@@ -490,13 +503,33 @@ public class NativeAIPlayer extends AIPlayer {
         logger.fine(report);
     }
 
+    /**
+     * Gets the index of the area around a settlement, rebuilding it
+     * if it is out of date.
+     *
+     * @param is The <code>IndianSettlement</code> to get the area of.
+     * @return The <code>SettlementArea</code> of the settlement.
+     */
+    public SettlementArea getSettlementArea(IndianSettlement is) {
+        SettlementArea area = areas.get(is);
+        if (area == null || !area.isCurrent()) {
+            Iterator<IndianSettlement> it = areas.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().isDisposed()) it.remove();
+            }
+            area = new SettlementArea(is, SETTLEMENT_AREA_RADIUS);
+            areas.put(is, area);
+        }
+        return area;
+    }
+
     /**
      * Brings gifts to nice players with nearby colonies.
      */
     private void bringGifts() {
         final Player player = getPlayer();
         final Map map = getGame().getMap();
-        for (IndianSettlement is : player.getIndianSettlements()) {
+        for (IndianSettlement is : player.getIndianSettlementList()) {
             // Check if the settlement has anything to give first.
             Goods gift = is.getRandomGift(getAIRandom());
             if (gift == null) continue;
@@ -550,11 +583,8 @@ public class NativeAIPlayer extends AIPlayer {
             // Collect nearby colonies.  Filter out ones which are unreachable
             // or with which the settlement is on bad terms.
             List<Colony> nearbyColonies = new ArrayList<Colony>();
-            for (Tile t : is.getTile()
-                     .getSurroundingTiles(MAX_DISTANCE_TO_BRING_GIFTS)) {
-                Colony c = t.getColony();
-                if (c != null
-                    && is.getAlarm(c.getOwner()) != null
+            for (Colony c : getSettlementArea(is).getColonies(MAX_DISTANCE_TO_BRING_GIFTS)) {
+                if (is.getAlarm(c.getOwner()) != null
                     && IndianBringGiftMission.invalidReason(aiUnit, c) == null
                     && unit.findPath(is.getTile(), c.getTile(), null,
                                      CostDeciders.numberOfLegalTiles()) != null) {
@@ -585,7 +615,7 @@ public class NativeAIPlayer extends AIPlayer {
     private void demandTribute() {
         final Map map = getGame().getMap();
         final Player player = getPlayer();
-        for (IndianSettlement is : player.getIndianSettlements()) {
+        for (IndianSettlement is : player.getIndianSettlementList()) {
             // Do not demand tribute all of the time.
             if (Utils.randomInt(logger, is.getName() + " demand tribute",
                     getAIRandom(), 10) != 0) continue;
@@ -635,11 +665,8 @@ public class NativeAIPlayer extends AIPlayer {
             // Collect nearby colonies.  Filter out ones which are unreachable
             // or with which the settlement is on adequate terms.
             List<Colony> nearbyColonies = new ArrayList<Colony>();
-            for (Tile t : is.getTile()
-                     .getSurroundingTiles(MAX_DISTANCE_TO_MAKE_DEMANDS)) {
-                Colony c = t.getColony();
-                if (c != null
-                    && is.getAlarm(c.getOwner()) != null
+            for (Colony c : getSettlementArea(is).getColonies(MAX_DISTANCE_TO_MAKE_DEMANDS)) {
+                if (is.getAlarm(c.getOwner()) != null
                     && IndianDemandMission.invalidReason(aiUnit, c) == null
                     && unit.findPath(is.getTile(), c.getTile(), null,
                                      CostDeciders.numberOfLegalTiles()) != null) {
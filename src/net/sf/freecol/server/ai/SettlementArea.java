@@ -0,0 +1,115 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.freecol.common.model.Colony;
+import net.sf.freecol.common.model.IndianSettlement;
+import net.sf.freecol.common.model.Tile;
+
+
+/**
+ * An index of the area around an <code>IndianSettlement</code>.
+ *
+ * The gift and demand missions of a settlement look for colonies
+ * within a bounded radius of it, so rather than scanning the tiles
+ * around the settlement for each mission they consult the colonies
+ * that were within the radius when the index was built.  Other
+ * players do not move during the turn of the native player, so the
+ * index is rebuilt when the native player starts working and
+ * otherwise only goes stale when a colony is removed, which queries
+ * check for.
+ */
+public class SettlementArea {
+
+    /** The settlement at the center of the area. */
+    private final IndianSettlement settlement;
+
+    /** The radius of the area. */
+    private final int radius;
+
+    /** The turn the index was built in. */
+    private final int turn;
+
+    /**
+     * The colonies in the area, in the order they are found by
+     * {@link Tile#getSurroundingTiles(int)}.
+     */
+    private final List<Colony> colonies = new ArrayList<Colony>();
+
+
+    /**
+     * Creates a new <code>SettlementArea</code>.
+     *
+     * @param settlement The <code>IndianSettlement</code> to index.
+     * @param radius The radius of the area to index.
+     */
+    public SettlementArea(IndianSettlement settlement, int radius) {
+        this.settlement = settlement;
+        this.radius = radius;
+        this.turn = settlement.getGame().getTurn().getNumber();
+
+        for (Tile t : settlement.getTile().getSurroundingTiles(radius)) {
+            if (t.getColony() != null) colonies.add(t.getColony());
+        }
+    }
+
+
+    /**
+     * Gets the radius of this area.
+     *
+     * @return The radius.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Is this index still current?
+     *
+     * @return True if the index was built this turn and the
+     *     settlement still exists.
+     */
+    public boolean isCurrent() {
+        return !settlement.isDisposed()
+            && turn == settlement.getGame().getTurn().getNumber();
+    }
+
+    /**
+     * Gets the colonies within a given distance of the settlement.
+     *
+     * @param range The maximum distance, which should not exceed
+     *     the radius of the area.
+     * @return A list of <code>Colony</code>s, in the same order as
+     *     they would be found by {@link Tile#getSurroundingTiles(int)}.
+     */
+    public List<Colony> getColonies(int range) {
+        final Tile center = settlement.getTile();
+        List<Colony> result = new ArrayList<Colony>();
+        for (Colony c : colonies) {
+            if (c.isDisposed() || c.getTile().getColony() != c) continue;
+            if (center.getDistanceTo(c.getTile()) > range) continue;
+            result.add(c);
+        }
+        return result;
+    }
+}
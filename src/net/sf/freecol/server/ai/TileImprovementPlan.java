@@ -168,7 +168,14 @@ public class TileImprovementPlan extends ValuedAIObject {
      *      mission.
      */
     public void setPioneer(AIUnit pioneer) {
+        AIUnit old = this.pioneer;
         this.pioneer = pioneer;
+        if (old == pioneer) return;
+        AIUnit unit = (pioneer != null) ? pioneer : old;
+        AIPlayer owner = (unit.getUnit() == null) ? null : unit.getAIOwner();
+        if (owner instanceof EuropeanAIPlayer) {
+            ((EuropeanAIPlayer)owner).tileImprovementPlanChanged(this);
+        }
     }
 
     /**
@@ -0,0 +1,169 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.ai;
+
+import java.util.HashMap;
+import java.util.List;
+
+import net.sf.freecol.common.model.Europe;
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.server.ai.mission.TransportMission;
+
+
+/**
+ * Schedules the transport of a player's transportables on its
+ * carriers.
+ *
+ * The travel times of the carriers are kept in a distance matrix
+ * shared by all the transport missions of the player, so the path
+ * between two locations is only searched for once per carrier type
+ * and turn.  The matrix is discarded when the turn changes.
+ *
+ * The transportables are assigned in order of priority, each one to
+ * the carrier that can collect and deliver it soonest when starting
+ * from the last stop already on its route.  Carriers that have been
+ * loaded up with work are thus left alone in favour of those that
+ * are free or already headed the right way.
+ */
+public class TransportScheduler {
+
+    /** The number of the turn the distance matrix is valid for. */
+    private int turn = -1;
+
+    /** The memoized travel times, by carrier state, start and end. */
+    private final java.util.Map<String, Integer> turns
+        = new HashMap<String, Integer>();
+
+
+    /**
+     * Gets the number of turns a carrier needs to travel between two
+     * locations.
+     *
+     * @param carrier The carrier <code>Unit</code> to travel with.
+     * @param start The <code>Location</code> to start at.  The entry
+     *     location of the carrier is used if this is null or not on
+     *     the map, plus the sail time if it is in Europe.
+     * @param end The <code>Location</code> to end at.
+     * @return The number of turns, or <code>Map.COST_INFINITY</code>
+     *     if the end can not be reached.
+     */
+    public int getTurns(Unit carrier, Location start, Location end) {
+        if (start != null && start == end) return 0;
+        int sailTurns = (start instanceof Europe
+            || (start == null && carrier.isInEurope()))
+            ? carrier.getSailTurns() : 0;
+        if (start == null || start.getTile() == null) {
+            start = carrier.getFullEntryLocation();
+        }
+        if (start == null || end == null) return Map.COST_INFINITY;
+        if (end.getTile() == null && !(end instanceof Europe)) {
+            return Map.COST_INFINITY;
+        }
+        if (end.getTile() == start.getTile()) return sailTurns;
+
+        int now = carrier.getGame().getTurn().getNumber();
+        if (now != turn) {
+            turns.clear();
+            turn = now;
+        }
+        // The path search starts with the moves the carrier has left
+        // and adds the time left at sea, so both belong in the key.
+        String key = carrier.getType().getId()
+            + "/" + carrier.getMovesLeft()
+            + "/" + ((carrier.isAtSea()) ? carrier.getWorkLeft() : 0)
+            + "/" + start.getTile().getId()
+            + "/" + ((end.getTile() == null) ? end.getId()
+                : end.getTile().getId());
+        Integer result = turns.get(key);
+        if (result == null) {
+            PathNode path = (end.getTile() == null)
+                ? carrier.findPath(start.getTile(), end, null, null)
+                : carrier.findPath(start.getTile(), end.getTile(), null, null);
+            result = Integer.valueOf((path == null) ? Map.COST_INFINITY
+                : path.getTotalTurns());
+            turns.put(key, result);
+        }
+        if (result.intValue() == Map.COST_INFINITY) return Map.COST_INFINITY;
+        return result.intValue() + sailTurns;
+    }
+
+    /**
+     * Gets the number of memoized travel times.
+     *
+     * @return The size of the distance matrix.
+     */
+    public int size() {
+        return turns.size();
+    }
+
+    /**
+     * Selects the transport mission that should carry a transportable.
+     *
+     * @param t The <code>Transportable</code> to carry.
+     * @param missions The available <code>TransportMission</code>s.
+     * @return The best <code>TransportMission</code>, or null if none
+     *     can carry the transportable.
+     */
+    public TransportMission selectTransport(Transportable t,
+                                            List<TransportMission> missions) {
+        final Location src = t.getTransportSource();
+        final Location dst = t.getTransportDestination();
+        TransportMission best = null;
+        int bestSpace = 0;
+        int bestTurns = Integer.MAX_VALUE;
+        for (TransportMission tm : missions) {
+            final Unit carrier = tm.getUnit();
+            int space = tm.getAvailableSpace(t);
+            if (space <= 0) continue;
+            if (t instanceof AIUnit) {
+                if (!carrier.canCarryUnits()) continue;
+            } else if (t instanceof AIGoods) {
+                if (!carrier.canCarryGoods()) continue;
+            }
+
+            int total;
+            if (src != null && src.getTile() != null
+                && src.getTile() == carrier.getTile()) {
+                total = 0;
+            } else {
+                int collect = getTurns(carrier, tm.getRouteEnd(), src);
+                if (collect == Map.COST_INFINITY) {
+                    collect = getTurns(carrier, carrier.getLocation(), src);
+                    if (collect == Map.COST_INFINITY) continue;
+                }
+                // Inland destinations are not reachable by the
+                // carrier itself, so only the collection counts.
+                int deliver = getTurns(carrier, src, dst);
+                total = (deliver == Map.COST_INFINITY) ? collect
+                    : collect + deliver;
+            }
+            if (total < bestTurns
+                || (total == bestTurns && space > bestSpace)) {
+                best = tm;
+                bestSpace = space;
+                bestTurns = total;
+            }
+        }
+        return best;
+    }
+}
@@ -375,7 +375,9 @@ public class DefendSettlementMission extends Mission {
         // should attack a nearby hostile unit.  Remember to prevent a
         // sole unit attacking because if it loses, the settlement
         // will collapse (and the combat model does not understand that).
-        if (!unit.isOffensiveUnit()) return;
+        if (!unit.isOffensiveUnit()
+            || !getAIUnit().getAIOwner().getInfluenceMap()
+                .hasEnemyNear(unit.getTile())) return;
         final CombatModel cm = unit.getGame().getCombatModel();
         Unit bestTarget = null;
         float bestDifference = Float.MIN_VALUE;
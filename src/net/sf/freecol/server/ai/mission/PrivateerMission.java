@@ -166,14 +166,13 @@ public class PrivateerMission extends Mission {
      * @return A score for the attack.
      */
     private static int scoreUnit(AIUnit aiUnit, Unit defender) {
-        Unit attacker = aiUnit.getUnit();
         int value = 1000;
         // Pirates want cargo
         value += defender.getVisibleGoodsCount() * 200;
         // But they are wary of danger
         if (defender.isOffensiveUnit()) {
-            value -= attacker.getGame().getCombatModel()
-                .getDefencePower(attacker, defender) * 100;
+            value -= aiUnit.getAIOwner().getInfluenceMap()
+                .getUnitDefence(defender) * 100;
         }
         return value;
     }
@@ -193,6 +193,22 @@ public class TransportMission extends Mission {
             && t.getTransportLocatable().getLocation() == getUnit();
     }
 
+    /**
+     * Gets the last stop on the route of the carrier, which is where
+     * it will be when the current transport list is complete.
+     *
+     * @return The destination of the last <code>Transportable</code>
+     *     on the transport list, or the current location of the
+     *     carrier if the list is empty.
+     */
+    public Location getRouteEnd() {
+        for (int i = transportables.size() - 1; i >= 0; i--) {
+            Location dst = transportables.get(i).getTransportDestination();
+            if (dst != null) return dst;
+        }
+        return getUnit().getLocation();
+    }
+
     /**
      * Checks if the given <code>Transportable</code> is on the transport
      * list.
@@ -503,7 +519,16 @@ public class TransportMission extends Mission {
      *         or destination of the given <code>Transportable</code>.
      */
     private int getDistanceTo(Transportable t, Location start, boolean source) {
-        // TODO: This is too expensive - find another method:
+        // Carried units may be dropped short of their destination,
+        // which needs a full path search with the carrier.  All
+        // other distances are shared between the player's carriers.
+        Locatable l = t.getTransportLocatable();
+        if (l != null && !(l instanceof Unit && isCarrying(t))) {
+            Location end = (source) ? l.getLocation()
+                : t.getTransportDestination();
+            return getEuropeanAIPlayer().getTransportScheduler()
+                .getTurns(getUnit(), start, end);
+        }
         PathNode path = getTransportPath(t, start, source);
         return (path == null) ? Map.COST_INFINITY : path.getTotalTurns();
     }
@@ -38,6 +38,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.sf.freecol.FreeCol;
+import net.sf.freecol.client.gui.i18n.Messages;
 import net.sf.freecol.common.debug.FreeColDebugger;
 import net.sf.freecol.common.model.Ability;
 import net.sf.freecol.common.model.AbstractGoods;
@@ -74,6 +75,7 @@ import net.sf.freecol.common.model.Monarch.MonarchAction;
 import net.sf.freecol.common.model.Nameable;
 import net.sf.freecol.common.model.Nation;
 import net.sf.freecol.common.model.NationSummary;
+import net.sf.freecol.common.model.PathNode;
 import net.sf.freecol.common.model.Player;
 import net.sf.freecol.common.model.Player.PlayerType;
 import net.sf.freecol.common.model.Player.Stance;
@@ -781,6 +783,7 @@ public final class InGameController extends Controller {
                 }
             }
             player.csStartTurn(random, cs);
+            if (!player.isAI()) csFollowTradeRoutes(player, cs);
             nextFoundingFather(player);
 
             cs.addTrivial(See.all(), "setCurrentPlayer",
@@ -1660,6 +1663,26 @@ public final class InGameController extends Controller {
         return cs.build(serverPlayer);
     }
 
+    /**
+     * Move a unit along a path.  The unit moves for as long as the
+     * moves are quiet and it has moves left, and stops if an enemy
+     * comes into view, leaving the rest of the path to the client.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that is moving.
+     * @param unit The <code>Unit</code> to move.
+     * @param tiles The adjacent <code>Tile</code>s to move to, in order.
+     * @return An <code>Element</code> encapsulating this action.
+     */
+    public Element executePath(ServerPlayer serverPlayer, Unit unit,
+                               List<Tile> tiles) {
+        ChangeSet cs = new ChangeSet();
+        if (((ServerUnit) unit).csFollowTiles(tiles, random, cs) == 0) {
+            cs.add(See.only(serverPlayer), unit);
+        }
+        sendToOthers(serverPlayer, cs);
+        return cs.build(serverPlayer);
+    }
+
     /**
      * Decline to investigate strange mounds.
      *
@@ -1769,14 +1792,7 @@ public final class InGameController extends Controller {
                 unit.setDestination(destination);
                 cs.add(See.only(serverPlayer), unit, highSeas);
             } else if (unit.getTile() != null) {
-                Tile tile = unit.getTile();
-                unit.setEntryLocation(tile);
-                unit.setWorkLeft(unit.getSailTurns());
-                unit.setDestination(destination);
-                unit.setMovesLeft(0);
-                unit.setLocation(highSeas);
-                cs.addDisappear(serverPlayer, tile, unit);
-                cs.add(See.only(serverPlayer), tile, highSeas);
+                csSailToEurope(serverPlayer, unit, cs);
                 others = true;
             } else {
                 invalid = true;
@@ -1839,6 +1855,26 @@ public final class InGameController extends Controller {
         return cs.build(serverPlayer);
     }
 
+    /**
+     * Sail a unit from the map onto the high seas, bound for Europe.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>Unit</code> to sail.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csSailToEurope(ServerPlayer serverPlayer, Unit unit,
+                                ChangeSet cs) {
+        HighSeas highSeas = serverPlayer.getHighSeas();
+        Tile tile = unit.getTile();
+        unit.setEntryLocation(tile);
+        unit.setWorkLeft(unit.getSailTurns());
+        unit.setDestination(serverPlayer.getEurope());
+        unit.setMovesLeft(0);
+        unit.setLocation(highSeas);
+        cs.addDisappear(serverPlayer, tile, unit);
+        cs.add(See.only(serverPlayer), tile, highSeas);
+    }
+
     /**
      * Embark a unit onto a carrier.
      * Checking that the locations are appropriate is not done here.
@@ -2417,28 +2453,269 @@ public final class InGameController extends Controller {
                 .build(serverPlayer);
         }
 
+        int next = findNextStop(unit);
+        if (next < 0) return null; // No work at any stop, stay put.
+
+        // Next is the updated stop.
+        // Could do just a partial update of currentStop if we did not
+        // also need to set the unit destination.
+        unit.setCurrentStop(next);
+
+        // Others can not see a stop change.
+        return new ChangeSet().add(See.only(serverPlayer), unit)
+            .build(serverPlayer);
+    }
+
+
+    /**
+     * Finds the next stop after the current one on the trade route of
+     * a unit where there is work to do.
+     *
+     * @param unit The <code>Unit</code> on the trade route.
+     * @return The index of the next stop with work, or negative if
+     *     there is no work at any other stop.
+     */
+    private int findNextStop(Unit unit) {
+        int current = unit.validateCurrentStop();
+        if (current < 0) return -1;
         List<Stop> stops = unit.getTradeRoute().getStops();
         int next = current;
         for (;;) {
             if (++next >= stops.size()) next = 0;
-            if (next == current) return null; // No work at any stop, stay put.
+            if (next == current) return -1;
             Stop nextStop = stops.get(next);
-            if (((ServerUnit) unit).hasWorkAtStop(nextStop)) break;
+            if (((ServerUnit) unit).hasWorkAtStop(nextStop)) return next;
             logger.finest("Unit " + unit
                 + " in trade route " + unit.getTradeRoute().getName()
                 + " found no work at stop: " + (FreeColGameObject) nextStop.getLocation());
         }
+    }
 
-        // Next is the updated stop.
-        // Could do just a partial update of currentStop if we did not
-        // also need to set the unit destination.
-        unit.setCurrentStop(next);
+    /**
+     * Follows the trade routes of all the units of a player that are
+     * on the map.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> whose units move.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csFollowTradeRoutes(ServerPlayer serverPlayer,
+                                     ChangeSet cs) {
+        for (Unit u : new ArrayList<Unit>(serverPlayer.getUnits())) {
+            if (u.getTradeRoute() != null && u.getTile() != null
+                && u.getMovesLeft() > 0) {
+                csFollowTradeRoute(serverPlayer, (ServerUnit) u, cs);
+            }
+        }
+    }
 
-        // Others can not see a stop change.
-        return new ChangeSet().add(See.only(serverPlayer), unit)
-            .build(serverPlayer);
+    /**
+     * Follows the trade route of a unit, moving it between the stops
+     * and loading and unloading cargo, for as long as it has moves
+     * left and nothing needs the attention of the owner.
+     *
+     * Stops in Europe, unloads that would overflow the warehouse, and
+     * moves that are not quiet (see {@link ServerUnit#isQuietMove})
+     * are left for the client to handle, as they may need the player
+     * to decide something.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>ServerUnit</code> on the trade route.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csFollowTradeRoute(ServerPlayer serverPlayer,
+                                    ServerUnit unit, ChangeSet cs) {
+        final TradeRoute tr = unit.getTradeRoute();
+        final Europe europe = serverPlayer.getEurope();
+        int tries = tr.getStops().size();
+
+        while (unit.getTile() != null && unit.getMovesLeft() > 0) {
+            Stop stop = unit.getStop();
+            if (!TradeRoute.isStopValid(unit, stop)) {
+                cs.addMessage(See.only(serverPlayer),
+                    new ModelMessage(ModelMessage.MessageType.GOODS_MOVEMENT,
+                        "traderoute.broken", unit)
+                    .addName("%route%", tr.getName()));
+                unit.setTradeRoute(null);
+                break;
+            }
+
+            Location loc = stop.getLocation();
+            if (loc instanceof Colony && unit.getTile() == loc.getTile()) {
+                Colony colony = (Colony) loc;
+                if (!csUnloadAtStop(serverPlayer, unit, colony, cs)) break;
+                csLoadAtStop(serverPlayer, unit, colony, cs);
+                // Un/loading after moving uses up the moves, try the
+                // next stop on the next turn.
+                if (unit.getMovesLeft() <= 0) break;
+
+                int next = findNextStop(unit);
+                if (next < 0 || --tries < 0) {
+                    cs.addMessage(See.only(serverPlayer),
+                        new ModelMessage(ModelMessage.MessageType.GOODS_MOVEMENT,
+                            "traderoute.noWork", unit)
+                        .addName("%route%", tr.getName())
+                        .addStringTemplate("%unit%", Messages.getLabel(unit))
+                        .addStringTemplate("%location%",
+                            loc.getLocationNameFor(serverPlayer)));
+                    unit.setState(UnitState.SKIPPED);
+                    break;
+                }
+                unit.setCurrentStop(next);
+                continue;
+            }
+
+            // Travel to the stop.
+            PathNode path = unit.findPath(unit.getTile(), loc, null, null);
+            if (path == null) {
+                cs.addMessage(See.only(serverPlayer),
+                    new ModelMessage(ModelMessage.MessageType.GOODS_MOVEMENT,
+                        "traderoute.noPath", unit)
+                    .addName("%route%", tr.getName())
+                    .addStringTemplate("%unit%", Messages.getLabel(unit))
+                    .addStringTemplate("%location%",
+                        loc.getLocationNameFor(serverPlayer)));
+                unit.setState(UnitState.SKIPPED);
+                break;
+            }
+            if (!unit.csFollowPath(path, random, cs)) {
+                if (loc == europe && unit.getTile() != null
+                    && unit.getMovesLeft() > 0
+                    && path.getLastNode().getLocation() == europe
+                    && unit.getTile().isDirectlyHighSeasConnected()
+                    && serverPlayer.getHighSeas().getDestinations()
+                        .contains(europe)) {
+                    csSailToEurope(serverPlayer, unit, cs);
+                }
+                break;
+            }
+        }
+        cs.add(See.only(serverPlayer), unit);
+    }
+
+    /**
+     * Unloads the cargo of a unit at a trade route stop that is not
+     * to be loaded there.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>Unit</code> to unload.
+     * @param colony The <code>Colony</code> to unload into.
+     * @param cs A <code>ChangeSet</code> to update.
+     * @return False if an unload would overflow the warehouse, in
+     *     which case nothing is unloaded.
+     */
+    private boolean csUnloadAtStop(ServerPlayer serverPlayer, Unit unit,
+                                   Colony colony, ChangeSet cs) {
+        final List<GoodsType> cargo = unit.getStop().getCargo();
+        List<Goods> unload = new ArrayList<Goods>();
+        for (Goods goods : unit.getGoodsList()) {
+            if (cargo.contains(goods.getType())) continue;
+            if (goods.getAmount() > colony.getImportAmount(goods.getType())) {
+                return false;
+            }
+            unload.add(goods);
+        }
+        for (Goods goods : unload) {
+            GoodsType type = goods.getType();
+            int amount = goods.getAmount();
+            moveGoods(new Goods(getGame(), unit, type, amount), colony);
+            cs.addMessage(See.only(serverPlayer),
+                new ModelMessage(ModelMessage.MessageType.GOODS_MOVEMENT,
+                    "traderoute.unload", unit)
+                .addName("%route%", unit.getTradeRoute().getName())
+                .addStringTemplate("%unit%", Messages.getLabel(unit))
+                .addStringTemplate("%location%",
+                    colony.getLocationNameFor(serverPlayer))
+                .addAmount("%amount%", amount)
+                .addAmount("%overflow%", 0)
+                .add("%goods%", type.getNameKey()));
+        }
+        if (!unload.isEmpty()) csUseCargoMoves(serverPlayer, unit, colony, cs);
+        return true;
+    }
+
+    /**
+     * Loads the goods a unit is to carry from a trade route stop.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>Unit</code> to load.
+     * @param colony The <code>Colony</code> to load from.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csLoadAtStop(ServerPlayer serverPlayer, Unit unit,
+                              Colony colony, ChangeSet cs) {
+        List<GoodsType> toLoad
+            = new ArrayList<GoodsType>(unit.getStop().getCargo());
+        boolean loaded = false;
+
+        // Top up the partial loads first, then fill empty slots.
+        for (Goods goods : unit.getGoodsList()) {
+            GoodsType type = goods.getType();
+            int index = toLoad.indexOf(type);
+            if (index < 0) continue;
+            toLoad.remove(index);
+            int amount = Math.min(GoodsContainer.CARGO_SIZE - goods.getAmount(),
+                                  colony.getExportAmount(type));
+            if (amount > 0) {
+                csLoadGoods(serverPlayer, unit, colony, type, amount, cs);
+                loaded = true;
+            }
+        }
+        for (GoodsType type : toLoad) {
+            if (!unit.hasSpaceLeft()) break;
+            int amount = Math.min(GoodsContainer.CARGO_SIZE,
+                                  colony.getExportAmount(type));
+            if (amount > 0) {
+                csLoadGoods(serverPlayer, unit, colony, type, amount, cs);
+                loaded = true;
+            }
+        }
+        if (loaded) csUseCargoMoves(serverPlayer, unit, colony, cs);
+    }
+
+    /**
+     * Loads some goods from a colony onto a trade route unit.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>Unit</code> to load.
+     * @param colony The <code>Colony</code> to load from.
+     * @param type The <code>GoodsType</code> to load.
+     * @param amount The amount to load.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csLoadGoods(ServerPlayer serverPlayer, Unit unit,
+                             Colony colony, GoodsType type, int amount,
+                             ChangeSet cs) {
+        moveGoods(new Goods(getGame(), colony, type, amount), unit);
+        cs.addMessage(See.only(serverPlayer),
+            new ModelMessage(ModelMessage.MessageType.GOODS_MOVEMENT,
+                "traderoute.load", unit)
+            .addName("%route%", unit.getTradeRoute().getName())
+            .addStringTemplate("%unit%", Messages.getLabel(unit))
+            .addStringTemplate("%location%",
+                colony.getLocationNameFor(serverPlayer))
+            .addAmount("%amount%", amount)
+            .add("%goods%", type.getNameKey())
+            .addAmount("%more%", 0));
     }
 
+    /**
+     * Updates after a trade route unit has handled cargo in a colony.
+     * As with {@link #loadCargo}, this uses up the remaining moves of
+     * a unit that has already moved.
+     *
+     * @param serverPlayer The <code>ServerPlayer</code> that owns the unit.
+     * @param unit The <code>Unit</code> that handled cargo.
+     * @param colony The <code>Colony</code> it was handled in.
+     * @param cs A <code>ChangeSet</code> to update.
+     */
+    private void csUseCargoMoves(ServerPlayer serverPlayer, Unit unit,
+                                 Colony colony, ChangeSet cs) {
+        if (unit.getInitialMovesLeft() != unit.getMovesLeft()) {
+            unit.setMovesLeft(0);
+        }
+        cs.add(See.only(serverPlayer), colony.getGoodsContainer());
+        cs.add(See.only(serverPlayer), unit.getGoodsContainer());
+    }
 
     /**
      * Buy from a settlement.
@@ -3700,7 +3977,10 @@ public final class InGameController extends Controller {
             List<Stop> stops = tradeRoute.getStops();
             int found = -1;
             for (int i = 0; i < stops.size(); i++) {
-                if (unit.getLocation() == stops.get(i).getLocation()) {
+                Location loc = stops.get(i).getLocation();
+                if (unit.getLocation() == loc
+                    || (unit.getTile() != null
+                        && unit.getTile() == loc.getTile())) {
                     found = i;
                     break;
                 }
@@ -3709,9 +3989,18 @@ public final class InGameController extends Controller {
             unit.setCurrentStop(found);
         }
 
-        // Only visible to the player
-        return new ChangeSet().add(See.only(serverPlayer), unit)
-            .build(serverPlayer);
+        // Start following the route at once if possible.  The changes
+        // are only visible to the player unless the unit moved.
+        ChangeSet cs = new ChangeSet();
+        if (tradeRoute != null && unit.getTile() != null
+            && unit.getMovesLeft() > 0
+            && getGame().getCurrentPlayer() == serverPlayer) {
+            csFollowTradeRoute(serverPlayer, (ServerUnit) unit, cs);
+            sendToOthers(serverPlayer, cs);
+        } else {
+            cs.add(See.only(serverPlayer), unit);
+        }
+        return cs.build(serverPlayer);
     }
 
     /**
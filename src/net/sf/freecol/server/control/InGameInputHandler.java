@@ -53,6 +53,8 @@ import net.sf.freecol.common.networking.DOMMessage;
 import net.sf.freecol.common.networking.EmbarkMessage;
 import net.sf.freecol.common.networking.EmigrateUnitMessage;
 import net.sf.freecol.common.networking.EquipUnitMessage;
+import net.sf.freecol.common.networking.ExecutePathMessage;
+import net.sf.freecol.common.networking.GetMapChunkMessage;
 import net.sf.freecol.common.networking.GetNationSummaryMessage;
 import net.sf.freecol.common.networking.GetTransactionMessage;
 import net.sf.freecol.common.networking.GoodsForSaleMessage;
@@ -315,6 +317,14 @@ public final class InGameInputHandler extends InputHandler
                 return new EquipUnitMessage(getGame(), element)
                     .handle(freeColServer, player, connection);
             }});
+        register(ExecutePathMessage.getXMLElementTagName(),
+                 new CurrentPlayerNetworkRequestHandler() {
+            @Override
+            public Element handle(Player player, Connection connection,
+                                  Element element) {
+                return new ExecutePathMessage(getGame(), element)
+                    .handle(freeColServer, player, connection);
+            }});
         register("getREFUnits",
                  new CurrentPlayerNetworkRequestHandler() {
             @Override
@@ -596,6 +606,13 @@ public final class InGameInputHandler extends InputHandler
                 return freeColServer.getInGameController()
                     .getHighScores(freeColServer.getPlayer(connection));
             }});
+        register(GetMapChunkMessage.getXMLElementTagName(),
+                 new NetworkRequestHandler() {
+            @Override
+            public Element handle(Connection connection, Element element) {
+                return new GetMapChunkMessage(element)
+                    .handle(freeColServer, connection);
+            }});
         register(GetNationSummaryMessage.getXMLElementTagName(),
                  new NetworkRequestHandler() {
             @Override
@@ -0,0 +1,152 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import net.sf.freecol.FreeCol;
+
+
+/**
+ * Runs independent per-row stages of the map generator in parallel.
+ *
+ * Each row is given its own <code>Random</code>, seeded from the
+ * parent source in row order before any work is dispatched, so the
+ * results depend only on the parent seed and not on how the rows
+ * are scheduled.  Results are returned in row order, and the caller
+ * is expected to apply them to the map sequentially.
+ */
+class RowTasks {
+
+    /**
+     * A unit of work for a single map row.  Implementations may read
+     * the map but must not modify it.
+     */
+    public interface RowTask<T> {
+
+        /**
+         * Does the work for a row.
+         *
+         * @param y The row to work on.
+         * @param random The <code>Random</code> number source for the row.
+         * @return The result for the row.
+         */
+        public T run(int y, Random random);
+    }
+
+    /** The number of threads to run rows on. */
+    private static final int THREADS
+        = Runtime.getRuntime().availableProcessors();
+
+    /** The shared pool, created on first use. */
+    private static ExecutorService executor = null;
+
+
+    /**
+     * Gets the shared pool.
+     *
+     * @return The <code>ExecutorService</code> to run rows on.
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS,
+                new ThreadFactory() {
+                    private int count = 0;
+
+                    public synchronized Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, FreeCol.SERVER_THREAD
+                                              + "MapGenerator-" + count++);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        }
+        return executor;
+    }
+
+    /**
+     * Makes the random number source for a row.
+     *
+     * @param parent The parent <code>Random</code>, or null for none.
+     * @param seed The seed for the row.
+     * @return A new <code>Random</code>, or null if there is no parent.
+     */
+    private static Random makeRandom(Random parent, long seed) {
+        return (parent == null) ? null : new Random(seed);
+    }
+
+    /**
+     * Runs a task over every row.
+     *
+     * @param height The number of rows.
+     * @param random The parent <code>Random</code> to seed the rows from,
+     *     or null if the task needs no random numbers.
+     * @param task The <code>RowTask</code> to run.
+     * @return A list of the row results, indexed by row.
+     */
+    public static <T> List<T> run(int height, final Random random,
+                                  final RowTask<T> task) {
+        final long[] seeds = new long[height];
+        if (random != null) {
+            for (int y = 0; y < height; y++) seeds[y] = random.nextLong();
+        }
+
+        List<T> results = new ArrayList<T>(height);
+        if (THREADS <= 1 || height <= 1) {
+            for (int y = 0; y < height; y++) {
+                results.add(task.run(y, makeRandom(random, seeds[y])));
+            }
+            return results;
+        }
+
+        List<Callable<T>> calls = new ArrayList<Callable<T>>(height);
+        for (int y = 0; y < height; y++) {
+            final int row = y;
+            calls.add(new Callable<T>() {
+                    public T call() {
+                        return task.run(row, makeRandom(random, seeds[row]));
+                    }
+                });
+        }
+        try {
+            for (Future<T> f : getExecutor().invokeAll(calls)) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Map generation interrupted", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new RuntimeException("Map generation failed", cause);
+        }
+        return results;
+    }
+}
@@ -137,66 +137,53 @@ public class TerrainGenerator {
     }
 
     /**
-     * Creates a random tile for the specified position.
+     * Chooses random tile types for a row of the map.
      *
-     * @param game The <code>Game</code> to create the tile in.
-     * @param x The tile x coordinate.
-     * @param y The tile y coordinate.
-     * @param landMap A boolean array defining where the land is.
-     * @param latitude The tile latitude.
-     * @return The created tile.
-     */
-    private Tile createTile(Game game, int x, int y, boolean[][] landMap,
-                            int latitude) {
-        return (landMap[x][y])
-            ? new Tile(game, getRandomLandTileType(game, latitude), x, y)
-            : new Tile(game, getRandomOceanTileType(game, latitude), x, y);
-    }
-
-    /**
-     * Gets a random land tile type based on the latitude.
+     * Called in parallel for different rows, so only the supplied
+     * random number source may be used.
      *
-     * @param game the Game
-     * @param latitude The location of the tile relative to the north/south
-     *     poles and equator:
-     *     0 is the mid-section of the map (equator)
-     *     +/-90 is on the bottom/top of the map (poles).
-     * @return A suitable random land tile type.
+     * @param game The <code>Game</code> to create the tiles in.
+     * @param y The row to choose types for.
+     * @param landMap A boolean array defining where the land is.
+     * @param latitude The row latitude.
+     * @param random The <code>Random</code> number source for the row.
+     * @return The tile types for the row, indexed by x coordinate.
      */
-    private TileType getRandomLandTileType(Game game, int latitude) {
-        if (landTileTypes == null) {
-            landTileTypes = new ArrayList<TileType>();
-            for (TileType type : game.getSpecification().getTileTypeList()) {
-                if (type.isElevation() || type.isWater()) {
-                    // do not generate elevated and water tiles at this time
-                    // they are created separately
-                    continue;
-                }
-                landTileTypes.add(type);
-            }
+    private TileType[] chooseTileTypes(Game game, int y, boolean[][] landMap,
+                                       int latitude, Random random) {
+        TileType[] types = new TileType[landMap.length];
+        for (int x = 0; x < types.length; x++) {
+            types[x] = (landMap[x][y])
+                ? getRandomTileType(game, landTileTypes, latitude, random)
+                : getRandomTileType(game, oceanTileTypes, latitude, random);
         }
-        return getRandomTileType(game, landTileTypes, latitude);
+        return types;
     }
 
     /**
-     * Gets a random ocean tile type.
+     * Fills the caches of land and ocean tile types.  Must be done
+     * before tile types are chosen in parallel.
      *
-     * @param game The <code>Game</code> to query for tile types.
-     * @param latitude The latitude of the proposed tile.
-     * @return A suitable random ocean tile type.
+     * Land tiles are never elevated or water tiles, these are created
+     * separately.  Ocean tiles are connected to the high seas but not
+     * directly.
+     *
+     * @param spec The <code>Specification</code> to find the types in.
      */
-    private TileType getRandomOceanTileType(Game game, int latitude) {
-        if (oceanTileTypes == null) {
-            oceanTileTypes = new ArrayList<TileType>();
-            for (TileType type : game.getSpecification().getTileTypeList()) {
-                if (type.isWater()
-                    && type.isHighSeasConnected()
+    private void loadTileTypes(Specification spec) {
+        if (landTileTypes != null) return;
+        landTileTypes = new ArrayList<TileType>();
+        oceanTileTypes = new ArrayList<TileType>();
+        for (TileType type : spec.getTileTypeList()) {
+            if (type.isWater()) {
+                if (type.isHighSeasConnected()
                     && !type.isDirectlyHighSeasConnected()) {
                     oceanTileTypes.add(type);
                 }
+            } else if (!type.isElevation()) {
+                landTileTypes.add(type);
             }
         }
-        return getRandomTileType(game, oceanTileTypes, latitude);
     }
 
     /**
@@ -207,11 +194,15 @@ public class TerrainGenerator {
      * @param game The <code>Game</code> to find the type in.
      * @param candidates A list of <code>TileType</code>s to use for
      *     calculations.
-     * @param latitude The tile latitude.
+     * @param latitude The location of the tile relative to the north/south
+     *     poles and equator:
+     *     0 is the mid-section of the map (equator)
+     *     +/-90 is on the bottom/top of the map (poles).
+     * @param random The <code>Random</code> number source to use.
      * @return A suitable <code>TileType</code>.
      */
     private TileType getRandomTileType(Game game, List<TileType> candidates,
-                                       int latitude) {
+                                       int latitude, Random random) {
         // decode options
         final int forestChance
             = mapOptions.getInteger("model.option.forestNumber");
@@ -393,7 +384,8 @@ public class TerrainGenerator {
      *     map that is going to be created.
      * @see Map
      */
-    public void createMap(Game game, Game importGame, boolean[][] landMap) {
+    public void createMap(final Game game, Game importGame,
+                          final boolean[][] landMap) {
         final Specification spec = game.getSpecification();
         final int width = landMap.length;
         final int height = landMap[0].length;
@@ -404,7 +396,7 @@ public class TerrainGenerator {
 
         boolean mapHasLand = false;
         Tile[][] tiles = new Tile[width][height];
-        Map map = new Map(game, tiles);
+        final Map map = new Map(game, tiles);
         int minimumLatitude = mapOptions
             .getInteger(MapGeneratorOptions.MINIMUM_LATITUDE);
         int maximumLatitude = mapOptions
@@ -438,9 +430,20 @@ public class TerrainGenerator {
             logger.info("Imported regions: " + ids);
         }
 
+        // Choose the tile types a row at a time in parallel, but
+        // create the tiles in order so that their identifiers do not
+        // depend on the scheduling.
+        loadTileTypes(spec);
+        List<TileType[]> types = RowTasks.run(height, random,
+            new RowTasks.RowTask<TileType[]>() {
+                public TileType[] run(int y, Random random) {
+                    return chooseTileTypes(game, y, landMap,
+                                           map.getLatitude(y), random);
+                }
+            });
+
         List<Tile> fixRegions = new ArrayList<Tile>();
         for (int y = 0; y < height; y++) {
-            int latitude = map.getLatitude(y);
             for (int x = 0; x < width; x++) {
                 if (landMap[x][y]) mapHasLand = true;
                 Tile t, importTile = null;
@@ -477,9 +480,9 @@ public class TerrainGenerator {
                         }
                     }
                 } else {
-                    t = createTile(game, x, y, landMap, latitude);
+                    t = new Tile(game, types.get(y)[x], x, y);
                 }
-                tiles[x][y] = t;
+                map.setTile(t, x, y);
             }
         }
         game.setMap(map);
@@ -505,8 +508,25 @@ public class TerrainGenerator {
         // Add the bonuses only after the map is completed.
         // Otherwise we risk creating resources on fields where they
         // don't belong (like sugar in large rivers or tobaco on hills).
+        // The choices are made a row at a time in parallel, and then
+        // added in order.
+        final boolean generateBonus = !importBonuses;
+        final int bonusNumber
+            = mapOptions.getInteger("model.option.bonusNumber");
+        List<Bonus[]> bonuses = RowTasks.run(height, random,
+            new RowTasks.RowTask<Bonus[]>() {
+                public Bonus[] run(int y, Random random) {
+                    Bonus[] row = new Bonus[width];
+                    for (int x = 0; x < width; x++) {
+                        row[x] = chooseBonus(map.getTile(x, y),
+                                             generateBonus, bonusNumber,
+                                             random);
+                    }
+                    return row;
+                }
+            });
         for (Tile tile : map.getAllTiles()) {
-            perhapsAddBonus(tile, !importBonuses);
+            addBonus(tile, bonuses.get(tile.getY())[tile.getX()]);
             if (!tile.isLand()) {
                 encodeStyle(tile);
             }
@@ -1056,6 +1076,76 @@ public class TerrainGenerator {
         createHighSeas(map, distToLandFromHighSeas, maxDistanceToEdge);
     }
 
+    /**
+     * The high seas found on one row of the map.
+     */
+    private static class HighSeasRow {
+
+        /** The tiles to make high seas, on the left and right edges. */
+        public final List<Tile> left = new ArrayList<Tile>();
+        public final List<Tile> right = new ArrayList<Tile>();
+
+        /**
+         * The ocean tiles furthest from land on each edge, and their
+         * distance to land, for use if no high seas are found.
+         */
+        public Tile seaL = null, seaR = null;
+        public int distanceL = -1, distanceR = -1;
+    }
+
+    /**
+     * Finds the high seas on one row of the map.  Does not modify
+     * the map, so rows can be searched in parallel.
+     *
+     * @param map The <code>Map</code> to search.
+     * @param y The row to search.
+     * @param ocean The ocean <code>TileType</code>.
+     * @param distToLandFromHighSeas The distance between the land
+     *      and the high seas (given in tiles).
+     * @param maxDistanceToEdge The maximum distance a high sea tile
+     *      can have from the edge of the map.
+     * @return The <code>HighSeasRow</code> found.
+     */
+    private static HighSeasRow findHighSeas(Map map, int y, TileType ocean,
+                                            int distToLandFromHighSeas,
+                                            int maxDistanceToEdge) {
+        HighSeasRow row = new HighSeasRow();
+        Tile t;
+        for (int x = 0; x < maxDistanceToEdge && x < map.getWidth()
+                 && map.isValid(x, y)
+                 && (t = map.getTile(x, y)).getType() == ocean; x++) {
+            Tile other = map.getLandWithinDistance(x, y,
+                                                   distToLandFromHighSeas);
+            if (other == null) {
+                row.left.add(t);
+            } else {
+                int distance = t.getDistanceTo(other);
+                if (row.distanceL < distance) {
+                    row.distanceL = distance;
+                    row.seaL = t;
+                }
+            }
+        }
+        // Tiles already taken from the left are no longer ocean.
+        for (int x = 0; x < maxDistanceToEdge && x < map.getWidth()
+                 && map.isValid(map.getWidth()-1-x, y)
+                 && (t = map.getTile(map.getWidth()-1-x, y))
+                 .getType() == ocean && !row.left.contains(t); x++) {
+            Tile other = map.getLandWithinDistance(map.getWidth()-1-x, y,
+                                                   distToLandFromHighSeas);
+            if (other == null) {
+                row.right.add(t);
+            } else {
+                int distance = t.getDistanceTo(other);
+                if (row.distanceR < distance) {
+                    row.distanceR = distance;
+                    row.seaR = t;
+                }
+            }
+        }
+        return row;
+    }
+
     /**
      * Places "high seas"-tiles on the border of the given map.
      *
@@ -1065,8 +1155,9 @@ public class TerrainGenerator {
      * @param maxDistanceToEdge The maximum distance a high sea tile
      *      can have from the edge of the map.
      */
-    private static void createHighSeas(Map map, int distToLandFromHighSeas,
-                                       int maxDistanceToEdge) {
+    private static void createHighSeas(final Map map,
+                                       final int distToLandFromHighSeas,
+                                       final int maxDistanceToEdge) {
         if (distToLandFromHighSeas < 0 || maxDistanceToEdge < 0) {
             throw new IllegalArgumentException("The integer arguments cannot be negative.");
         }
@@ -1078,41 +1169,30 @@ public class TerrainGenerator {
             throw new RuntimeException("TileType highSeas must be defined.");
         }
 
-        Tile t, seaL = null, seaR = null;
-        int totalL = 0, totalR = 0, distanceL = -1, distanceR = -1;
-        for (int y = 0; y < map.getHeight(); y++) {
-            for (int x = 0; x < maxDistanceToEdge && x < map.getWidth()
-                     && map.isValid(x, y)
-                     && (t = map.getTile(x, y)).getType() == ocean; x++) {
-                Tile other = map.getLandWithinDistance(x, y,
-                                                       distToLandFromHighSeas);
-                if (other == null) {
-                    t.setType(highSeas);
-                    totalL++;
-                } else {
-                    int distance = t.getDistanceTo(other);
-                    if (distanceL < distance) {
-                        distanceL = distance;
-                        seaL = t;
-                    }
+        // The land searches dominate, so run them a row at a time in
+        // parallel, then apply the results in row order.
+        List<HighSeasRow> rows = RowTasks.run(map.getHeight(), null,
+            new RowTasks.RowTask<HighSeasRow>() {
+                public HighSeasRow run(int y, Random random) {
+                    return findHighSeas(map, y, ocean,
+                        distToLandFromHighSeas, maxDistanceToEdge);
                 }
+            });
+
+        Tile seaL = null, seaR = null;
+        int totalL = 0, totalR = 0, distanceL = -1, distanceR = -1;
+        for (HighSeasRow row : rows) {
+            for (Tile t : row.left) t.setType(highSeas);
+            for (Tile t : row.right) t.setType(highSeas);
+            totalL += row.left.size();
+            totalR += row.right.size();
+            if (distanceL < row.distanceL) {
+                distanceL = row.distanceL;
+                seaL = row.seaL;
             }
-            for (int x = 0; x < maxDistanceToEdge && x < map.getWidth()
-                     && map.isValid(map.getWidth()-1-x, y)
-                     && (t = map.getTile(map.getWidth()-1-x, y))
-                     .getType() == ocean; x++) {
-                Tile other = map.getLandWithinDistance(map.getWidth()-1-x, y,
-                                                       distToLandFromHighSeas);
-                if (other == null) {
-                    t.setType(highSeas);
-                    totalR++;
-                } else {
-                    int distance = t.getDistanceTo(other);
-                    if (distanceR < distance) {
-                        distanceR = distance;
-                        seaR = t;
-                    }
-                }
+            if (distanceR < row.distanceR) {
+                distanceR = row.distanceR;
+                seaR = row.seaR;
             }
         }
         if (totalL <= 0 && seaL != null) {
@@ -1390,29 +1470,49 @@ public class TerrainGenerator {
     }
 
     /**
-     * Adds a terrain bonus with a probability determined by the
-     * <code>MapGeneratorOptions</code>.
+     * The bonuses chosen for a tile.  The choices for the whole map
+     * are made before any of them are added.
+     */
+    private static class Bonus {
+
+        /** Add the fish bonus for adjacent land? */
+        public boolean fishLand = false;
+
+        /** Add the fish bonus for a river mouth? */
+        public boolean fishRiver = false;
+
+        /** The type of resource to add, or null for none. */
+        public ResourceType resourceType = null;
+
+        /** The quantity of the resource. */
+        public int quantity = 0;
+    }
+
+    /**
+     * Chooses the terrain bonuses for a tile with a probability
+     * determined by the <code>MapGeneratorOptions</code>.
      *
-     * @param t The <code>Tile</code> to add bonuses to.
+     * Called in parallel for different rows, so the map must not be
+     * modified here.
+     *
+     * @param t The <code>Tile</code> to choose bonuses for.
      * @param generateBonus Generate the bonus or not.
+     * @param bonusNumber The percentage chance of a bonus resource.
+     * @param random The <code>Random</code> number source to use.
+     * @return The <code>Bonus</code> chosen for the tile.
      */
-    private void perhapsAddBonus(Tile t, boolean generateBonus) {
-        final Specification spec = t.getSpecification();
-        TileImprovementType fishBonusLandType
-            = spec.getTileImprovementType("model.improvement.fishBonusLand");
-        TileImprovementType fishBonusRiverType
-            = spec.getTileImprovementType("model.improvement.fishBonusRiver");
-        final int bonusNumber
-            = mapOptions.getInteger("model.option.bonusNumber");
+    private Bonus chooseBonus(Tile t, boolean generateBonus, int bonusNumber,
+                              Random random) {
+        Bonus bonus = new Bonus();
         if (t.isLand()) {
             if (generateBonus && random.nextInt(100) < bonusNumber) {
                 // Create random Bonus Resource
-                t.addResource(createResource(t));
+                chooseResource(t, bonus, random);
             }
         } else {
             int adjacentLand = 0;
             boolean adjacentRiver = false;
-            for (Direction direction : Direction.values()) {
+            for (Direction direction : Direction.allDirections) {
                 Tile otherTile = t.getNeighbourOrNull(direction);
                 if (otherTile != null && otherTile.isLand()) {
                     adjacentLand++;
@@ -1424,48 +1524,68 @@ public class TerrainGenerator {
 
             // In Col1, ocean tiles with less than 3 land neighbours
             // produce 2 fish, all others produce 4 fish
-            if (adjacentLand > 2) {
-                t.add(new TileImprovement(t.getGame(), t, fishBonusLandType));
-            }
+            bonus.fishLand = adjacentLand > 2;
 
             // In Col1, the ocean tile in front of a river mouth would
             // get an additional +1 bonus
             // TODO: This probably has some false positives, means
             // river tiles that are NOT a river mouth next to this tile!
-            if (!t.hasRiver() && adjacentRiver) {
-                t.add(new TileImprovement(t.getGame(), t, fishBonusRiverType));
-            }
+            bonus.fishRiver = !t.hasRiver() && adjacentRiver;
 
             if (t.getType().isHighSeasConnected()) {
                 if (generateBonus && adjacentLand > 1
                     && random.nextInt(10 - adjacentLand) == 0) {
-                    t.addResource(createResource(t));
+                    chooseResource(t, bonus, random);
                 }
             } else {
                 if (random.nextInt(100) < bonusNumber) {
                     // Create random Bonus Resource
-                    t.addResource(createResource(t));
+                    chooseResource(t, bonus, random);
                 }
             }
         }
+        return bonus;
     }
 
     /**
-     * Create a random resource on a tile.
+     * Chooses a random resource for a tile.
      *
-     * @param tile The <code>Tile</code> to create the resource on.
-     * @return The created resource, or null if it is not possible.
+     * @param tile The <code>Tile</code> to choose a resource for.
+     * @param bonus The <code>Bonus</code> to record the choice in.
+     * @param random The <code>Random</code> number source to use.
      */
-    private Resource createResource(Tile tile) {
-        if (tile == null) return null;
+    private void chooseResource(Tile tile, Bonus bonus, Random random) {
         ResourceType resourceType = RandomChoice.getWeightedRandom(null, null,
             random, tile.getType().getWeightedResources());
-        if (resourceType == null) return null;
+        if (resourceType == null) return;
         int minValue = resourceType.getMinValue();
         int maxValue = resourceType.getMaxValue();
-        int quantity = (minValue == maxValue) ? maxValue
+        bonus.resourceType = resourceType;
+        bonus.quantity = (minValue == maxValue) ? maxValue
             : (minValue + random.nextInt(maxValue - minValue + 1));
-        return new Resource(tile.getGame(), tile, resourceType, quantity);
+    }
+
+    /**
+     * Adds the chosen terrain bonuses to a tile.
+     *
+     * @param t The <code>Tile</code> to add bonuses to.
+     * @param bonus The <code>Bonus</code> chosen for the tile.
+     */
+    private void addBonus(Tile t, Bonus bonus) {
+        final Specification spec = t.getSpecification();
+        final Game game = t.getGame();
+        if (bonus.fishLand) {
+            t.add(new TileImprovement(game, t, spec
+                    .getTileImprovementType("model.improvement.fishBonusLand")));
+        }
+        if (bonus.fishRiver) {
+            t.add(new TileImprovement(game, t, spec
+                    .getTileImprovementType("model.improvement.fishBonusRiver")));
+        }
+        if (bonus.resourceType != null) {
+            t.addResource(new Resource(game, t, bonus.resourceType,
+                                       bonus.quantity));
+        }
     }
 
     /**
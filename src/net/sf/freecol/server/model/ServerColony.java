@@ -151,6 +151,16 @@ public class ServerColony extends Colony implements ServerModelObject {
         return false;
     }
 
+    /**
+     * Works out the production of this colony for the coming new
+     * turn, so that it is cached when {@link #csNewTurn} asks for it.
+     * Nothing visible is changed, so the colonies of a player may be
+     * prepared concurrently.
+     */
+    public void prepareNewTurn() {
+        getProductionMap();
+    }
+
     /**
      * New turn for this colony.
      * Try to find out if the colony is going to survive (last colonist does
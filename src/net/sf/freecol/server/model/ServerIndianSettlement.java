@@ -50,6 +50,13 @@ public class ServerIndianSettlement extends IndianSettlement
 
     public static final int MAX_HORSES_PER_TURN = 2;
 
+    /**
+     * The production of each goods type worked out by
+     * {@link #prepareNewTurn}, indexed as the goods type list of the
+     * specification, negative where it is left to the new turn.
+     */
+    private volatile int[] preparedProduction = null;
+
 
     /**
      * Trivial constructor for all ServerModelObjects.
@@ -90,6 +97,24 @@ public class ServerIndianSettlement extends IndianSettlement
     }
 
 
+    /**
+     * Works out the production of the raw goods of this settlement
+     * for the coming new turn, so that it is ready when
+     * {@link #csNewTurn} applies it.  Nothing is changed but the
+     * prepared amounts, so the settlements of a player may be
+     * prepared concurrently.  Refined goods depend on the goods in
+     * store, and are left to <code>csNewTurn</code>.
+     */
+    public void prepareNewTurn() {
+        List<GoodsType> goodsList = getSpecification().getGoodsTypeList();
+        int[] amounts = new int[goodsList.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            GoodsType g = goodsList.get(i);
+            amounts[i] = (g.isRefined()) ? -1 : getTotalProductionOf(g);
+        }
+        preparedProduction = amounts;
+    }
+
     /**
      * New turn for this native settlement.
      *
@@ -101,10 +126,19 @@ public class ServerIndianSettlement extends IndianSettlement
         ServerPlayer owner = (ServerPlayer) getOwner();
         Specification spec = getSpecification();
 
-        // Produce goods.
+        // Produce goods, using the amounts prepared at the start of
+        // the turn if there are any.
         List<GoodsType> goodsList = spec.getGoodsTypeList();
-        for (GoodsType g : goodsList) {
-            addGoods(g.getStoredAs(), getTotalProductionOf(g));
+        int[] prepared = preparedProduction;
+        preparedProduction = null;
+        if (prepared != null && prepared.length != goodsList.size()) {
+            prepared = null;
+        }
+        for (int i = 0; i < goodsList.size(); i++) {
+            GoodsType g = goodsList.get(i);
+            int amount = (prepared == null || prepared[i] < 0)
+                ? getTotalProductionOf(g) : prepared[i];
+            addGoods(g.getStoredAs(), amount);
         }
 
         // Consume goods.
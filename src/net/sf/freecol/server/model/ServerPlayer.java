@@ -29,9 +29,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.sf.freecol.FreeCol;
 import net.sf.freecol.client.gui.i18n.Messages;
 import net.sf.freecol.common.model.Ability;
 import net.sf.freecol.common.model.AbstractGoods;
@@ -108,6 +115,13 @@ public class ServerPlayer extends Player implements ServerModelObject {
     // How far to search for a colony to add an Indian convert to.
     public static final int MAX_CONVERT_DISTANCE = 10;
 
+    /** The number of threads to prepare settlements on. */
+    private static final int PREPARE_THREADS
+        = Runtime.getRuntime().availableProcessors();
+
+    /** The pool settlements are prepared on, created on first use. */
+    private static ExecutorService prepareExecutor = null;
+
 
     /** The network socket to the player's client. */
     private Socket socket;
@@ -284,7 +298,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
          */
         switch (getPlayerType()) {
         case NATIVE: // All natives units are viable
-            return (getUnits().isEmpty()) ? IS_DEAD : IS_ALIVE;
+            return (getUnitList().isEmpty()) ? IS_DEAD : IS_ALIVE;
 
         case COLONIAL: // Handle the hard case below
             if (isUnknownEnemy()) return IS_ALIVE;
@@ -293,7 +307,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
         case REBEL: case INDEPENDENT:
             // Post-declaration European player needs a coastal colony
             // and can not hope for resupply from Europe.
-            for (Colony colony : getColonies()) {
+            for (Colony colony : getColonyList()) {
                 if (colony.isConnectedPort()) return IS_ALIVE;
             }
             return IS_DEAD;
@@ -302,20 +316,20 @@ public class ServerPlayer extends Player implements ServerModelObject {
             return (getRebels().isEmpty()) ? IS_DEAD : IS_ALIVE;
 
         case UNDEAD:
-            return (getUnits().isEmpty()) ? IS_DEAD : IS_ALIVE;
+            return (getUnitList().isEmpty()) ? IS_DEAD : IS_ALIVE;
 
         default:
             throw new IllegalStateException("Bogus player type");
         }
 
         // Quick check for a colony.  Do not log, this is the common case.
-        if (!getColonies().isEmpty()) return IS_ALIVE;
+        if (!getColonyList().isEmpty()) return IS_ALIVE;
 
         // Traverse player units, look for valid carriers, colonists,
         // carriers with units, carriers with goods.
         boolean hasCarrier = false, hasColonist = false, hasEmbarked = false,
             hasGoods = false;
-        for (Unit unit : getUnits()) {
+        for (Unit unit : getUnitList()) {
             if (unit.isCarrier()) {
                 if (unit.hasGoodsCargo()) hasGoods = true;
                 hasCarrier = true;
@@ -430,7 +444,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
         boolean naval = false;
         int land = 0;
         int power = 0;
-        for (Unit u : getUnits()) {
+        for (Unit u : getUnitList()) {
             if (u.isNaval()) naval = true; else {
                 if (u.hasAbility("model.ability.refUnit")) {
                     land++;
@@ -444,8 +458,8 @@ public class ServerPlayer extends Player implements ServerModelObject {
         // than the rebels.
         int rebelPower = 0;
         for (Player rebel : getRebels()) {
-            for (Unit r : rebel.getUnits()) {
-                if (!r.isNaval()) rebelPower += cm.getOffencePower(r, null);
+            for (Unit r : rebel.getLandUnitList()) {
+                rebelPower += cm.getOffencePower(r, null);
             }
         }
         if (power > rebelPower) return false;
@@ -503,9 +517,8 @@ public class ServerPlayer extends Player implements ServerModelObject {
         }
 
         // Remove settlements.  Update formerly owned tiles.
-        List<Settlement> settlements = getSettlements();
-        while (!settlements.isEmpty()) {
-            Settlement settlement = settlements.remove(0);
+        for (Settlement settlement : getSettlements()) {
+            removeSettlement(settlement);
             cs.addDispose(See.perhaps().always(this),
                 settlement.getTile(), settlement);
         }
@@ -683,7 +696,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
      */
     public void resetExploredTiles(Map map) {
         if (map != null) {
-            for (Unit unit : getUnits()) {
+            for (Unit unit : getUnitList()) {
                 Tile tile = unit.getTile();
                 setExplored(tile);
 
@@ -1008,9 +1021,93 @@ public class ServerPlayer extends Player implements ServerModelObject {
         return change;
     }
 
+    /**
+     * Gets the pool settlements are prepared on.
+     *
+     * @return The <code>ExecutorService</code> to prepare settlements on.
+     */
+    private static synchronized ExecutorService getPrepareExecutor() {
+        if (prepareExecutor == null) {
+            prepareExecutor = Executors.newFixedThreadPool(PREPARE_THREADS,
+                new ThreadFactory() {
+                    private int count = 0;
+
+                    public synchronized Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, FreeCol.SERVER_THREAD
+                                              + "NewTurn-" + count++);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        }
+        return prepareExecutor;
+    }
+
+    /**
+     * Prepares a settlement for the new turn.
+     *
+     * @param settlement The <code>Settlement</code> to prepare.
+     */
+    private static void prepareNewTurn(Settlement settlement) {
+        if (settlement instanceof ServerColony) {
+            ((ServerColony) settlement).prepareNewTurn();
+        } else if (settlement instanceof ServerIndianSettlement) {
+            ((ServerIndianSettlement) settlement).prepareNewTurn();
+        }
+    }
+
+    /**
+     * Works out the production of a player's settlements for the new
+     * turn, in parallel when there are several.  Preparing a
+     * settlement reads the game but changes only the settlement's own
+     * production state, and nothing else runs on the server while the
+     * settlements are prepared.  A settlement that fails to prepare
+     * simply works out its production again in its new turn.
+     *
+     * @param settlements The <code>Settlement</code>s to prepare.
+     */
+    private static void prepareNewTurn(List<Settlement> settlements) {
+        if (PREPARE_THREADS <= 1 || settlements.size() <= 1) {
+            for (Settlement settlement : settlements) {
+                prepareNewTurn(settlement);
+            }
+            return;
+        }
+
+        List<Callable<Void>> calls
+            = new ArrayList<Callable<Void>>(settlements.size());
+        for (final Settlement settlement : settlements) {
+            calls.add(new Callable<Void>() {
+                    public Void call() {
+                        prepareNewTurn(settlement);
+                        return null;
+                    }
+                });
+        }
+        try {
+            for (Future<Void> f : getPrepareExecutor().invokeAll(calls)) {
+                try {
+                    f.get();
+                } catch (ExecutionException ee) {
+                    logger.log(Level.WARNING, "Settlement preparation failed",
+                               ee.getCause());
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * New turn for this player.
      *
+     * The settlements are handled in two phases.  First the
+     * production of each settlement is worked out, in parallel, see
+     * {@link #prepareNewTurn(List)}.  Then each settlement has its new
+     * turn in the order of the settlement list, sharing the random
+     * number source and change set, so the results do not depend on
+     * how the first phase was scheduled.
+     *
      * @param random A <code>Random</code> number source.
      * @param cs A <code>ChangeSet</code> to update.
      */
@@ -1018,8 +1115,8 @@ public class ServerPlayer extends Player implements ServerModelObject {
         logger.finest("ServerPlayer.csNewTurn, for " + getName());
 
         // Settlements
-        List<Settlement> settlements
-            = new ArrayList<Settlement>(getSettlements());
+        List<Settlement> settlements = getSettlements();
+        prepareNewTurn(settlements);
         int newSoL = 0;
         for (Settlement settlement : settlements) {
             ((ServerModelObject) settlement).csNewTurn(random, cs);
@@ -1045,7 +1142,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
             ((ServerModelObject) europe).csNewTurn(random, cs);
         }
         // Units.
-        for (Unit unit : new ArrayList<Unit>(getUnits())) {
+        for (Unit unit : getUnitList()) {
             try {
                 ((ServerModelObject) unit).csNewTurn(random, cs);
             } catch (ClassCastException e) {
@@ -1165,8 +1262,9 @@ public class ServerPlayer extends Player implements ServerModelObject {
             // an appropriate disaster if possible, else continue with
             // the next colony
             int start = Utils.randomInt(logger, "select colony", random, size);
+            List<Colony> colonies = getColonyList();
             for (int index = 0; index < size; index++) {
-                Colony colony = getColonies().get((start + index) % size);
+                Colony colony = colonies.get((start + index) % size);
                 List<RandomChoice<Disaster>> disasters = colony.getDisasters();
                 if (!disasters.isEmpty()) {
                     Disaster disaster = RandomChoice
@@ -1490,7 +1588,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
      * @param cs A <code>ChangeSet</code> to update.
      */
     private void csBombardEnemyShips(Random random, ChangeSet cs) {
-        for (Colony colony : getColonies()) {
+        for (Colony colony : getColonyList()) {
             if (colony.canBombardEnemyShip()) {
                 for (Tile tile : colony.getTile().getSurroundingTiles(1)) {
                     if (!tile.isLand() && tile.getFirstUnit() != null
@@ -1585,7 +1683,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
 
         java.util.Map<UnitType, UnitType> upgrades = father.getUpgrades();
         if (upgrades != null) {
-            for (Unit u : getUnits()) {
+            for (Unit u : getUnitList()) {
                 UnitType newType = upgrades.get(u.getType());
                 if (newType != null) {
                     u.setType(newType);
@@ -1626,7 +1724,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
 
             } else if (eventId.equals("model.event.freeBuilding")) {
                 BuildingType type = spec.getBuildingType(event.getValue());
-                for (Colony colony : getColonies()) {
+                for (Colony colony : getColonyList()) {
                     if (colony.canBuild(type)) {
                         colony.addBuilding(new ServerBuilding(game, colony, type));
                         colony.getBuildQueue().remove(type);
@@ -1661,7 +1759,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
                 int value = Integer.parseInt(event.getValue());
                 GoodsType bells = spec.getLibertyGoodsTypeList().get(0);
                 int totalBells = 0;
-                for (Colony colony : getColonies()) {
+                for (Colony colony : getColonyList()) {
                     float oldRatio = (float) colony.getLiberty()
                         / (colony.getUnitCount() * Colony.LIBERTY_PER_REBEL);
                     float reqRatio = Math.min(1.0f, oldRatio + 0.01f * value);
@@ -1695,7 +1793,7 @@ public class ServerPlayer extends Player implements ServerModelObject {
                 }
 
             } else if (eventId.equals("model.event.movementChange")) {
-                for (Unit u : getUnits()) {
+                for (Unit u : getUnitList()) {
                     if (u.getMovesLeft() > 0) {
                         u.setMovesLeft(u.getInitialMovesLeft());
                         cs.addPartial(See.only(this), u, "movesLeft");
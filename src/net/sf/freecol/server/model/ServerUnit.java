@@ -22,8 +22,10 @@ package net.sf.freecol.server.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import net.sf.freecol.client.gui.i18n.Messages;
@@ -377,7 +379,11 @@ public class ServerUnit extends Unit implements ServerModelObject {
             // Changes like clearing a forest need to be completed,
             // whereas for changes like road building the improvement
             // is already added and now complete.
+            boolean wasLand = tile.isLand();
             tile.setType(changeType);
+            if (tile.isLand() != wasLand) {
+                getGame().getMap().updateContiguity(tile);
+            }
         }
 
         // Does a resource get exposed?
@@ -427,6 +433,12 @@ public class ServerUnit extends Unit implements ServerModelObject {
                 .addStringTemplate("%unit%", getLabel())
                 .addStringTemplate("%location%", locName));
         }
+
+        // The production of the colony owning the tile has changed.
+        Settlement owning = tile.getOwningSettlement();
+        if (owning instanceof Colony && owning.getOwner().isAI()) {
+            owning.firePropertyChange(Colony.REARRANGE_WORKERS, true, false);
+        }
     }
 
     /**
@@ -939,6 +951,71 @@ public class ServerUnit extends Unit implements ServerModelObject {
         }
     }
 
+    /**
+     * Follows a path for as long as the moves are quiet and the
+     * unit has moves left.
+     *
+     * @param path The <code>PathNode</code> to follow.
+     * @param random A pseudo-random number source.
+     * @param cs A <code>ChangeSet</code> to update.
+     * @return True if the unit reached the end of the path.
+     */
+    public boolean csFollowPath(PathNode path, Random random, ChangeSet cs) {
+        List<Tile> tiles = new ArrayList<Tile>();
+        for (; path != null; path = path.next) {
+            if (path.getLocation() == getLocation()) continue;
+            if (path.getTile() == null) return false;
+            tiles.add(path.getTile());
+        }
+        return csFollowTiles(tiles, random, cs) == tiles.size();
+    }
+
+    /**
+     * Moves along a series of adjacent tiles for as long as the moves
+     * are quiet and the unit has moves left.  The unit also stops
+     * when an enemy unit it could not see before comes into view.
+     *
+     * @param tiles The <code>Tile</code>s to move to, in order.
+     * @param random A pseudo-random number source.
+     * @param cs A <code>ChangeSet</code> to update.
+     * @return The number of moves made.
+     */
+    public int csFollowTiles(List<Tile> tiles, Random random, ChangeSet cs) {
+        Set<Unit> enemies = null;
+        int moved = 0;
+        for (Tile tile : tiles) {
+            if (getTile() == null || getMovesLeft() <= 0
+                || !isQuietMove(tile)) break;
+            if (enemies == null) enemies = getVisibleEnemies();
+            csMove(tile, random, cs);
+            if (isDisposed() || getTile() != tile) break;
+            moved++;
+            Set<Unit> now = getVisibleEnemies();
+            if (!enemies.containsAll(now)) break;
+            enemies = now;
+        }
+        return moved;
+    }
+
+    /**
+     * Gets the offensive units of players at war with the owner that
+     * are within the line of sight of this unit.
+     *
+     * @return A set of enemy <code>Unit</code>s.
+     */
+    private Set<Unit> getVisibleEnemies() {
+        final Player owner = getOwner();
+        Set<Unit> result = new HashSet<Unit>();
+        for (Tile t : getTile().getSurroundingTiles(getLineOfSight())) {
+            for (Unit u : t.getUnitList()) {
+                if (u.isOffensiveUnit() && owner.atWarWith(u.getOwner())) {
+                    result.add(u);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Remove equipment from a unit.
      *
@@ -27,6 +27,7 @@ public class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("Test for net.sf.freecol.client");
         //$JUnit-BEGIN$
+        suite.addTestSuite(EmpireStatisticsTest.class);
         suite.addTest(net.sf.freecol.client.control.AllTests.suite());
         suite.addTest(net.sf.freecol.client.gui.AllTests.suite());
         //$JUnit-END$
@@ -0,0 +1,113 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.client;
+
+import net.sf.freecol.common.model.Colony;
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.GoodsType;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.UnitType;
+import net.sf.freecol.server.model.ServerUnit;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class EmpireStatisticsTest extends FreeColTestCase {
+
+    private static final GoodsType foodType
+        = spec().getPrimaryFoodType();
+
+    private static final UnitType artilleryType
+        = spec().getUnitType("model.unit.artillery");
+    private static final UnitType caravelType
+        = spec().getUnitType("model.unit.caravel");
+    private static final UnitType colonistType
+        = spec().getUnitType("model.unit.freeColonist");
+
+
+    public void testUnitCounts() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(3);
+        Player dutch = colony.getOwner();
+        Tile tile = game.getMap().getTile(7, 8);
+
+        EmpireStatistics statistics = new EmpireStatistics(dutch);
+        assertEquals(3, statistics.getUnitCounts().getCount(colonistType));
+        assertEquals(Integer.valueOf(3), statistics.getLocationCounts()
+                     .get(colonistType).get(colony));
+        assertTrue(statistics.getMilitaryUnits().isEmpty());
+        assertTrue(statistics.getNavalUnits().isEmpty());
+
+        // Units the statistics have not been told about are still found.
+        Unit artillery = new ServerUnit(game, tile, dutch, artilleryType);
+        Unit caravel = new ServerUnit(game, tile, dutch, caravelType);
+        assertEquals(1, statistics.getMilitaryUnits().size());
+        assertTrue(statistics.getMilitaryUnits().contains(artillery));
+        assertEquals(1, statistics.getNavalUnits().size());
+        assertTrue(statistics.getNavalUnits().contains(caravel));
+        assertEquals(Integer.valueOf(1), statistics.getLocationCounts()
+                     .get(artilleryType).get(tile));
+
+        artillery.setLocation(colony.getTile());
+        statistics.update(artillery);
+        assertEquals(Integer.valueOf(1), statistics.getLocationCounts()
+                     .get(artilleryType).get(colony));
+        assertNull(statistics.getLocationCounts()
+                   .get(artilleryType).get(tile));
+
+        statistics.remove(artillery);
+        artillery.dispose();
+        assertTrue(statistics.getMilitaryUnits().isEmpty());
+        assertEquals(0, statistics.getUnitCounts().getCount(artilleryType));
+        assertEquals(1, statistics.getNavalUnits().size());
+    }
+
+    public void testColonyStatistics() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(3);
+        Player dutch = colony.getOwner();
+
+        EmpireStatistics statistics = new EmpireStatistics(dutch);
+        EmpireStatistics.ColonyStatistics cs
+            = statistics.getColonyStatistics(colony);
+        assertEquals(3, cs.getUnitCount(colonistType));
+        assertEquals(colony.getNetProductionOf(foodType),
+                     cs.getNetProductionOf(foodType));
+        assertEquals(colony.getAdjustedNetProductionOf(foodType),
+                     cs.getAdjustedNetProductionOf(foodType));
+
+        // The statistics are kept until the colony is updated.
+        Unit colonist = colony.getUnitList().get(0);
+        colonist.setLocation(colony.getTile());
+        assertSame(cs, statistics.getColonyStatistics(colony));
+
+        statistics.update(colony);
+        cs = statistics.getColonyStatistics(colony);
+        assertEquals(2, cs.getUnitCount(colonistType));
+        assertEquals(colony.getNetProductionOf(foodType),
+                     cs.getNetProductionOf(foodType));
+        // Units outside the colony are still counted at it.
+        assertEquals(Integer.valueOf(3), statistics.getLocationCounts()
+                     .get(colonistType).get(colony));
+    }
+}
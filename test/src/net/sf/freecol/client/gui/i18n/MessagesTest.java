@@ -137,6 +137,30 @@ public class MessagesTest extends FreeColTestCase {
 
     }
 
+    public void testCompileLazily() {
+        Messages.setCompileLazily(true);
+        try {
+            Messages.setMessageBundle(Locale.US);
+            assertEquals("Trade Advisor", Messages.message("reportTradeAction.name"));
+            assertEquals("100 Food",
+                Messages.message(StringTemplate.template("model.goods.goodsAmount")
+                    .add("%goods%", "model.goods.food.name")
+                    .addName("%amount%", "100")));
+        } finally {
+            Messages.setCompileLazily(false);
+        }
+
+        // Reloading a message replaces its compiled form.
+        String mapping = "some.key={{plural:%number%|one=one|other=other}}\n";
+        Messages.loadResources(new ByteArrayInputStream(mapping.getBytes()));
+        assertEquals("one", Messages.message(StringTemplate.template("some.key")
+                                             .addAmount("%number%", 1)));
+        mapping = "some.key={{plural:%number%|one=uno|other=otro}}\n";
+        Messages.loadResources(new ByteArrayInputStream(mapping.getBytes()));
+        assertEquals("uno", Messages.message(StringTemplate.template("some.key")
+                                             .addAmount("%number%", 1)));
+    }
+
     public void testReplaceGarbage() {
         // random garbage enclosed in double brackets should be
         // removed
@@ -32,6 +32,7 @@ public class AllTests {
 	suite.addTestSuite(BaseCostDeciderTest.class);
 	suite.addTestSuite(BuildingTest.class);
 	suite.addTestSuite(ColonyTest.class);
+	suite.addTestSuite(ColonyOptimizerTest.class);
 	suite.addTestSuite(ColonyProductionTest.class);
 	suite.addTestSuite(CombatTest.class);
 	suite.addTestSuite(DisasterTest.class);
@@ -58,6 +59,7 @@ public class AllTests {
 	suite.addTestSuite(SoLTest.class);
 	suite.addTestSuite(TileItemContainerTest.class);
 	suite.addTestSuite(TileTest.class);
+	suite.addTestSuite(UnitIndexTest.class);
 	suite.addTestSuite(UnitTest.class);
 	suite.addTestSuite(UnitTypeChangeTest.class);
 	//$JUnit-END$
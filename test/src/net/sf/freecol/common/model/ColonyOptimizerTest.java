@@ -0,0 +1,125 @@
+/**
+ *  Copyright (C) 2002-2012  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class ColonyOptimizerTest extends FreeColTestCase {
+
+    private static final GoodsType bellsType
+        = spec().getGoodsType("model.goods.bells");
+    private static final GoodsType foodType
+        = spec().getPrimaryFoodType();
+
+    private static final UnitType expertFarmerType
+        = spec().getUnitType("model.unit.expertFarmer");
+
+
+    private List<Unit> getWorkers(Colony colony) {
+        List<Unit> units = new ArrayList<Unit>();
+        for (WorkLocation wl : colony.getAllWorkLocations()) {
+            units.addAll(wl.getUnitList());
+        }
+        return units;
+    }
+
+    public void testNegativeWeight() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(1);
+
+        ColonyOptimizer optimizer = new ColonyOptimizer(colony);
+        try {
+            optimizer.setWeight(bellsType, -1.0);
+            fail("Negative weight accepted");
+        } catch (IllegalArgumentException e) {}
+    }
+
+    public void testCapacity() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(7);
+        colony.addGoods(foodType, GoodsContainer.CARGO_SIZE);
+
+        List<Unit> units = getWorkers(colony);
+        ColonyOptimizer optimizer = new ColonyOptimizer(colony);
+        java.util.Map<Unit, ColonyOptimizer.Job> assignment
+            = optimizer.optimize(units);
+        assertFalse("Should place units", assignment.isEmpty());
+
+        java.util.Map<WorkLocation, Integer> count
+            = new HashMap<WorkLocation, Integer>();
+        for (ColonyOptimizer.Job job : assignment.values()) {
+            WorkLocation wl = job.getWorkLocation();
+            Integer n = count.get(wl);
+            count.put(wl, (n == null) ? 1 : n + 1);
+        }
+        for (WorkLocation wl : count.keySet()) {
+            assertTrue("Over capacity at " + wl,
+                count.get(wl) <= wl.getUnitCapacity());
+        }
+    }
+
+    public void testExpertFarmer() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(3);
+        Unit expert = colony.getUnitList().get(0);
+        expert.setType(expertFarmerType);
+
+        // Only food is worth anything, so everyone should farm
+        // and the expert must be placed.
+        ColonyOptimizer optimizer = new ColonyOptimizer(colony);
+        for (GoodsType g : spec().getGoodsTypeList()) {
+            if (!g.isFoodType()) optimizer.setWeight(g, 0.0);
+        }
+        java.util.Map<Unit, ColonyOptimizer.Job> assignment
+            = optimizer.optimize(getWorkers(colony));
+        ColonyOptimizer.Job job = assignment.get(expert);
+        assertNotNull("Expert farmer should be placed", job);
+        assertTrue("Expert farmer should produce food",
+            job.getGoodsType().isFoodType());
+        assertTrue("Expert farmer should work a tile",
+            job.getWorkLocation() instanceof ColonyTile);
+    }
+
+    public void testWeights() {
+        Game game = getStandardGame();
+        game.setMap(getTestMap());
+        Colony colony = getStandardColony(3);
+        colony.addGoods(foodType, GoodsContainer.CARGO_SIZE);
+
+        ColonyOptimizer optimizer = new ColonyOptimizer(colony);
+        optimizer.setWeight(bellsType, 1000.0);
+        java.util.Map<Unit, ColonyOptimizer.Job> assignment
+            = optimizer.optimize(getWorkers(colony));
+        boolean bells = false;
+        for (ColonyOptimizer.Job job : assignment.values()) {
+            if (job.getGoodsType() == bellsType) bells = true;
+        }
+        assertTrue("Should produce the valuable bells", bells);
+        assertTrue("Score should be positive", optimizer.getScore() > 0);
+    }
+}
@@ -244,6 +244,62 @@ public class CombatTest extends FreeColTestCase {
                      privateer.getMoveType(tile1));
     }
 
+    public void testCachedPower() throws Exception {
+        Game game = getStandardGame();
+        CombatModel combatModel = game.getCombatModel();
+        Player dutch = game.getPlayer("model.nation.dutch");
+        Player french = game.getPlayer("model.nation.french");
+        Map map = getTestMap(plains);
+        game.setMap(map);
+        Tile tile1 = map.getTile(5, 8);
+        tile1.setType(hills);
+        Tile tile2 = map.getTile(4, 8);
+
+        Unit colonist = new ServerUnit(game, tile1, dutch, colonistType);
+        Unit soldier = new ServerUnit(game, tile2, french, veteranType,
+                                      muskets, horses);
+        Turn turn = game.getTurn();
+
+        // The power must match the full modifier sets however the
+        // situation changes between calls.
+        for (int moves = 1; moves <= 3; moves++) {
+            soldier.setMovesLeft(moves);
+            colonist.setStateUnchecked((moves == 2) ? Unit.UnitState.FORTIFIED
+                                       : Unit.UnitState.ACTIVE);
+            assertEquals(FeatureContainer.applyModifierSet(0, turn,
+                    combatModel.getOffensiveModifiers(soldier, colonist)),
+                combatModel.getOffencePower(soldier, colonist));
+            assertEquals(FeatureContainer.applyModifierSet(0, turn,
+                    combatModel.getDefensiveModifiers(soldier, colonist)),
+                combatModel.getDefencePower(soldier, colonist));
+        }
+        float fortified = combatModel.getDefencePower(soldier, colonist);
+        colonist.setStateUnchecked(Unit.UnitState.FORTIFIED);
+        assertTrue(combatModel.getDefencePower(soldier, colonist) > fortified);
+
+        // Changing equipment or terrain changes the power.
+        float armed = combatModel.getOffencePower(soldier, colonist);
+        soldier.changeEquipment(horses, -1);
+        assertTrue(combatModel.getOffencePower(soldier, colonist) < armed);
+        float onHills = combatModel.getDefencePower(soldier, colonist);
+        tile1.setType(plains);
+        assertTrue(combatModel.getDefencePower(soldier, colonist) < onHills);
+
+        // A new father is seen at once.
+        FoundingFather drake
+            = spec().getFoundingFather("model.foundingFather.francisDrake");
+        Tile sea1 = map.getTile(5, 2);
+        sea1.setType(ocean);
+        Tile sea2 = map.getTile(4, 2);
+        sea2.setType(ocean);
+        Unit galleon = new ServerUnit(game, sea1, dutch, galleonType);
+        Unit privateer = new ServerUnit(game, sea2, french, privateerType);
+        float before = combatModel.getOffencePower(privateer, galleon);
+        french.addFather(drake);
+        assertEquals(1.5f * before,
+                     combatModel.getOffencePower(privateer, galleon));
+    }
+
 
 
     public void testDefendColonyWithUnarmedColonist() {
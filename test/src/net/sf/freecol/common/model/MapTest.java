@@ -670,4 +670,244 @@ public class MapTest extends FreeColTestCase {
         assertNotNull("From-galleon path should have a drop node.",
             path.getTransportDropNode());
     }
+
+    public void testSearchAll() {
+        Game game = getStandardGame();
+        Map map = getShortLongPathMap(getGame());
+        game.setMap(map);
+
+        Player dutch = game.getPlayer("model.nation.dutch");
+        Tile unitTile = map.getTile(1, 11);
+        Unit colonist = new ServerUnit(game, unitTile, dutch, colonistType);
+
+        java.util.HashMap<String, PathNode> tree
+            = map.searchAll(colonist, FreeColObject.INFINITY);
+        assertNotNull(tree.get(unitTile.getId()));
+
+        // The tree agrees with findPath on every tile it reaches,
+        // and does not reach the tiles findPath can not.
+        for (Tile t : map.getAllTiles()) {
+            if (t == unitTile) continue;
+            PathNode node = tree.get(t.getId());
+            PathNode path = colonist.findPath(t);
+            if (path == null) {
+                assertNull("No tree node expected at " + t, node);
+                continue;
+            }
+            assertNotNull("Tree node expected at " + t, node);
+            assertEquals("Same cost to " + t,
+                         path.getLastNode().getCost(), node.getCost());
+            PathNode root = node;
+            while (root.previous != null) root = root.previous;
+            assertEquals(unitTile, root.getTile());
+        }
+    }
+
+    public void testUpdateContiguity() {
+        Game game = getStandardGame();
+        Map map = getSingleLandPathMap(getGame());
+        game.setMap(map);
+
+        Tile land = map.getTile(1, 11);
+        Tile water = map.getTile(5, 5);
+        assertTrue(land.isConnectedTo(map.getTile(3, 7)));
+        assertFalse(land.isConnectedTo(water));
+
+        // Break the land path, rejoin it, and add an island, checking
+        // each time against a full reset.
+        TileType[] types = { oceanType, plainsType, plainsType, lakeType };
+        Tile[] tiles = { map.getTile(2, 9), map.getTile(2, 9),
+                         map.getTile(6, 12), map.getTile(6, 12) };
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i].setType(types[i]);
+            map.updateContiguity(tiles[i]);
+            List<Tile> all = new ArrayList<Tile>();
+            for (Tile t : map.getAllTiles()) all.add(t);
+            int[] contiguity = new int[all.size()];
+            int[] highSeas = new int[all.size()];
+            for (int j = 0; j < all.size(); j++) {
+                contiguity[j] = all.get(j).getContiguity();
+                highSeas[j] = all.get(j).getHighSeasCount();
+            }
+
+            map.resetContiguity();
+            map.resetHighSeasCount();
+            for (int j = 0; j < all.size(); j++) {
+                Tile t = all.get(j);
+                assertEquals("High seas count at " + t,
+                             t.getHighSeasCount(), highSeas[j]);
+                for (int k = j + 1; k < all.size(); k++) {
+                    assertEquals("Contiguity of " + t + " and " + all.get(k),
+                                 t.isConnectedTo(all.get(k)),
+                                 contiguity[j] == contiguity[k]);
+                }
+            }
+        }
+        assertTrue(map.getTile(6, 12).isConnectedTo(water));
+    }
+
+    public void testTileGrid() {
+        Game game = getStandardGame();
+        Map map = getSingleLandPathMap(game);
+        game.setMap(map);
+        map.resetContiguity();
+        map.resetHighSeasCount();
+        Player dutch = game.getPlayer("model.nation.dutch");
+        TileImprovementType roadType
+            = spec().getTileImprovementType("model.improvement.road");
+
+        Tile tile = map.getTile(2, 9);
+        tile.setType(oceanType);
+        map.updateContiguity(tile);
+        Tile owned = map.getTile(3, 7);
+        owned.setOwner(dutch);
+        TileImprovement road = new TileImprovement(game, owned, roadType);
+        owned.setTileItemContainer(new TileItemContainer(game, owned));
+        owned.getTileItemContainer().addTileItem(road);
+        assertFalse(map.getGrid().isImproved(map.getGrid().index(3, 7)));
+        road.setTurnsToComplete(0);
+
+        TileGrid grid = map.getGrid();
+        for (Tile t : map.getAllTiles()) {
+            int i = grid.index(t.getX(), t.getY());
+            assertTrue(grid.isPresent(i));
+            assertEquals(t.isLand(), grid.isLand(i));
+            assertEquals(t.hasRoad(), grid.hasRoad(i));
+            assertEquals(t.hasRiver(), grid.hasRiver(i));
+            assertEquals(t.getType().getIndex(), grid.getTypeIndex(i));
+            assertEquals(t.getOwner(), grid.getOwner(i));
+            assertEquals(t.getContiguity(), grid.getContiguity(i));
+            assertEquals(t.getHighSeasCount(), grid.getHighSeasCount(i));
+        }
+        assertTrue(grid.isImproved(grid.index(3, 7)));
+
+        // Scratch tiles are not on the grid, so check the shore test
+        // against them, and that they do not change the grid.
+        for (Tile t : map.getAllTiles()) {
+            Tile scratch = t.getScratchTile();
+            assertEquals(t.isShore(), scratch.isShore());
+            scratch.setOwner(dutch);
+            assertEquals(t.getOwner(),
+                         grid.getOwner(grid.index(t.getX(), t.getY())));
+            scratch.disposeScratchTile();
+        }
+    }
+
+    public void testMoveCostCache() {
+        Game game = getStandardGame();
+        Map map = getTestMap(plainsType);
+        game.setMap(map);
+        TileImprovementType roadType
+            = spec().getTileImprovementType("model.improvement.road");
+        Tile from = map.getTile(5, 8);
+        Tile to = map.getTile(4, 8);
+        assertTrue(from.isAdjacent(to));
+        final int basic = plainsType.getBasicMoveCost();
+        assertEquals(basic, to.getMoveCost(from));
+
+        // A road on the target alone does not help, but is cached.
+        TileImprovement road = new TileImprovement(game, to, roadType);
+        road.setTurnsToComplete(0);
+        to.setTileItemContainer(new TileItemContainer(game, to));
+        to.getTileItemContainer().addTileItem(road);
+        assertEquals(basic, to.getMoveCost(from));
+        assertEquals(basic, to.getMoveCost(from));
+
+        // A road on the source changes the cached cost of moving out.
+        road = new TileImprovement(game, from, roadType);
+        road.setTurnsToComplete(0);
+        from.setTileItemContainer(new TileItemContainer(game, from));
+        from.getTileItemContainer().addTileItem(road);
+        int roadCost = to.calculateMoveCost(from);
+        assertTrue(roadCost < basic);
+        assertEquals(roadCost, to.getMoveCost(from));
+        assertEquals(roadCost, from.getMoveCost(to));
+
+        // Changing the type of the target drops its cached costs.
+        to.setType(oceanType);
+        assertEquals(oceanType.getBasicMoveCost(), to.getMoveCost(from));
+    }
+
+    /**
+     * Walks the spiral used by the circle iterator one position at a
+     * time, as the iterator used to.
+     */
+    private List<Position> walkCircle(Map map, Position center,
+                                      boolean isFilled, int radius) {
+        final Direction[] sides = {
+            Direction.SE, Direction.SW, Direction.NW, Direction.NE
+        };
+        List<Position> result = new ArrayList<Position>();
+        int first = (isFilled) ? 1 : radius;
+        Position p = center;
+        for (int i = 1; i < first; i++) p = p.getAdjacent(Direction.N);
+        for (int r = first; r <= radius; r++) {
+            p = p.getAdjacent(Direction.NE);
+            if (map.isValid(p)) result.add(p);
+            for (int n = 1; n < 8 * r; n++) {
+                p = p.getAdjacent(sides[n / (2 * r)]);
+                if (map.isValid(p)) result.add(p);
+            }
+        }
+        return result;
+    }
+
+    public void testCircleOffsets() {
+        Game game = getStandardGame();
+        Map map = new MapBuilder(game).setDimensions(10, 15).build();
+        game.setMap(map);
+
+        for (Position center : new Position[] {
+                new Position(4, 8), new Position(4, 7),
+                new Position(0, 0), new Position(9, 14) }) {
+            for (int radius = 1; radius <= 4; radius++) {
+                for (boolean isFilled : new boolean[] { true, false }) {
+                    List<Position> expected
+                        = walkCircle(map, center, isFilled, radius);
+                    List<Position> found = new ArrayList<Position>();
+                    Iterator<Position> it
+                        = map.getCircleIterator(center, isFilled, radius);
+                    while (it.hasNext()) found.add(it.next());
+                    assertEquals(expected, found);
+
+                    found.clear();
+                    Tile tile = map.getTile(center.getX(), center.getY());
+                    for (Tile t : map.getCircleTiles(tile, isFilled, radius)) {
+                        found.add(t.getPosition());
+                    }
+                    assertEquals(expected, found);
+                }
+
+                // The index based access visits the same positions.
+                List<Position> expected
+                    = walkCircle(map, center, true, radius);
+                List<Position> found = new ArrayList<Position>();
+                for (int n = 0; n < Map.getCircleSize(radius); n++) {
+                    Tile t = map.getCircleTile(center.getX(),
+                                               center.getY(), n);
+                    if (t != null) found.add(t.getPosition());
+                }
+                assertEquals(expected, found);
+            }
+        }
+
+        // The flood fill covers the whole map but the center.
+        int count = 0;
+        Iterator<Position> it = map.getFloodFillIterator(new Position(0, 0));
+        while (it.hasNext()) {
+            assertTrue(map.isValid(it.next()));
+            count++;
+        }
+        assertEquals(10 * 15 - 1, count);
+
+        // Adjacent tiles come in direction order.
+        Tile tile = map.getTile(4, 7);
+        List<Tile> adjacent = new ArrayList<Tile>();
+        for (Direction d : Direction.values()) {
+            adjacent.add(tile.getNeighbourOrNull(d));
+        }
+        List<Tile> surrounding = new ArrayList<Tile>();
+        for (Tile t : tile.getSurroundingTiles(1)) surrounding.add(t);
+        assertEquals(adjacent, surrounding);
+    }
 }
@@ -20,6 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.Iterator;
+import java.util.List;
 
 import net.sf.freecol.server.model.ServerGame;
 import net.sf.freecol.server.model.ServerPlayer;
@@ -77,6 +78,47 @@ public class PlayerTest extends FreeColTestCase {
 
     }
 
+    public void testUnitLists() {
+        Game game = getStandardGame();
+        Player dutch = game.getPlayer("model.nation.dutch");
+        Map map = getTestMap(spec().getTileType("model.tile.plains"));
+        game.setMap(map);
+        Tile sea = map.getTile(2, 2);
+        sea.setType(spec().getTileType("model.tile.ocean"));
+
+        Unit colonist = new ServerUnit(game, map.getTile(4, 7), dutch,
+                                       freeColonist);
+        Unit galleon = new ServerUnit(game, sea, dutch, galleonType);
+        List<Unit> units = dutch.getUnitList();
+        assertEquals(2, units.size());
+        assertEquals(1, dutch.getNavalUnitList().size());
+        assertEquals(galleon, dutch.getNavalUnitList().get(0));
+        assertEquals(1, dutch.getLandUnitList().size());
+        assertEquals(colonist, dutch.getLandUnitList().get(0));
+        assertTrue("Lists should be reused", units == dutch.getUnitList());
+        try {
+            units.remove(0);
+            fail("Unit list should be read-only");
+        } catch (UnsupportedOperationException e) {}
+
+        // Snapshots do not change, new lists see the change.
+        Unit other = new ServerUnit(game, map.getTile(4, 8), dutch,
+                                    freeColonist);
+        assertEquals(2, units.size());
+        assertEquals(3, dutch.getUnitList().size());
+        assertEquals(2, dutch.getLandUnitList().size());
+        other.dispose();
+        assertEquals(2, dutch.getUnitList().size());
+        assertFalse(dutch.getUnitList().contains(other));
+
+        Colony colony = getStandardColony();
+        Player owner = colony.getOwner();
+        assertEquals(1, owner.getColonyList().size());
+        assertEquals(colony, owner.getColonyList().get(0));
+        assertEquals(owner.getColonies(), owner.getColonyList());
+        assertEquals(owner.getSettlements(), owner.getColonyList());
+    }
+
     public void testEuropeanPlayer(Player player) {
         assertTrue(player.canBuildColonies());
         assertTrue(player.canHaveFoundingFathers());
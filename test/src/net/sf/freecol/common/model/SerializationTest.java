@@ -27,7 +27,9 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.List;
 
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
@@ -37,6 +39,7 @@ import javax.xml.validation.Validator;
 
 import net.sf.freecol.common.io.FreeColSavegameFile;
 import net.sf.freecol.common.io.FreeColTcFile;
+import net.sf.freecol.common.networking.DOMMessage;
 import net.sf.freecol.common.option.OptionGroup;
 import net.sf.freecol.server.ServerTestHelper;
 import net.sf.freecol.util.test.FreeColTestCase;
@@ -99,6 +102,99 @@ public class SerializationTest extends FreeColTestCase {
         ServerTestHelper.stopServerGame();
     }
 
+    public void testMapSkeleton() throws Exception {
+        Game game = ServerTestHelper.startServerGame(getTestMap(true));
+        Map map = game.getMap();
+        Colony colony = getStandardColony(1);
+        Player player = colony.getOwner();
+        Tile far = map.getTile(map.getWidth() - 1, map.getHeight() - 1);
+        player.setExplored(far);
+
+        Game client = new Game(game.toXMLElementSkeleton(player,
+                DOMMessage.createNewDocument()), player.getName());
+        Map clientMap = client.getMap();
+        Tile clientColonyTile = clientMap.getTile(colony.getTile().getX(),
+                                                  colony.getTile().getY());
+        assertTrue(clientColonyTile.isExplored());
+        assertNotNull(clientColonyTile.getSettlement());
+        for (Tile t : colony.getTile().getSurroundingTiles(1)) {
+            assertTrue(clientMap.getTile(t.getX(), t.getY()).isExplored());
+        }
+        assertFalse(clientMap.getTile(far.getX(), far.getY()).isExplored());
+
+        clientMap.readChunkFromXMLElement(map.toXMLElementChunk(player,
+                DOMMessage.createNewDocument(),
+                map.getWidth() - 2, map.getHeight() - 2, 16, 16));
+        Tile clientFar = clientMap.getTile(far.getX(), far.getY());
+        assertTrue(clientFar.isExplored());
+        assertEquals(far.getType().getId(), clientFar.getType().getId());
+        assertFalse(clientMap.getTile(0, 0).isExplored());
+
+        clientMap.readChunkFromXMLElement(map.toXMLElementChunk(player,
+                DOMMessage.createNewDocument(),
+                0, 0, map.getWidth(), map.getHeight()));
+        for (Tile t : map.getAllTiles()) {
+            Tile ct = clientMap.getTile(t.getX(), t.getY());
+            if (player.hasExplored(t)) {
+                assertEquals(t.getType().getId(), ct.getType().getId());
+            } else {
+                assertFalse(ct.isExplored());
+            }
+        }
+
+        ServerTestHelper.stopServerGame();
+    }
+
+    public void testTileMemory() throws Exception {
+        Game game = ServerTestHelper.startServerGame(getTestMap(true));
+        Map map = game.getMap();
+        Colony colony = getStandardColony(3);
+        Player player = colony.getOwner();
+        Tile colonyTile = colony.getTile();
+        Tile far = map.getTile(map.getWidth() - 1, map.getHeight() - 1);
+        player.setExplored(far);
+        assertTrue(far.isExploredBy(player));
+        assertNull(far.getPlayerExploredTile(player));
+        assertNotNull(colonyTile.getPlayerExploredTile(player));
+
+        // Remembering tiles does not make game objects.
+        int count = 0;
+        for (java.util.Iterator<FreeColGameObject> it
+                 = game.getFreeColGameObjectIterator(); it.hasNext();
+             it.next()) count++;
+        for (Tile t : map.getAllTiles()) t.updatePlayerExploredTile(player, true);
+        int after = 0;
+        for (java.util.Iterator<FreeColGameObject> it
+                 = game.getFreeColGameObjectIterator(); it.hasNext();
+             it.next()) after++;
+        assertEquals(count, after);
+
+        StringWriter sw = new StringWriter();
+        XMLStreamWriter xsw = XMLOutputFactory.newInstance()
+            .createXMLStreamWriter(sw);
+        player.getTileMemory().toXML(xsw);
+        xsw.close();
+        XMLStreamReader xsr = XMLInputFactory.newInstance()
+            .createXMLStreamReader(new StringReader(sw.toString()));
+        xsr.nextTag();
+        TileMemory memory = new TileMemory(player);
+        memory.readFromXML(xsr);
+
+        TileMemory old = player.getTileMemory();
+        for (Tile t : map.getAllTiles()) {
+            assertEquals(old.isExplored(t), memory.isExplored(t));
+            assertEquals(old.getOwner(t), memory.getOwner(t));
+            assertEquals(old.getOwningSettlement(t),
+                         memory.getOwningSettlement(t));
+            assertEquals(old.getDetails(t) == null,
+                         memory.getDetails(t) == null);
+        }
+        assertEquals(colony.getUnitCount(),
+            memory.getDetails(colonyTile).getColonyUnitCount());
+
+        ServerTestHelper.stopServerGame();
+    }
+
     public void testMapAfrica() throws Exception {
         validateMap("data/maps/Africa.fsg");
     }
@@ -20,13 +20,17 @@
 package net.sf.freecol.common.model;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import net.sf.freecol.common.io.FreeColModFile;
 import net.sf.freecol.common.io.FreeColTcFile;
+import net.sf.freecol.common.option.BooleanOption;
 import net.sf.freecol.util.test.FreeColTestCase;
 
 public final class SpecificationTest extends FreeColTestCase {
@@ -295,5 +299,71 @@ public final class SpecificationTest extends FreeColTestCase {
 
     }
 
+    public void testSharedSpecification() throws Exception {
+        FreeColTcFile tc = new FreeColTcFile("freecol");
+        Specification s1 = tc.getSpecification();
+        Specification s2 = tc.getSpecification();
+        assertNotSame(s1, s2);
+        assertSame(s1.getUnitType("model.unit.freeColonist"),
+                   s2.getUnitType("model.unit.freeColonist"));
+
+        // Options belong to each specification.
+        BooleanOption fog1 = s1.getBooleanOption(GameOptions.FOG_OF_WAR);
+        BooleanOption fog2 = s2.getBooleanOption(GameOptions.FOG_OF_WAR);
+        assertNotSame(fog1, fog2);
+        fog1.setValue(!fog2.getValue());
+        assertFalse(fog1.getValue() == fog2.getValue());
+
+        // The same difficulty level shares the same types.
+        s1.applyDifficultyLevel("model.difficulty.veryEasy");
+        s2.applyDifficultyLevel("model.difficulty.veryEasy");
+        assertSame(s1.getTileType("model.tile.plains"),
+                   s2.getTileType("model.tile.plains"));
+        assertEquals("model.difficulty.veryEasy", s1.getDifficultyLevel().getId());
+
+        // Loading a fragment takes a private copy of the types.
+        int numberOfUnitTypes = s1.numberOfUnitTypes();
+        s2.loadFragment(new FileInputStream("data/mods/example/specification.xml"));
+        assertNotNull(s2.getUnitType("model.unit.milkmaid"));
+        assertEquals(numberOfUnitTypes, s1.numberOfUnitTypes());
+        assertNotSame(s1.getUnitType("model.unit.freeColonist"),
+                      s2.getUnitType("model.unit.freeColonist"));
+        assertFalse(fog1.getValue()
+            == s2.getBooleanOption(GameOptions.FOG_OF_WAR).getValue());
+        assertEquals("model.difficulty.veryEasy", s2.getDifficultyLevel().getId());
+    }
+
+    public void testSharedMods() throws Exception {
+        FreeColTcFile tc = new FreeColTcFile("freecol");
+        List<FreeColModFile> mods = new ArrayList<FreeColModFile>();
+        mods.add(new FreeColModFile(new File("data/mods/example")));
+        Specification s1 = tc.getSpecification();
+        Specification s2 = tc.getSpecification();
+        s1.applyDifficultyLevel("model.difficulty.hard");
+        s2.applyDifficultyLevel("model.difficulty.hard");
+        int numberOfUnitTypes = s1.numberOfUnitTypes();
+        boolean fog = !s1.getBoolean(GameOptions.FOG_OF_WAR);
+        s1.getBooleanOption(GameOptions.FOG_OF_WAR).setValue(fog);
+
+        assertTrue(s1.loadMods(mods));
+        assertTrue(s2.loadMods(mods));
+        UnitType milkmaid = s1.getUnitType("model.unit.milkmaid");
+        assertSame(milkmaid, s2.getUnitType("model.unit.milkmaid"));
+        assertEquals(numberOfUnitTypes + 1, s1.numberOfUnitTypes());
+        assertEquals("model.difficulty.hard", s1.getDifficultyLevel().getId());
+
+        // Changed options survive loading the mods.
+        assertEquals(fog, s1.getBoolean(GameOptions.FOG_OF_WAR));
+        assertEquals(!fog, s2.getBoolean(GameOptions.FOG_OF_WAR));
+
+        // Changing the difficulty level keeps the mods.
+        s2.applyDifficultyLevel("model.difficulty.easy");
+        assertNotNull(s2.getUnitType("model.unit.milkmaid"));
+        assertNotSame(milkmaid, s2.getUnitType("model.unit.milkmaid"));
+
+        // Without the mods the types are not shared.
+        Specification s3 = tc.getSpecification();
+        assertEquals(numberOfUnitTypes, s3.numberOfUnitTypes());
+    }
 
 }
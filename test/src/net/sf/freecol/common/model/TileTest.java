@@ -320,6 +320,34 @@ public class TileTest extends FreeColTestCase {
         assertEquals(6, tile3.getMaximumPotential(grain, null));
     }
 
+    public void testProductionCache() {
+        Game game = getStandardGame();
+        Tile tile1 = new Tile(game, plains, 0, 0);
+        Tile tile2 = new Tile(game, plains, 0, 1);
+        assertEquals(tile1.getProductionKey(), tile2.getProductionKey());
+        assertEquals(5, tile1.potential(grain, null));
+        assertEquals(5, tile2.potential(grain, null));
+
+        // An incomplete improvement does not change production.
+        TileImprovement plowed = new TileImprovement(game, tile1, plow);
+        tile1.setTileItemContainer(new TileItemContainer(game, tile1));
+        tile1.getTileItemContainer().addTileItem(plowed);
+        assertEquals(tile2.getProductionKey(), tile1.getProductionKey());
+        assertEquals(5, tile1.potential(grain, null));
+
+        // Completing it does, but only for the improved tile.
+        plowed.setTurnsToComplete(0);
+        assertFalse(tile2.getProductionKey().equals(tile1.getProductionKey()));
+        assertEquals(6, tile1.potential(grain, null));
+        assertEquals(5, tile2.potential(grain, null));
+        assertEquals(tile1.calculateProductionModifiers(grain, null).size(),
+                     tile1.getProductionModifiers(grain, null).size());
+
+        tile1.getTileItemContainer().removeTileItem(plowed);
+        assertEquals(tile2.getProductionKey(), tile1.getProductionKey());
+        assertEquals(5, tile1.potential(grain, null));
+    }
+
     public void testCanHaveImprovement() {
         for (TileType tileType : spec().getTileTypeList()) {
 
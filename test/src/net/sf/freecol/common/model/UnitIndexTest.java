@@ -0,0 +1,128 @@
+/**
+ *  Copyright (C) 2002-2012  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.freecol.server.model.ServerUnit;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class UnitIndexTest extends FreeColTestCase {
+
+    private static final UnitType colonistType
+        = spec().getUnitType("model.unit.freeColonist");
+    private static final UnitType galleonType
+        = spec().getUnitType("model.unit.galleon");
+
+
+    /**
+     * Collects the units near a tile the slow way.
+     */
+    private Set<Unit> unitsNear(Map map, Tile tile, int radius,
+                                Player owner) {
+        Set<Unit> result = new HashSet<Unit>();
+        for (Tile t : map.getAllTiles()) {
+            if (tile.getDistanceTo(t) > radius) continue;
+            for (Unit u : t.getUnitList()) {
+                if (owner == null || u.getOwner() == owner) result.add(u);
+            }
+        }
+        return result;
+    }
+
+    public void testQueries() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.setMap(map);
+        Player dutch = game.getPlayer("model.nation.dutch");
+        Player french = game.getPlayer("model.nation.french");
+        UnitIndex index = map.getUnitIndex();
+        assertEquals(0, index.getUnitCount());
+
+        int n = 0;
+        for (int x = 1; x < map.getWidth(); x += 3) {
+            for (int y = 1; y < map.getHeight(); y += 5) {
+                new ServerUnit(game, map.getTile(x, y),
+                               (n++ % 2 == 0) ? dutch : french, colonistType);
+            }
+        }
+        assertEquals(n, index.getUnitCount());
+
+        Tile centre = map.getTile(10, 7);
+        for (int radius = 0; radius <= 6; radius++) {
+            assertEquals("All units at radius " + radius,
+                unitsNear(map, centre, radius, null),
+                new HashSet<Unit>(index.getUnitsNear(centre, radius, null)));
+            assertEquals("Dutch units at radius " + radius,
+                unitsNear(map, centre, radius, dutch),
+                new HashSet<Unit>(index.getUnitsNear(centre, radius, dutch)));
+        }
+
+        List<Unit> region = index.getUnitsIn(0, 0, 5, 7, null);
+        for (Unit u : region) {
+            assertTrue(u.getTile().getX() < 5 && u.getTile().getY() < 7);
+        }
+        assertEquals(4, region.size());
+
+        dutch.setStance(french, Player.Stance.WAR);
+        french.setStance(dutch, Player.Stance.WAR);
+        assertEquals(unitsNear(map, centre, 4, french),
+            new HashSet<Unit>(index.getEnemiesNear(dutch, centre, 4)));
+    }
+
+    public void testUpdates() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.setMap(map);
+        Player dutch = game.getPlayer("model.nation.dutch");
+        Player french = game.getPlayer("model.nation.french");
+        UnitIndex index = map.getUnitIndex();
+        Tile tile1 = map.getTile(5, 8);
+        Tile tile2 = map.getTile(15, 12);
+
+        Unit unit = new ServerUnit(game, tile1, dutch, colonistType);
+        assertEquals(tile1, index.getTile(unit));
+        assertTrue(index.getUnitsNear(tile1, 0, dutch).contains(unit));
+
+        unit.setLocation(tile2);
+        assertEquals(tile2, index.getTile(unit));
+        assertTrue(index.getUnitsNear(tile1, 2, null).isEmpty());
+        assertTrue(index.getUnitsNear(tile2, 0, null).contains(unit));
+
+        unit.setOwner(french);
+        assertTrue(index.getUnitsNear(tile2, 0, dutch).isEmpty());
+        assertTrue(index.getUnitsNear(tile2, 0, french).contains(unit));
+
+        // Units on carriers are not on the tile.
+        Tile sea = map.getTile(2, 2);
+        sea.setType(spec().getTileType("model.tile.ocean"));
+        Unit galleon = new ServerUnit(game, sea, french, galleonType);
+        unit.setLocation(galleon);
+        assertNull(index.getTile(unit));
+        assertEquals(1, index.getUnitCount());
+        assertEquals(galleon, index.getUnitsNear(sea, 0, null).get(0));
+
+        galleon.dispose();
+        assertEquals(0, index.getUnitCount());
+    }
+}
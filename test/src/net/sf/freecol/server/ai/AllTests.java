@@ -29,6 +29,7 @@ public class AllTests {
         suite.addTestSuite(AIColonyTest.class);
         suite.addTestSuite(ContactTest.class);
         suite.addTestSuite(ColonyPlanTest.class);
+        suite.addTestSuite(InfluenceMapTest.class);
         suite.addTestSuite(MissionAssignmentTest.class);
         suite.addTestSuite(REFTest.class);
         suite.addTestSuite(StandardAIPlayerTest.class);
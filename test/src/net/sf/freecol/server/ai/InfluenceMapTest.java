@@ -0,0 +1,90 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.ai;
+
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Map.Direction;
+import net.sf.freecol.common.model.Player.Stance;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.UnitType;
+import net.sf.freecol.server.ServerTestHelper;
+import net.sf.freecol.server.model.ServerPlayer;
+import net.sf.freecol.server.model.ServerUnit;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class InfluenceMapTest extends FreeColTestCase {
+
+    private static final UnitType artilleryType
+        = spec().getUnitType("model.unit.artillery");
+
+
+    @Override
+    public void tearDown() throws Exception {
+        ServerTestHelper.stopServerGame();
+        super.tearDown();
+    }
+
+    public void testInfluence() {
+        Map map = getTestMap();
+        Game game = ServerTestHelper.startServerGame(map);
+
+        ServerPlayer dutch = (ServerPlayer) game.getPlayer("model.nation.dutch");
+        ServerPlayer french = (ServerPlayer) game.getPlayer("model.nation.french");
+        Tile home = map.getTile(5, 8);
+        Tile near = home.getNeighbourOrNull(Direction.NE);
+        Tile far = map.getTile(5, 0);
+        assertTrue(far.getDistanceTo(near) > InfluenceMap.RADIUS);
+        Unit ours = new ServerUnit(game, home, dutch, artilleryType);
+        Unit theirs = new ServerUnit(game, near, french, artilleryType);
+
+        // Our own strength spreads out, halving at each step.
+        InfluenceMap influence = new InfluenceMap(dutch);
+        float offence = influence.getUnitOffence(ours);
+        assertTrue(offence > 0.0f);
+        assertEquals(offence, influence.getOffence(home));
+        assertEquals(offence / 2, influence.getOffence(near));
+        assertEquals(0.0f, influence.getOffence(far));
+
+        // Other players are only dangerous when at war.
+        assertEquals(0.0f, influence.getDanger(home));
+        assertFalse(influence.hasEnemyNear(home));
+        dutch.setStance(french, Stance.WAR);
+        french.setStance(dutch, Stance.WAR);
+        influence = new InfluenceMap(dutch);
+        assertEquals(influence.getUnitOffence(theirs) / 2,
+                     influence.getDanger(home));
+        assertEquals(influence.getUnitDefence(theirs) / 2,
+                     influence.getOpportunity(home));
+        assertTrue(influence.hasEnemyNear(home));
+        assertFalse(influence.hasEnemyNear(far));
+
+        // Moving a unit moves its influence.
+        theirs.setLocation(far);
+        influence.updateUnit(theirs);
+        assertEquals(0.0f, influence.getDanger(home));
+        assertFalse(influence.hasEnemyNear(home));
+        assertTrue(influence.hasEnemyNear(far));
+        assertEquals(influence.getUnitOffence(theirs),
+                     influence.getDanger(far));
+    }
+}
@@ -314,4 +314,37 @@ public class MissionAssignmentTest extends FreeColTestCase {
         }
         assertFalse("Braves should not pursue naval units", seeking);
     }
+
+    public void testSettlementArea() {
+        Map map = getTestMap();
+        Game game = ServerTestHelper.startServerGame(map);
+        AIMain aiMain = ServerTestHelper.getServer().getAIMain();
+
+        ServerPlayer inca = (ServerPlayer) game.getPlayer("model.nation.inca");
+        NativeAIPlayer aiInca = (NativeAIPlayer)aiMain.getAIPlayer(inca);
+
+        Tile settlementTile = map.getTile(9, 9);
+        FreeColTestCase.IndianSettlementBuilder builder
+            = new FreeColTestCase.IndianSettlementBuilder(game);
+        IndianSettlement camp = builder.player(inca)
+            .settlementTile(settlementTile).initialBravesInCamp(1).build();
+
+        SettlementArea area = aiInca.getSettlementArea(camp);
+        assertTrue(area.isCurrent());
+        assertEquals(area, aiInca.getSettlementArea(camp));
+        assertTrue(area.getColonies(5).isEmpty());
+
+        // A colony nearby is found once the area is rebuilt on the
+        // next turn.
+        Colony colony = getStandardColony(1, 12, 9);
+        assertTrue(area.getColonies(5).isEmpty());
+        game.setTurn(game.getTurn().next());
+        area = aiInca.getSettlementArea(camp);
+        assertTrue(area.getColonies(5).contains(colony));
+        assertFalse(area.getColonies(2).contains(colony));
+
+        // Removed colonies are ignored without a rebuild.
+        colony.dispose();
+        assertFalse(area.getColonies(5).contains(colony));
+    }
 }
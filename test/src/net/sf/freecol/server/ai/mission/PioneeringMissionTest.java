@@ -129,4 +129,52 @@ public class PioneeringMissionTest extends FreeColTestCase {
         imp.setTurnsToComplete(0);
         target.getTileItemContainer().addTileItem(imp);
     }
+
+    public void testTipMapUpdate() {
+        Map map = getTestMap();
+        Game game = ServerTestHelper.startServerGame(map);
+        AIMain aiMain = ServerTestHelper.getServer().getAIMain();
+
+        ServerPlayer player = (ServerPlayer) game.getPlayer("model.nation.dutch");
+        EuropeanAIPlayer aiPlayer = (EuropeanAIPlayer) aiMain.getAIPlayer(player);
+        Colony colony = getStandardColony();
+        AIColony aiColony = aiMain.getAIColony(colony);
+        Unit colonist = new ServerUnit(game, colony.getTile(), player,
+            colonistType);
+        AIUnit aiUnit = aiMain.getAIUnit(colonist);
+        aiUnit.abortMission("Test");
+
+        aiColony.createTileImprovementPlans();
+        List<TileImprovementPlan> plans = aiColony.getTileImprovementPlans();
+        assertFalse("There should be valid improvements", plans.isEmpty());
+        aiPlayer.updateTipMap();
+        TileImprovementPlan tip = plans.get(0);
+        Tile target = tip.getTarget();
+        assertEquals("New colony plans should be mapped", tip,
+            aiPlayer.getBestPlan(target));
+
+        // Assigning a pioneer withdraws the plan, releasing it
+        // restores it.
+        tip.setPioneer(aiUnit);
+        aiPlayer.updateTipMap();
+        assertNull("Plan with a pioneer should not be mapped",
+            aiPlayer.getBestPlan(target));
+        tip.setPioneer(null);
+        aiPlayer.updateTipMap();
+        assertEquals("Released plan should be mapped", tip,
+            aiPlayer.getBestPlan(target));
+
+        // Completing the improvement makes the plan obsolete once the
+        // colony is told to rearrange.
+        target.setTileItemContainer(new TileItemContainer(game, target));
+        TileImprovement imp = new TileImprovement(game, target, tip.getType());
+        imp.setTurnsToComplete(0);
+        target.getTileItemContainer().addTileItem(imp);
+        colony.firePropertyChange(Colony.REARRANGE_WORKERS, true, false);
+        aiPlayer.updateTipMap();
+        assertNull("Obsolete plan should be removed",
+            aiPlayer.getBestPlan(target));
+        assertFalse("Obsolete plan should be dropped by the colony",
+            aiColony.getTileImprovementPlans().contains(tip));
+    }
 }
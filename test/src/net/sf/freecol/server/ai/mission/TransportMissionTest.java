@@ -19,6 +19,9 @@
 
 package net.sf.freecol.server.ai.mission;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.sf.freecol.common.model.Ability;
 import net.sf.freecol.common.model.Colony;
 import net.sf.freecol.common.model.CombatModel.CombatResult;
@@ -36,6 +39,8 @@ import net.sf.freecol.server.ai.AIGoods;
 import net.sf.freecol.server.ai.AIMain;
 import net.sf.freecol.server.ai.AIPlayer;
 import net.sf.freecol.server.ai.AIUnit;
+import net.sf.freecol.server.ai.EuropeanAIPlayer;
+import net.sf.freecol.server.ai.TransportScheduler;
 import net.sf.freecol.server.ai.Transportable;
 import net.sf.freecol.server.ai.mission.TransportMission.Destination;
 import net.sf.freecol.server.control.InGameController;
@@ -306,4 +311,56 @@ public class TransportMissionTest extends FreeColTestCase {
 
     }
 
+    public void testTransportScheduler() {
+        Map map = getCoastTestMap(plainsType);
+        Game game = ServerTestHelper.startServerGame(map);
+        AIMain aiMain = ServerTestHelper.getServer().getAIMain();
+        assertNotNull(aiMain);
+
+        ServerPlayer dutch = (ServerPlayer) game.getPlayer("model.nation.dutch");
+        EuropeanAIPlayer aiPlayer
+            = (EuropeanAIPlayer)aiMain.getAIPlayer(dutch);
+        TransportScheduler scheduler = aiPlayer.getTransportScheduler();
+
+        Colony colony = getStandardColony(1, 9, 2);
+        Unit near = new ServerUnit(game, map.getTile(10, 2), dutch,
+                                   galleonType);
+        Unit far = new ServerUnit(game, map.getTile(18, 14), dutch,
+                                  galleonType);
+        TransportMission nearMission
+            = new TransportMission(aiMain, aiMain.getAIUnit(near));
+        TransportMission farMission
+            = new TransportMission(aiMain, aiMain.getAIUnit(far));
+        List<TransportMission> missions = new ArrayList<TransportMission>();
+        missions.add(farMission);
+        missions.add(nearMission);
+
+        // The travel times match the paths and are only searched once.
+        PathNode path = far.findPath(far.getTile(), colony.getTile(),
+                                     null, null);
+        assertNotNull(path);
+        assertEquals(path.getTotalTurns(),
+            scheduler.getTurns(far, far.getTile(), colony));
+        int size = scheduler.size();
+        assertEquals(path.getTotalTurns(),
+            scheduler.getTurns(far, far.getTile(), colony));
+        assertEquals(size, scheduler.size());
+        assertEquals(0, scheduler.getTurns(near, colony, colony));
+
+        // The nearest carrier collects the goods.
+        AIGoods goods = new AIGoods(aiMain, colony, horsesType, 50,
+                                    dutch.getEurope());
+        assertEquals(nearMission, scheduler.selectTransport(goods, missions));
+
+        // Otherwise the remaining carrier is used.
+        missions.remove(nearMission);
+        assertEquals(farMission, scheduler.selectTransport(goods, missions));
+
+        // Starting in Europe adds the sail time to the entry location.
+        far.setEntryLocation(far.getTile());
+        path = far.findPath(far.getTile(), colony.getTile(), null, null);
+        assertNotNull(path);
+        assertEquals(path.getTotalTurns() + far.getSailTurns(),
+            scheduler.getTurns(far, dutch.getEurope(), colony));
+    }
 }
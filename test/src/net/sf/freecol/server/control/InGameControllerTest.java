@@ -39,6 +39,7 @@ import net.sf.freecol.common.model.Goods;
 import net.sf.freecol.common.model.GoodsType;
 import net.sf.freecol.common.model.IndianSettlement;
 import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Map.Direction;
 import net.sf.freecol.common.model.Modifier;
 import net.sf.freecol.common.model.Player;
 import net.sf.freecol.common.model.Player.PlayerType;
@@ -52,6 +53,7 @@ import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.TileImprovementType;
 import net.sf.freecol.common.model.TileType;
 import net.sf.freecol.common.model.TypeCountMap;
+import net.sf.freecol.common.model.TradeRoute;
 import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.common.model.UnitTypeChange;
@@ -2091,4 +2093,105 @@ public class InGameControllerTest extends FreeColTestCase {
         igc.work(dutch, gardener, loc);
         assertEquals(farmerType, gardener.getType());
     }
+
+    public void testFollowTradeRoute() {
+        Map map = getTestMap();
+        Game game = ServerTestHelper.startServerGame(map);
+        InGameController igc = ServerTestHelper.getInGameController();
+
+        ServerPlayer dutch = (ServerPlayer) game.getPlayer("model.nation.dutch");
+        game.setCurrentPlayer(dutch);
+        dutch.setNewLandName("New Holland");
+        Colony source = getStandardColony(1, 3, 8);
+        Colony sink = getStandardColony(1, 9, 8);
+        // Keep the default export level of 50 in the source.
+        source.addGoods(cottonType, 100);
+
+        TradeRoute route = new TradeRoute(game, "cotton", dutch);
+        TradeRoute.Stop stop = route.new Stop(source);
+        stop.addCargo(cottonType);
+        route.addStop(stop);
+        route.addStop(route.new Stop(sink));
+        Unit wagon = new ServerUnit(game, source.getTile(), dutch,
+                                    wagonTrainType);
+        int distance = wagon.getTile().getDistanceTo(sink.getTile());
+
+        // Assigning the route loads the cotton and sets off at once.
+        igc.assignTradeRoute(dutch, wagon, route);
+        assertEquals(route, wagon.getTradeRoute());
+        assertEquals(50, wagon.getGoodsCount(cottonType));
+        assertEquals(50, source.getGoodsCount(cottonType));
+        assertEquals(1, wagon.getCurrentStop());
+        assertTrue("Wagon should be on its way",
+            wagon.getTile().getDistanceTo(sink.getTile()) < distance);
+        assertEquals(0, wagon.getMovesLeft());
+
+        // At the sink, the cotton is unloaded and the wagon heads
+        // back to the source.
+        wagon.setLocation(sink.getTile());
+        wagon.setMovesLeft(wagon.getInitialMovesLeft());
+        igc.assignTradeRoute(dutch, wagon, route);
+        assertEquals(0, wagon.getGoodsCount(cottonType));
+        assertEquals(50, sink.getGoodsCount(cottonType));
+        assertEquals(0, wagon.getCurrentStop());
+        assertFalse(sink.getTile() == wagon.getTile());
+
+        // With nothing to unload and nothing to export, the wagon waits.
+        source.removeGoods(cottonType);
+        wagon.setLocation(source.getTile());
+        wagon.setMovesLeft(wagon.getInitialMovesLeft());
+        igc.assignTradeRoute(dutch, wagon, route);
+        assertEquals(source.getTile(), wagon.getTile());
+        assertEquals(Unit.UnitState.SKIPPED, wagon.getState());
+    }
+
+    public void testExecutePath() {
+        Map map = getTestMap();
+        Game game = ServerTestHelper.startServerGame(map);
+        InGameController igc = ServerTestHelper.getInGameController();
+
+        ServerPlayer dutch = (ServerPlayer) game.getPlayer("model.nation.dutch");
+        ServerPlayer french = (ServerPlayer) game.getPlayer("model.nation.french");
+        game.setCurrentPlayer(dutch);
+        dutch.setNewLandName("New Holland");
+        Tile start = map.getTile(2, 5);
+        List<Tile> tiles = new ArrayList<Tile>();
+        Tile tile = start;
+        for (int i = 0; i < 6; i++) {
+            tile = tile.getNeighbourOrNull(Direction.E);
+            tiles.add(tile);
+        }
+        Unit colonist = new ServerUnit(game, start, dutch, colonistType);
+
+        // The unit moves as far as its moves allow.
+        colonist.setMovesLeft(4 * colonist.getInitialMovesLeft());
+        igc.executePath(dutch, colonist, tiles);
+        assertEquals(tiles.get(3), colonist.getTile());
+        assertEquals(0, colonist.getMovesLeft());
+
+        // An enemy coming into view interrupts the path.
+        Tile enemyTile = null;
+        for (Tile t : tiles.get(1).getSurroundingTiles(1)) {
+            if (!tiles.contains(t)
+                && t.getDistanceTo(tiles.get(0)) > colonist.getLineOfSight()) {
+                enemyTile = t;
+                break;
+            }
+        }
+        assertNotNull(enemyTile);
+        dutch.setStance(french, Stance.WAR);
+        french.setStance(dutch, Stance.WAR);
+        new ServerUnit(game, enemyTile, french, veteranType);
+        colonist.setLocation(start);
+        colonist.setMovesLeft(4 * colonist.getInitialMovesLeft());
+        igc.executePath(dutch, colonist, tiles);
+        assertEquals(tiles.get(1), colonist.getTile());
+        assertEquals(2 * colonist.getInitialMovesLeft(),
+                     colonist.getMovesLeft());
+
+        // Once it is in view, the enemy no longer interrupts.
+        igc.executePath(dutch, colonist, tiles.subList(2, tiles.size()));
+        assertEquals(tiles.get(3), colonist.getTile());
+        assertEquals(0, colonist.getMovesLeft());
+    }
 }
@@ -0,0 +1,88 @@
+/**
+ *  Copyright (C) 2002-2012   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Specification;
+import net.sf.freecol.common.option.FileOption;
+import net.sf.freecol.common.option.MapGeneratorOptions;
+import net.sf.freecol.common.option.OptionGroup;
+import net.sf.freecol.server.model.ServerGame;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+/**
+ * Times the map generator across a range of map sizes.
+ *
+ * Not part of the test suite, run it with
+ * <code>ant -lib test/lib/junit.jar benchmark
+ * -Dbenchmark=server.generator.MapGeneratorBenchmark</code>.
+ */
+public class MapGeneratorBenchmark {
+
+    /** The map sizes to try, as width and height pairs. */
+    private static final int[][] SIZES = {
+        { 40, 100 }, { 80, 160 }, { 120, 200 }, { 200, 200 }, { 400, 200 }
+    };
+
+    /** The number of timed runs for each size. */
+    private static final int RUNS = 10;
+
+
+    /**
+     * Generates a map with the current map generator options.
+     *
+     * @param spec The <code>Specification</code> to use.
+     * @param seed The seed for the map generator.
+     * @return The time taken in milliseconds.
+     */
+    private static long generate(Specification spec, long seed)
+        throws Exception {
+        Game game = new ServerGame(spec);
+        MapGenerator gen = new SimpleMapGenerator(new Random(seed), spec);
+        long start = System.nanoTime();
+        gen.createMap(game);
+        return (System.nanoTime() - start) / 1000000L;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Specification spec = FreeColTestCase.spec();
+        ((FileOption) spec.getOption(MapGeneratorOptions.IMPORT_FILE))
+            .setValue(null);
+        OptionGroup options = spec.getOptionGroup("mapGeneratorOptions");
+        System.out.println("Threads: "
+            + Runtime.getRuntime().availableProcessors());
+        for (int[] size : SIZES) {
+            options.setInteger("model.option.mapWidth", size[0]);
+            options.setInteger("model.option.mapHeight", size[1]);
+            generate(spec, 0); // Warm up
+            long[] times = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) times[i] = generate(spec, i + 1);
+            Arrays.sort(times);
+            System.out.println(size[0] + "x" + size[1]
+                + ": median " + times[RUNS / 2] + "ms"
+                + ", min " + times[0] + "ms"
+                + ", max " + times[RUNS - 1] + "ms");
+        }
+    }
+}
@@ -34,7 +34,9 @@ import net.sf.freecol.common.model.NationOptions;
 import net.sf.freecol.common.model.NationOptions.Advantages;
 import net.sf.freecol.common.model.Player;
 import net.sf.freecol.common.model.Region;
+import net.sf.freecol.common.model.Resource;
 import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.TileGrid;
 import net.sf.freecol.common.model.Turn;
 import net.sf.freecol.common.option.FileOption;
 import net.sf.freecol.common.option.MapGeneratorOptions;
@@ -278,5 +280,70 @@ public class MapGeneratorTest extends FreeColTestCase {
         assertFalse(northAtlantic.isPacific());
         assertFalse(northAtlantic.isDiscoverable());
         assertNull(northAtlantic.getDiscoverableRegion());
-    }        
+    }
+
+    public void testSameSeedSameMap() {
+        ((FileOption) spec().getOption(MapGeneratorOptions.IMPORT_FILE)).setValue(null);
+
+        Map[] maps = new Map[2];
+        for (int i = 0; i < maps.length; i++) {
+            Game game = new ServerGame(spec());
+            MapGenerator gen = new SimpleMapGenerator(new Random(1), spec());
+            try {
+                gen.createMap(game);
+            } catch (FreeColException e) {
+                fail();
+            }
+            maps[i] = game.getMap();
+        }
+
+        // The rows are generated in parallel, but the result must
+        // only depend on the seed.
+        for (Tile tile : maps[0].getAllTiles()) {
+            Tile other = maps[1].getTile(tile.getX(), tile.getY());
+            assertEquals(tile.getId(), other.getId());
+            assertEquals(tile.getType(), other.getType());
+            assertEquals(tile.getStyle(), other.getStyle());
+            assertEquals(tile.getHighSeasCount(), other.getHighSeasCount());
+            assertEquals(tile.hasResource(), other.hasResource());
+            if (tile.hasResource()) {
+                Resource r = tile.getTileItemContainer().getResource();
+                Resource o = other.getTileItemContainer().getResource();
+                assertEquals(r.getType(), o.getType());
+                assertEquals(r.getQuantity(), o.getQuantity());
+            }
+        }
+    }
+
+    public void testGeneratedMapGrid() {
+        ((FileOption) spec().getOption(MapGeneratorOptions.IMPORT_FILE)).setValue(null);
+
+        Game game = new ServerGame(spec());
+        MapGenerator gen = new SimpleMapGenerator(new Random(1), spec());
+        try {
+            gen.createMap(game);
+        } catch (FreeColException e) {
+            fail();
+        }
+        Map map = game.getMap();
+        map.resetContiguity();
+        map.resetHighSeasCount();
+
+        // Every generated tile must be attached to the grid, so that
+        // the whole-map fills reach it.
+        TileGrid grid = map.getGrid();
+        int highSeas = 0;
+        for (Tile tile : map.getAllTiles()) {
+            int i = grid.index(tile.getX(), tile.getY());
+            assertTrue("Tile on grid: " + tile, grid.isPresent(i));
+            assertTrue("Contiguity set: " + tile, tile.getContiguity() >= 0);
+            if (tile.isLand() || tile.getHighSeasCount() < 0) continue;
+            highSeas++;
+            for (Tile t : tile.getSurroundingTiles(1)) {
+                assertTrue("High seas count spread to " + t,
+                           t.getHighSeasCount() >= 0);
+            }
+        }
+        assertTrue("High seas counted", highSeas > 0);
+    }
 }
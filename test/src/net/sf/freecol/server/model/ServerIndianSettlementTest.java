@@ -19,6 +19,9 @@
 
 package net.sf.freecol.server.model;
 
+import java.util.Random;
+
+import net.sf.freecol.common.model.EquipmentType;
 import net.sf.freecol.common.model.Game;
 import net.sf.freecol.common.model.GoodsType;
 import net.sf.freecol.common.model.IndianSettlement;
@@ -26,8 +29,11 @@ import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Map.Direction;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.TileType;
+import net.sf.freecol.common.model.Turn;
+import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.server.ServerTestHelper;
+import net.sf.freecol.server.control.ChangeSet;
 import net.sf.freecol.util.test.FreeColTestCase;
 
 
@@ -37,17 +43,24 @@ public class ServerIndianSettlementTest extends FreeColTestCase {
         = spec().getGoodsType("model.goods.cloth");
     private static final GoodsType coatsType
         = spec().getGoodsType("model.goods.coats");
+    private static final GoodsType cottonType
+        = spec().getGoodsType("model.goods.cotton");
     private static final GoodsType foodType
         = spec().getPrimaryFoodType();
     private static final GoodsType grainType
         = spec().getGoodsType("model.goods.grain");
     private static final GoodsType horsesType
         = spec().getGoodsType("model.goods.horses");
+    private static final GoodsType musketsType
+        = spec().getGoodsType("model.goods.muskets");
     private static final GoodsType rumType
         = spec().getGoodsType("model.goods.rum");
     private static final GoodsType toolsType
         = spec().getGoodsType("model.goods.tools");
 
+    private static final EquipmentType indianMuskets
+        = spec().getEquipmentType("model.equipment.indian.muskets");
+
     private static final TileType desertType
         = spec().getTileType("model.tile.desert");
     private static final TileType plainsType
@@ -242,4 +255,81 @@ public class ServerIndianSettlementTest extends FreeColTestCase {
         int p0 = camp.getPriceToBuy(toolsType, 50);
         assertTrue("Wanted 0: (" + p0 + " > " + p1 + ")",  p0 > p1);
     }
+
+    public void testEconomy() {
+        Game game = ServerTestHelper.startServerGame(getTestMap(plainsType));
+
+        FreeColTestCase.IndianSettlementBuilder builder
+            = new FreeColTestCase.IndianSettlementBuilder(game);
+        IndianSettlement camp = builder.build();
+        int production = camp.getMaximumProduction(cottonType);
+        assertTrue("Cotton grows on plains", production > 0);
+
+        // Production follows changes to the tiles around the settlement...
+        for (Tile t : camp.getTile().getSurroundingTiles(camp.getRadius())) {
+            t.setType(desertType);
+        }
+        int desertProduction = camp.getMaximumProduction(cottonType);
+        assertTrue("Less cotton on desert", desertProduction < production);
+        for (Tile t : camp.getTile().getSurroundingTiles(camp.getRadius())) {
+            t.setType(plainsType);
+        }
+        assertEquals(production, camp.getMaximumProduction(cottonType));
+
+        // ...and to their ownership by other settlements...
+        Tile tile = camp.getTile().getNeighbourOrNull(Direction.N);
+        tile.changeOwningSettlement(null);
+        assertEquals(production, camp.getMaximumProduction(cottonType));
+        IndianSettlement other = builder.reset()
+            .settlementTile(game.getMap().getTile(15, 3)).build();
+        tile.setOwningSettlement(other);
+        assertTrue("Less cotton without the tile",
+                   camp.getMaximumProduction(cottonType) < production);
+        tile.changeOwningSettlement(camp);
+        assertEquals(production, camp.getMaximumProduction(cottonType));
+
+        // ...and the military goods wanted follow the equipment of
+        // the braves.
+        camp.setWantedGoods(0, null);
+        camp.setWantedGoods(1, null);
+        camp.setWantedGoods(2, null);
+        int price = camp.getPriceToBuy(musketsType, 100);
+        for (Unit u : camp.getOwnedUnits()) {
+            u.changeEquipment(indianMuskets, 1);
+        }
+        assertFalse("Armed braves change the musket price",
+                    price == camp.getPriceToBuy(musketsType, 100));
+
+        // The profile is also dropped when the turn changes.
+        game.setTurn(new Turn(game.getTurn().getNumber() + 1));
+        assertEquals(production, camp.getMaximumProduction(cottonType));
+    }
+
+    public void testPreparedNewTurn() {
+        Game game = ServerTestHelper.startServerGame(getTestMap(plainsType));
+
+        FreeColTestCase.IndianSettlementBuilder builder
+            = new FreeColTestCase.IndianSettlementBuilder(game);
+        ServerIndianSettlement camp
+            = (ServerIndianSettlement) builder.build();
+        int production = camp.getTotalProductionOf(cottonType);
+        assertTrue("Cotton grows on plains", production > 0);
+        assertEquals(0, camp.getGoodsCount(cottonType));
+
+        // The new turn applies the production prepared for it...
+        camp.prepareNewTurn();
+        for (Tile t : camp.getTile().getSurroundingTiles(camp.getRadius())) {
+            t.setType(desertType);
+        }
+        camp.getTile().setType(desertType);
+        int desertProduction = camp.getTotalProductionOf(cottonType);
+        assertTrue("Less cotton on desert", desertProduction < production);
+        camp.csNewTurn(new Random(1), new ChangeSet());
+        assertEquals(production, camp.getGoodsCount(cottonType));
+
+        // ...but only once.
+        camp.csNewTurn(new Random(1), new ChangeSet());
+        assertEquals(production + desertProduction,
+                     camp.getGoodsCount(cottonType));
+    }
 }